@@ -0,0 +1,84 @@
+package logic;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Build of the model with Cplex, like {@link ModelBuildBenchmark}: The
+ * variables and rows are created through the Concert API. Only part of
+ * the profile cplex, run with -Djava.library.path pointing to the native
+ * library of Cplex.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CplexModelBuildBenchmark {
+
+	/**
+	 * Number of users n.
+	 */
+	@Param({ "10", "30", "60" })
+	public int users;
+	/**
+	 * Number of vehicles |K|.
+	 */
+	@Param({ "2", "4", "8" })
+	public int vehicles;
+	/**
+	 * The formulation that is built.
+	 */
+	@Param({ "THREE_INDEX", "TWO_INDEX" })
+	public Formulation formulation;
+	/**
+	 * True if the variables get names, as needed for the export.
+	 */
+	@Param({ "false", "true" })
+	public boolean named;
+
+	/**
+	 * The instance.
+	 */
+	private Instance instance;
+	/**
+	 * The settings of the build.
+	 */
+	private SolverOptions options;
+
+	/**
+	 * Create the instance and the options.
+	 */
+	@Setup
+	public void setUp() {
+		instance = BenchmarkInstances.create(users, vehicles, 1);
+		options = new SolverOptions();
+		options.setBackend(Backend.CPLEX);
+		options.setVerbose(false);
+		options.setFormulation(formulation);
+		options.setNamedModel(named);
+	}
+
+	/**
+	 * Build the model.
+	 * @return The rows and columns of the model.
+	 */
+	@Benchmark
+	public SolverMetrics build() {
+		return new model(instance, options).build();
+	}
+
+}
@@ -0,0 +1,90 @@
+package logic;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Random instances of the benchmarks in the file format of Cordeau
+ * (2006): The locations are uniformly distributed in [-10, 10]^2, every
+ * user has one seat and a pick-up or drop-off window of 15 minutes within
+ * a day of 480 minutes, like the a-instances of the benchmark set. The
+ * same seed gives the same instance, so all runs measure the same input.
+ *
+ */
+public class BenchmarkInstances {
+
+	/**
+	 * Length of the day, maximum route duration and latest depot time.
+	 */
+	private static final int HORIZON = 480;
+	/**
+	 * Capacity of every vehicle.
+	 */
+	private static final int CAPACITY = 3;
+	/**
+	 * Maximum ride time L of a user.
+	 */
+	private static final int MAX_RIDE_TIME = 30;
+
+	/**
+	 * Create the content of an instance file.
+	 * @param users Number of users n.
+	 * @param vehicles Number of vehicles.
+	 * @param seed Seed of the random locations and time windows.
+	 * @return The instance in the format of Cordeau.
+	 */
+	public static String text(int users, int vehicles, long seed) {
+		Random random = new Random(seed);
+		StringBuilder text = new StringBuilder();
+		text.append(vehicles).append(' ').append(users).append(' ').append(HORIZON).append(' ').append(CAPACITY)
+				.append(' ').append(MAX_RIDE_TIME).append('\n');
+		double[] windows = new double[users + 1];
+		for (int i = 0; i <= 2 * users + 1; i++) {
+			double x = random.nextDouble() * 20 - 10;
+			double y = random.nextDouble() * 20 - 10;
+			int serviceDuration = 3;
+			int load;
+			double earliest;
+			double latest;
+			if (i == 0 || i == 2 * users + 1) {
+				serviceDuration = 0;
+				load = 0;
+				earliest = 0;
+				latest = HORIZON;
+			} else if (i <= users) {
+				load = 1;
+				// Half of the users have a window at the pick-up, the other
+				// half at the drop-off.
+				windows[i] = 60 + random.nextInt(HORIZON - 120);
+				earliest = i % 2 == 0 ? windows[i] : 0;
+				latest = i % 2 == 0 ? windows[i] + 15 : HORIZON;
+			} else {
+				load = -1;
+				int user = i - users;
+				earliest = user % 2 == 1 ? windows[user] : 0;
+				latest = user % 2 == 1 ? windows[user] + 15 : HORIZON;
+			}
+			text.append(String.format(Locale.ROOT, "%d %.3f %.3f %d %d %.0f %.0f%n", i, x, y, serviceDuration, load,
+					earliest, latest));
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Create an instance.
+	 * @param users Number of users n.
+	 * @param vehicles Number of vehicles.
+	 * @param seed Seed of the random locations and time windows.
+	 * @return The instance.
+	 */
+	public static Instance create(int users, int vehicles, long seed) {
+		try {
+			return InstanceLoader.read("random-" + users + "-" + vehicles, new StringReader(text(users, vehicles, seed)));
+		} catch (IOException e) {
+			throw new IllegalStateException("The generated instance can not be read", e);
+		}
+	}
+
+}
@@ -0,0 +1,89 @@
+package logic;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reading an instance: Parsing the text format of Cordeau with
+ * {@link InstanceLoader} compared to the binary cache file of
+ * {@link BinaryFormat}.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstanceParsingBenchmark {
+
+	/**
+	 * Number of users n.
+	 */
+	@Param({ "16", "48", "96", "192" })
+	public int users;
+
+	/**
+	 * The content of the instance file.
+	 */
+	private String text;
+	/**
+	 * The instance as binary file.
+	 */
+	private File binary;
+
+	/**
+	 * Create the instance as text and as binary file.
+	 * @throws IOException If the binary file can not be written.
+	 */
+	@Setup
+	public void setUp() throws IOException {
+		text = BenchmarkInstances.text(users, 4, 1);
+		binary = File.createTempFile("instance", ".dins");
+		BinaryFormat.writeInstance(InstanceLoader.read("text", new StringReader(text)), binary.getPath());
+	}
+
+	/**
+	 * Delete the binary file.
+	 */
+	@TearDown
+	public void tearDown() {
+		binary.delete();
+	}
+
+	/**
+	 * Parse the text format.
+	 * @return The instance.
+	 * @throws IOException Never, the text is valid.
+	 */
+	@Benchmark
+	public Instance parseText() throws IOException {
+		return InstanceLoader.read("text", new StringReader(text));
+	}
+
+	/**
+	 * Read the binary file.
+	 * @return The instance.
+	 * @throws IOException If the file can not be read.
+	 */
+	@Benchmark
+	public Instance readBinary() throws IOException {
+		return BinaryFormat.readInstance(binary.getPath());
+	}
+
+}
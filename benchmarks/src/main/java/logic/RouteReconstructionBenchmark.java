@@ -0,0 +1,127 @@
+package logic;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reconstruction of the routes from the values of x, B, Q and L by the
+ * {@link SolutionExtractor}, as it runs for every incumbent. The users are
+ * distributed round-robin over the vehicles, every vehicle picks up and
+ * drops off one user after the other.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteReconstructionBenchmark {
+
+	/**
+	 * Number of users n.
+	 */
+	@Param({ "16", "48", "96" })
+	public int users;
+	/**
+	 * Number of vehicles |K|.
+	 */
+	@Param({ "2", "4", "8" })
+	public int vehicles;
+
+	/**
+	 * The extractor of the complete graph.
+	 */
+	private SolutionExtractor extractor;
+	/**
+	 * Values of the arc variables.
+	 */
+	private double[] xValues;
+	/**
+	 * Values of the service starts.
+	 */
+	private double[] bValues;
+	/**
+	 * Values of the loads.
+	 */
+	private double[] qValues;
+	/**
+	 * Values of the ride times.
+	 */
+	private double[] lValues;
+
+	/**
+	 * Create the graph, the variables and the values of the routes.
+	 */
+	@Setup
+	public void setUp() {
+		int size = 2 * users + 2;
+		boolean[][] feasible = new boolean[size][size];
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				feasible[i][j] = i != j && j != 0 && i != size - 1;
+			}
+		}
+		ArcGraph graph = new ArcGraph(feasible);
+		int[][] x = columns(graph.getArcCount());
+		int[][] B = columns(size);
+		int[][] Q = columns(size);
+		int[][] L = columns(size);
+		extractor = new SolutionExtractor(graph, users, x, B, Q, L);
+
+		xValues = new double[extractor.getArcVariables().length];
+		bValues = new double[extractor.getStartVariables().length];
+		qValues = new double[extractor.getLoadVariables().length];
+		lValues = new double[extractor.getRideTimeVariables().length];
+		for (int k = 0; k < vehicles; k++) {
+			int previous = 0;
+			double time = 0;
+			for (int user = k + 1; user <= users; user += vehicles) {
+				xValues[graph.findArc(previous, user) * vehicles + k] = 1;
+				xValues[graph.findArc(user, users + user) * vehicles + k] = 1;
+				bValues[user * vehicles + k] = time + 5;
+				bValues[(users + user) * vehicles + k] = time + 15;
+				qValues[user * vehicles + k] = 1;
+				lValues[(user - 1) * vehicles + k] = 7;
+				previous = users + user;
+				time += 20;
+			}
+			xValues[graph.findArc(previous, size - 1) * vehicles + k] = 1;
+			bValues[(size - 1) * vehicles + k] = time;
+		}
+	}
+
+	/**
+	 * Number the variables of every row and vehicle like the model does.
+	 */
+	private int[][] columns(int rows) {
+		int[][] columns = new int[rows][vehicles];
+		for (int row = 0; row < rows; row++) {
+			for (int k = 0; k < vehicles; k++) {
+				columns[row][k] = row * vehicles + k;
+			}
+		}
+		return columns;
+	}
+
+	/**
+	 * Build the routes.
+	 * @return The solution.
+	 */
+	@Benchmark
+	public Solution build() {
+		return extractor.build(0, xValues, bValues, qValues, lValues);
+	}
+
+}
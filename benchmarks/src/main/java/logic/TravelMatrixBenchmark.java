@@ -0,0 +1,69 @@
+package logic;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Computation of the distance matrix c (which is also the travel time t)
+ * of all 2n+2 nodes: The square roots of the Euclidean metric and the
+ * storage formats of {@link TravelMatrix}.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TravelMatrixBenchmark {
+
+	/**
+	 * Number of users n.
+	 */
+	@Param({ "16", "48", "96", "192" })
+	public int users;
+	/**
+	 * The metric of the distances.
+	 */
+	@Param({ "EUCLIDEAN", "MANHATTAN" })
+	public TravelMetric metric;
+	/**
+	 * The storage of the matrix.
+	 */
+	@Param({ "DOUBLE", "FLOAT", "SCALED_INT" })
+	public MatrixStorage storage;
+
+	/**
+	 * The nodes of the instance.
+	 */
+	private Node[] nodes;
+
+	/**
+	 * Create the instance.
+	 */
+	@Setup
+	public void setUp() {
+		nodes = BenchmarkInstances.create(users, 1, 1).createNodes();
+	}
+
+	/**
+	 * Compute all distances.
+	 * @return The matrix.
+	 */
+	@Benchmark
+	public TravelMatrix compute() {
+		return TravelMatrix.compute(metric, nodes, storage);
+	}
+
+}
@@ -0,0 +1,758 @@
+package logic;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Adaptive large neighborhood search (ALNS) with a MIP repair for instances
+ * that are too large for the exact {@link model}.</br>
+ * The search starts from the routes of the insertion heuristic and the
+ * local search. Every iteration removes some users with a
+ * {@link DestroyOperator} and repairs the routes with the model restricted
+ * to a neighborhood: The arcs between consecutive kept nodes, the arcs
+ * between the removed nodes and the arcs from and to the nearest kept
+ * nodes of every removed node (see {@link model#setCandidateArcs(boolean[][])}).
+ * The repair is solved under a short time limit and starts from the
+ * cheapest reinsertion of the removed users.</br>
+ * New routes are accepted by simulated annealing, the temperature falls
+ * linearly to 0 at the end of the time budget. The operators are chosen by
+ * roulette wheel, their weights adapt every {@link #SEGMENT} iterations to
+ * the scores of the routes they produced. Instances with at most
+ * {@link #setExactUsers(int) exactUsers} users are solved by the full model
+ * within the time budget instead.
+ *
+ */
+public class AlnsSolver {
+
+	/**
+	 * Number of iterations between two updates of the operator weights.
+	 */
+	private static final int SEGMENT = 10;
+	/**
+	 * Share of the scores of the last segment in the new weights.
+	 */
+	private static final double REACTION = 0.2;
+	/**
+	 * Score of an operator that found a new best solution.
+	 */
+	private static final double SCORE_BEST = 33;
+	/**
+	 * Score of an operator that improved the current solution.
+	 */
+	private static final double SCORE_BETTER = 9;
+	/**
+	 * Score of an operator whose worse solution was accepted.
+	 */
+	private static final double SCORE_ACCEPTED = 13;
+	/**
+	 * At the start, a solution this much (relative) worse than the current
+	 * one is accepted with probability 0.5.
+	 */
+	private static final double START_WORSENING = 0.05;
+	/**
+	 * Exponent of the random rank in the related removal, larger values
+	 * remove the most related users more often.
+	 */
+	private static final double RELATED_DETERMINISM = 6;
+	/**
+	 * Exponent of the random rank in the worst removal.
+	 */
+	private static final double WORST_DETERMINISM = 3;
+	/**
+	 * Minimal improvement of the routing cost.
+	 */
+	private static final double EPSILON = 1e-6;
+
+	/**
+	 * The instance that is solved.
+	 */
+	private final Instance instance;
+	/**
+	 * The settings of the repairs and of the exact solve.
+	 */
+	private final SolverOptions options;
+	/**
+	 * Wall-clock budget of the search in seconds.
+	 */
+	private double timeBudget = 60;
+	/**
+	 * Time limit of one repair in seconds.
+	 */
+	private double repairTimeLimit = 5;
+	/**
+	 * Instances with at most this many users are solved by the full model.
+	 */
+	private int exactUsers = 50;
+	/**
+	 * Minimal number of users removed in an iteration.
+	 */
+	private int minRemoved = 2;
+	/**
+	 * Maximal number of users removed in an iteration.
+	 */
+	private int maxRemoved = 12;
+	/**
+	 * Number of nearest kept nodes a removed node may be connected to.
+	 */
+	private int neighbors = 10;
+	/**
+	 * Random decisions of the destroy operators and the acceptance.
+	 */
+	private Random random = new Random(0);
+
+	/**
+	 * Array containing all nodes.
+	 */
+	private Node[] N;
+	/**
+	 * Array containing all vehicles.
+	 */
+	private Truck[] K;
+	/**
+	 * Number of users (number of pick-up locations).
+	 */
+	private int n;
+	/**
+	 * Distance and travel time between node i and node j.
+	 */
+	private TravelMatrix c;
+	/**
+	 * Insertion, removal and feasibility checks of routes.
+	 */
+	private InsertionHeuristic heuristic;
+	/**
+	 * Number of branch-and-bound nodes of all repairs.
+	 */
+	private long nodes;
+	/**
+	 * Number of cuts of all repairs per {@link CutType}.
+	 */
+	private long[] cuts;
+	/**
+	 * Time the best routes were last written to the checkpoint file, see
+	 * {@link System#nanoTime()}.
+	 */
+	private long lastCheckpoint;
+
+	/**
+	 * Constructor for a new search.
+	 * @param instance The instance that is solved.
+	 * @param options The settings of the repairs and of the exact solve.
+	 */
+	public AlnsSolver(Instance instance, SolverOptions options) {
+		super();
+		this.instance = instance;
+		this.options = options;
+	}
+
+	/**
+	 * Search for the best routes within the time budget, or solve the full
+	 * model if the instance is small enough.
+	 * @return The result with the best solution found, status Feasible.
+	 */
+	public SolverResult solve() {
+		long begin = System.nanoTime();
+		if (instance.getUsers() <= exactUsers) {
+			return solveExact();
+		}
+		SolverMetrics metrics = new SolverMetrics(instance.getName());
+		metrics.startPhase("distances");
+		N = instance.createNodes();
+		K = instance.createTrucks();
+		n = instance.getUsers();
+		try {
+			if (options.getTravelMatrixFile() != null) {
+				c = TravelMatrix.read(options.getTravelMatrixFile());
+			} else {
+				c = TravelMatrix.compute(options.getTravelMetric(), N, options.getMatrixStorage());
+			}
+			// Vehicles with own depots travel from and to these depots.
+			Truck.computeDepotTravelTimes(K, N, c, options);
+		} catch (IOException | IllegalArgumentException e) {
+			e.printStackTrace();
+			return new SolverResult(instance.getName(), "Error", Double.NaN, Double.NaN, Double.NaN, 0,
+					new long[CutType.values().length], seconds(begin), null, null);
+		}
+		nodes = 0;
+		cuts = new long[CutType.values().length];
+
+		metrics.startPhase("heuristic");
+		heuristic = new InsertionHeuristic(N, K, n, instance.getMaxRideTime(), c, c);
+		LocalSearch search = new LocalSearch(heuristic);
+		// Continue from the checkpoint of an interrupted run if it covers
+		// all users feasibly.
+		int[][] current = readCheckpoint();
+		if (current == null) {
+			current = heuristic.construct();
+		}
+		lastCheckpoint = System.nanoTime();
+		if (current == null) {
+			if (options.isVerbose()) {
+				System.out.println("ALNS: The heuristic found no solution, the full model is solved.");
+			}
+			return solveExact();
+		}
+		search.improve(current);
+		double currentCost = search.cost(current);
+		int[][] best = copy(current);
+		double bestCost = currentCost;
+		metrics.recordProgress(bestCost, Double.NEGATIVE_INFINITY, 0);
+
+		metrics.startPhase("alns");
+		DestroyOperator[] operators = DestroyOperator.values();
+		double[] weights = new double[operators.length];
+		double[] scores = new double[operators.length];
+		int[] uses = new int[operators.length];
+		Arrays.fill(weights, 1);
+		double startTemperature = -START_WORSENING * currentCost / Math.log(0.5);
+		int iterations = 0;
+		while (seconds(begin) < timeBudget) {
+			if (iterations > 0 && iterations % SEGMENT == 0) {
+				for (int o = 0; o < operators.length; o++) {
+					if (uses[o] > 0) {
+						weights[o] = (1 - REACTION) * weights[o] + REACTION * scores[o] / uses[o];
+					}
+					scores[o] = 0;
+					uses[o] = 0;
+				}
+			}
+			iterations++;
+			int operator = select(weights);
+			int removedCount = Math.min(n, minRemoved + random.nextInt(Math.max(1, maxRemoved - minRemoved + 1)));
+			int[] removed = destroy(operators[operator], current, removedCount);
+			int[][] destroyed = copy(current);
+			for (int user : removed) {
+				for (int k = 0; k < destroyed.length; k++) {
+					if (contains(destroyed[k], user)) {
+						destroyed[k] = heuristic.remove(destroyed[k], user);
+					}
+				}
+			}
+			int[][] candidate = repair(destroyed, removed, timeBudget - seconds(begin));
+			uses[operator]++;
+			if (candidate == null) {
+				continue;
+			}
+
+			double cost = search.cost(candidate);
+			double temperature = startTemperature * Math.max(0, 1 - seconds(begin) / timeBudget);
+			if (cost < bestCost - EPSILON) {
+				best = copy(candidate);
+				bestCost = cost;
+				scores[operator] += SCORE_BEST;
+				metrics.recordProgress(bestCost, Double.NEGATIVE_INFINITY, nodes);
+				if (options.getCheckpointFile() != null
+						&& System.nanoTime() - lastCheckpoint >= options.getCheckpointInterval() * 1e9) {
+					writeCheckpoint(toSolution(best, bestCost));
+				}
+				if (options.isVerbose()) {
+					System.out.println(String.format(Locale.ROOT, "ALNS: Iteration %d, %s, new best %.4f (%.1f s)",
+							iterations, operators[operator], bestCost, seconds(begin)));
+				}
+			} else if (cost < currentCost - EPSILON) {
+				scores[operator] += SCORE_BETTER;
+			} else if (temperature > 0 && random.nextDouble() < Math.exp((currentCost - cost) / temperature)) {
+				scores[operator] += SCORE_ACCEPTED;
+			} else {
+				continue;
+			}
+			current = candidate;
+			currentCost = cost;
+		}
+
+		metrics.startPhase("extract");
+		Solution solution = toSolution(best, bestCost);
+		if (options.getCheckpointFile() != null) {
+			writeCheckpoint(solution);
+		}
+		if (options.isVerbose()) {
+			System.out.println("ALNS: " + iterations + " iterations, cost " + bestCost + ", weights "
+					+ Arrays.toString(weights));
+		}
+		metrics.finish();
+		writeMetrics(metrics);
+		return new SolverResult(instance.getName(), "Feasible", bestCost, Double.NaN, Double.NaN, nodes, cuts,
+				seconds(begin), solution, metrics);
+	}
+
+	/**
+	 * Solve the full model, within the time budget unless the options have
+	 * a time limit.
+	 */
+	private SolverResult solveExact() {
+		SolverOptions exact = options;
+		if (options.getTimeLimit() == 0) {
+			exact = new SolverOptions(options);
+			exact.setTimeLimit(timeBudget);
+		}
+		return new model(instance, exact).solve();
+	}
+
+	/**
+	 * Read the routes of the checkpoint file: Route k of the checkpoint is
+	 * driven by vehicle k.
+	 * @return The route of every vehicle, null if there is no checkpoint or
+	 *         it does not visit every node once on feasible routes.
+	 */
+	private int[][] readCheckpoint() {
+		if (options.getCheckpointFile() == null || !new File(options.getCheckpointFile()).isFile()) {
+			return null;
+		}
+		Solution solution;
+		try {
+			solution = BinaryFormat.readSolution(options.getCheckpointFile());
+		} catch (IOException e) {
+			System.err.println("ALNS: " + e.getMessage() + ", no restart.");
+			return null;
+		}
+		if (solution.getUserCount() != n || solution.getRouteCount() > K.length) {
+			return null;
+		}
+		int[][] routes = new int[K.length][];
+		boolean[] visited = new boolean[2 * n + 2];
+		int visits = 0;
+		for (int k = 0; k < K.length; k++) {
+			routes[k] = k < solution.getRouteCount() ? solution.getRoute(k) : new int[0];
+			for (int i : routes[k]) {
+				if (i < 1 || i > 2 * n || visited[i]) {
+					return null;
+				}
+				visited[i] = true;
+				visits++;
+			}
+			if (!heuristic.isFeasible(routes[k], K[k])) {
+				return null;
+			}
+		}
+		if (visits != 2 * n) {
+			return null;
+		}
+		if (options.isVerbose()) {
+			System.out.println("ALNS: Restart from " + options.getCheckpointFile() + " (cost "
+					+ solution.getObjectiveValue() + ").");
+		}
+		return routes;
+	}
+
+	/**
+	 * Write the best routes to the checkpoint file. A failed write is
+	 * reported but does not end the search.
+	 */
+	private void writeCheckpoint(Solution solution) {
+		lastCheckpoint = System.nanoTime();
+		try {
+			BinaryFormat.writeSolution(solution, options.getCheckpointFile());
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Select an operator with a probability proportional to its weight.
+	 */
+	private int select(double[] weights) {
+		double total = 0;
+		for (double weight : weights) {
+			total += weight;
+		}
+		double threshold = random.nextDouble() * total;
+		for (int o = 0; o < weights.length - 1; o++) {
+			threshold -= weights[o];
+			if (threshold < 0) {
+				return o;
+			}
+		}
+		return weights.length - 1;
+	}
+
+	/**
+	 * Select the users that are removed from the routes.
+	 * @param operator The destroy operator.
+	 * @param routes The current routes of all vehicles.
+	 * @param count Number of users to remove.
+	 * @return The removed users i.
+	 */
+	private int[] destroy(DestroyOperator operator, int[][] routes, int count) {
+		List<Integer> users = new ArrayList<Integer>();
+		for (int i = 1; i <= n; i++) {
+			users.add(i);
+		}
+		List<Integer> removed = new ArrayList<Integer>();
+		switch (operator) {
+		case RANDOM:
+			Collections.shuffle(users, random);
+			removed.addAll(users.subList(0, count));
+			break;
+		case RELATED:
+			removed.add(users.remove(random.nextInt(users.size())));
+			while (removed.size() < count) {
+				final int reference = removed.get(random.nextInt(removed.size()));
+				Collections.sort(users, new Comparator<Integer>() {
+					@Override
+					public int compare(Integer a, Integer b) {
+						return Double.compare(relatedness(reference, a), relatedness(reference, b));
+					}
+				});
+				removed.add(users.remove(rank(users.size(), RELATED_DETERMINISM)));
+			}
+			break;
+		case WORST:
+			final double[] saving = new double[n + 1];
+			for (int k = 0; k < routes.length; k++) {
+				double cost = heuristic.cost(routes[k], K[k]);
+				for (int node : routes[k]) {
+					if (node <= n) {
+						saving[node] = cost - heuristic.cost(heuristic.remove(routes[k], node), K[k]);
+					}
+				}
+			}
+			Collections.sort(users, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer a, Integer b) {
+					return Double.compare(saving[b], saving[a]);
+				}
+			});
+			while (removed.size() < count) {
+				removed.add(users.remove(rank(users.size(), WORST_DETERMINISM)));
+			}
+			break;
+		default:
+			final double middle = middle(1 + random.nextInt(n));
+			Collections.sort(users, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer a, Integer b) {
+					return Double.compare(Math.abs(middle(a) - middle), Math.abs(middle(b) - middle));
+				}
+			});
+			removed.addAll(users.subList(0, count));
+		}
+		int[] result = new int[removed.size()];
+		for (int r = 0; r < result.length; r++) {
+			result[r] = removed.get(r);
+		}
+		return result;
+	}
+
+	/**
+	 * Get a random rank of a sorted list, small ranks are more likely for
+	 * larger exponents.
+	 */
+	private int rank(int size, double determinism) {
+		return (int) (Math.pow(random.nextDouble(), determinism) * size);
+	}
+
+	/**
+	 * Get the relatedness of two users, smaller values are more related:
+	 * Distance of the pick-ups and of the drop-offs plus the difference of
+	 * their earliest service times.
+	 */
+	private double relatedness(int i, int j) {
+		return c.get(i, j) + c.get(n + i, n + j)
+				+ Math.abs(N[i].getEarliestServiceTime() - N[j].getEarliestServiceTime())
+				+ Math.abs(N[n + i].getEarliestServiceTime() - N[n + j].getEarliestServiceTime());
+	}
+
+	/**
+	 * Get the middle of the pick-up time window of a user.
+	 */
+	private double middle(int user) {
+		return (N[user].getEarliestServiceTime() + N[user].getLatestServiceTime()) / 2;
+	}
+
+	/**
+	 * Reinsert the removed users with the model restricted to the
+	 * neighborhood of the removed nodes.
+	 * @param destroyed The routes without the removed users.
+	 * @param removed The removed users.
+	 * @param seconds The remaining time budget.
+	 * @return The repaired routes of all vehicles, null if no repair was found.
+	 */
+	private int[][] repair(int[][] destroyed, int[] removed, double seconds) {
+		int[][] greedy = reinsert(destroyed, removed);
+
+		SolverOptions repairOptions = new SolverOptions(options);
+		repairOptions.setVerbose(false);
+		repairOptions.setExportModel(false);
+		repairOptions.setMetricsFile(null);
+		repairOptions.setCheckpointFile(null);
+		repairOptions.setBreakSymmetry(false);
+		repairOptions.setHeuristicStart(true);
+		repairOptions.setTimeLimit(Math.max(0.1, Math.min(repairTimeLimit, seconds)));
+		model repairModel = new model(instance, repairOptions);
+		repairModel.setDistances(c);
+		repairModel.setCandidateArcs(candidateArcs(destroyed, removed, greedy));
+		if (greedy != null) {
+			repairModel.setStartRoutes(greedy);
+		}
+		SolverResult result = repairModel.solve();
+		nodes += result.getNodes();
+		for (CutType type : CutType.values()) {
+			cuts[type.ordinal()] += result.getCuts(type);
+		}
+
+		int[][] routes = result.getSolution() != null ? assignVehicles(result.getSolution()) : null;
+		if (routes == null || (greedy != null && totalCost(routes) >= totalCost(greedy) - EPSILON)) {
+			return greedy;
+		}
+		return routes;
+	}
+
+	/**
+	 * Insert the removed users one after another at their cheapest
+	 * feasible position.
+	 * @return The routes, null if a user has no feasible position.
+	 */
+	private int[][] reinsert(int[][] destroyed, int[] removed) {
+		int[][] routes = copy(destroyed);
+		for (int user : removed) {
+			InsertionHeuristic.Insertion best = heuristic.bestInsertion(routes, user);
+			if (best == null) {
+				return null;
+			}
+			routes[best.vehicle] = heuristic.insert(routes[best.vehicle], user, best.pickupPosition,
+					best.dropoffPosition);
+		}
+		return routes;
+	}
+
+	/**
+	 * Get the arcs of the neighborhood of a repair: The arcs between
+	 * consecutive nodes of the destroyed routes, the arcs between removed
+	 * nodes, the arcs between a removed node and the depots or its nearest
+	 * kept nodes and the arcs of the greedy routes.
+	 */
+	private boolean[][] candidateArcs(int[][] destroyed, int[] removed, int[][] greedy) {
+		boolean[][] arcs = new boolean[2 * n + 2][2 * n + 2];
+		for (int[] route : destroyed) {
+			markRoute(arcs, route);
+		}
+		if (greedy != null) {
+			for (int[] route : greedy) {
+				markRoute(arcs, route);
+			}
+		}
+
+		boolean[] free = new boolean[2 * n + 2];
+		List<Integer> freeNodes = new ArrayList<Integer>();
+		for (int user : removed) {
+			free[user] = true;
+			free[n + user] = true;
+			freeNodes.add(user);
+			freeNodes.add(n + user);
+		}
+		List<Integer> kept = new ArrayList<Integer>();
+		for (int i = 1; i <= 2 * n; i++) {
+			if (!free[i]) {
+				kept.add(i);
+			}
+		}
+		for (final int node : freeNodes) {
+			arcs[0][node] = true;
+			arcs[node][2 * n + 1] = true;
+			for (int other : freeNodes) {
+				arcs[node][other] = node != other;
+			}
+			Collections.sort(kept, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer a, Integer b) {
+					return Double.compare(c.get(node, a) + c.get(a, node), c.get(node, b) + c.get(b, node));
+				}
+			});
+			for (int other : kept.subList(0, Math.min(neighbors, kept.size()))) {
+				arcs[node][other] = true;
+				arcs[other][node] = true;
+			}
+		}
+		return arcs;
+	}
+
+	/**
+	 * Mark the arcs of a route from the origin to the destination depot.
+	 */
+	private void markRoute(boolean[][] arcs, int[] route) {
+		int previous = 0;
+		for (int node : route) {
+			arcs[previous][node] = true;
+			previous = node;
+		}
+		arcs[previous][2 * n + 1] = true;
+	}
+
+	/**
+	 * Assign the routes of a solution to the vehicles. Route r goes to
+	 * vehicle r if it is feasible for it, otherwise to the first free
+	 * vehicle it is feasible for.
+	 * @return The route of every vehicle, null if a route has no vehicle.
+	 */
+	private int[][] assignVehicles(Solution solution) {
+		int[][] routes = new int[K.length][];
+		for (int r = 0; r < solution.getRouteCount(); r++) {
+			int[] route = solution.getRoute(r);
+			int vehicle = -1;
+			if (r < K.length && routes[r] == null && heuristic.isFeasible(route, K[r])) {
+				vehicle = r;
+			}
+			for (int k = 0; vehicle < 0 && k < K.length; k++) {
+				if (routes[k] == null && heuristic.isFeasible(route, K[k])) {
+					vehicle = k;
+				}
+			}
+			if (vehicle < 0) {
+				return null;
+			}
+			routes[vehicle] = route;
+		}
+		for (int k = 0; k < K.length; k++) {
+			if (routes[k] == null) {
+				routes[k] = new int[0];
+			}
+		}
+		return routes;
+	}
+
+	/**
+	 * Build a solution of routes with their schedules.
+	 */
+	private Solution toSolution(int[][] routes, double cost) {
+		double[][] serviceStarts = new double[routes.length][];
+		int[][] loads = new int[routes.length][];
+		double[] rideTimes = new double[n + 1];
+		for (int k = 0; k < routes.length; k++) {
+			int[] route = routes[k];
+			serviceStarts[k] = heuristic.schedule(route, K[k]);
+			loads[k] = new int[route.length];
+			int load = 0;
+			int[] position = new int[2 * n + 2];
+			for (int p = 0; p < route.length; p++) {
+				load += N[route[p]].getLoad();
+				loads[k][p] = load;
+				position[route[p]] = p;
+			}
+			for (int p = 0; p < route.length; p++) {
+				int user = route[p];
+				if (user <= n) {
+					rideTimes[user] = serviceStarts[k][position[n + user] + 1] - serviceStarts[k][p + 1]
+							- N[user].getServiceDuration();
+				}
+			}
+		}
+		return new Solution(cost, routes, serviceStarts, loads, rideTimes);
+	}
+
+	/**
+	 * Write the metrics to the metrics file of the options.
+	 */
+	private void writeMetrics(SolverMetrics metrics) {
+		if (options.getMetricsFile() == null) {
+			return;
+		}
+		try (Writer writer = new FileWriter(options.getMetricsFile())) {
+			writer.write(metrics.toJson());
+			writer.write('\n');
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Get the total routing cost of all routes.
+	 */
+	private double totalCost(int[][] routes) {
+		double cost = 0;
+		for (int k = 0; k < routes.length; k++) {
+			cost += heuristic.cost(routes[k], K[k]);
+		}
+		return cost;
+	}
+
+	/**
+	 * Check whether a route visits a node.
+	 */
+	private static boolean contains(int[] route, int node) {
+		for (int stop : route) {
+			if (stop == node) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Copy the routes of all vehicles.
+	 */
+	private static int[][] copy(int[][] routes) {
+		int[][] copy = new int[routes.length][];
+		for (int k = 0; k < routes.length; k++) {
+			copy[k] = routes[k].clone();
+		}
+		return copy;
+	}
+
+	/**
+	 * Get the seconds since a point in time.
+	 */
+	private static double seconds(long begin) {
+		return (System.nanoTime() - begin) / 1e9;
+	}
+
+	/**
+	 * Set the wall-clock budget of the search.
+	 * @param timeBudget Budget in seconds.
+	 */
+	public void setTimeBudget(double timeBudget) {
+		this.timeBudget = timeBudget;
+	}
+
+	/**
+	 * Set the time limit of one repair.
+	 * @param repairTimeLimit Time limit in seconds.
+	 */
+	public void setRepairTimeLimit(double repairTimeLimit) {
+		this.repairTimeLimit = repairTimeLimit;
+	}
+
+	/**
+	 * Set up to which size instances are solved by the full model.
+	 * @param exactUsers Largest number of users that is solved exactly.
+	 */
+	public void setExactUsers(int exactUsers) {
+		this.exactUsers = exactUsers;
+	}
+
+	/**
+	 * Set how many users are removed in an iteration.
+	 * @param minRemoved Minimal number of removed users.
+	 * @param maxRemoved Maximal number of removed users.
+	 */
+	public void setRemoved(int minRemoved, int maxRemoved) {
+		this.minRemoved = minRemoved;
+		this.maxRemoved = maxRemoved;
+	}
+
+	/**
+	 * Set the number of nearest kept nodes a removed node may be connected
+	 * to in a repair.
+	 * @param neighbors Number of neighbors.
+	 */
+	public void setNeighbors(int neighbors) {
+		this.neighbors = neighbors;
+	}
+
+	/**
+	 * Set the seed of the random decisions.
+	 * @param seed The seed.
+	 */
+	public void setSeed(long seed) {
+		random = new Random(seed);
+	}
+
+}
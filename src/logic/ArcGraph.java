@@ -0,0 +1,188 @@
+package logic;
+
+/**
+ * The arcs (i,j) of the graph that can be part of a solution.</br>
+ * The arcs are numbered 0..getArcCount()-1 sorted by their start node,
+ * so all arcs leaving node i have the consecutive ids
+ * outBegin(i)..outEnd(i)-1 (forward star). The arcs entering a node are
+ * stored in a second offset array (backward star). Variables of the
+ * model are indexed by the arc id, so loops only touch existing arcs.
+ *
+ */
+public class ArcGraph {
+
+	/**
+	 * Number of nodes of the graph.
+	 */
+	private final int nodeCount;
+	/**
+	 * Start node i of every arc.
+	 */
+	private final int[] tails;
+	/**
+	 * End node j of every arc.
+	 */
+	private final int[] heads;
+	/**
+	 * The arcs leaving node i are outStart[i]..outStart[i+1]-1.
+	 */
+	private final int[] outStart;
+	/**
+	 * The arcs entering node j are inArcs[inStart[j]]..inArcs[inStart[j+1]-1].
+	 */
+	private final int[] inStart;
+	/**
+	 * Arc ids sorted by their end node.
+	 */
+	private final int[] inArcs;
+
+	/**
+	 * Constructor for a new graph.
+	 * @param feasible feasible[i][j] is true if the arc (i,j) exists.
+	 */
+	public ArcGraph(boolean[][] feasible) {
+		super();
+		nodeCount = feasible.length;
+		int arcCount = 0;
+		for (int i = 0; i < nodeCount; i++) {
+			for (int j = 0; j < nodeCount; j++) {
+				if (feasible[i][j]) {
+					arcCount++;
+				}
+			}
+		}
+
+		tails = new int[arcCount];
+		heads = new int[arcCount];
+		outStart = new int[nodeCount + 1];
+		int[] inDegree = new int[nodeCount];
+		int arc = 0;
+		for (int i = 0; i < nodeCount; i++) {
+			outStart[i] = arc;
+			for (int j = 0; j < nodeCount; j++) {
+				if (feasible[i][j]) {
+					tails[arc] = i;
+					heads[arc] = j;
+					inDegree[j]++;
+					arc++;
+				}
+			}
+		}
+		outStart[nodeCount] = arc;
+
+		inStart = new int[nodeCount + 1];
+		for (int j = 0; j < nodeCount; j++) {
+			inStart[j + 1] = inStart[j] + inDegree[j];
+		}
+		inArcs = new int[arcCount];
+		int[] position = new int[nodeCount];
+		for (int j = 0; j < nodeCount; j++) {
+			position[j] = inStart[j];
+		}
+		for (int a = 0; a < arcCount; a++) {
+			inArcs[position[heads[a]]++] = a;
+		}
+	}
+
+	/**
+	 * Get the number of nodes of the graph.
+	 * @return Number of nodes.
+	 */
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Get the number of arcs of the graph.
+	 * @return Number of arcs.
+	 */
+	public int getArcCount() {
+		return tails.length;
+	}
+
+	/**
+	 * Get the start node of an arc.
+	 * @param arc Id of the arc.
+	 * @return Start node i of the arc.
+	 */
+	public int getTail(int arc) {
+		return tails[arc];
+	}
+
+	/**
+	 * Get the end node of an arc.
+	 * @param arc Id of the arc.
+	 * @return End node j of the arc.
+	 */
+	public int getHead(int arc) {
+		return heads[arc];
+	}
+
+	/**
+	 * Get the id of the first arc leaving node i.
+	 * @param i The start node.
+	 * @return Id of the first arc leaving i.
+	 */
+	public int outBegin(int i) {
+		return outStart[i];
+	}
+
+	/**
+	 * Get the id after the last arc leaving node i.
+	 * @param i The start node.
+	 * @return Id after the last arc leaving i.
+	 */
+	public int outEnd(int i) {
+		return outStart[i + 1];
+	}
+
+	/**
+	 * Get the first position of the arcs entering node j, see {@link #inArc(int)}.
+	 * @param j The end node.
+	 * @return First position of the arcs entering j.
+	 */
+	public int inBegin(int j) {
+		return inStart[j];
+	}
+
+	/**
+	 * Get the position after the last arc entering node j, see {@link #inArc(int)}.
+	 * @param j The end node.
+	 * @return Position after the last arc entering j.
+	 */
+	public int inEnd(int j) {
+		return inStart[j + 1];
+	}
+
+	/**
+	 * Get the id of the arc at a position of the backward star.
+	 * @param position Position between inBegin(j) and inEnd(j)-1.
+	 * @return Id of the arc.
+	 */
+	public int inArc(int position) {
+		return inArcs[position];
+	}
+
+	/**
+	 * Look up the id of the arc (i,j).
+	 * @param i The start node.
+	 * @param j The end node.
+	 * @return Id of the arc or -1 if the arc does not exist.
+	 */
+	public int findArc(int i, int j) {
+		int low = outStart[i];
+		int high = outStart[i + 1] - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			if (heads[middle] < j) {
+				low = middle + 1;
+			} else if (heads[middle] > j) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return -1;
+	}
+
+}
@@ -0,0 +1,23 @@
+package logic;
+
+/**
+ * The MILP solvers the model can be solved with.
+ *
+ */
+public enum Backend {
+
+	/**
+	 * Use Cplex if cplex.jar is on the class path, otherwise the
+	 * bundled Java solver.
+	 */
+	AUTO,
+	/**
+	 * IBM ILOG Cplex via the Concert Java API ({@link CplexBackend}).
+	 */
+	CPLEX,
+	/**
+	 * The bundled branch-and-bound with a dual simplex
+	 * ({@link BranchAndBoundBackend}), for small instances.
+	 */
+	JAVA
+}
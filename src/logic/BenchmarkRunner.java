@@ -0,0 +1,498 @@
+package logic;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Solves a suite of benchmark instances in parallel and writes a report.</br>
+ * Every instance is solved by its own {@link model} on a bounded thread
+ * pool. Each job gets a fixed number of solver threads and a time limit.
+ * The report contains status, objective value, bound, gap, nodes, cuts
+ * and wall time of every instance as CSV and/or JSON. With --portfolio
+ * every job is a {@link PortfolioSolver} of n diversified strategies that
+ * share the threads of the job. With --alns instances with more than n
+ * users are solved by the {@link AlnsSolver} within the time limit. With
+ * --branch-and-price instances with more than n users (and not more than
+ * the ALNS limit) are solved by the {@link BranchAndPriceSolver}. With
+ * --decompose instances with more than n users are split by the
+ * {@link DecompositionSolver} into clusters of at most n users.
+ * With --cache the parsed instances and their travel matrices are kept
+ * in binary files of a directory and reused by later runs. With
+ * --checkpoint every job writes its incumbent to name.dsol in a directory
+ * and restarts from it, so an interrupted suite continues where it
+ * stopped.</br>
+ * Usage: BenchmarkRunner [--jobs n] [--threads n] [--time-limit seconds]
+ * [--backend auto|cplex|java] [--lazy-big-m] [--metric euclidean|manhattan]
+ * [--storage double|float|scaled_int|lazy] [--portfolio n] [--alns n]
+ * [--branch-and-price n] [--decompose n] [--cache directory]
+ * [--checkpoint directory] [--csv file] [--json file] path...
+ *
+ */
+public class BenchmarkRunner {
+
+	/**
+	 * Number of instances solved at the same time.
+	 */
+	private int jobs = 1;
+	/**
+	 * Number of solver threads of every job.
+	 */
+	private int threadsPerJob = 1;
+	/**
+	 * Time limit of every job in seconds.
+	 */
+	private double timeLimit = 3600;
+	/**
+	 * The MILP solver of every job.
+	 */
+	private Backend backend = Backend.AUTO;
+	/**
+	 * True if the constraints (15) and (16) are lazy in every job.
+	 */
+	private boolean lazyBigM = false;
+	/**
+	 * The metric of the distances in every job.
+	 */
+	private TravelMetric travelMetric = TravelMetric.EUCLIDEAN;
+	/**
+	 * How the distances of every job are stored.
+	 */
+	private MatrixStorage matrixStorage = MatrixStorage.DOUBLE;
+	/**
+	 * Number of strategies of the portfolio of every job, 0 for a single solve.
+	 */
+	private int portfolio = 0;
+	/**
+	 * Instances with more users are solved by the ALNS, -1 if none.
+	 */
+	private int alnsUsers = -1;
+	/**
+	 * Instances with more users are solved by branch-and-price, -1 if none.
+	 */
+	private int branchAndPriceUsers = -1;
+	/**
+	 * Instances with more users are decomposed into clusters of at most this size, -1 if none.
+	 */
+	private int decompositionUsers = -1;
+	/**
+	 * Directory of the cached instances and travel matrices, null for none.
+	 */
+	private File cacheDirectory = null;
+	/**
+	 * Directory of the checkpoint files of the jobs, null for none.
+	 */
+	private File checkpointDirectory = null;
+
+	/**
+	 * Solve the instances of all files and directories given as arguments.
+	 * 
+	 * @param args Options and paths, see the class description.
+	 */
+	public static void main(String[] args) {
+		BenchmarkRunner runner = new BenchmarkRunner();
+		String csvFile = null;
+		String jsonFile = null;
+		boolean jobsGiven = false;
+		List<String> paths = new ArrayList<String>();
+		for (int a = 0; a < args.length; a++) {
+			if (args[a].equals("--jobs")) {
+				runner.setJobs(Integer.parseInt(args[++a]));
+				jobsGiven = true;
+			} else if (args[a].equals("--threads")) {
+				runner.setThreadsPerJob(Integer.parseInt(args[++a]));
+			} else if (args[a].equals("--time-limit")) {
+				runner.setTimeLimit(Double.parseDouble(args[++a]));
+			} else if (args[a].equals("--backend")) {
+				runner.setBackend(Backend.valueOf(args[++a].toUpperCase()));
+			} else if (args[a].equals("--lazy-big-m")) {
+				runner.setLazyBigM(true);
+			} else if (args[a].equals("--metric")) {
+				runner.setTravelMetric(TravelMetric.valueOf(args[++a].toUpperCase()));
+			} else if (args[a].equals("--storage")) {
+				runner.setMatrixStorage(MatrixStorage.valueOf(args[++a].toUpperCase()));
+			} else if (args[a].equals("--portfolio")) {
+				runner.setPortfolio(Integer.parseInt(args[++a]));
+			} else if (args[a].equals("--alns")) {
+				runner.setAlnsUsers(Integer.parseInt(args[++a]));
+			} else if (args[a].equals("--branch-and-price")) {
+				runner.setBranchAndPriceUsers(Integer.parseInt(args[++a]));
+			} else if (args[a].equals("--decompose")) {
+				runner.setDecompositionUsers(Integer.parseInt(args[++a]));
+			} else if (args[a].equals("--cache")) {
+				runner.setCacheDirectory(new File(args[++a]));
+			} else if (args[a].equals("--checkpoint")) {
+				runner.setCheckpointDirectory(new File(args[++a]));
+			} else if (args[a].equals("--csv")) {
+				csvFile = args[++a];
+			} else if (args[a].equals("--json")) {
+				jsonFile = args[++a];
+			} else {
+				paths.add(args[a]);
+			}
+		}
+		if (paths.isEmpty()) {
+			System.out.println("Usage: BenchmarkRunner [--jobs n] [--threads n] [--time-limit seconds]"
+					+ " [--backend auto|cplex|java] [--lazy-big-m] [--metric euclidean|manhattan]"
+					+ " [--storage double|float|scaled_int|lazy] [--portfolio n] [--alns n]"
+					+ " [--branch-and-price n] [--decompose n] [--cache directory] [--checkpoint directory]"
+					+ " [--csv file] [--json file] path...");
+			return;
+		}
+		// Use all cores if the number of jobs is not given.
+		if (!jobsGiven) {
+			int threads = Math.max(runner.threadsPerJob, runner.portfolio);
+			runner.setJobs(Math.max(1, Runtime.getRuntime().availableProcessors() / threads));
+		}
+
+		try {
+			List<SolverResult> results = runner
+					.run(InstanceLoader.loadAll(runner.cacheDirectory, paths.toArray(new String[paths.size()])));
+			if (csvFile == null && jsonFile == null) {
+				PrintWriter writer = new PrintWriter(System.out);
+				writeCsv(results, writer);
+				writer.flush();
+			}
+			if (csvFile != null) {
+				Writer writer = new FileWriter(csvFile);
+				try {
+					writeCsv(results, writer);
+				} finally {
+					writer.close();
+				}
+			}
+			if (jsonFile != null) {
+				Writer writer = new FileWriter(jsonFile);
+				try {
+					writeJson(results, writer);
+				} finally {
+					writer.close();
+				}
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Solve all instances.
+	 * @param instances The instances.
+	 * @return The results in the order of the instances.
+	 */
+	public List<SolverResult> run(List<Instance> instances) {
+		if (checkpointDirectory != null && !checkpointDirectory.isDirectory()) {
+			checkpointDirectory.mkdirs();
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(jobs);
+		try {
+			List<Future<SolverResult>> futures = new ArrayList<Future<SolverResult>>();
+			for (final Instance instance : instances) {
+				final SolverOptions options = createOptions();
+				if (checkpointDirectory != null) {
+					options.setCheckpointFile(new File(checkpointDirectory, instance.getName() + ".dsol").getPath());
+				}
+				futures.add(pool.submit(new Callable<SolverResult>() {
+					@Override
+					public SolverResult call() {
+						if (cacheDirectory != null && matrixStorage != MatrixStorage.LAZY) {
+							try {
+								options.setTravelMatrixFile(getCachedMatrix(instance));
+							} catch (IOException e) {
+								e.printStackTrace();
+							}
+						}
+						if (decompositionUsers > 0 && instance.getUsers() > decompositionUsers) {
+							DecompositionSolver decomposition = new DecompositionSolver(instance, options);
+							decomposition.setClusterSize(decompositionUsers);
+							return decomposition.solve();
+						}
+						if (alnsUsers >= 0 && instance.getUsers() > alnsUsers) {
+							AlnsSolver alns = new AlnsSolver(instance, options);
+							alns.setExactUsers(alnsUsers);
+							alns.setTimeBudget(timeLimit);
+							return alns.solve();
+						}
+						if (branchAndPriceUsers >= 0 && instance.getUsers() > branchAndPriceUsers) {
+							return new BranchAndPriceSolver(instance, options).solve();
+						}
+						if (portfolio > 0) {
+							return new PortfolioSolver(instance, options, SearchStrategy.diversified(portfolio)).solve();
+						}
+						return new model(instance, options).solve();
+					}
+				}));
+			}
+
+			List<SolverResult> results = new ArrayList<SolverResult>();
+			for (int i = 0; i < futures.size(); i++) {
+				SolverResult result;
+				try {
+					result = futures.get(i).get();
+				} catch (ExecutionException e) {
+					e.getCause().printStackTrace();
+					result = new SolverResult(instances.get(i).getName(), "Error", Double.NaN, Double.NaN,
+							Double.NaN, 0, new long[CutType.values().length], 0, null, null);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+				System.out.println(String.format(Locale.ROOT, "%s: %s, objective %s, %.1f seconds",
+						result.getInstance(), result.getStatus(), format(result.getObjectiveValue()),
+						result.getWallTime()));
+				results.add(result);
+			}
+			return results;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Create the settings of one job: No console output, no model export,
+	 * limited threads and time.
+	 * @return The settings.
+	 */
+	private SolverOptions createOptions() {
+		SolverOptions options = new SolverOptions();
+		options.setVerbose(false);
+		options.setExportModel(false);
+		options.setThreads(threadsPerJob);
+		options.setTimeLimit(timeLimit);
+		options.setBackend(backend);
+		options.setLazyBigM(lazyBigM);
+		options.setTravelMetric(travelMetric);
+		options.setMatrixStorage(matrixStorage);
+		return options;
+	}
+
+	/**
+	 * Get the cached travel matrix of an instance in the metric and storage
+	 * of the jobs, it is computed and written if it is missing or older than
+	 * the cached instance.
+	 * @param instance The instance.
+	 * @return Name of the matrix file.
+	 * @throws IOException If the matrix cannot be written.
+	 */
+	private String getCachedMatrix(Instance instance) throws IOException {
+		String prefix = instance.getName() + ".";
+		File file = new File(cacheDirectory, prefix + travelMetric.name().toLowerCase(Locale.ROOT) + "."
+				+ matrixStorage.name().toLowerCase(Locale.ROOT) + ".dmtx");
+		File cachedInstance = new File(cacheDirectory, prefix + "dins");
+		if (!file.isFile() || file.lastModified() < cachedInstance.lastModified()) {
+			TravelMatrix matrix = TravelMatrix.compute(travelMetric, instance.createNodes(), matrixStorage);
+			Path temporary = Paths.get(file.getPath() + ".tmp");
+			matrix.write(temporary.toString());
+			BinaryFormat.replace(temporary, file.getPath());
+		}
+		return file.getPath();
+	}
+
+	/**
+	 * Write the results as CSV with a header line.
+	 * @param results The results.
+	 * @param writer The target of the report.
+	 * @throws IOException
+	 */
+	public static void writeCsv(List<SolverResult> results, Writer writer) throws IOException {
+		StringBuilder line = new StringBuilder("instance,status,objective,bound,gap,nodes,cuts");
+		for (CutType type : CutType.values()) {
+			line.append(",cuts_").append(type.name().toLowerCase(Locale.ROOT));
+		}
+		line.append(",wall_time\n");
+		writer.write(line.toString());
+		for (SolverResult result : results) {
+			line.setLength(0);
+			line.append(result.getInstance()).append(',').append(result.getStatus());
+			line.append(',').append(format(result.getObjectiveValue()));
+			line.append(',').append(format(result.getBound()));
+			line.append(',').append(format(result.getGap()));
+			line.append(',').append(result.getNodes());
+			line.append(',').append(result.getTotalCuts());
+			for (CutType type : CutType.values()) {
+				line.append(',').append(result.getCuts(type));
+			}
+			line.append(',').append(format(result.getWallTime())).append('\n');
+			writer.write(line.toString());
+		}
+	}
+
+	/**
+	 * Write the results as JSON array with one object per instance.
+	 * @param results The results.
+	 * @param writer The target of the report.
+	 * @throws IOException
+	 */
+	public static void writeJson(List<SolverResult> results, Writer writer) throws IOException {
+		StringBuilder json = new StringBuilder("[\n");
+		for (int r = 0; r < results.size(); r++) {
+			SolverResult result = results.get(r);
+			json.append("  {\"instance\": ").append(quote(result.getInstance()));
+			json.append(", \"status\": ").append(quote(result.getStatus()));
+			json.append(", \"objective\": ").append(jsonNumber(result.getObjectiveValue()));
+			json.append(", \"bound\": ").append(jsonNumber(result.getBound()));
+			json.append(", \"gap\": ").append(jsonNumber(result.getGap()));
+			json.append(", \"nodes\": ").append(result.getNodes());
+			json.append(", \"cuts\": {");
+			for (CutType type : CutType.values()) {
+				json.append(type.ordinal() > 0 ? ", " : "").append(quote(type.name().toLowerCase(Locale.ROOT)));
+				json.append(": ").append(result.getCuts(type));
+			}
+			json.append("}, \"wall_time\": ").append(jsonNumber(result.getWallTime()));
+			if (result.getMetrics() != null) {
+				json.append(",\n   \"metrics\": ").append(result.getMetrics().toJson());
+			}
+			json.append(r + 1 < results.size() ? "},\n" : "}\n");
+		}
+		json.append("]\n");
+		writer.write(json.toString());
+	}
+
+	/**
+	 * Format a number for the report, NaN becomes an empty string.
+	 */
+	private static String format(double value) {
+		return Double.isNaN(value) ? "" : String.format(Locale.ROOT, "%.6f", value);
+	}
+
+	/**
+	 * Format a number for JSON, NaN and infinity become null.
+	 */
+	static String jsonNumber(double value) {
+		return Double.isNaN(value) || Double.isInfinite(value) ? "null" : format(value);
+	}
+
+	/**
+	 * Quote a string for JSON.
+	 */
+	static String quote(String value) {
+		StringBuilder quoted = new StringBuilder("\"");
+		for (int i = 0; i < value.length(); i++) {
+			char character = value.charAt(i);
+			if (character == '"' || character == '\\') {
+				quoted.append('\\').append(character);
+			} else if (character < ' ') {
+				quoted.append(String.format("\\u%04x", (int) character));
+			} else {
+				quoted.append(character);
+			}
+		}
+		return quoted.append('"').toString();
+	}
+
+	/**
+	 * Set the number of instances solved at the same time.
+	 * @param jobs Number of parallel jobs.
+	 */
+	public void setJobs(int jobs) {
+		this.jobs = jobs;
+	}
+
+	/**
+	 * Set the number of solver threads of every job.
+	 * @param threadsPerJob Number of threads.
+	 */
+	public void setThreadsPerJob(int threadsPerJob) {
+		this.threadsPerJob = threadsPerJob;
+	}
+
+	/**
+	 * Set the time limit of every job.
+	 * @param timeLimit Time limit in seconds.
+	 */
+	public void setTimeLimit(double timeLimit) {
+		this.timeLimit = timeLimit;
+	}
+
+	/**
+	 * Set the MILP solver of every job.
+	 * @param backend The backend.
+	 */
+	public void setBackend(Backend backend) {
+		this.backend = backend;
+	}
+
+	/**
+	 * Set whether the constraints (15) and (16) are lazy in every job.
+	 * @param lazyBigM True if the big-M rows should be kept in the lazy constraint pool.
+	 */
+	public void setLazyBigM(boolean lazyBigM) {
+		this.lazyBigM = lazyBigM;
+	}
+
+	/**
+	 * Set the metric of the distances in every job.
+	 * @param travelMetric The metric.
+	 */
+	public void setTravelMetric(TravelMetric travelMetric) {
+		this.travelMetric = travelMetric;
+	}
+
+	/**
+	 * Set how the distances of every job are stored.
+	 * @param matrixStorage The storage.
+	 */
+	public void setMatrixStorage(MatrixStorage matrixStorage) {
+		this.matrixStorage = matrixStorage;
+	}
+
+	/**
+	 * Set the number of strategies of the portfolio of every job.
+	 * @param portfolio Number of parallel strategies, 0 for a single solve.
+	 */
+	public void setPortfolio(int portfolio) {
+		this.portfolio = portfolio;
+	}
+
+	/**
+	 * Set from which size on the instances are solved by the ALNS.
+	 * @param alnsUsers Instances with more users are solved by the ALNS, -1 for none.
+	 */
+	public void setAlnsUsers(int alnsUsers) {
+		this.alnsUsers = alnsUsers;
+	}
+
+	/**
+	 * Set from which size on the instances are solved by branch-and-price.
+	 * @param branchAndPriceUsers Instances with more users are solved by branch-and-price, -1 for none.
+	 */
+	public void setBranchAndPriceUsers(int branchAndPriceUsers) {
+		this.branchAndPriceUsers = branchAndPriceUsers;
+	}
+
+	/**
+	 * Set from which size on the instances are decomposed into clusters.
+	 * @param decompositionUsers Instances with more users are decomposed into clusters of at most this size, -1 for none.
+	 */
+	public void setDecompositionUsers(int decompositionUsers) {
+		this.decompositionUsers = decompositionUsers;
+	}
+
+	/**
+	 * Set the directory of the cached instances and travel matrices.
+	 * @param cacheDirectory The directory, null for no cache.
+	 */
+	public void setCacheDirectory(File cacheDirectory) {
+		this.cacheDirectory = cacheDirectory;
+	}
+
+	/**
+	 * Set the directory of the checkpoint files of the jobs.
+	 * @param checkpointDirectory The directory, null for no checkpoints.
+	 */
+	public void setCheckpointDirectory(File checkpointDirectory) {
+		this.checkpointDirectory = checkpointDirectory;
+	}
+
+}
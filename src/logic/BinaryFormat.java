@@ -0,0 +1,302 @@
+package logic;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Compact binary files of instances and solutions, e.g. a cache of parsed
+ * instances for batch runs and the checkpoints of long solves.</br>
+ * All values are big-endian. Every file starts with a magic int and a
+ * format version. Files are written to a temporary file first and then
+ * renamed, so a process that dies while writing never leaves a truncated
+ * file behind.</br>
+ * Instance ("DINS"): name (modified UTF-8), int n, int vehicles, int
+ * maximum route duration, int capacity, double maximum ride time L, then
+ * for every node 0..2n+1: double x, double y, int service duration, int
+ * load, double earliest and double latest service time, then for every
+ * vehicle: int capacity, int maximum tour duration, byte with bit 0 set if
+ * it has an own origin depot and bit 1 if it has an own destination
+ * depot, and these depots like the nodes. Version 1 files without the
+ * vehicles (identical fleet) can still be read.</br>
+ * Solution ("DSOL"): double objective value, int number of routes, for
+ * every route: int length, the nodes, the service starts (length + 2,
+ * with both depots) and the loads (length), then int n and the ride times
+ * of the users 1..n.
+ *
+ */
+public class BinaryFormat {
+
+	/**
+	 * First int of an instance file ("DINS").
+	 */
+	private static final int INSTANCE_MAGIC = 0x44494E53;
+	/**
+	 * First int of a solution file ("DSOL").
+	 */
+	private static final int SOLUTION_MAGIC = 0x44534F4C;
+	/**
+	 * Version of the instance format.
+	 */
+	private static final int INSTANCE_VERSION = 2;
+	/**
+	 * Version of the solution format.
+	 */
+	private static final int SOLUTION_VERSION = 1;
+	/**
+	 * Size of the buffers of the streams.
+	 */
+	private static final int BUFFER = 1 << 16;
+
+	/**
+	 * Write an instance.
+	 * @param instance The instance.
+	 * @param file Name of the file.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public static void writeInstance(Instance instance, String file) throws IOException {
+		Path temporary = temporaryFile(file);
+		DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(temporary.toFile()), BUFFER));
+		try {
+			out.writeInt(INSTANCE_MAGIC);
+			out.writeInt(INSTANCE_VERSION);
+			out.writeUTF(instance.getName());
+			out.writeInt(instance.getUsers());
+			out.writeInt(instance.getVehicles());
+			out.writeInt(instance.getMaxRouteDuration());
+			out.writeInt(instance.getCapacity());
+			out.writeDouble(instance.getMaxRideTime());
+			for (Node node : instance.createNodes()) {
+				writeNode(out, node);
+			}
+			for (Truck truck : instance.createTrucks()) {
+				out.writeInt(truck.getCapacity());
+				out.writeInt(truck.getMaxTourTime());
+				Node origin = truck.getOriginDepot();
+				Node destination = truck.getDestinationDepot();
+				out.writeByte((origin != null ? 1 : 0) | (destination != null ? 2 : 0));
+				if (origin != null) {
+					writeNode(out, origin);
+				}
+				if (destination != null) {
+					writeNode(out, destination);
+				}
+			}
+		} finally {
+			out.close();
+		}
+		replace(temporary, file);
+	}
+
+	/**
+	 * Read an instance.
+	 * @param file Name of the file.
+	 * @return The instance.
+	 * @throws IOException If the file cannot be read or is not an instance.
+	 */
+	public static Instance readInstance(String file) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER));
+		try {
+			int version = readHeader(in, INSTANCE_MAGIC, 1, INSTANCE_VERSION, file);
+			String name = in.readUTF();
+			int n = in.readInt();
+			int vehicles = in.readInt();
+			int maxRouteDuration = in.readInt();
+			int capacity = in.readInt();
+			double maxRideTime = in.readDouble();
+			if (n < 0 || vehicles < 0) {
+				throw new IOException(file + " is not a valid instance");
+			}
+			double[] xPositions = new double[2 * n + 2];
+			double[] yPositions = new double[2 * n + 2];
+			int[] serviceDurations = new int[2 * n + 2];
+			int[] loads = new int[2 * n + 2];
+			double[] earliestServiceTimes = new double[2 * n + 2];
+			double[] latestServiceTimes = new double[2 * n + 2];
+			for (int i = 0; i < 2 * n + 2; i++) {
+				xPositions[i] = in.readDouble();
+				yPositions[i] = in.readDouble();
+				serviceDurations[i] = in.readInt();
+				loads[i] = in.readInt();
+				earliestServiceTimes[i] = in.readDouble();
+				latestServiceTimes[i] = in.readDouble();
+			}
+			if (version == 1) {
+				return new Instance(name, n, vehicles, maxRouteDuration, capacity, maxRideTime, xPositions,
+						yPositions, serviceDurations, loads, earliestServiceTimes, latestServiceTimes);
+			}
+			Truck[] fleet = new Truck[vehicles];
+			for (int k = 0; k < vehicles; k++) {
+				int truckCapacity = in.readInt();
+				int maxTourTime = in.readInt();
+				int depots = in.readByte();
+				Node origin = (depots & 1) != 0 ? readNode(in) : null;
+				Node destination = (depots & 2) != 0 ? readNode(in) : null;
+				fleet[k] = new Truck(truckCapacity, maxTourTime, origin, destination);
+			}
+			return new Instance(name, n, fleet, maxRideTime, xPositions, yPositions, serviceDurations, loads,
+					earliestServiceTimes, latestServiceTimes);
+		} catch (EOFException e) {
+			throw new IOException(file + " ends too early", e);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Write a solution.
+	 * @param solution The solution.
+	 * @param file Name of the file.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public static void writeSolution(Solution solution, String file) throws IOException {
+		Path temporary = temporaryFile(file);
+		DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(temporary.toFile()), BUFFER));
+		try {
+			out.writeInt(SOLUTION_MAGIC);
+			out.writeInt(SOLUTION_VERSION);
+			out.writeDouble(solution.getObjectiveValue());
+			out.writeInt(solution.getRouteCount());
+			for (int r = 0; r < solution.getRouteCount(); r++) {
+				int length = solution.getLength(r);
+				out.writeInt(length);
+				for (int position = 0; position < length; position++) {
+					out.writeInt(solution.getNode(r, position));
+				}
+				for (int stop = 0; stop < length + 2; stop++) {
+					out.writeDouble(solution.getServiceStart(r, stop));
+				}
+				for (int position = 0; position < length; position++) {
+					out.writeInt(solution.getLoad(r, position));
+				}
+			}
+			int n = solution.getUserCount();
+			out.writeInt(n);
+			for (int i = 1; i <= n; i++) {
+				out.writeDouble(solution.getRideTime(i));
+			}
+		} finally {
+			out.close();
+		}
+		replace(temporary, file);
+	}
+
+	/**
+	 * Read a solution.
+	 * @param file Name of the file.
+	 * @return The solution.
+	 * @throws IOException If the file cannot be read or is not a solution.
+	 */
+	public static Solution readSolution(String file) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER));
+		try {
+			readHeader(in, SOLUTION_MAGIC, SOLUTION_VERSION, SOLUTION_VERSION, file);
+			double objectiveValue = in.readDouble();
+			int routeCount = in.readInt();
+			if (routeCount < 0) {
+				throw new IOException(file + " is not a valid solution");
+			}
+			int[][] routes = new int[routeCount][];
+			double[][] serviceStarts = new double[routeCount][];
+			int[][] loads = new int[routeCount][];
+			for (int r = 0; r < routeCount; r++) {
+				int length = in.readInt();
+				if (length < 0) {
+					throw new IOException(file + " is not a valid solution");
+				}
+				routes[r] = new int[length];
+				for (int position = 0; position < length; position++) {
+					routes[r][position] = in.readInt();
+				}
+				serviceStarts[r] = new double[length + 2];
+				for (int stop = 0; stop < length + 2; stop++) {
+					serviceStarts[r][stop] = in.readDouble();
+				}
+				loads[r] = new int[length];
+				for (int position = 0; position < length; position++) {
+					loads[r][position] = in.readInt();
+				}
+			}
+			int n = in.readInt();
+			if (n < 0) {
+				throw new IOException(file + " is not a valid solution");
+			}
+			double[] rideTimes = new double[n + 1];
+			for (int i = 1; i <= n; i++) {
+				rideTimes[i] = in.readDouble();
+			}
+			return new Solution(objectiveValue, routes, serviceStarts, loads, rideTimes);
+		} catch (EOFException e) {
+			throw new IOException(file + " ends too early", e);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Check magic number and version of a file.
+	 * @return The version.
+	 */
+	private static int readHeader(DataInputStream in, int magic, int minVersion, int maxVersion, String file)
+			throws IOException {
+		if (in.readInt() != magic) {
+			throw new IOException(file + " has the wrong format");
+		}
+		int version = in.readInt();
+		if (version < minVersion || version > maxVersion) {
+			throw new IOException(file + " has the unknown format version " + version);
+		}
+		return version;
+	}
+
+	/**
+	 * Write position, service duration, load and time window of a node.
+	 */
+	private static void writeNode(DataOutputStream out, Node node) throws IOException {
+		out.writeDouble(node.getxPosition());
+		out.writeDouble(node.getyPosition());
+		out.writeInt(node.getServiceDuration());
+		out.writeInt(node.getLoad());
+		out.writeDouble(node.getEarliestServiceTime());
+		out.writeDouble(node.getLatestServiceTime());
+	}
+
+	/**
+	 * Read a node written by {@link #writeNode(DataOutputStream, Node)}.
+	 */
+	private static Node readNode(DataInputStream in) throws IOException {
+		double x = in.readDouble();
+		double y = in.readDouble();
+		int serviceDuration = in.readInt();
+		int load = in.readInt();
+		double earliest = in.readDouble();
+		double latest = in.readDouble();
+		return new Node(x, y, earliest, latest, load, serviceDuration);
+	}
+
+	/**
+	 * Get the temporary file a file is written to before it is renamed.
+	 */
+	private static Path temporaryFile(String file) {
+		return Paths.get(file + ".tmp");
+	}
+
+	/**
+	 * Replace a file by the completely written temporary file.
+	 */
+	static void replace(Path temporary, String file) throws IOException {
+		Files.move(temporary, Paths.get(file), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+}
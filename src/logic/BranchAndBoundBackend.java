@@ -0,0 +1,878 @@
+package logic;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * {@link MipBackend} that needs no external solver: A depth-first
+ * branch-and-bound with the {@link DualSimplex} as LP solver.</br>
+ * Constraints on a single variable become bounds (except the rows of
+ * {@link #addRow(double, LinearExpression, double, String)}). The lazy constraint pool
+ * is checked on every integer LP solution, violated pool constraints are
+ * added to the LP. Lazy constraints are separated on every integer LP solution, user cuts in several rounds at
+ * the root node and in one round at the other nodes. All cuts are kept
+ * for the rest of the search. The search runs in one thread, the number
+ * of threads is ignored. Suited for small instances only, the tableau of
+ * the LP is dense.</br>
+ * A {@link SearchStrategy} is mapped onto the analogues of this search: The
+ * seed perturbs the branching scores, {@link MipEmphasis#OPTIMALITY} selects
+ * the open node with the best bound instead of the last one and the cut
+ * level sets the separation rounds per node.
+ *
+ */
+public class BranchAndBoundBackend extends MipBackend {
+
+	/**
+	 * Maximal distance of an integer variable to the next integer.
+	 */
+	private static final double INTEGER_TOLERANCE = 1e-6;
+	/**
+	 * Minimal violation of a separated cut.
+	 */
+	private static final double CUT_TOLERANCE = 1e-6;
+	/**
+	 * Nodes are pruned if their bound is within this relative gap of the incumbent.
+	 */
+	private static final double RELATIVE_GAP = 1e-4;
+	/**
+	 * Separation rounds of user cuts at the root node.
+	 */
+	private static final int ROOT_CUT_ROUNDS = 50;
+	/**
+	 * Maximal relative perturbation of the branching scores by the random seed.
+	 */
+	private static final double SCORE_NOISE = 0.1;
+	/**
+	 * Number of nodes between two lines of the log.
+	 */
+	private static final int LOG_INTERVAL = 1000;
+
+	/**
+	 * Name of every column, null if it has no name.
+	 */
+	private final List<String> names = new ArrayList<String>();
+	/**
+	 * Lower bound of every column.
+	 */
+	private double[] lower = new double[64];
+	/**
+	 * Upper bound of every column.
+	 */
+	private double[] upper = new double[64];
+	/**
+	 * True for the binary columns.
+	 */
+	private boolean[] integer = new boolean[64];
+	/**
+	 * The minimized objective function.
+	 */
+	private LinearExpression objective = new LinearExpression();
+	/**
+	 * The constraints with more than one variable and the rows of
+	 * {@link #addRow(double, LinearExpression, double, String)}, the id of
+	 * a row is its index.
+	 */
+	private final List<Row> rows = new ArrayList<Row>();
+	/**
+	 * The constraints of the lazy constraint pool.
+	 */
+	private final List<Row> lazyRows = new ArrayList<Row>();
+	/**
+	 * The lazy constraints that are not yet in the LP during the solve.
+	 */
+	private List<Row> pendingLazyRows;
+	/**
+	 * The start solutions (columns).
+	 */
+	private final List<int[]> startColumns = new ArrayList<int[]>();
+	/**
+	 * The start solutions (values).
+	 */
+	private final List<double[]> startValues = new ArrayList<double[]>();
+	/**
+	 * The columns the separation gets the values of.
+	 */
+	private int[] separationColumns;
+	/**
+	 * The separation, null if no cuts are separated.
+	 */
+	private SeparationCallback separation;
+	/**
+	 * True if user cuts are separated on fractional solutions.
+	 */
+	private boolean userCuts;
+	/**
+	 * Time limit in seconds, 0 if none.
+	 */
+	private double timeLimit;
+	/**
+	 * True if the progress is printed.
+	 */
+	private boolean verbose = true;
+	/**
+	 * Value of {@link System#nanoTime()} at which the solve stops,
+	 * Long.MAX_VALUE without time limit.
+	 */
+	private long deadline = Long.MAX_VALUE;
+
+	/**
+	 * The LP relaxation during the solve.
+	 */
+	private DualSimplex lp;
+	/**
+	 * Values of the best solution, null if none was found.
+	 */
+	private double[] incumbent;
+	/**
+	 * Objective value of the best solution.
+	 */
+	private double incumbentValue = Double.POSITIVE_INFINITY;
+	/**
+	 * Best lower bound after the solve.
+	 */
+	private double bestBound = Double.NEGATIVE_INFINITY;
+	/**
+	 * Number of processed nodes.
+	 */
+	private long nodeCount;
+	/**
+	 * Status after the solve.
+	 */
+	private String status = "Unknown";
+	/**
+	 * Factor of the branching score of every column, null if the scores are
+	 * not perturbed.
+	 */
+	private double[] scoreWeights;
+	/**
+	 * Version of the shared incumbent that was last compared with the own one.
+	 */
+	private int sharedVersion;
+
+	/**
+	 * Constructor for a new empty model.
+	 */
+	public BranchAndBoundBackend() {
+		super();
+	}
+
+	@Override
+	protected int createNumVar(double lower, double upper, String name) {
+		return addColumn(lower, upper, false, named ? name : null);
+	}
+
+	@Override
+	protected int createBoolVar(String name) {
+		return addColumn(0, 1, true, named ? name : null);
+	}
+
+	@Override
+	protected int createNumVars(double[] lower, double[] upper) {
+		int first = names.size();
+		for (int v = 0; v < lower.length; v++) {
+			addColumn(lower[v], upper[v], false, null);
+		}
+		return first;
+	}
+
+	@Override
+	protected int createBoolVars(int count) {
+		int first = names.size();
+		for (int v = 0; v < count; v++) {
+			addColumn(0, 1, true, null);
+		}
+		return first;
+	}
+
+	@Override
+	public void setName(int column, String name) {
+		names.set(column, name);
+	}
+
+	/**
+	 * Get the name of a column in exported models, C and the column if it
+	 * has no name.
+	 */
+	private String columnName(int column) {
+		String name = names.get(column);
+		return name != null ? name : "C" + column;
+	}
+
+	/**
+	 * Add a column.
+	 */
+	private int addColumn(double columnLower, double columnUpper, boolean binary, String name) {
+		int column = names.size();
+		if (column == lower.length) {
+			lower = Arrays.copyOf(lower, 2 * column);
+			upper = Arrays.copyOf(upper, 2 * column);
+			integer = Arrays.copyOf(integer, 2 * column);
+		}
+		lower[column] = columnLower;
+		upper[column] = columnUpper;
+		integer[column] = binary;
+		names.add(name);
+		return column;
+	}
+
+	@Override
+	public void addMinimize(LinearExpression objective) {
+		this.objective = objective;
+	}
+
+	@Override
+	protected void createRange(double lower, LinearExpression expression, double upper, String name) {
+		Row row = new Row(expression, lower - expression.getConstant(), upper - expression.getConstant(), name);
+		if (row.columns.length == 1) {
+			// A bound of a single variable.
+			int column = row.columns[0];
+			double coefficient = row.values[0];
+			double from = (coefficient > 0 ? row.lower : row.upper) / coefficient;
+			double to = (coefficient > 0 ? row.upper : row.lower) / coefficient;
+			this.lower[column] = Math.max(this.lower[column], from);
+			this.upper[column] = Math.min(this.upper[column], to);
+		} else {
+			rows.add(row);
+		}
+	}
+
+	@Override
+	protected int createRow(double lower, LinearExpression expression, double upper, String name) {
+		rows.add(new Row(expression, lower - expression.getConstant(), upper - expression.getConstant(), name));
+		return rows.size() - 1;
+	}
+
+	@Override
+	public void addTerms(int row, LinearExpression terms) {
+		Row old = rows.get(row);
+		LinearExpression expression = new LinearExpression();
+		for (int t = 0; t < old.columns.length; t++) {
+			expression.addTerm(old.values[t], old.columns[t]);
+		}
+		for (int t = 0; t < terms.size(); t++) {
+			expression.addTerm(terms.getCoefficient(t), terms.getColumn(t));
+		}
+		rows.set(row, new Row(expression, old.lower, old.upper, old.name));
+	}
+
+	@Override
+	public void addObjectiveTerms(LinearExpression terms) {
+		LinearExpression sum = new LinearExpression();
+		for (int t = 0; t < objective.size(); t++) {
+			sum.addTerm(objective.getCoefficient(t), objective.getColumn(t));
+		}
+		for (int t = 0; t < terms.size(); t++) {
+			sum.addTerm(terms.getCoefficient(t), terms.getColumn(t));
+		}
+		sum.setConstant(objective.getConstant());
+		objective = sum;
+	}
+
+	@Override
+	public void setBounds(int column, double lower, double upper) {
+		this.lower[column] = lower;
+		this.upper[column] = upper;
+	}
+
+	@Override
+	protected void createLazyRange(double lower, LinearExpression expression, double upper, String name) {
+		lazyRows.add(new Row(expression, lower - expression.getConstant(), upper - expression.getConstant(), name));
+	}
+
+	@Override
+	public void addMIPStart(int[] columns, double[] values, String name) {
+		startColumns.add(columns.clone());
+		startValues.add(values.clone());
+	}
+
+	@Override
+	public void clearMIPStarts() {
+		startColumns.clear();
+		startValues.clear();
+	}
+
+	@Override
+	public void setSeparation(int[] columns, SeparationCallback callback, boolean userCuts) {
+		separationColumns = columns.clone();
+		separation = callback;
+		this.userCuts = userCuts;
+	}
+
+	@Override
+	public void setThreads(int threads) {
+		// The search is sequential.
+	}
+
+	@Override
+	public void setTimeLimit(double seconds) {
+		timeLimit = seconds;
+	}
+
+	@Override
+	public void setVerbose(boolean verbose) {
+		this.verbose = verbose;
+	}
+
+	@Override
+	public void exportModel(String file) throws MipException {
+		try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+			writer.println("Minimize");
+			writer.print(" obj:");
+			writeTerms(writer, new Row(objective, 0, 0, "obj"));
+			writer.println();
+			writer.println("Subject To");
+			writeRows(writer, rows, "#");
+			if (!lazyRows.isEmpty()) {
+				writer.println("Lazy Constraints");
+				writeRows(writer, lazyRows, "#lazy");
+			}
+			writer.println("Bounds");
+			for (int column = 0; column < names.size(); column++) {
+				if (!integer[column] || lower[column] != 0 || upper[column] != 1) {
+					writer.println(" " + bound(lower[column]) + " <= " + columnName(column) + " <= "
+							+ bound(upper[column]));
+				}
+			}
+			writer.println("Binaries");
+			for (int column = 0; column < names.size(); column++) {
+				if (integer[column]) {
+					writer.println(" " + columnName(column));
+				}
+			}
+			writer.println("End");
+		} catch (IOException e) {
+			throw new MipException("Export " + file, e);
+		}
+	}
+
+	/**
+	 * Write constraints in the LP format, ranges as two rows. The names are
+	 * made unique with the index of the row.
+	 */
+	private void writeRows(PrintWriter writer, List<Row> list, String separator) {
+		for (int r = 0; r < list.size(); r++) {
+			Row row = list.get(r);
+			if (row.lower == row.upper) {
+				writeRow(writer, row, row.name + separator + r, " = ", row.upper);
+				continue;
+			}
+			if (row.lower > Double.NEGATIVE_INFINITY) {
+				writeRow(writer, row, row.name + separator + r + "_lower", " >= ", row.lower);
+			}
+			if (row.upper < Double.POSITIVE_INFINITY) {
+				writeRow(writer, row, row.name + separator + r + "_upper", " <= ", row.upper);
+			}
+		}
+	}
+
+	/**
+	 * Write a constraint in the LP format.
+	 */
+	private void writeRow(PrintWriter writer, Row row, String name, String sense, double rhs) {
+		writer.print(" " + name + ":");
+		writeTerms(writer, row);
+		writer.println(sense + rhs);
+	}
+
+	/**
+	 * Write the terms of a row in the LP format.
+	 */
+	private void writeTerms(PrintWriter writer, Row row) {
+		for (int t = 0; t < row.columns.length; t++) {
+			writer.print(row.values[t] < 0 ? " - " : " + ");
+			writer.print(Math.abs(row.values[t]) + " " + columnName(row.columns[t]));
+		}
+	}
+
+	/**
+	 * Format a bound in the LP format.
+	 */
+	private static String bound(double value) {
+		if (value == Double.NEGATIVE_INFINITY) {
+			return "-inf";
+		}
+		if (value == Double.POSITIVE_INFINITY) {
+			return "+inf";
+		}
+		return String.valueOf(value);
+	}
+
+	@Override
+	public boolean solve() {
+		long begin = System.nanoTime();
+		int columnCount = names.size();
+		double[] cost = new double[columnCount];
+		for (int t = 0; t < objective.size(); t++) {
+			cost[objective.getColumn(t)] += objective.getCoefficient(t);
+		}
+		double[] rootLower = Arrays.copyOf(lower, columnCount);
+		double[] rootUpper = Arrays.copyOf(upper, columnCount);
+		lp = new DualSimplex(cost, rootLower, rootUpper);
+		for (Row row : rows) {
+			lp.addRow(row.columns, row.values, row.lower, row.upper);
+		}
+		lp.setIterationLimit(100 * (columnCount + rows.size()) + 1000);
+		deadline = timeLimit > 0 ? begin + (long) (timeLimit * 1e9) : Long.MAX_VALUE;
+		lp.setDeadline(deadline);
+		pendingLazyRows = new ArrayList<Row>(lazyRows);
+		incumbent = null;
+		incumbentValue = Double.POSITIVE_INFINITY;
+		nodeCount = 0;
+		sharedVersion = 0;
+		scoreWeights = null;
+		if (strategy != null && strategy.getRandomSeed() != 0) {
+			Random random = new Random(strategy.getRandomSeed());
+			scoreWeights = new double[columnCount];
+			for (int column = 0; column < columnCount; column++) {
+				scoreWeights[column] = 1 + SCORE_NOISE * (2 * random.nextDouble() - 1);
+			}
+		}
+		int cutLevel = strategy != null ? strategy.getCutLevel() : 0;
+		int rootCutRounds = cutLevel < 0 ? 0 : cutLevel < 2 ? ROOT_CUT_ROUNDS : 2 * ROOT_CUT_ROUNDS;
+		int nodeCutRounds = cutLevel < 0 ? 0 : 1 + cutLevel;
+		boolean bestFirst = strategy != null && strategy.getEmphasis() == MipEmphasis.OPTIMALITY;
+
+		// The start solutions: Fix the integer columns and complete the others.
+		for (int s = 0; s < startColumns.size() && !isTimeUp(); s++) {
+			int[] columns = startColumns.get(s);
+			double[] values = startValues.get(s);
+			for (int v = 0; v < columns.length; v++) {
+				if (integer[columns[v]]) {
+					double fixed = Math.rint(values[v]);
+					lp.setBounds(columns[v], fixed, fixed);
+				}
+			}
+			double value = solveNode(0);
+			if (value < Double.POSITIVE_INFINITY && isIntegral(lp.getValues())) {
+				updateIncumbent(value);
+			}
+			for (int v = 0; v < columns.length; v++) {
+				lp.setBounds(columns[v], rootLower[columns[v]], rootUpper[columns[v]]);
+			}
+		}
+
+		if (metrics != null && incumbent != null) {
+			metrics.recordProgress(incumbentValue, Double.NEGATIVE_INFINITY, 0);
+		}
+
+		// Depth-first search, the child on the side the value is rounded to
+		// first, or best-bound search for the optimality emphasis.
+		Deque<BranchNode> open = new ArrayDeque<BranchNode>();
+		open.push(new BranchNode(null, -1, 0, 0, Double.NEGATIVE_INFINITY, 0));
+		double[] nodeLower = new double[columnCount];
+		double[] nodeUpper = new double[columnCount];
+		double unsolvedBound = Double.POSITIVE_INFINITY;
+		boolean stopped = false;
+		while (!open.isEmpty()) {
+			if (isTimeUp()) {
+				stopped = true;
+				break;
+			}
+			if (shared != null) {
+				if (shared.isStopped()) {
+					stopped = true;
+					break;
+				}
+				adoptSharedIncumbent();
+			}
+			BranchNode node = bestFirst ? removeBestBound(open) : open.pop();
+			if (node.bound >= cutoff()) {
+				continue;
+			}
+			System.arraycopy(rootLower, 0, nodeLower, 0, columnCount);
+			System.arraycopy(rootUpper, 0, nodeUpper, 0, columnCount);
+			for (BranchNode branch = node; branch.parent != null; branch = branch.parent) {
+				nodeLower[branch.column] = Math.max(nodeLower[branch.column], branch.lower);
+				nodeUpper[branch.column] = Math.min(nodeUpper[branch.column], branch.upper);
+			}
+			for (int column = 0; column < columnCount; column++) {
+				if (integer[column]
+						&& (lp.getLower(column) != nodeLower[column] || lp.getUpper(column) != nodeUpper[column])) {
+					lp.setBounds(column, nodeLower[column], nodeUpper[column]);
+				}
+			}
+
+			nodeCount++;
+			double reported = incumbentValue;
+			double value = solveNode(node.depth == 0 ? rootCutRounds : nodeCutRounds);
+			if (Double.isNaN(value)) {
+				unsolvedBound = Math.min(unsolvedBound, node.bound);
+				continue;
+			}
+			if (value >= cutoff()) {
+				continue;
+			}
+			double[] values = lp.getValues();
+			int column = branchingColumn(values);
+			if (column < 0) {
+				updateIncumbent(value);
+			} else {
+				double down = Math.floor(values[column]);
+				BranchNode downNode = new BranchNode(node, column, nodeLower[column], down, value, node.depth + 1);
+				BranchNode upNode = new BranchNode(node, column, down + 1, nodeUpper[column], value, node.depth + 1);
+				if (values[column] - down >= 0.5) {
+					open.push(downNode);
+					open.push(upNode);
+				} else {
+					open.push(upNode);
+					open.push(downNode);
+				}
+			}
+			if (verbose && nodeCount % LOG_INTERVAL == 0) {
+				System.out.println("Nodes: " + nodeCount + ", open: " + open.size() + ", best: " + incumbentValue
+						+ ", cuts: " + (lp.getRowCount() - rows.size()));
+			}
+			if (metrics != null && (incumbentValue != reported || nodeCount % LOG_INTERVAL == 0)) {
+				double bound = Math.min(incumbentValue, unsolvedBound);
+				for (BranchNode openNode : open) {
+					bound = Math.min(bound, openNode.bound);
+				}
+				metrics.recordProgress(incumbentValue, bound, nodeCount);
+			}
+		}
+
+		bestBound = Math.min(incumbentValue, unsolvedBound);
+		for (BranchNode node : open) {
+			bestBound = Math.min(bestBound, node.bound);
+		}
+		boolean complete = !stopped && unsolvedBound == Double.POSITIVE_INFINITY;
+		if (incumbent != null) {
+			status = complete ? "Optimal" : "Feasible";
+		} else {
+			status = complete ? "Infeasible" : "Unknown";
+		}
+		if (verbose) {
+			System.out.println("Branch-and-bound: " + status + ", " + nodeCount + " nodes, "
+					+ (lp.getRowCount() - rows.size()) + " cuts");
+		}
+		lp = null;
+		pendingLazyRows = null;
+		return incumbent != null;
+	}
+
+	/**
+	 * Remove the open node with the smallest bound, the last one of equal
+	 * nodes.
+	 */
+	private static BranchNode removeBestBound(Deque<BranchNode> open) {
+		BranchNode best = null;
+		for (BranchNode node : open) {
+			if (best == null || node.bound < best.bound) {
+				best = node;
+			}
+		}
+		open.removeFirstOccurrence(best);
+		return best;
+	}
+
+	/**
+	 * Take over the shared incumbent if it is better than the own one.
+	 */
+	private void adoptSharedIncumbent() {
+		int version = shared.getVersion();
+		if (version == sharedVersion) {
+			return;
+		}
+		sharedVersion = version;
+		double[] values;
+		double value;
+		synchronized (shared) {
+			values = shared.getValues();
+			value = shared.getObjective();
+		}
+		if (values != null && value < incumbentValue) {
+			incumbentValue = value;
+			incumbent = values.clone();
+		}
+	}
+
+	/**
+	 * Solve the LP of a node and separate cuts until no violated cut is
+	 * found. On an integer solution the lazy constraint pool and all lazy
+	 * constraints of the separation are checked. After the deadline no
+	 * further round of user cuts is separated and the LP stops between
+	 * two pivots.
+	 * @param cutRounds Maximal number of separation rounds of user cuts.
+	 * @return The objective value, positive infinity if the node is
+	 *         infeasible and NaN if the LP was not solved.
+	 */
+	private double solveNode(int cutRounds) {
+		int round = 0;
+		while (true) {
+			int result = lp.solve();
+			if (result == DualSimplex.INFEASIBLE) {
+				return Double.POSITIVE_INFINITY;
+			}
+			if (result == DualSimplex.ITERATION_LIMIT || result == DualSimplex.TIME_LIMIT) {
+				return Double.NaN;
+			}
+			double value = lp.getObjective() + objective.getConstant();
+			if (value >= cutoff()) {
+				return value;
+			}
+			double[] values = lp.getValues();
+			boolean integral = isIntegral(values);
+			if (integral && addLazyRows(values)) {
+				continue;
+			}
+			if (separation == null || (!integral && (!userCuts || round >= cutRounds || isTimeUp()))) {
+				return value;
+			}
+			round++;
+			if (!addCuts(values, integral)) {
+				return value;
+			}
+		}
+	}
+
+	/**
+	 * Check whether the time limit of the solve is reached.
+	 */
+	private boolean isTimeUp() {
+		return deadline != Long.MAX_VALUE && System.nanoTime() - deadline >= 0;
+	}
+
+	/**
+	 * Move the violated constraints of the lazy constraint pool to the LP.
+	 * @return True if a constraint was added.
+	 */
+	private boolean addLazyRows(double[] values) {
+		int kept = 0;
+		for (Row row : pendingLazyRows) {
+			if (isViolated(row, values)) {
+				lp.addRow(row.columns, row.values, row.lower, row.upper);
+			} else {
+				pendingLazyRows.set(kept++, row);
+			}
+		}
+		boolean added = kept < pendingLazyRows.size();
+		pendingLazyRows.subList(kept, pendingLazyRows.size()).clear();
+		return added;
+	}
+
+	/**
+	 * Check whether a row is violated by more than the tolerance.
+	 */
+	private static boolean isViolated(Row row, double[] values) {
+		double activity = 0;
+		for (int t = 0; t < row.columns.length; t++) {
+			activity += row.values[t] * values[row.columns[t]];
+		}
+		return activity > row.upper + CUT_TOLERANCE || activity < row.lower - CUT_TOLERANCE;
+	}
+
+	/**
+	 * Separate cuts and add the violated ones to the LP.
+	 * @return True if a cut was added.
+	 */
+	private boolean addCuts(double[] values, boolean integral) {
+		double[] separationValues = new double[separationColumns.length];
+		for (int v = 0; v < separationColumns.length; v++) {
+			separationValues[v] = values[separationColumns[v]];
+		}
+		boolean added = false;
+		for (LinearConstraint cut : separation.separate(separationValues, integral)) {
+			Row row = new Row(cut.getExpression(), cut.getLower(), cut.getUpper(), "cut");
+			if (isViolated(row, values)) {
+				lp.addRow(row.columns, row.values, row.lower, row.upper);
+				added = true;
+			}
+		}
+		return added;
+	}
+
+	/**
+	 * Get the objective value a node must be below to be explored.
+	 */
+	private double cutoff() {
+		if (incumbent == null) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return incumbentValue - Math.max(INTEGER_TOLERANCE, RELATIVE_GAP * Math.abs(incumbentValue));
+	}
+
+	/**
+	 * Check whether all integer columns have integer values.
+	 */
+	private boolean isIntegral(double[] values) {
+		return branchingColumn(values) < 0;
+	}
+
+	/**
+	 * Select the integer column with the most fractional value, weighted
+	 * with the perturbation of the random seed.
+	 * @return The column, -1 if all integer columns are integer.
+	 */
+	private int branchingColumn(double[] values) {
+		int best = -1;
+		double bestScore = 0;
+		for (int column = 0; column < values.length; column++) {
+			if (integer[column]) {
+				double fraction = Math.abs(values[column] - Math.rint(values[column]));
+				double score = scoreWeights != null ? fraction * scoreWeights[column] : fraction;
+				if (fraction > INTEGER_TOLERANCE && score > bestScore) {
+					bestScore = score;
+					best = column;
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Store the current LP solution as best solution.
+	 */
+	private void updateIncumbent(double value) {
+		if (value < incumbentValue) {
+			incumbentValue = value;
+			incumbent = lp.getValues();
+			for (int column = 0; column < incumbent.length; column++) {
+				if (integer[column]) {
+					incumbent[column] = Math.rint(incumbent[column]);
+				}
+			}
+			if (verbose) {
+				System.out.println("Nodes: " + nodeCount + ", new solution: " + value);
+			}
+			if (shared != null) {
+				shared.offer(value, incumbent);
+			}
+		}
+	}
+
+	@Override
+	public String getStatus() {
+		return status;
+	}
+
+	@Override
+	public double getObjValue() throws MipException {
+		if (incumbent == null) {
+			throw new MipException("No solution");
+		}
+		return incumbentValue;
+	}
+
+	@Override
+	public double getBestObjValue() {
+		return bestBound;
+	}
+
+	@Override
+	public double getMIPRelativeGap() throws MipException {
+		return (getObjValue() - bestBound) / (1e-10 + Math.abs(incumbentValue));
+	}
+
+	@Override
+	public long getNodeCount() {
+		return nodeCount;
+	}
+
+	@Override
+	public double[] getValues(int[] columns) throws MipException {
+		if (incumbent == null) {
+			throw new MipException("No solution");
+		}
+		double[] values = new double[columns.length];
+		for (int v = 0; v < columns.length; v++) {
+			values[v] = incumbent[columns[v]];
+		}
+		return values;
+	}
+
+	@Override
+	public void end() {
+		lp = null;
+		incumbent = null;
+	}
+
+	/**
+	 * A constraint lower <= sum(values[t] * x_columns[t]) <= upper with
+	 * every column in one term.
+	 */
+	private static class Row {
+
+		private final int[] columns;
+		private final double[] values;
+		private final double lower;
+		private final double upper;
+		private final String name;
+
+		/**
+		 * Constructor for a new row. Terms of the same column are merged.
+		 */
+		Row(final LinearExpression expression, double lower, double upper, String name) {
+			Integer[] sorted = new Integer[expression.size()];
+			for (int t = 0; t < sorted.length; t++) {
+				sorted[t] = t;
+			}
+			Arrays.sort(sorted, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer a, Integer b) {
+					return Integer.compare(expression.getColumn(a), expression.getColumn(b));
+				}
+			});
+			int[] rowColumns = new int[sorted.length];
+			double[] rowValues = new double[sorted.length];
+			int size = 0;
+			for (Integer t : sorted) {
+				int column = expression.getColumn(t);
+				if (size > 0 && rowColumns[size - 1] == column) {
+					rowValues[size - 1] += expression.getCoefficient(t);
+				} else {
+					rowColumns[size] = column;
+					rowValues[size] = expression.getCoefficient(t);
+					size++;
+				}
+			}
+			int nonzero = 0;
+			for (int t = 0; t < size; t++) {
+				if (rowValues[t] != 0) {
+					rowColumns[nonzero] = rowColumns[t];
+					rowValues[nonzero] = rowValues[t];
+					nonzero++;
+				}
+			}
+			this.columns = Arrays.copyOf(rowColumns, nonzero);
+			this.values = Arrays.copyOf(rowValues, nonzero);
+			this.lower = lower;
+			this.upper = upper;
+			this.name = name;
+		}
+	}
+
+	/**
+	 * A node of the search tree: The bounds of one column changed in
+	 * the node compared to its parent.
+	 */
+	private static class BranchNode {
+
+		private final BranchNode parent;
+		private final int column;
+		private final double lower;
+		private final double upper;
+		/**
+		 * Objective value of the LP of the parent.
+		 */
+		private final double bound;
+		private final int depth;
+
+		BranchNode(BranchNode parent, int column, double lower, double upper, double bound, int depth) {
+			this.parent = parent;
+			this.column = column;
+			this.lower = lower;
+			this.upper = upper;
+			this.bound = bound;
+			this.depth = depth;
+		}
+	}
+
+}
@@ -0,0 +1,1050 @@
+package logic;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Branch-and-price as an alternative to the arc formulation of the
+ * {@link model}: A set partitioning master over feasible routes with
+ * column generation.</br>
+ * Every column is a route of one vehicle type (vehicles that are
+ * {@link Truck#isIdentical(Truck) identical}) with its routing cost. The
+ * master covers every user once and uses every vehicle of a type once,
+ * unused vehicles drive the empty route from the origin to the destination
+ * depot like in the model. Its LP is solved by the {@link DualSimplex} of
+ * the bundled solver with an artificial column of cost bigM per row, the
+ * duals of its rows price the routes. The columns with negative reduced cost are found by the
+ * {@link LabelingPricer}: First the pricing heuristics (restricted arcs,
+ * few labels per node) of all types run in parallel on the fork-join pool,
+ * only if they find nothing the exact bidirectional labeling runs. The
+ * Lagrangian bound z + sum(m_t * min(0, rc_t)) of every exact pricing may
+ * prune a node before its LP is solved completely.</br>
+ * The search branches on the aggregated flow x_ij of the arc closest to
+ * 0.5: x_ij = 0 removes the arc, x_ij = 1 removes all other arcs out of i
+ * and into j. Both rules only forbid arcs, so the pricing stays the same
+ * and a column is part of a node if all its arcs are allowed. The open
+ * nodes are processed best bound first. The start columns are the single
+ * user routes and the routes of the insertion heuristic and the local
+ * search, at the root the set partitioning problem over all generated
+ * columns is solved by the {@link MipBackend} for a better incumbent.
+ *
+ */
+public class BranchAndPriceSolver {
+
+	/**
+	 * Tolerance for integrality and the comparison with the incumbent.
+	 */
+	private static final double EPSILON = 1e-6;
+	/**
+	 * Maximal number of simplex pivots per LP solve.
+	 */
+	private static final int ITERATION_LIMIT = 100000;
+	/**
+	 * Largest cost of the artificial columns before a node is infeasible.
+	 */
+	private static final double MAX_BIG_M = 1e9;
+	/**
+	 * Arcs into pick-ups per node and labels per node of the pricing heuristics.
+	 */
+	private static final int[][] HEURISTIC_SETTINGS = { { 5, 20 }, { 10, 200 } };
+
+	/**
+	 * The instance that is solved.
+	 */
+	private final Instance instance;
+	/**
+	 * The settings of the solve.
+	 */
+	private final SolverOptions options;
+	/**
+	 * Maximal number of columns of one pricing problem per iteration.
+	 */
+	private int maxColumns = 30;
+	/**
+	 * True if the pricing heuristics run before the exact pricing.
+	 */
+	private boolean heuristicPricing = true;
+	/**
+	 * True if the exact pricing is bidirectional.
+	 */
+	private boolean bidirectional = true;
+	/**
+	 * Time limit of the set partitioning problem at the root in seconds.
+	 */
+	private double integerTimeLimit = 10;
+
+	/**
+	 * Array containing all nodes.
+	 */
+	private Node[] N;
+	/**
+	 * Array containing all vehicles.
+	 */
+	private Truck[] K;
+	/**
+	 * Number of users (number of pick-up locations).
+	 */
+	private int n;
+	/**
+	 * Distance and travel time between node i and node j.
+	 */
+	private TravelMatrix c;
+	/**
+	 * Routing cost and feasibility of routes.
+	 */
+	private InsertionHeuristic heuristic;
+	/**
+	 * The vehicles of every vehicle type.
+	 */
+	private List<int[]> types;
+	/**
+	 * The columns of the master in the order of their index.
+	 */
+	private List<Column> columns;
+	/**
+	 * The columns of the current node.
+	 */
+	private BitSet enabled;
+	/**
+	 * Right hand side of every row of the master: 1 for the users, the
+	 * number of vehicles for the vehicle types.
+	 */
+	private double[] rhs;
+	/**
+	 * Cost of the artificial columns of the master.
+	 */
+	private double bigM;
+	/**
+	 * Value of every column in the last LP solution of the master.
+	 */
+	private double[] values;
+	/**
+	 * Dual value of every row in the last LP solution of the master.
+	 */
+	private double[] duals;
+	/**
+	 * Sum of the artificial columns in the last LP solution of the master.
+	 */
+	private double infeasibility;
+	/**
+	 * Cost of the columns in the last LP solution of the master (without
+	 * the artificial columns).
+	 */
+	private double masterValue;
+	/**
+	 * Number of simplex pivots of all LP solves of the master.
+	 */
+	private long iterations;
+	/**
+	 * Index of every column by its type and nodes, to skip duplicates.
+	 */
+	private Map<String, Integer> columnIndex;
+	/**
+	 * Time the search stops, see {@link System#nanoTime()}.
+	 */
+	private long deadline;
+	/**
+	 * True if the search stopped before all nodes were processed.
+	 */
+	private boolean incomplete;
+	/**
+	 * Cost of the best routes.
+	 */
+	private double upperBound;
+	/**
+	 * The columns of the best routes.
+	 */
+	private List<Column> incumbent;
+	/**
+	 * Number of pricing problems solved.
+	 */
+	private long pricings;
+	/**
+	 * True if the last column generation proved its LP optimal.
+	 */
+	private boolean proven;
+	/**
+	 * Smallest bound of the nodes that were given up.
+	 */
+	private double unsolved;
+
+	/**
+	 * Constructor for a new solver.
+	 * @param instance The instance that is solved.
+	 * @param options The settings of the solve.
+	 */
+	public BranchAndPriceSolver(Instance instance, SolverOptions options) {
+		super();
+		this.instance = instance;
+		this.options = options;
+	}
+
+	/**
+	 * Solve the instance by branch-and-price within the time limit of the options.
+	 * @return The result with the best solution found, status Optimal or
+	 *         Infeasible if the search is complete.
+	 */
+	public SolverResult solve() {
+		long begin = System.nanoTime();
+		deadline = options.getTimeLimit() > 0 ? begin + (long) (options.getTimeLimit() * 1e9) : Long.MAX_VALUE;
+		SolverMetrics metrics = new SolverMetrics(instance.getName());
+		metrics.startPhase("distances");
+		N = instance.createNodes();
+		K = instance.createTrucks();
+		n = instance.getUsers();
+		try {
+			if (options.getTravelMatrixFile() != null) {
+				c = TravelMatrix.read(options.getTravelMatrixFile());
+			} else {
+				c = TravelMatrix.compute(options.getTravelMetric(), N, options.getMatrixStorage());
+			}
+			// Vehicles with own depots travel from and to these depots.
+			Truck.computeDepotTravelTimes(K, N, c, options);
+		} catch (IOException | IllegalArgumentException e) {
+			e.printStackTrace();
+			return new SolverResult(instance.getName(), "Error", Double.NaN, Double.NaN, Double.NaN, 0,
+					new long[CutType.values().length], seconds(begin), null, null);
+		}
+
+		metrics.startPhase("preprocess");
+		boolean[][] arcs = new boolean[N.length][N.length];
+		for (int i = 0; i < N.length; i++) {
+			for (int j = 0; j < N.length; j++) {
+				arcs[i][j] = i != j && j != 0 && i != N.length - 1;
+			}
+		}
+		if (options.isPreprocess()) {
+			Preprocessor preprocessor = new Preprocessor(N, K, n, instance.getMaxRideTime(), c);
+			if (!preprocessor.tightenTimeWindows()) {
+				metrics.finish();
+				writeMetrics(metrics);
+				return new SolverResult(instance.getName(), "Infeasible", Double.NaN, Double.NaN, Double.NaN, 0,
+						new long[CutType.values().length], seconds(begin), null, metrics);
+			}
+			arcs = preprocessor.eliminateArcs();
+		}
+		types = new ArrayList<int[]>();
+		boolean[] grouped = new boolean[K.length];
+		for (int k = 0; k < K.length; k++) {
+			if (grouped[k]) {
+				continue;
+			}
+			List<Integer> members = new ArrayList<Integer>();
+			for (int other = k; other < K.length; other++) {
+				if (!grouped[other] && (other == k || K[k].isIdentical(K[other]))) {
+					grouped[other] = true;
+					members.add(other);
+				}
+			}
+			int[] type = new int[members.size()];
+			for (int m = 0; m < type.length; m++) {
+				type[m] = members.get(m);
+			}
+			types.add(type);
+		}
+
+		metrics.startPhase("heuristic");
+		heuristic = new InsertionHeuristic(N, K, n, instance.getMaxRideTime(), c, c);
+		upperBound = Double.POSITIVE_INFINITY;
+		incumbent = null;
+		int[][] routes = heuristic.construct();
+		if (routes != null) {
+			LocalSearch search = new LocalSearch(heuristic);
+			search.improve(routes);
+			upperBound = search.cost(routes);
+		}
+		createMaster(routes);
+		metrics.recordProgress(upperBound, Double.NEGATIVE_INFINITY, 0);
+
+		metrics.startPhase("root");
+		pricings = 0;
+		incomplete = false;
+		long nodes = 0;
+		double bound = Double.NEGATIVE_INFINITY;
+		unsolved = Double.POSITIVE_INFINITY;
+		PriorityQueue<SearchNode> open = new PriorityQueue<SearchNode>(16, new Comparator<SearchNode>() {
+			@Override
+			public int compare(SearchNode a, SearchNode b) {
+				return Double.compare(a.bound, b.bound);
+			}
+		});
+		open.add(new SearchNode(arcs, Double.NEGATIVE_INFINITY, 0));
+		while (!open.isEmpty()) {
+			SearchNode node = open.poll();
+			if (node.bound >= upperBound - EPSILON) {
+				continue;
+			}
+			if (System.nanoTime() > deadline) {
+				open.add(node);
+				incomplete = true;
+				break;
+			}
+			nodes++;
+			double value = generateColumns(node);
+			if (Double.isNaN(value)) {
+				open.add(node);
+				incomplete = true;
+				break;
+			}
+			if (nodes == 1) {
+				bound = value;
+				if (options.isVerbose()) {
+					System.out.println(String.format(Locale.ROOT,
+							"Branch-and-price: Root bound %.4f, %d columns, %d pricings (%.1f s)", value,
+							columns.size(), pricings, seconds(begin)));
+				}
+				if (value < upperBound - EPSILON && infeasibility <= EPSILON) {
+					solveRestricted(null);
+				}
+				metrics.startPhase("branch");
+			}
+			if (value >= upperBound - EPSILON) {
+				continue;
+			}
+			if (infeasibility > EPSILON) {
+				// Only if the pricing could not prove the node infeasible.
+				giveUp(value);
+				continue;
+			}
+			if (isIntegral()) {
+				updateIncumbent(node);
+				if (!isProven() && value < upperBound - EPSILON) {
+					giveUp(value);
+				}
+				metrics.recordProgress(upperBound, lowerBound(open, value), nodes);
+				continue;
+			}
+			int[] arc = selectArc(node);
+			if (arc == null) {
+				// The same route in two vehicle types: The arc flows are
+				// integral, the partitioning of the columns is not.
+				if (!solveRestricted(node) || upperBound > value + EPSILON) {
+					giveUp(value);
+				}
+				continue;
+			}
+			open.add(new SearchNode(forbid(node.arcs, arc[0], arc[1]), value, node.depth + 1));
+			open.add(new SearchNode(fix(node.arcs, arc[0], arc[1]), value, node.depth + 1));
+			if (nodes % 100 == 0) {
+				metrics.recordProgress(upperBound, lowerBound(open, value), nodes);
+				if (options.isVerbose()) {
+					System.out.println(String.format(Locale.ROOT,
+							"Branch-and-price: %d nodes, %d open, bound %.4f, incumbent %.4f (%.1f s)", nodes,
+							open.size(), lowerBound(open, value), upperBound, seconds(begin)));
+				}
+			}
+		}
+
+		metrics.startPhase("extract");
+		String status;
+		double objectiveValue = incumbent != null ? upperBound : Double.NaN;
+		if (!incomplete && open.isEmpty()) {
+			status = incumbent != null ? "Optimal" : "Infeasible";
+			bound = objectiveValue;
+		} else {
+			status = incumbent != null ? "Feasible" : "Unknown";
+			if (!open.isEmpty()) {
+				bound = Math.max(bound, open.peek().bound);
+			}
+			bound = Math.min(bound, unsolved);
+			if (incumbent != null) {
+				bound = Math.min(bound, objectiveValue);
+			}
+			if (bound == Double.NEGATIVE_INFINITY) {
+				bound = Double.NaN;
+			}
+		}
+		double gap = incumbent != null ? (objectiveValue - bound) / (1e-10 + Math.abs(objectiveValue)) : Double.NaN;
+		Solution solution = incumbent != null ? toSolution(incumbent, objectiveValue) : null;
+		metrics.recordProgress(objectiveValue, bound, nodes);
+		if (options.isVerbose()) {
+			System.out.println("Branch-and-price: " + status + ", objective " + objectiveValue + ", " + nodes
+					+ " nodes, " + columns.size() + " columns, " + pricings + " pricings, " + iterations
+					+ " simplex iterations.");
+		}
+		metrics.finish();
+		writeMetrics(metrics);
+		return new SolverResult(instance.getName(), status, objectiveValue, bound, gap, nodes,
+				new long[CutType.values().length], seconds(begin), solution, metrics);
+	}
+
+	/**
+	 * Create the master with the empty route of every vehicle type, the
+	 * routes of the single users and the routes of the heuristic.
+	 * @param routes The route of every vehicle, null if the heuristic found none.
+	 */
+	private void createMaster(int[][] routes) {
+		rhs = new double[n + types.size()];
+		Arrays.fill(rhs, 0, n, 1);
+		for (int t = 0; t < types.size(); t++) {
+			rhs[n + t] = types.get(t).length;
+		}
+		columns = new ArrayList<Column>();
+		columnIndex = new HashMap<String, Integer>();
+		enabled = new BitSet();
+		iterations = 0;
+		for (int t = 0; t < types.size(); t++) {
+			addColumn(t, new int[0]);
+			for (int user = 1; user <= n; user++) {
+				addColumn(t, new int[] { user, n + user });
+			}
+		}
+		if (routes != null) {
+			for (int k = 0; k < K.length; k++) {
+				int t = typeOf(k);
+				addColumn(t, routes[k]);
+			}
+			List<Column> start = new ArrayList<Column>();
+			for (int k = 0; k < K.length; k++) {
+				start.add(columns.get(find(typeOf(k), routes[k])));
+			}
+			incumbent = start;
+		}
+		// Larger than the cost of any column and any dual value of the LP.
+		double largest = 0;
+		for (Column column : columns) {
+			largest = Math.max(largest, column.cost);
+		}
+		if (upperBound < Double.POSITIVE_INFINITY) {
+			largest = Math.max(largest, upperBound);
+		}
+		bigM = Math.max(1000, 10 * largest);
+	}
+
+	/**
+	 * Add a route as column unless it is infeasible or already a column.
+	 * @return Index of the column, -1 if the route is infeasible.
+	 */
+	private int addColumn(int type, int[] route) {
+		int existing = find(type, route);
+		if (existing >= 0) {
+			return existing;
+		}
+		Truck truck = K[types.get(type)[0]];
+		if (route.length > 0 && !heuristic.isFeasible(route, truck)) {
+			return -1;
+		}
+		Column column = new Column(type, route, heuristic.cost(route, truck));
+		int index = columns.size();
+		columns.add(column);
+		columnIndex.put(key(type, route), index);
+		return index;
+	}
+
+	/**
+	 * Solve the LP of the master over the enabled columns: An artificial
+	 * column of cost bigM per row makes it feasible. The LP is built again
+	 * for every solve, its rows are the few users and vehicle types.
+	 * @return False if the LP stopped at the iteration or time limit.
+	 */
+	private boolean solveMaster() {
+		int rows = rhs.length;
+		int count = enabled.cardinality();
+		int[] enabledColumns = new int[count];
+		double[] cost = new double[count + rows];
+		double[] lower = new double[count + rows];
+		double[] upper = new double[count + rows];
+		int[] sizes = new int[rows];
+		int v = 0;
+		for (int r = enabled.nextSetBit(0); r >= 0; r = enabled.nextSetBit(r + 1)) {
+			Column column = columns.get(r);
+			enabledColumns[v] = r;
+			cost[v] = column.cost;
+			upper[v] = rhs[n + column.type];
+			for (int stop : column.route) {
+				if (stop <= n) {
+					sizes[stop - 1]++;
+				}
+			}
+			sizes[n + column.type]++;
+			v++;
+		}
+		for (int i = 0; i < rows; i++) {
+			cost[count + i] = bigM;
+			upper[count + i] = Double.POSITIVE_INFINITY;
+		}
+
+		// The terms of every row: the covering columns and the artificial column.
+		int[][] rowColumns = new int[rows][];
+		double[][] rowValues = new double[rows][];
+		for (int i = 0; i < rows; i++) {
+			rowColumns[i] = new int[sizes[i] + 1];
+			rowValues[i] = new double[sizes[i] + 1];
+			Arrays.fill(rowValues[i], 1);
+			sizes[i] = 0;
+		}
+		for (v = 0; v < count; v++) {
+			Column column = columns.get(enabledColumns[v]);
+			for (int stop : column.route) {
+				if (stop <= n) {
+					rowColumns[stop - 1][sizes[stop - 1]++] = v;
+				}
+			}
+			rowColumns[n + column.type][sizes[n + column.type]++] = v;
+		}
+		DualSimplex lp = new DualSimplex(cost, lower, upper);
+		for (int i = 0; i < rows; i++) {
+			rowColumns[i][sizes[i]] = count + i;
+			lp.addRow(rowColumns[i], rowValues[i], rhs[i], rhs[i]);
+		}
+		lp.setIterationLimit(ITERATION_LIMIT);
+		lp.setDeadline(deadline);
+		int result = lp.solve();
+		iterations += lp.getIterations();
+		if (result != DualSimplex.OPTIMAL) {
+			return false;
+		}
+
+		double[] solution = lp.getValues();
+		values = new double[columns.size()];
+		masterValue = 0;
+		for (v = 0; v < count; v++) {
+			values[enabledColumns[v]] = solution[v];
+			masterValue += cost[v] * solution[v];
+		}
+		infeasibility = 0;
+		for (int i = 0; i < rows; i++) {
+			infeasibility += solution[count + i];
+		}
+		duals = lp.getRowDuals();
+		return true;
+	}
+
+	/**
+	 * Find the column of a route.
+	 * @return Index of the column, -1 if the route is no column.
+	 */
+	private int find(int type, int[] route) {
+		Integer index = columnIndex.get(key(type, route));
+		return index != null ? index : -1;
+	}
+
+	/**
+	 * Get the key of a route of a vehicle type.
+	 */
+	private static String key(int type, int[] route) {
+		return type + ":" + Arrays.toString(route);
+	}
+
+	/**
+	 * Get the vehicle type of a vehicle.
+	 */
+	private int typeOf(int vehicle) {
+		for (int t = 0; t < types.size(); t++) {
+			for (int k : types.get(t)) {
+				if (k == vehicle) {
+					return t;
+				}
+			}
+		}
+		throw new IllegalArgumentException("Unknown vehicle " + vehicle);
+	}
+
+	/**
+	 * Solve the LP of a node by column generation.
+	 * @return The LP value, a lower bound of the node that is at least the
+	 *         incumbent if the node can be pruned, infinity if the node is
+	 *         infeasible or NaN at the time limit. If the pricing cannot
+	 *         prove the LP optimal (see {@link #isProven()}) the best
+	 *         Lagrangian bound.
+	 */
+	private double generateColumns(SearchNode node) {
+		enabled.clear();
+		for (int r = 0; r < columns.size(); r++) {
+			enabled.set(r, isAllowed(columns.get(r), node.arcs));
+		}
+		double bound = node.bound;
+		while (true) {
+			if (!solveMaster() || System.nanoTime() > deadline) {
+				return Double.NaN;
+			}
+			List<int[]> found = new ArrayList<int[]>();
+			List<Integer> foundTypes = new ArrayList<Integer>();
+			if (heuristicPricing) {
+				price(node.arcs, duals, true, found, foundTypes);
+			}
+			proven = false;
+			if (found.isEmpty()) {
+				double[] minReducedCost = price(node.arcs, duals, false, found, foundTypes);
+				if (minReducedCost == null) {
+					return Double.NaN;
+				}
+				// Lagrangian bound: y * b + sum(m_t * min(0, rc_t)), the
+				// empty route is part of every vehicle type.
+				double lagrangian = 0;
+				proven = true;
+				for (int i = 0; i < duals.length; i++) {
+					lagrangian += rhs[i] * duals[i];
+				}
+				for (int t = 0; t < types.size(); t++) {
+					double emptyCost = columns.get(find(t, new int[0])).cost - duals[n + t];
+					lagrangian += types.get(t).length * Math.min(0, Math.min(minReducedCost[t], emptyCost));
+					proven &= minReducedCost[t] > -EPSILON;
+				}
+				bound = Math.max(bound, lagrangian);
+				if (bound >= upperBound - EPSILON) {
+					return bound;
+				}
+			}
+			int added = 0;
+			for (int f = 0; f < found.size(); f++) {
+				int before = columns.size();
+				int column = addColumn(foundTypes.get(f), found.get(f));
+				if (column >= before) {
+					enabled.set(column);
+					added++;
+				}
+			}
+			if (added > 0) {
+				continue;
+			}
+			if (infeasibility > EPSILON) {
+				// Artificial columns in the optimal LP: Either the node is
+				// infeasible or the cost of the artificial columns too small.
+				if (bigM >= MAX_BIG_M) {
+					return proven ? Double.POSITIVE_INFINITY : bound;
+				}
+				bigM *= 10;
+				continue;
+			}
+			return proven ? Math.max(bound, masterValue) : bound;
+		}
+	}
+
+	/**
+	 * Check whether the last column generation proved its LP optimal: The
+	 * pricing found no path with negative reduced cost, not even one that
+	 * failed the ride time or tour duration check.
+	 * @return True if the value of the last column generation is the LP value.
+	 */
+	private boolean isProven() {
+		return proven;
+	}
+
+	/**
+	 * Solve the pricing problems of all vehicle types (and all heuristic
+	 * settings) in parallel.
+	 * @param arcs The arcs of the node.
+	 * @param duals The dual values of the master.
+	 * @param heuristicSetting True for the pricing heuristics, false for the exact pricing.
+	 * @param found The routes with negative reduced cost are added.
+	 * @param foundTypes The vehicle type of every found route is added.
+	 * @return The smallest reduced cost of every type, null if a pricing
+	 *         stopped at the time limit.
+	 */
+	private double[] price(boolean[][] arcs, double[] duals, boolean heuristicSetting, List<int[]> found,
+			List<Integer> foundTypes) {
+		double[] userDuals = new double[n + 1];
+		for (int user = 1; user <= n; user++) {
+			userDuals[user] = duals[user - 1];
+		}
+		final List<LabelingPricer> pricers = new ArrayList<LabelingPricer>();
+		final List<Integer> pricerTypes = new ArrayList<Integer>();
+		List<Callable<List<int[]>>> tasks = new ArrayList<Callable<List<int[]>>>();
+		int[][] settings = heuristicSetting ? HEURISTIC_SETTINGS : new int[][] { { 0, 0 } };
+		for (int t = 0; t < types.size(); t++) {
+			for (int[] setting : settings) {
+				final LabelingPricer pricer = new LabelingPricer(N, n, instance.getMaxRideTime(), c,
+						K[types.get(t)[0]]);
+				pricer.setAllowedArcs(arcs);
+				pricer.setDuals(userDuals, duals[n + t]);
+				pricer.setHeuristic(setting[0], setting[1]);
+				pricer.setBidirectional(!heuristicSetting && bidirectional);
+				pricer.setMaxColumns(maxColumns);
+				pricer.setDeadline(deadline);
+				pricers.add(pricer);
+				pricerTypes.add(t);
+				tasks.add(new Callable<List<int[]>>() {
+					@Override
+					public List<int[]> call() {
+						return pricer.price();
+					}
+				});
+			}
+		}
+		pricings += tasks.size();
+		double[] minReducedCost = new double[types.size()];
+		try {
+			List<Future<List<int[]>>> results = ForkJoinPool.commonPool().invokeAll(tasks);
+			for (int p = 0; p < results.size(); p++) {
+				List<int[]> routes = results.get(p).get();
+				if (pricers.get(p).isAborted()) {
+					return null;
+				}
+				int t = pricerTypes.get(p);
+				minReducedCost[t] = Math.min(minReducedCost[t], pricers.get(p).getMinReducedCost());
+				for (int[] route : routes) {
+					found.add(route);
+					foundTypes.add(t);
+				}
+			}
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Pricing failed", e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+		return minReducedCost;
+	}
+
+	/**
+	 * Give up a node that can neither be pruned nor branched: The search
+	 * cannot prove optimality any more.
+	 * @param bound Lower bound of the node.
+	 */
+	private void giveUp(double bound) {
+		incomplete = true;
+		unsolved = Math.min(unsolved, bound);
+	}
+
+	/**
+	 * Check whether the LP solution of the master is integral.
+	 */
+	private boolean isIntegral() {
+		for (int r = 0; r < values.length; r++) {
+			double value = values[r];
+			if (Math.abs(value - Math.rint(value)) > EPSILON) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Take the integral LP solution of the master as new incumbent.
+	 */
+	private void updateIncumbent(SearchNode node) {
+		double value = masterValue;
+		if (value >= upperBound - EPSILON) {
+			return;
+		}
+		List<Column> routes = new ArrayList<Column>();
+		for (int r = 0; r < values.length; r++) {
+			long count = Math.round(values[r]);
+			for (long copy = 0; copy < count; copy++) {
+				routes.add(columns.get(r));
+			}
+		}
+		upperBound = value;
+		incumbent = routes;
+		if (options.isVerbose()) {
+			System.out.println(String.format(Locale.ROOT, "Branch-and-price: New incumbent %.4f at depth %d",
+					value, node.depth));
+		}
+	}
+
+	/**
+	 * Solve the set partitioning problem over the columns of a node with
+	 * the backend of the options.
+	 * @param node The node, null for all columns.
+	 * @return True if the problem was solved to optimality.
+	 */
+	private boolean solveRestricted(SearchNode node) {
+		List<Integer> candidates = new ArrayList<Integer>();
+		for (int r = 0; r < columns.size(); r++) {
+			if (node == null || isAllowed(columns.get(r), node.arcs)) {
+				candidates.add(r);
+			}
+		}
+		double remaining = (deadline - System.nanoTime()) / 1e9;
+		if (remaining <= 0) {
+			return false;
+		}
+		MipBackend backend = null;
+		try {
+			backend = MipBackend.create(options.getBackend());
+			backend.setVerbose(false);
+			if (options.getThreads() > 0) {
+				backend.setThreads(options.getThreads());
+			}
+			backend.setTimeLimit(Math.min(integerTimeLimit, remaining));
+			int first = backend.boolVarArray(candidates.size(), "lambda");
+			int[] variables = new int[candidates.size()];
+			LinearExpression objective = new LinearExpression();
+			LinearExpression[] rows = new LinearExpression[n + types.size()];
+			for (int i = 0; i < rows.length; i++) {
+				rows[i] = new LinearExpression();
+			}
+			for (int v = 0; v < variables.length; v++) {
+				variables[v] = first + v;
+				Column column = columns.get(candidates.get(v));
+				objective.addTerm(column.cost, variables[v]);
+				for (int stop : column.route) {
+					if (stop <= n) {
+						rows[stop - 1].addTerm(1, variables[v]);
+					}
+				}
+				rows[n + column.type].addTerm(1, variables[v]);
+			}
+			backend.addMinimize(objective);
+			for (int user = 1; user <= n; user++) {
+				backend.addEq(rows[user - 1], 1, "cover_" + user);
+			}
+			for (int t = 0; t < types.size(); t++) {
+				backend.addEq(rows[n + t], types.get(t).length, "vehicles_" + t);
+			}
+			if (!backend.solve()) {
+				return false;
+			}
+			double value = backend.getObjValue();
+			if (value < upperBound - EPSILON) {
+				double[] values = backend.getValues(variables);
+				List<Column> routes = new ArrayList<Column>();
+				for (int v = 0; v < variables.length; v++) {
+					for (long copy = Math.round(values[v]); copy > 0; copy--) {
+						routes.add(columns.get(candidates.get(v)));
+					}
+				}
+				upperBound = value;
+				incumbent = routes;
+				if (options.isVerbose()) {
+					System.out.println(String.format(Locale.ROOT,
+							"Branch-and-price: Incumbent %.4f of the restricted master", value));
+				}
+			}
+			return backend.getStatus().equals("Optimal");
+		} catch (MipException e) {
+			e.printStackTrace();
+			return false;
+		} finally {
+			if (backend != null) {
+				backend.end();
+			}
+		}
+	}
+
+	/**
+	 * Select the arc whose aggregated flow is closest to 0.5.
+	 * @return Tail and head of the arc, null if all arc flows are integral.
+	 */
+	private int[] selectArc(SearchNode node) {
+		int destination = 2 * n + 1;
+		double[][] flow = new double[N.length][N.length];
+		for (int r = 0; r < values.length; r++) {
+			double value = values[r];
+			if (value <= EPSILON) {
+				continue;
+			}
+			int previous = 0;
+			for (int stop : columns.get(r).route) {
+				flow[previous][stop] += value;
+				previous = stop;
+			}
+			flow[previous][destination] += value;
+		}
+		int[] best = null;
+		double bestDistance = 0.5 - EPSILON;
+		for (int i = 0; i < destination; i++) {
+			for (int j = 1; j < N.length; j++) {
+				if (i == 0 && j == destination) {
+					continue;
+				}
+				double distance = Math.abs(flow[i][j] - 0.5);
+				if (distance < bestDistance) {
+					best = new int[] { i, j };
+					bestDistance = distance;
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Copy the arcs of a node without the arc (i,j) (branch x_ij = 0).
+	 */
+	private static boolean[][] forbid(boolean[][] arcs, int i, int j) {
+		boolean[][] copy = copy(arcs);
+		copy[i][j] = false;
+		return copy;
+	}
+
+	/**
+	 * Copy the arcs of a node without the other arcs out of i and into j
+	 * (branch x_ij = 1). The depots keep their other arcs.
+	 */
+	private static boolean[][] fix(boolean[][] arcs, int i, int j) {
+		boolean[][] copy = copy(arcs);
+		int destination = arcs.length - 1;
+		for (int other = 0; other < arcs.length; other++) {
+			if (i != 0 && other != j) {
+				copy[i][other] = false;
+			}
+			if (j != destination && other != i) {
+				copy[other][j] = false;
+			}
+		}
+		return copy;
+	}
+
+	/**
+	 * Copy the arcs of a node.
+	 */
+	private static boolean[][] copy(boolean[][] arcs) {
+		boolean[][] copy = new boolean[arcs.length][];
+		for (int i = 0; i < arcs.length; i++) {
+			copy[i] = arcs[i].clone();
+		}
+		return copy;
+	}
+
+	/**
+	 * Check whether all arcs of a column are allowed.
+	 */
+	private boolean isAllowed(Column column, boolean[][] arcs) {
+		int previous = 0;
+		for (int stop : column.route) {
+			if (!arcs[previous][stop]) {
+				return false;
+			}
+			previous = stop;
+		}
+		return column.route.length == 0 || arcs[previous][2 * n + 1];
+	}
+
+	/**
+	 * Get the smallest bound of the open nodes and the current node.
+	 */
+	private static double lowerBound(PriorityQueue<SearchNode> open, double current) {
+		return open.isEmpty() ? current : Math.min(current, open.peek().bound);
+	}
+
+	/**
+	 * Build a solution of the routes of the incumbent: The routes of a
+	 * vehicle type are driven by the vehicles of the type in their order,
+	 * the other vehicles drive the empty route.
+	 */
+	private Solution toSolution(List<Column> routeColumns, double cost) {
+		int[][] routes = new int[K.length][];
+		int[] used = new int[types.size()];
+		for (Column column : routeColumns) {
+			routes[types.get(column.type)[used[column.type]++]] = column.route;
+		}
+		for (int k = 0; k < K.length; k++) {
+			if (routes[k] == null) {
+				routes[k] = new int[0];
+			}
+		}
+		double[][] serviceStarts = new double[routes.length][];
+		int[][] loads = new int[routes.length][];
+		double[] rideTimes = new double[n + 1];
+		for (int k = 0; k < routes.length; k++) {
+			int[] route = routes[k];
+			serviceStarts[k] = heuristic.schedule(route, K[k]);
+			loads[k] = new int[route.length];
+			int load = 0;
+			int[] position = new int[2 * n + 2];
+			for (int p = 0; p < route.length; p++) {
+				load += N[route[p]].getLoad();
+				loads[k][p] = load;
+				position[route[p]] = p;
+			}
+			for (int p = 0; p < route.length; p++) {
+				int user = route[p];
+				if (user <= n) {
+					rideTimes[user] = serviceStarts[k][position[n + user] + 1] - serviceStarts[k][p + 1]
+							- N[user].getServiceDuration();
+				}
+			}
+		}
+		return new Solution(cost, routes, serviceStarts, loads, rideTimes);
+	}
+
+	/**
+	 * Write the metrics to the metrics file of the options.
+	 */
+	private void writeMetrics(SolverMetrics metrics) {
+		if (options.getMetricsFile() == null) {
+			return;
+		}
+		try (Writer writer = new FileWriter(options.getMetricsFile())) {
+			writer.write(metrics.toJson());
+			writer.write('\n');
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Get the seconds since a start time.
+	 */
+	private static double seconds(long begin) {
+		return (System.nanoTime() - begin) / 1e9;
+	}
+
+	/**
+	 * Set the maximal number of columns of one pricing problem per iteration.
+	 * @param maxColumns Maximal number of added routes per vehicle type and pricing.
+	 */
+	public void setMaxColumns(int maxColumns) {
+		this.maxColumns = maxColumns;
+	}
+
+	/**
+	 * Set whether the pricing heuristics run before the exact pricing.
+	 * @param heuristicPricing True to use the pricing heuristics.
+	 */
+	public void setHeuristicPricing(boolean heuristicPricing) {
+		this.heuristicPricing = heuristicPricing;
+	}
+
+	/**
+	 * Set whether the exact pricing joins forward and backward labels.
+	 * @param bidirectional True for bidirectional, false for forward labeling.
+	 */
+	public void setBidirectional(boolean bidirectional) {
+		this.bidirectional = bidirectional;
+	}
+
+	/**
+	 * Set the time limit of the set partitioning problem at the root.
+	 * @param integerTimeLimit Time limit in seconds.
+	 */
+	public void setIntegerTimeLimit(double integerTimeLimit) {
+		this.integerTimeLimit = integerTimeLimit;
+	}
+
+	/**
+	 * A route of a vehicle type with its routing cost.
+	 */
+	private static class Column {
+		private final int type;
+		private final int[] route;
+		private final double cost;
+
+		Column(int type, int[] route, double cost) {
+			this.type = type;
+			this.route = route;
+			this.cost = cost;
+		}
+	}
+
+	/**
+	 * A node of the search: The allowed arcs and the bound of the parent.
+	 */
+	private static class SearchNode {
+		private final boolean[][] arcs;
+		private final double bound;
+		private final int depth;
+
+		SearchNode(boolean[][] arcs, double bound, int depth) {
+			this.arcs = arcs;
+			this.bound = bound;
+			this.depth = depth;
+		}
+	}
+
+}
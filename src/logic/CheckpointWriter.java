@@ -0,0 +1,105 @@
+package logic;
+
+import java.io.IOException;
+
+/**
+ * Writes the incumbent of a solve to a checkpoint file, so a long run that
+ * is interrupted can be restarted from its best solution (see
+ * {@link SolverOptions#setCheckpointFile(String)}).</br>
+ * The file is written with {@link BinaryFormat#writeSolution(Solution, String)}
+ * at most once per interval, later incumbents are kept until the interval
+ * has passed or {@link #flush()} is called at the end of the solve.
+ *
+ */
+public class CheckpointWriter implements IncumbentListener {
+
+	/**
+	 * Name of the checkpoint file.
+	 */
+	private final String file;
+	/**
+	 * Minimum time between two writes in nanoseconds.
+	 */
+	private final long interval;
+	/**
+	 * Builds the solution from the values of the columns.
+	 */
+	private final SolutionExtractor extractor;
+	/**
+	 * Time of the last write, see {@link System#nanoTime()}.
+	 */
+	private long lastWrite;
+	/**
+	 * True if nothing was written so far.
+	 */
+	private boolean first = true;
+	/**
+	 * Objective value of the incumbent that is not written yet.
+	 */
+	private double pendingObjective;
+	/**
+	 * Values of the incumbent that is not written yet, null if none.
+	 */
+	private double[] pendingValues;
+
+	/**
+	 * Constructor for a new writer.
+	 * @param file Name of the checkpoint file.
+	 * @param interval Minimum time between two writes in seconds, 0 writes every incumbent.
+	 * @param extractor Builds the solution from the values of the columns.
+	 */
+	public CheckpointWriter(String file, double interval, SolutionExtractor extractor) {
+		super();
+		this.file = file;
+		this.interval = (long) (interval * 1e9);
+		this.extractor = extractor;
+	}
+
+	@Override
+	public synchronized void incumbentFound(double objective, double[] values) {
+		pendingObjective = objective;
+		pendingValues = values;
+		if (first || System.nanoTime() - lastWrite >= interval) {
+			write();
+		}
+	}
+
+	/**
+	 * Write the last incumbent if it is not written yet.
+	 */
+	public synchronized void flush() {
+		if (pendingValues != null) {
+			write();
+		}
+	}
+
+	/**
+	 * Write the pending incumbent. A failed write is reported but does not
+	 * end the solve.
+	 */
+	private void write() {
+		Solution solution = extractor.build(pendingObjective, gather(extractor.getArcVariables()),
+				gather(extractor.getStartVariables()), gather(extractor.getLoadVariables()),
+				gather(extractor.getRideTimeVariables()));
+		pendingValues = null;
+		first = false;
+		lastWrite = System.nanoTime();
+		try {
+			BinaryFormat.writeSolution(solution, file);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Get the pending values of some columns.
+	 */
+	private double[] gather(int[] columns) {
+		double[] result = new double[columns.length];
+		for (int v = 0; v < columns.length; v++) {
+			result[v] = pendingValues[columns[v]];
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,235 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Conflict graph of the users: An edge connects two users that can not be
+ * served by the same vehicle (see {@link Preprocessor#buildConflictGraph()}).
+ * </br>
+ * The users of a clique need pairwise different vehicles. Every vehicle k
+ * serves at most one user of a clique C, sum over i in C of y_ik <= 1 with
+ * y_ik = sum over j of x_ijk, and every clique is a lower bound of the
+ * number of vehicles. The maximal cliques are enumerated by the algorithm
+ * of Bron and Kerbosch with the pivot of Tomita et al. on bit sets, up to a
+ * limit: The largest clique found is a valid bound even if the enumeration
+ * stops early.
+ *
+ */
+public class ConflictGraph {
+
+	/**
+	 * Number of users (number of pick-up locations).
+	 */
+	private final int n;
+	/**
+	 * The users in conflict with user i as bit set, row 0 is empty.
+	 */
+	private final long[][] adjacency;
+	/**
+	 * Number of edges (pairs of users in conflict).
+	 */
+	private final int edges;
+	/**
+	 * The maximal cliques of the last enumeration.
+	 */
+	private List<int[]> cliques = new ArrayList<int[]>();
+	/**
+	 * The largest clique of the last enumeration.
+	 */
+	private int[] largestClique = new int[0];
+	/**
+	 * True if the last enumeration found all maximal cliques.
+	 */
+	private boolean complete;
+	/**
+	 * Number of recursive calls of the last enumeration.
+	 */
+	private long calls;
+
+	/**
+	 * Constructor for a new conflict graph.
+	 * @param n Number of users.
+	 * @param conflicts conflicts[i][j] is true if the users i and j (1..n) are in conflict.
+	 */
+	public ConflictGraph(int n, boolean[][] conflicts) {
+		super();
+		this.n = n;
+		int words = (n + 64) / 64;
+		adjacency = new long[n + 1][words];
+		int count = 0;
+		for (int i = 1; i <= n; i++) {
+			for (int j = 1; j <= n; j++) {
+				if (i != j && conflicts[i][j] && conflicts[j][i]) {
+					adjacency[i][j >>> 6] |= 1L << j;
+					count += i < j ? 1 : 0;
+				}
+			}
+		}
+		this.edges = count;
+	}
+
+	/**
+	 * Enumerate the maximal cliques with at least two users.
+	 * @param maxCliques Maximal number of stored cliques.
+	 * @param maxCalls Maximal number of recursive calls of the enumeration.
+	 * @return The cliques (users in increasing order), largest first.
+	 */
+	public List<int[]> findMaximalCliques(int maxCliques, long maxCalls) {
+		cliques = new ArrayList<int[]>();
+		largestClique = new int[0];
+		complete = true;
+		calls = 0;
+		long[] candidates = new long[adjacency[0].length];
+		for (int i = 1; i <= n; i++) {
+			// Users without conflicts are cliques of one user.
+			if (degree(i) > 0) {
+				candidates[i >>> 6] |= 1L << i;
+			}
+		}
+		expand(new int[n], 0, candidates, new long[candidates.length], maxCliques, maxCalls);
+		if (largestClique.length == 0 && n > 0) {
+			largestClique = new int[] { 1 };
+		}
+		Collections.sort(cliques, new Comparator<int[]>() {
+			@Override
+			public int compare(int[] a, int[] b) {
+				return Integer.compare(b.length, a.length);
+			}
+		});
+		return cliques;
+	}
+
+	/**
+	 * One step of Bron-Kerbosch: Extend the clique R by the candidates P,
+	 * the users X were already extended. The pivot is the user of P union X
+	 * with the most neighbors in P, only its non-neighbors are branched on.
+	 */
+	private void expand(int[] clique, int size, long[] candidates, long[] excluded, int maxCliques, long maxCalls) {
+		if (++calls > maxCalls || cliques.size() >= maxCliques) {
+			complete = false;
+			return;
+		}
+		if (isEmpty(candidates)) {
+			if (isEmpty(excluded) && size >= 2) {
+				int[] found = Arrays.copyOf(clique, size);
+				Arrays.sort(found);
+				cliques.add(found);
+				if (size > largestClique.length) {
+					largestClique = found;
+				}
+			}
+			return;
+		}
+		int pivot = -1;
+		int best = -1;
+		for (int w = 0; w < candidates.length; w++) {
+			long union = candidates[w] | excluded[w];
+			while (union != 0) {
+				int u = (w << 6) + Long.numberOfTrailingZeros(union);
+				union &= union - 1;
+				int common = 0;
+				for (int v = 0; v < candidates.length; v++) {
+					common += Long.bitCount(candidates[v] & adjacency[u][v]);
+				}
+				if (common > best) {
+					best = common;
+					pivot = u;
+				}
+			}
+		}
+		for (int w = 0; w < candidates.length; w++) {
+			long branch = candidates[w] & ~adjacency[pivot][w];
+			while (branch != 0) {
+				int u = (w << 6) + Long.numberOfTrailingZeros(branch);
+				branch &= branch - 1;
+				long[] nextCandidates = new long[candidates.length];
+				long[] nextExcluded = new long[candidates.length];
+				for (int v = 0; v < candidates.length; v++) {
+					nextCandidates[v] = candidates[v] & adjacency[u][v];
+					nextExcluded[v] = excluded[v] & adjacency[u][v];
+				}
+				clique[size] = u;
+				expand(clique, size + 1, nextCandidates, nextExcluded, maxCliques, maxCalls);
+				candidates[w] &= ~(1L << u);
+				excluded[w] |= 1L << u;
+				if (!complete) {
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Check whether a bit set is empty.
+	 */
+	private static boolean isEmpty(long[] set) {
+		for (long word : set) {
+			if (word != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Check whether two users can not be served by the same vehicle.
+	 * @param i A user (1..n).
+	 * @param j Another user (1..n).
+	 * @return True if the users are in conflict.
+	 */
+	public boolean isConflict(int i, int j) {
+		return (adjacency[i][j >>> 6] & (1L << j)) != 0;
+	}
+
+	/**
+	 * Get the number of users in conflict with a user.
+	 * @param i A user (1..n).
+	 * @return Degree of the user in the conflict graph.
+	 */
+	public int degree(int i) {
+		int degree = 0;
+		for (long word : adjacency[i]) {
+			degree += Long.bitCount(word);
+		}
+		return degree;
+	}
+
+	/**
+	 * Get the number of pairs of users in conflict.
+	 * @return Number of edges.
+	 */
+	public int getEdges() {
+		return edges;
+	}
+
+	/**
+	 * Get the lower bound of the number of vehicles: The size of the
+	 * largest clique of the last enumeration (1 if there is a user).
+	 * @return Minimal number of vehicles of a feasible solution.
+	 */
+	public int getFleetLowerBound() {
+		return largestClique.length;
+	}
+
+	/**
+	 * Get the largest clique of the last enumeration.
+	 * @return The users of the clique in increasing order.
+	 */
+	public int[] getLargestClique() {
+		return largestClique.clone();
+	}
+
+	/**
+	 * Check whether the last enumeration found all maximal cliques. Then
+	 * the fleet lower bound is the clique number of the graph.
+	 * @return False if the enumeration stopped at a limit.
+	 */
+	public boolean isComplete() {
+		return complete;
+	}
+
+}
@@ -0,0 +1,602 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import ilog.concert.IloException;
+import ilog.concert.IloLPMatrix;
+import ilog.concert.IloLinearNumExpr;
+import ilog.concert.IloNumVar;
+import ilog.concert.IloObjective;
+import ilog.concert.IloRange;
+import ilog.cplex.IloCplex;
+
+/**
+ * {@link MipBackend} for IBM ILOG Cplex.</br>
+ * Cuts of the {@link SeparationCallback} are added in a user cut callback
+ * (fractional solutions) and a lazy constraint callback (integer solutions).
+ * The progress for the {@link SolverMetrics} is sampled in an info callback.
+ * With a {@link SharedIncumbent} new incumbents are published in an
+ * incumbent callback and better solutions of other workers are injected in
+ * a heuristic callback; stopping the shared incumbent aborts the solve.
+ * Unnamed rows are collected and added to an LP matrix in batches.
+ *
+ */
+public class CplexBackend extends MipBackend {
+
+	/**
+	 * Number of unnamed rows that are added to the LP matrix together.
+	 */
+	private static final int BATCH = 1024;
+
+	/**
+	 * The Cplex model.
+	 */
+	private final IloCplex cplex;
+	/**
+	 * The variable of every column.
+	 */
+	private final List<IloNumVar> variables = new ArrayList<IloNumVar>();
+	/**
+	 * The objective function, null until it is set.
+	 */
+	private IloObjective objective;
+	/**
+	 * The rows that can get more terms, the id of a row is its index.
+	 */
+	private final List<IloRange> rows = new ArrayList<IloRange>();
+	/**
+	 * The variables the separation callback gets the values of.
+	 */
+	private IloNumVar[] separationVariables;
+	/**
+	 * The separation, null if no cuts are separated.
+	 */
+	private SeparationCallback separation;
+	/**
+	 * The LP matrix of the unnamed rows, null until the first batch is added.
+	 */
+	private IloLPMatrix matrix;
+	/**
+	 * Number of variables that are columns of {@link #matrix}. They are
+	 * added in the order of the columns, so the index in the matrix is
+	 * the column.
+	 */
+	private int matrixColumns;
+	/**
+	 * Lower bound of every row of the current batch.
+	 */
+	private final double[] batchLower = new double[BATCH];
+	/**
+	 * Upper bound of every row of the current batch.
+	 */
+	private final double[] batchUpper = new double[BATCH];
+	/**
+	 * Columns of every row of the current batch.
+	 */
+	private final int[][] batchColumns = new int[BATCH][];
+	/**
+	 * Coefficients of every row of the current batch.
+	 */
+	private final double[][] batchValues = new double[BATCH][];
+	/**
+	 * Number of rows in the current batch.
+	 */
+	private int batchSize;
+	/**
+	 * Position of a column in the row that is added to the batch, -1 if
+	 * the column is not in the row.
+	 */
+	private int[] position = new int[0];
+	/**
+	 * Version of the shared incumbent that was last injected.
+	 */
+	private int sharedVersion;
+
+	/**
+	 * Constructor for a new Cplex model.
+	 * @throws MipException If Cplex can not be started.
+	 */
+	public CplexBackend() throws MipException {
+		super();
+		try {
+			cplex = new IloCplex();
+		} catch (IloException e) {
+			throw new MipException("Cplex can not be started", e);
+		}
+	}
+
+	@Override
+	protected int createNumVar(double lower, double upper, String name) throws MipException {
+		try {
+			variables.add(named ? cplex.numVar(lower, upper, name) : cplex.numVar(lower, upper));
+		} catch (IloException e) {
+			throw new MipException("Variable " + name, e);
+		}
+		return variables.size() - 1;
+	}
+
+	@Override
+	protected int createBoolVar(String name) throws MipException {
+		try {
+			variables.add(named ? cplex.boolVar(name) : cplex.boolVar());
+		} catch (IloException e) {
+			throw new MipException("Variable " + name, e);
+		}
+		return variables.size() - 1;
+	}
+
+	@Override
+	protected int createNumVars(double[] lower, double[] upper) throws MipException {
+		int first = variables.size();
+		try {
+			Collections.addAll(variables, cplex.numVarArray(lower.length, lower, upper));
+		} catch (IloException e) {
+			throw new MipException("Variables", e);
+		}
+		return first;
+	}
+
+	@Override
+	protected int createBoolVars(int count) throws MipException {
+		int first = variables.size();
+		try {
+			Collections.addAll(variables, cplex.boolVarArray(count));
+		} catch (IloException e) {
+			throw new MipException("Variables", e);
+		}
+		return first;
+	}
+
+	@Override
+	public void setName(int column, String name) {
+		variables.get(column).setName(name);
+	}
+
+	/**
+	 * Translate an expression into a Cplex expression (without constant).
+	 */
+	private IloLinearNumExpr toExpr(LinearExpression expression) throws IloException {
+		IloLinearNumExpr expr = cplex.linearNumExpr();
+		for (int term = 0; term < expression.size(); term++) {
+			expr.addTerm(expression.getCoefficient(term), variables.get(expression.getColumn(term)));
+		}
+		return expr;
+	}
+
+	@Override
+	public void addMinimize(LinearExpression objective) throws MipException {
+		try {
+			this.objective = cplex.addMinimize(toExpr(objective));
+		} catch (IloException e) {
+			throw new MipException("Objective", e);
+		}
+	}
+
+	@Override
+	public void addObjectiveTerms(LinearExpression terms) throws MipException {
+		try {
+			if (objective == null) {
+				objective = cplex.addMinimize(toExpr(terms));
+			} else {
+				cplex.addToExpr(objective, toExpr(terms));
+			}
+		} catch (IloException e) {
+			throw new MipException("Objective", e);
+		}
+	}
+
+	@Override
+	protected void createRange(double lower, LinearExpression expression, double upper, String name)
+			throws MipException {
+		try {
+			double constant = expression.getConstant();
+			if (named) {
+				cplex.addRange(lower - constant, toExpr(expression), upper - constant, name);
+			} else {
+				addToBatch(lower - constant, expression, upper - constant);
+			}
+		} catch (IloException e) {
+			throw new MipException("Constraint " + name, e);
+		}
+	}
+
+	@Override
+	protected int createRow(double lower, LinearExpression expression, double upper, String name)
+			throws MipException {
+		try {
+			double constant = expression.getConstant();
+			IloLinearNumExpr expr = toExpr(expression);
+			rows.add(named ? cplex.addRange(lower - constant, expr, upper - constant, name)
+					: cplex.addRange(lower - constant, expr, upper - constant));
+		} catch (IloException e) {
+			throw new MipException("Constraint " + name, e);
+		}
+		return rows.size() - 1;
+	}
+
+	@Override
+	public void addTerms(int row, LinearExpression terms) throws MipException {
+		try {
+			cplex.addToExpr(rows.get(row), toExpr(terms));
+		} catch (IloException e) {
+			throw new MipException("Constraint " + rows.get(row).getName(), e);
+		}
+	}
+
+	@Override
+	public void setBounds(int column, double lower, double upper) throws MipException {
+		try {
+			variables.get(column).setLB(lower);
+			variables.get(column).setUB(upper);
+		} catch (IloException e) {
+			throw new MipException("Bounds " + variables.get(column).getName(), e);
+		}
+	}
+
+	/**
+	 * Add an unnamed row to the current batch. Terms of the same column
+	 * are merged.
+	 */
+	private void addToBatch(double lower, LinearExpression expression, double upper) throws IloException {
+		if (position.length < variables.size()) {
+			position = new int[Math.max(variables.size(), 2 * position.length)];
+			Arrays.fill(position, -1);
+		}
+		int[] columns = new int[expression.size()];
+		double[] values = new double[expression.size()];
+		int count = 0;
+		for (int term = 0; term < expression.size(); term++) {
+			int column = expression.getColumn(term);
+			if (position[column] < 0) {
+				position[column] = count;
+				columns[count] = column;
+				values[count++] = expression.getCoefficient(term);
+			} else {
+				values[position[column]] += expression.getCoefficient(term);
+			}
+		}
+		for (int v = 0; v < count; v++) {
+			position[columns[v]] = -1;
+		}
+		batchLower[batchSize] = lower;
+		batchUpper[batchSize] = upper;
+		batchColumns[batchSize] = count == columns.length ? columns : Arrays.copyOf(columns, count);
+		batchValues[batchSize] = count == values.length ? values : Arrays.copyOf(values, count);
+		if (++batchSize == BATCH) {
+			flushBatch();
+		}
+	}
+
+	/**
+	 * Add the rows of the current batch to the LP matrix.
+	 */
+	private void flushBatch() throws IloException {
+		if (batchSize == 0) {
+			return;
+		}
+		if (matrix == null) {
+			matrix = cplex.addLPMatrix();
+		}
+		if (matrixColumns < variables.size()) {
+			matrix.addCols(variables.subList(matrixColumns, variables.size()).toArray(new IloNumVar[0]));
+			matrixColumns = variables.size();
+		}
+		matrix.addRows(Arrays.copyOf(batchLower, batchSize), Arrays.copyOf(batchUpper, batchSize),
+				Arrays.copyOf(batchColumns, batchSize), Arrays.copyOf(batchValues, batchSize));
+		Arrays.fill(batchColumns, null);
+		Arrays.fill(batchValues, null);
+		batchSize = 0;
+	}
+
+	@Override
+	protected void createLazyRange(double lower, LinearExpression expression, double upper, String name)
+			throws MipException {
+		try {
+			double constant = expression.getConstant();
+			IloLinearNumExpr expr = toExpr(expression);
+			cplex.addLazyConstraint(named ? cplex.range(lower - constant, expr, upper - constant, name)
+					: cplex.range(lower - constant, expr, upper - constant));
+		} catch (IloException e) {
+			throw new MipException("Lazy constraint " + name, e);
+		}
+	}
+
+	@Override
+	public void addMIPStart(int[] columns, double[] values, String name) throws MipException {
+		try {
+			cplex.addMIPStart(toVariables(columns), values, IloCplex.MIPStartEffort.SolveFixed, name);
+		} catch (IloException e) {
+			throw new MipException("MIP start " + name, e);
+		}
+	}
+
+	@Override
+	public void clearMIPStarts() throws MipException {
+		try {
+			cplex.deleteMIPStarts(0, cplex.getNMIPStarts());
+		} catch (IloException e) {
+			throw new MipException("MIP starts", e);
+		}
+	}
+
+	/**
+	 * Get the variables of columns.
+	 */
+	private IloNumVar[] toVariables(int[] columns) {
+		IloNumVar[] result = new IloNumVar[columns.length];
+		for (int v = 0; v < columns.length; v++) {
+			result[v] = variables.get(columns[v]);
+		}
+		return result;
+	}
+
+	@Override
+	public void setSeparation(int[] columns, SeparationCallback callback, boolean userCuts) throws MipException {
+		separationVariables = toVariables(columns);
+		separation = callback;
+		try {
+			if (userCuts) {
+				cplex.use(new UserCuts());
+			}
+			cplex.use(new LazyCuts());
+		} catch (IloException e) {
+			throw new MipException("Callbacks", e);
+		}
+	}
+
+	/**
+	 * Translate a cut into a Cplex range.
+	 */
+	private IloRange toRange(LinearConstraint cut) throws IloException {
+		return cplex.range(cut.getLower(), toExpr(cut.getExpression()), cut.getUpper());
+	}
+
+	@Override
+	public void setMetrics(SolverMetrics metrics) throws MipException {
+		super.setMetrics(metrics);
+		if (metrics != null) {
+			try {
+				cplex.use(new Progress());
+			} catch (IloException e) {
+				throw new MipException("Callbacks", e);
+			}
+		}
+	}
+
+	@Override
+	public void setSearchStrategy(SearchStrategy strategy) throws MipException {
+		super.setSearchStrategy(strategy);
+		if (strategy == null) {
+			return;
+		}
+		try {
+			if (strategy.getRandomSeed() != 0) {
+				cplex.setParam(IloCplex.Param.RandomSeed, strategy.getRandomSeed());
+			}
+			cplex.setParam(IloCplex.Param.Emphasis.MIP, strategy.getEmphasis().ordinal());
+			if (strategy.getCutLevel() != 0) {
+				// The same level for every family of cuts of Cplex.
+				int level = strategy.getCutLevel();
+				cplex.setParam(IloCplex.Param.MIP.Cuts.Gomory, level);
+				cplex.setParam(IloCplex.Param.MIP.Cuts.MIRCut, level);
+				cplex.setParam(IloCplex.Param.MIP.Cuts.Cliques, level);
+				cplex.setParam(IloCplex.Param.MIP.Cuts.Covers, level);
+				cplex.setParam(IloCplex.Param.MIP.Cuts.FlowCovers, level);
+				cplex.setParam(IloCplex.Param.MIP.Cuts.Implied, level);
+				cplex.setParam(IloCplex.Param.MIP.Cuts.ZeroHalfCut, level);
+			}
+			// Strong branching for the optimality emphasis, pseudo costs for the feasibility emphasis.
+			if (strategy.getEmphasis() == MipEmphasis.OPTIMALITY) {
+				cplex.setParam(IloCplex.Param.MIP.Strategy.VariableSelect, 3);
+			} else if (strategy.getEmphasis() == MipEmphasis.FEASIBILITY) {
+				cplex.setParam(IloCplex.Param.MIP.Strategy.VariableSelect, 2);
+			}
+		} catch (IloException e) {
+			throw new MipException("Search strategy " + strategy, e);
+		}
+	}
+
+	@Override
+	public void setSharedIncumbent(SharedIncumbent shared) throws MipException {
+		super.setSharedIncumbent(shared);
+		if (shared == null) {
+			return;
+		}
+		final IloCplex.Aborter aborter = new IloCplex.Aborter();
+		try {
+			cplex.use(aborter);
+			cplex.use(new PublishIncumbent());
+			cplex.use(new InjectIncumbent());
+		} catch (IloException e) {
+			throw new MipException("Callbacks", e);
+		}
+		shared.addStopListener(new Runnable() {
+			@Override
+			public void run() {
+				aborter.abort();
+			}
+		});
+	}
+
+	@Override
+	public void setThreads(int threads) throws MipException {
+		try {
+			cplex.setParam(IloCplex.Param.Threads, threads);
+		} catch (IloException e) {
+			throw new MipException("Threads", e);
+		}
+	}
+
+	@Override
+	public void setTimeLimit(double seconds) throws MipException {
+		try {
+			cplex.setParam(IloCplex.Param.TimeLimit, seconds);
+		} catch (IloException e) {
+			throw new MipException("Time limit", e);
+		}
+	}
+
+	@Override
+	public void setVerbose(boolean verbose) {
+		if (!verbose) {
+			cplex.setOut(null);
+			cplex.setWarning(null);
+		}
+	}
+
+	@Override
+	public void exportModel(String file) throws MipException {
+		try {
+			flushBatch();
+			cplex.exportModel(file);
+		} catch (IloException e) {
+			throw new MipException("Export " + file, e);
+		}
+	}
+
+	@Override
+	public boolean solve() throws MipException {
+		try {
+			flushBatch();
+			return cplex.solve();
+		} catch (IloException e) {
+			throw new MipException("Solve", e);
+		}
+	}
+
+	@Override
+	public String getStatus() throws MipException {
+		try {
+			return String.valueOf(cplex.getStatus());
+		} catch (IloException e) {
+			throw new MipException("Status", e);
+		}
+	}
+
+	@Override
+	public double getObjValue() throws MipException {
+		try {
+			return cplex.getObjValue();
+		} catch (IloException e) {
+			throw new MipException("Objective value", e);
+		}
+	}
+
+	@Override
+	public double getBestObjValue() throws MipException {
+		try {
+			return cplex.getBestObjValue();
+		} catch (IloException e) {
+			throw new MipException("Bound", e);
+		}
+	}
+
+	@Override
+	public double getMIPRelativeGap() throws MipException {
+		try {
+			return cplex.getMIPRelativeGap();
+		} catch (IloException e) {
+			throw new MipException("Gap", e);
+		}
+	}
+
+	@Override
+	public long getNodeCount() throws MipException {
+		try {
+			return cplex.getNnodes64();
+		} catch (IloException e) {
+			throw new MipException("Nodes", e);
+		}
+	}
+
+	@Override
+	public double[] getValues(int[] columns) throws MipException {
+		try {
+			return cplex.getValues(toVariables(columns));
+		} catch (IloException e) {
+			throw new MipException("Values", e);
+		}
+	}
+
+	@Override
+	public void end() {
+		cplex.end();
+	}
+
+	/**
+	 * Separates cuts on the fractional LP solution of every node.
+	 */
+	private class UserCuts extends IloCplex.UserCutCallback {
+
+		@Override
+		protected void main() throws IloException {
+			for (LinearConstraint cut : separation.separate(getValues(separationVariables), false)) {
+				add(toRange(cut), IloCplex.CutManagement.UseCutPurge);
+			}
+		}
+	}
+
+	/**
+	 * Separates cuts on every integer solution before it is accepted.
+	 */
+	private class LazyCuts extends IloCplex.LazyConstraintCallback {
+
+		@Override
+		protected void main() throws IloException {
+			for (LinearConstraint cut : separation.separate(getValues(separationVariables), true)) {
+				add(toRange(cut));
+			}
+		}
+	}
+
+	/**
+	 * Offers every new incumbent to the shared incumbent.
+	 */
+	private class PublishIncumbent extends IloCplex.IncumbentCallback {
+
+		@Override
+		protected void main() throws IloException {
+			shared.offer(getObjValue(), getValues(variables.toArray(new IloNumVar[0])));
+		}
+	}
+
+	/**
+	 * Injects the shared incumbent when another worker improved it.
+	 */
+	private class InjectIncumbent extends IloCplex.HeuristicCallback {
+
+		@Override
+		protected void main() throws IloException {
+			int version = shared.getVersion();
+			if (version == sharedVersion) {
+				return;
+			}
+			sharedVersion = version;
+			double[] values;
+			double value;
+			synchronized (shared) {
+				values = shared.getValues();
+				value = shared.getObjective();
+			}
+			if (values != null && (!hasIncumbent() || value < getIncumbentObjValue())) {
+				setSolution(variables.toArray(new IloNumVar[0]), values);
+			}
+		}
+	}
+
+	/**
+	 * Samples incumbent and bound for the metrics.
+	 */
+	private class Progress extends IloCplex.MIPInfoCallback {
+
+		@Override
+		protected void main() throws IloException {
+			double incumbent = hasIncumbent() ? getIncumbentObjValue() : Double.POSITIVE_INFINITY;
+			metrics.recordProgress(incumbent, getBestObjValue(), getNnodes64());
+		}
+	}
+
+}
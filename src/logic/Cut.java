@@ -0,0 +1,115 @@
+package logic;
+
+/**
+ * A valid inequality of the form sum(a_ij * x_ij) <= rhs.</br>
+ * The inequality is stated on the arc values aggregated over all
+ * vehicles (x_ij = sum over k of x_ijk), so it can be added to the
+ * model by replacing every x_ij with the sum over all vehicles.
+ *
+ */
+public class Cut {
+
+	/**
+	 * The family this inequality belongs to.
+	 */
+	private final CutType type;
+	/**
+	 * Start node i of every arc in the inequality.
+	 */
+	private final int[] tails;
+	/**
+	 * End node j of every arc in the inequality.
+	 */
+	private final int[] heads;
+	/**
+	 * Coefficient a_ij of every arc in the inequality.
+	 */
+	private final double[] coefficients;
+	/**
+	 * Right hand side of the inequality.
+	 */
+	private final double rhs;
+	/**
+	 * Amount by which the separated point violates the inequality.
+	 */
+	private final double violation;
+
+	/**
+	 * Constructor for a new cut.
+	 * @param type The family of the inequality.
+	 * @param tails Start node of every arc.
+	 * @param heads End node of every arc.
+	 * @param coefficients Coefficient of every arc.
+	 * @param rhs Right hand side of the inequality.
+	 * @param violation Violation of the inequality by the separated point.
+	 */
+	public Cut(CutType type, int[] tails, int[] heads, double[] coefficients, double rhs, double violation) {
+		super();
+		this.type = type;
+		this.tails = tails;
+		this.heads = heads;
+		this.coefficients = coefficients;
+		this.rhs = rhs;
+		this.violation = violation;
+	}
+
+	/**
+	 * Get the family this inequality belongs to.
+	 * @return The type of the cut.
+	 */
+	public CutType getType() {
+		return type;
+	}
+
+	/**
+	 * Get the number of arcs with a non-zero coefficient.
+	 * @return Number of terms of the inequality.
+	 */
+	public int size() {
+		return tails.length;
+	}
+
+	/**
+	 * Get the start node of the arc at the given position.
+	 * @param term Position of the term in the inequality.
+	 * @return Start node i of the arc.
+	 */
+	public int getTail(int term) {
+		return tails[term];
+	}
+
+	/**
+	 * Get the end node of the arc at the given position.
+	 * @param term Position of the term in the inequality.
+	 * @return End node j of the arc.
+	 */
+	public int getHead(int term) {
+		return heads[term];
+	}
+
+	/**
+	 * Get the coefficient of the arc at the given position.
+	 * @param term Position of the term in the inequality.
+	 * @return Coefficient a_ij of the arc.
+	 */
+	public double getCoefficient(int term) {
+		return coefficients[term];
+	}
+
+	/**
+	 * Get the right hand side of the inequality.
+	 * @return The right hand side.
+	 */
+	public double getRhs() {
+		return rhs;
+	}
+
+	/**
+	 * Get the violation of the inequality by the point it was separated from.
+	 * @return The violation (positive if the point is cut off).
+	 */
+	public double getViolation() {
+		return violation;
+	}
+
+}
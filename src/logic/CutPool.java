@@ -0,0 +1,293 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Global pool of the cuts separated during one solve, shared by all
+ * threads of the solver.</br>
+ * Every cut is stored in a canonical form: the terms sorted by arc,
+ * terms of the same arc merged and zero coefficients dropped. The pool
+ * is keyed by a hash of this form, so an inequality found again (at
+ * another node, by another thread or by another family) is stored only
+ * once. Before the separation heuristics run, the pool cuts violated by
+ * the current point are looked up, which is much cheaper than separating
+ * them again.</br>
+ * Every check increases the age of the cuts that are not violated, a
+ * violated cut gets the age 0. Cuts older than the maximal age are
+ * evicted, and if the pool is full the cut that was violated least
+ * recently makes room for a new one.
+ *
+ */
+public class CutPool {
+
+	/**
+	 * Minimal violation of a pool cut before it is returned.
+	 */
+	private static final double EPSILON = 1e-4;
+	/**
+	 * Number of checks a cut stays in the pool without being violated by default.
+	 */
+	public static final int DEFAULT_MAX_AGE = 200;
+
+	/**
+	 * The cuts in the order of their last violation (least recent first).
+	 */
+	private final LinkedHashMap<Key, PooledCut> entries;
+	/**
+	 * Maximal number of cuts in the pool.
+	 */
+	private final int maxSize;
+	/**
+	 * Number of checks a cut may stay in the pool without being violated.
+	 */
+	private final int maxAge;
+	/**
+	 * Number of cuts that were not added because they were in the pool.
+	 */
+	private long duplicates;
+	/**
+	 * Number of cuts that were evicted.
+	 */
+	private long evictions;
+
+	/**
+	 * Constructor for a new pool whose cuts are evicted after
+	 * {@link #DEFAULT_MAX_AGE} checks without violation.
+	 * @param maxSize Maximal number of cuts in the pool.
+	 */
+	public CutPool(int maxSize) {
+		this(maxSize, DEFAULT_MAX_AGE);
+	}
+
+	/**
+	 * Constructor for a new pool.
+	 * @param maxSize Maximal number of cuts in the pool.
+	 * @param maxAge Number of checks a cut may stay in the pool without being violated.
+	 */
+	public CutPool(final int maxSize, int maxAge) {
+		super();
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("The pool needs room for at least one cut");
+		}
+		this.maxSize = maxSize;
+		this.maxAge = maxAge;
+		// Access order: A violated cut moves to the end.
+		this.entries = new LinkedHashMap<Key, PooledCut>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, PooledCut> eldest) {
+				if (size() > maxSize) {
+					evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Add a cut unless the same inequality is already in the pool.
+	 * @param cut The separated cut.
+	 * @return True if the cut is new, false if it is a duplicate.
+	 */
+	public synchronized boolean add(Cut cut) {
+		Key key = new Key(cut);
+		PooledCut entry = entries.get(key);
+		if (entry != null) {
+			entry.age = 0;
+			duplicates++;
+			return false;
+		}
+		entries.put(key, new PooledCut(cut.getType()));
+		return true;
+	}
+
+	/**
+	 * Find the pool cuts violated by a point. The age of all other cuts is
+	 * increased and the cuts older than the maximal age are evicted.
+	 * @param xbar Arc values aggregated over all vehicles, xbar[i][j].
+	 * @param limit Maximal number of returned cuts.
+	 * @return The violated cuts, most violated first.
+	 */
+	public synchronized List<Cut> violated(double[][] xbar, int limit) {
+		List<Key> hits = new ArrayList<Key>();
+		List<Cut> cuts = new ArrayList<Cut>();
+		Iterator<Map.Entry<Key, PooledCut>> iterator = entries.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<Key, PooledCut> pooled = iterator.next();
+			Key key = pooled.getKey();
+			PooledCut entry = pooled.getValue();
+			double value = key.evaluate(xbar);
+			if (value > key.rhs + EPSILON) {
+				entry.age = 0;
+				hits.add(key);
+				cuts.add(key.toCut(entry.type, value - key.rhs));
+			} else if (++entry.age > maxAge) {
+				iterator.remove();
+				evictions++;
+			}
+		}
+		// Move the violated cuts to the end of the eviction order.
+		for (Key key : hits) {
+			entries.get(key);
+		}
+		Collections.sort(cuts, new Comparator<Cut>() {
+			@Override
+			public int compare(Cut a, Cut b) {
+				return Double.compare(b.getViolation(), a.getViolation());
+			}
+		});
+		if (cuts.size() > limit) {
+			return new ArrayList<Cut>(cuts.subList(0, limit));
+		}
+		return cuts;
+	}
+
+	/**
+	 * Get the number of cuts in the pool.
+	 * @return Number of stored cuts.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Get the maximal number of cuts in the pool.
+	 * @return Maximal number of stored cuts.
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Get the number of separated cuts that were already in the pool.
+	 * @return Number of duplicates.
+	 */
+	public synchronized long getDuplicates() {
+		return duplicates;
+	}
+
+	/**
+	 * Get the number of cuts removed because of their age or a full pool.
+	 * @return Number of evicted cuts.
+	 */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * Family and age of a pool cut.
+	 */
+	private static class PooledCut {
+		private final CutType type;
+		private int age;
+
+		PooledCut(CutType type) {
+			this.type = type;
+		}
+	}
+
+	/**
+	 * Canonical form of an inequality sum(a_ij * x_ij) <= rhs: the arcs
+	 * sorted by tail and head, every arc once, no zero coefficients.
+	 */
+	private static class Key {
+		private final int[] tails;
+		private final int[] heads;
+		private final double[] coefficients;
+		private final double rhs;
+		private final int hash;
+
+		Key(Cut cut) {
+			Integer[] order = new Integer[cut.size()];
+			for (int term = 0; term < order.length; term++) {
+				order[term] = term;
+			}
+			final Cut terms = cut;
+			Arrays.sort(order, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer a, Integer b) {
+					if (terms.getTail(a) != terms.getTail(b)) {
+						return Integer.compare(terms.getTail(a), terms.getTail(b));
+					}
+					return Integer.compare(terms.getHead(a), terms.getHead(b));
+				}
+			});
+			int[] sortedTails = new int[order.length];
+			int[] sortedHeads = new int[order.length];
+			double[] sortedCoefficients = new double[order.length];
+			int size = 0;
+			for (int position = 0; position < order.length; position++) {
+				int term = order[position];
+				if (size > 0 && sortedTails[size - 1] == cut.getTail(term)
+						&& sortedHeads[size - 1] == cut.getHead(term)) {
+					sortedCoefficients[size - 1] += cut.getCoefficient(term);
+					continue;
+				}
+				sortedTails[size] = cut.getTail(term);
+				sortedHeads[size] = cut.getHead(term);
+				sortedCoefficients[size] = cut.getCoefficient(term);
+				size++;
+			}
+			int nonzeros = 0;
+			for (int term = 0; term < size; term++) {
+				if (sortedCoefficients[term] != 0) {
+					sortedTails[nonzeros] = sortedTails[term];
+					sortedHeads[nonzeros] = sortedHeads[term];
+					sortedCoefficients[nonzeros] = sortedCoefficients[term];
+					nonzeros++;
+				}
+			}
+			tails = Arrays.copyOf(sortedTails, nonzeros);
+			heads = Arrays.copyOf(sortedHeads, nonzeros);
+			coefficients = Arrays.copyOf(sortedCoefficients, nonzeros);
+			rhs = cut.getRhs();
+			int h = Arrays.hashCode(tails);
+			h = 31 * h + Arrays.hashCode(heads);
+			h = 31 * h + Arrays.hashCode(coefficients);
+			hash = 31 * h + Double.hashCode(rhs);
+		}
+
+		/**
+		 * Compute the left hand side for a point.
+		 */
+		double evaluate(double[][] xbar) {
+			double value = 0;
+			for (int term = 0; term < tails.length; term++) {
+				value += coefficients[term] * xbar[tails[term]][heads[term]];
+			}
+			return value;
+		}
+
+		/**
+		 * Create the cut of this inequality.
+		 */
+		Cut toCut(CutType type, double violation) {
+			return new Cut(type, tails, heads, coefficients, rhs, violation);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (!(object instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) object;
+			return hash == other.hash && rhs == other.rhs && Arrays.equals(tails, other.tails)
+					&& Arrays.equals(heads, other.heads) && Arrays.equals(coefficients, other.coefficients);
+		}
+	}
+
+}
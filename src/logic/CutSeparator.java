@@ -0,0 +1,1036 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Separation heuristics for the valid inequalities of section 4 of
+ * Cordeau's paper (subtour elimination, capacity, precedence and
+ * generalized order constraints).</br>
+ * All routines work on the arc values aggregated over all vehicles
+ * (x_ij = sum over k of x_ijk) and do not depend on Cplex, so the
+ * same code is used for fractional points (user cuts) and integer
+ * points (lazy constraints).</br>
+ * With a {@link ForkJoinPool} the routines run concurrently, and the
+ * greedy set and precedence heuristics and the generalized order
+ * constraints are split further into ranges of seeds and users. The
+ * cuts of all tasks are merged in the order of the sequential
+ * separation, so both return the same cuts. With a {@link CutPool} the
+ * violated pool cuts are returned without running the heuristics, and
+ * new cuts are stored in the pool.
+ *
+ */
+public class CutSeparator {
+
+	/**
+	 * Minimal violation of an inequality before it is reported as cut.
+	 */
+	private static final double EPSILON = 1e-4;
+	/**
+	 * The routines of a separation round of a fractional point.
+	 */
+	private static final Routine[] FRACTIONAL = { Routine.SETS, Routine.PRECEDENCE, Routine.ORDER_PAIRS,
+			Routine.ORDER_TRIPLES };
+	/**
+	 * The routines of a separation round of an integer point.
+	 */
+	private static final Routine[] INTEGRAL = { Routine.DISCONNECTED, Routine.ROUTE_ORDER, Routine.SETS,
+			Routine.PRECEDENCE, Routine.ORDER_PAIRS, Routine.ORDER_TRIPLES };
+
+	/**
+	 * Array containing all nodes (0 and 2n+1 are the depots).
+	 */
+	private final Node[] nodes;
+	/**
+	 * Number of users (number of pick-up locations).
+	 */
+	private final int n;
+	/**
+	 * Capacity Q used in the capacity inequalities.</br>
+	 * The largest vehicle capacity has to be used to stay valid.
+	 */
+	private final int capacity;
+	/**
+	 * Maximal number of nodes in a set grown by the greedy heuristics.
+	 */
+	private int maxSetSize = 12;
+	/**
+	 * Maximal number of cuts returned by one separation round.
+	 */
+	private int maxCuts = 50;
+	/**
+	 * The metrics the time of every separation routine is recorded in, null if none.
+	 */
+	private SolverMetrics metrics;
+	/**
+	 * The pool the routines run in, null to run them one after another.
+	 */
+	private ForkJoinPool executor;
+	/**
+	 * The pool of the separated cuts, null for none.
+	 */
+	private CutPool pool;
+
+	/**
+	 * Constructor for a new separator.
+	 * @param nodes Array containing all nodes.
+	 * @param n Number of users.
+	 * @param capacity The largest capacity Q of all vehicles.
+	 */
+	public CutSeparator(Node[] nodes, int n, int capacity) {
+		super();
+		this.nodes = nodes;
+		this.n = n;
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Set the maximal number of nodes in a set grown by the greedy heuristics.
+	 * @param maxSetSize Maximal set size.
+	 */
+	public void setMaxSetSize(int maxSetSize) {
+		this.maxSetSize = maxSetSize;
+	}
+
+	/**
+	 * Set the maximal number of cuts returned by one separation round.</br>
+	 * The most violated cuts are kept.
+	 * @param maxCuts Maximal number of cuts per round.
+	 */
+	public void setMaxCuts(int maxCuts) {
+		this.maxCuts = maxCuts;
+	}
+
+	/**
+	 * Record the time and the found cuts of every separation routine.
+	 * @param metrics The metrics, null to record nothing.
+	 */
+	public void setMetrics(SolverMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Run the separation routines concurrently.
+	 * @param executor The pool the routines run in, null to run them one after another.
+	 */
+	public void setExecutor(ForkJoinPool executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Check the cuts of a pool before the routines run and store the new cuts in it.
+	 * @param pool The pool of the separated cuts, null for none.
+	 */
+	public void setPool(CutPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Separate all cut families on a (fractional) point.
+	 * @param xbar Arc values aggregated over all vehicles, xbar[i][j].
+	 * @return The violated inequalities, most violated first.
+	 */
+	public List<Cut> separate(double[][] xbar) {
+		return separate(xbar, false);
+	}
+
+	/**
+	 * Separate all cut families on an integer point.</br>
+	 * Additionally to the heuristics every cycle that is not connected to
+	 * the origin depot and every route that visits a drop-off without its
+	 * pick-up (or the other way around) is cut off exactly.
+	 * @param xbar Integer arc values aggregated over all vehicles, xbar[i][j].
+	 * @return The violated inequalities, most violated first.
+	 */
+	public List<Cut> separateIntegral(double[][] xbar) {
+		return separate(xbar, true);
+	}
+
+	/**
+	 * Look up the violated pool cuts, if there are none run the routines
+	 * and store the new cuts in the pool.</br>
+	 * Cuts of a fractional point that another thread has just added to
+	 * the pool are dropped. The cuts of an integer point are all returned,
+	 * the point has to be rejected even if another thread found the same.
+	 * @param xbar Arc values aggregated over all vehicles, xbar[i][j].
+	 * @param integral True if the point is integer.
+	 * @return The violated inequalities, most violated first.
+	 */
+	private List<Cut> separate(double[][] xbar, boolean integral) {
+		if (pool != null) {
+			long start = System.nanoTime();
+			List<Cut> cuts = pool.violated(xbar, maxCuts);
+			if (metrics != null) {
+				metrics.addSeparation("cut pool", integral, System.nanoTime() - start, cuts.size());
+			}
+			if (!cuts.isEmpty()) {
+				return cuts;
+			}
+		}
+		Routine[] routines = integral ? INTEGRAL : FRACTIONAL;
+		List<Cut> cuts = executor == null ? separateSequential(xbar, integral, routines)
+				: separateParallel(xbar, integral, routines);
+		if (pool == null) {
+			return cuts;
+		}
+		List<Cut> added = new ArrayList<Cut>(cuts.size());
+		for (Cut cut : cuts) {
+			if (pool.add(cut) || integral) {
+				added.add(cut);
+			}
+		}
+		return added;
+	}
+
+	/**
+	 * Run the routines one after another in the current thread.
+	 * @param xbar Arc values aggregated over all vehicles, xbar[i][j].
+	 * @param integral True if the point is integer.
+	 * @param routines The routines of the round.
+	 * @return The violated inequalities, most violated first.
+	 */
+	private List<Cut> separateSequential(double[][] xbar, boolean integral, Routine[] routines) {
+		Round round = new Round(xbar, integral);
+		for (int r = 0; r < routines.length; r++) {
+			run(routines[r], round, routines[r].getFirst(), routines[r].getLast(n));
+			if (r + 1 == routines.length || !routines[r + 1].getName().equals(routines[r].getName())) {
+				round.lap(routines[r].getName());
+			}
+		}
+		return round.finish();
+	}
+
+	/**
+	 * Run every routine as a task of the executor, split into ranges of
+	 * seeds or users, and merge the cuts in the order of the routines.
+	 * @param xbar Arc values aggregated over all vehicles, xbar[i][j].
+	 * @param integral True if the point is integer.
+	 * @param routines The routines of the round.
+	 * @return The violated inequalities, most violated first.
+	 */
+	private List<Cut> separateParallel(double[][] xbar, boolean integral, Routine[] routines) {
+		final List<Task> tasks = new ArrayList<Task>(routines.length);
+		for (Routine routine : routines) {
+			tasks.add(new Task(routine, xbar, integral, routine.getFirst(), routine.getLast(n)));
+		}
+		executor.invoke(new RecursiveAction() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute() {
+				invokeAll(tasks);
+			}
+		});
+
+		Round merged = new Round(xbar, integral);
+		long nanos = 0;
+		int cuts = 0;
+		for (int r = 0; r < routines.length; r++) {
+			Round round = tasks.get(r).join();
+			merged.merge(round);
+			nanos += round.nanos;
+			cuts += round.cuts.size();
+			if (metrics != null
+					&& (r + 1 == routines.length || !routines[r + 1].getName().equals(routines[r].getName()))) {
+				metrics.addSeparation(routines[r].getName(), integral, nanos, cuts);
+				nanos = 0;
+				cuts = 0;
+			}
+		}
+		return merged.finish();
+	}
+
+	/**
+	 * Run a routine on a range of seeds or users.
+	 * @param routine The routine.
+	 * @param round The round the cuts are added to.
+	 * @param first First seed or user.
+	 * @param last Last seed or user.
+	 */
+	private void run(Routine routine, Round round, int first, int last) {
+		switch (routine) {
+		case DISCONNECTED:
+			separateDisconnected(round);
+			break;
+		case ROUTE_ORDER:
+			separateRouteOrder(round);
+			break;
+		case SETS:
+			separateSets(round, first, last);
+			break;
+		case PRECEDENCE:
+			separatePrecedences(round, first, last);
+			break;
+		case ORDER_PAIRS:
+			separateOrderPairs(round, first, last);
+			break;
+		case ORDER_TRIPLES:
+			separateOrderTriples(round, first, last);
+			break;
+		}
+	}
+
+	/**
+	 * Exact separation of subtour elimination constraints for integer points:
+	 * Every node of P union D that can not be reached from the origin depot
+	 * lies on a cycle, the nodes of the cycle form a violated set S.
+	 * @param round The current separation round.
+	 */
+	private void separateDisconnected(Round round) {
+		double[][] x = round.x;
+		boolean[] reached = new boolean[nodes.length];
+		int[] stack = new int[nodes.length];
+		int top = 0;
+		stack[top++] = 0;
+		reached[0] = true;
+		while (top > 0) {
+			int i = stack[--top];
+			for (int j = 0; j < nodes.length; j++) {
+				if (!reached[j] && x[i][j] > 0.5) {
+					reached[j] = true;
+					stack[top++] = j;
+				}
+			}
+		}
+
+		int[] members = new int[nodes.length];
+		for (int start = 1; start <= 2 * n; start++) {
+			if (reached[start]) {
+				continue;
+			}
+			// Follow the successors until the cycle is closed.
+			int count = 0;
+			int i = start;
+			while (i >= 0 && !reached[i]) {
+				reached[i] = true;
+				members[count++] = i;
+				int next = -1;
+				for (int j = 0; j < nodes.length; j++) {
+					if (x[i][j] > 0.5) {
+						next = j;
+						break;
+					}
+				}
+				i = next;
+			}
+			if (count >= 2) {
+				double inside = round.inside(members, count);
+				if (inside > count - 1 + EPSILON) {
+					round.addSetCut(CutType.SUBTOUR, members, count, count - 1, inside);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Exact separation of pairing and precedence for integer points:
+	 * Every route from the origin depot is followed. If a drop-off n+i is
+	 * visited without visiting i before on the same route, the route prefix
+	 * up to n+i is a set S with 0 and n+i but without i and 2n+1, so the
+	 * precedence inequality x(S) <= |S| - 2 is violated. A pick-up i without
+	 * n+i later on the route gives the same for the route suffix from i to 2n+1.
+	 * @param round The current separation round.
+	 */
+	private void separateRouteOrder(Round round) {
+		double[][] x = round.x;
+		int destination = 2 * n + 1;
+		int[] route = new int[nodes.length + 1];
+		int[] position = new int[nodes.length];
+		Arrays.fill(position, -1);
+
+		for (int first = 1; first <= 2 * n; first++) {
+			if (x[0][first] < 0.5) {
+				continue;
+			}
+			int length = 0;
+			route[length++] = 0;
+			int i = first;
+			while (i >= 0 && position[i] < 0 && length < nodes.length) {
+				position[i] = length;
+				route[length++] = i;
+				if (i == destination) {
+					break;
+				}
+				int next = -1;
+				for (int j = 0; j < nodes.length; j++) {
+					if (x[i][j] > 0.5) {
+						next = j;
+						break;
+					}
+				}
+				i = next;
+			}
+			boolean complete = route[length - 1] == destination;
+
+			for (int p = 1; p < length; p++) {
+				int v = route[p];
+				if (v > n && v <= 2 * n) {
+					int pickup = v - n;
+					if (position[pickup] < 0 || position[pickup] > p) {
+						// Route prefix 0..n+i.
+						round.addSetCut(CutType.PRECEDENCE, route, p + 1, p - 1, p);
+					}
+				} else if (v >= 1 && v <= n && complete) {
+					int dropoff = v + n;
+					if (position[dropoff] < 0 || position[dropoff] < p) {
+						// Route suffix i..2n+1.
+						int[] suffix = Arrays.copyOfRange(route, p, length);
+						round.addSetCut(CutType.PRECEDENCE, suffix, suffix.length, suffix.length - 2,
+								suffix.length - 1);
+					}
+				}
+			}
+			for (int p = 1; p < length; p++) {
+				position[route[p]] = -1;
+			}
+		}
+	}
+
+	/**
+	 * Greedy construction of sets S of P union D:</br>
+	 * Starting with every single node, the node with the largest arc
+	 * values to S is added until no more node is connected to S.
+	 * Every intermediate set is checked against the subtour elimination
+	 * constraint, the lifted predecessor and successor inequalities and
+	 * the capacity inequality.
+	 * @param round The current separation round.
+	 * @param first First seed node.
+	 * @param last Last seed node.
+	 */
+	private void separateSets(Round round, int first, int last) {
+		double[][] x = round.x;
+		boolean[] inSet = new boolean[nodes.length];
+		double[] weight = new double[nodes.length];
+		int[] members = new int[Math.min(maxSetSize, 2 * n)];
+
+		for (int seed = first; seed <= last; seed++) {
+			Arrays.fill(inSet, false);
+			Arrays.fill(weight, 0);
+			int count = 0;
+			double inside = 0;
+			int load = 0;
+			int v = seed;
+			while (true) {
+				inSet[v] = true;
+				members[count++] = v;
+				inside += weight[v];
+				load += nodes[v].getLoad();
+				for (int u = 1; u <= 2 * n; u++) {
+					weight[u] += x[v][u] + x[u][v];
+				}
+				if (count >= 2) {
+					checkSet(round, members, count, inSet, inside, load);
+				}
+				if (count == members.length) {
+					break;
+				}
+				v = -1;
+				double best = EPSILON;
+				for (int u = 1; u <= 2 * n; u++) {
+					if (!inSet[u] && weight[u] > best) {
+						best = weight[u];
+						v = u;
+					}
+				}
+				if (v < 0) {
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Check one set S against the set based inequalities.
+	 * @param round The current separation round.
+	 * @param members Nodes of S.
+	 * @param count Number of nodes in S.
+	 * @param inSet Membership flag for every node.
+	 * @param inside x(S), the sum of all arc values inside S.
+	 * @param load q(S), the sum of the loads of all nodes in S.
+	 */
+	private void checkSet(Round round, int[] members, int count, boolean[] inSet, double inside, int load) {
+		// Subtour elimination constraint: x(S) <= |S| - 1.
+		if (inside > count - 1 + EPSILON) {
+			round.addSetCut(CutType.SUBTOUR, members, count, count - 1, inside);
+		}
+
+		// Capacity inequality: x(S) <= |S| - max(1, ceil(|q(S)| / Q)).
+		int vehicles = Math.max(1, (int) Math.ceil(Math.abs(load) / (double) capacity));
+		if (vehicles > 1 && inside > count - vehicles + EPSILON) {
+			round.addSetCut(CutType.CAPACITY, members, count, count - vehicles, inside);
+		}
+
+		// The lifting terms are non-negative and at most one per node,
+		// only sets close to the bound are worth the effort.
+		if (inside > count - 2) {
+			checkSuccessorInequality(round, members, count, inSet, inside);
+			checkPredecessorInequality(round, members, count, inSet, inside);
+		}
+	}
+
+	/**
+	 * Lifted subtour elimination constraint for the successors
+	 * sigma(S) = {n+i : i in S intersected P}:</br>
+	 * x(S) + sum(i in !S and sigma(S), j in S) x_ij
+	 * + sum(i in !S and not sigma(S), j in S and sigma(S)) x_ij <= |S| - 1.
+	 */
+	private void checkSuccessorInequality(Round round, int[] members, int count, boolean[] inSet, double inside) {
+		double[][] x = round.x;
+		boolean[] sigma = round.clearedMarks();
+		for (int h = 0; h < count; h++) {
+			if (members[h] <= n) {
+				sigma[members[h] + n] = true;
+			}
+		}
+		double lifted = inside;
+		for (int i = 0; i < nodes.length; i++) {
+			if (inSet[i]) {
+				continue;
+			}
+			for (int h = 0; h < count; h++) {
+				int j = members[h];
+				if (sigma[i] || sigma[j]) {
+					lifted += x[i][j];
+				}
+			}
+		}
+		if (lifted > inside + EPSILON && lifted > count - 1 + EPSILON) {
+			ArcBuffer arcs = round.arcs();
+			arcs.addSet(members, count);
+			for (int i = 0; i < nodes.length; i++) {
+				if (inSet[i]) {
+					continue;
+				}
+				for (int h = 0; h < count; h++) {
+					int j = members[h];
+					if (sigma[i] || sigma[j]) {
+						arcs.add(i, j, 1.0);
+					}
+				}
+			}
+			round.add(CutType.SUBTOUR, "sigma" + round.setKey(members, count), count - 1, lifted);
+		}
+	}
+
+	/**
+	 * Lifted subtour elimination constraint for the predecessors
+	 * pi(S) = {i in P : n+i in S}:</br>
+	 * x(S) + sum(i in S, j in !S and pi(S)) x_ij
+	 * + sum(i in S and pi(S), j in !S and not pi(S)) x_ij <= |S| - 1.
+	 */
+	private void checkPredecessorInequality(Round round, int[] members, int count, boolean[] inSet,
+			double inside) {
+		double[][] x = round.x;
+		boolean[] pi = round.clearedMarks();
+		for (int h = 0; h < count; h++) {
+			if (members[h] > n && members[h] <= 2 * n) {
+				pi[members[h] - n] = true;
+			}
+		}
+		double lifted = inside;
+		for (int j = 0; j < nodes.length; j++) {
+			if (inSet[j]) {
+				continue;
+			}
+			for (int h = 0; h < count; h++) {
+				int i = members[h];
+				if (pi[j] || pi[i]) {
+					lifted += x[i][j];
+				}
+			}
+		}
+		if (lifted > inside + EPSILON && lifted > count - 1 + EPSILON) {
+			ArcBuffer arcs = round.arcs();
+			arcs.addSet(members, count);
+			for (int j = 0; j < nodes.length; j++) {
+				if (inSet[j]) {
+					continue;
+				}
+				for (int h = 0; h < count; h++) {
+					int i = members[h];
+					if (pi[j] || pi[i]) {
+						arcs.add(i, j, 1.0);
+					}
+				}
+			}
+			round.add(CutType.SUBTOUR, "pi" + round.setKey(members, count), count - 1, lifted);
+		}
+	}
+
+	/**
+	 * Precedence inequalities x(S) <= |S| - 2:</br>
+	 * For every user i a set S containing 0 and n+i but neither i nor 2n+1
+	 * is grown greedily, and symmetrically a set S containing i and 2n+1
+	 * but neither n+i nor 0.
+	 * @param round The current separation round.
+	 * @param first First user.
+	 * @param last Last user.
+	 */
+	private void separatePrecedences(Round round, int first, int last) {
+		for (int i = first; i <= last; i++) {
+			growPrecedenceSet(round, 0, n + i, i, 2 * n + 1);
+			growPrecedenceSet(round, i, 2 * n + 1, n + i, 0);
+		}
+	}
+
+	/**
+	 * Grow a set S = {first, second} greedily without the two excluded
+	 * nodes and check the precedence inequality for every intermediate set.
+	 */
+	private void growPrecedenceSet(Round round, int first, int second, int excludedA, int excludedB) {
+		double[][] x = round.x;
+		boolean[] inSet = round.clearedMarks();
+		double[] weight = new double[nodes.length];
+		int[] members = new int[Math.min(maxSetSize, 2 * n) + 2];
+		int count = 0;
+		double inside = 0;
+		int v = first;
+		while (true) {
+			inSet[v] = true;
+			members[count++] = v;
+			inside += weight[v];
+			for (int u = 0; u < nodes.length; u++) {
+				weight[u] += x[v][u] + x[u][v];
+			}
+			if (count == 1) {
+				v = second;
+				continue;
+			}
+			if (inside > count - 2 + EPSILON) {
+				round.addSetCut(CutType.PRECEDENCE, members, count, count - 2, inside);
+			}
+			if (count == members.length) {
+				break;
+			}
+			v = -1;
+			double best = EPSILON;
+			for (int u = 1; u <= 2 * n; u++) {
+				if (!inSet[u] && u != excludedA && u != excludedB && weight[u] > best) {
+					best = weight[u];
+					v = u;
+				}
+			}
+			if (v < 0) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Generalized order constraints for m = 2:</br>
+	 * For users i_1 and i_2 the sets U_1 = {i_1, n+i_2} and
+	 * U_2 = {i_2, n+i_1} give x(U_1) + x(U_2) <= |U_1| + |U_2| - 3,
+	 * the sets are additionally extended greedily.
+	 * @param round The current separation round.
+	 * @param first First user i_1.
+	 * @param last Last user i_1.
+	 */
+	private void separateOrderPairs(Round round, int first, int last) {
+		double[][] x = round.x;
+		for (int i1 = first; i1 <= last; i1++) {
+			for (int i2 = i1 + 1; i2 <= n; i2++) {
+				double value = pair(x, i1, n + i2) + pair(x, i2, n + i1);
+				if (value > 0.5) {
+					extendOrderSets(round, i1, i2, value);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Generalized order constraints for m = 3:</br>
+	 * For users i_1..i_3 the sets U_l contain i_l and n+i_(l+1), then
+	 * sum(l) x(U_l) <= sum(l) |U_l| - 4.
+	 * @param round The current separation round.
+	 * @param first First user i_1.
+	 * @param last Last user i_1.
+	 */
+	private void separateOrderTriples(Round round, int first, int last) {
+		double[][] x = round.x;
+		for (int i1 = first; i1 <= last; i1++) {
+			for (int i2 = i1 + 1; i2 <= n; i2++) {
+				double firstPair = pair(x, i1, n + i2);
+				if (firstPair <= EPSILON) {
+					continue;
+				}
+				for (int i3 = i1 + 1; i3 <= n; i3++) {
+					if (i3 == i2) {
+						continue;
+					}
+					double value = firstPair + pair(x, i2, n + i3) + pair(x, i3, n + i1);
+					if (value > 2 + EPSILON) {
+						ArcBuffer arcs = round.arcs();
+						arcs.addPair(i1, n + i2);
+						arcs.addPair(i2, n + i3);
+						arcs.addPair(i3, n + i1);
+						round.add(CutType.GENERALIZED_ORDER, "goc3:" + i1 + "," + i2 + "," + i3, 2, value);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Start with U_1 = {i1, n+i2} and U_2 = {i2, n+i1} and add nodes to
+	 * the set they are most connected to as long as the violation grows.
+	 */
+	private void extendOrderSets(Round round, int i1, int i2, double value) {
+		double[][] x = round.x;
+		int limit = Math.max(2, maxSetSize / 2);
+		int[] first = new int[limit];
+		int[] second = new int[limit];
+		first[0] = i1;
+		first[1] = n + i2;
+		second[0] = i2;
+		second[1] = n + i1;
+		int firstCount = 2;
+		int secondCount = 2;
+		boolean[] used = round.clearedMarks();
+		used[i1] = true;
+		used[i2] = true;
+		used[n + i1] = true;
+		used[n + i2] = true;
+
+		while (firstCount < limit || secondCount < limit) {
+			int best = -1;
+			boolean toFirst = true;
+			double bestWeight = 1 + EPSILON;
+			for (int u = 1; u <= 2 * n; u++) {
+				if (used[u]) {
+					continue;
+				}
+				if (firstCount < limit) {
+					double w = weight(x, u, first, firstCount);
+					if (w > bestWeight) {
+						bestWeight = w;
+						best = u;
+						toFirst = true;
+					}
+				}
+				if (secondCount < limit) {
+					double w = weight(x, u, second, secondCount);
+					if (w > bestWeight) {
+						bestWeight = w;
+						best = u;
+						toFirst = false;
+					}
+				}
+			}
+			if (best < 0) {
+				break;
+			}
+			used[best] = true;
+			value += bestWeight;
+			if (toFirst) {
+				first[firstCount++] = best;
+			} else {
+				second[secondCount++] = best;
+			}
+		}
+
+		// Right hand side: |U_1| + |U_2| - 2 - 1.
+		double rhs = firstCount + secondCount - 3;
+		if (value > rhs + EPSILON) {
+			ArcBuffer arcs = round.arcs();
+			arcs.addSet(first, firstCount);
+			arcs.addSet(second, secondCount);
+			round.add(CutType.GENERALIZED_ORDER,
+					"goc2:" + round.setKey(first, firstCount) + round.setKey(second, secondCount), rhs, value);
+		}
+	}
+
+	/**
+	 * Sum of the arc values between node u and all nodes of a set.
+	 */
+	private static double weight(double[][] x, int u, int[] members, int count) {
+		double w = 0;
+		for (int h = 0; h < count; h++) {
+			w += x[u][members[h]] + x[members[h]][u];
+		}
+		return w;
+	}
+
+	/**
+	 * Sum of the arc values in both directions between two nodes.
+	 */
+	private static double pair(double[][] x, int i, int j) {
+		return x[i][j] + x[j][i];
+	}
+
+	/**
+	 * Collects the terms of the inequality that is currently built.
+	 */
+	private static class ArcBuffer {
+		private int[] tails = new int[64];
+		private int[] heads = new int[64];
+		private double[] coefficients = new double[64];
+		private int size;
+
+		void add(int i, int j, double coefficient) {
+			if (size == tails.length) {
+				tails = Arrays.copyOf(tails, 2 * size);
+				heads = Arrays.copyOf(heads, 2 * size);
+				coefficients = Arrays.copyOf(coefficients, 2 * size);
+			}
+			tails[size] = i;
+			heads[size] = j;
+			coefficients[size] = coefficient;
+			size++;
+		}
+
+		/**
+		 * Add all arcs inside a set: x(S).
+		 */
+		void addSet(int[] members, int count) {
+			for (int a = 0; a < count; a++) {
+				for (int b = 0; b < count; b++) {
+					if (a != b) {
+						add(members[a], members[b], 1.0);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Add the arcs in both directions between two nodes.
+		 */
+		void addPair(int i, int j) {
+			add(i, j, 1.0);
+			add(j, i, 1.0);
+		}
+	}
+
+	/**
+	 * State of one separation round: the separated point, the cuts
+	 * found so far and the keys to avoid duplicates.
+	 */
+	private class Round {
+		private final double[][] x;
+		private final List<Cut> cuts = new ArrayList<Cut>();
+		private final Set<String> keys = new HashSet<String>();
+		private final ArcBuffer arcs = new ArcBuffer();
+		private final boolean[] marks;
+		private final List<String> cutKeys = new ArrayList<String>();
+		private final boolean integral;
+		private long lapStart;
+		private int lapCuts;
+		private long nanos;
+
+		Round(double[][] x, boolean integral) {
+			this.x = x;
+			this.marks = new boolean[nodes.length];
+			this.integral = integral;
+			this.lapStart = metrics == null ? 0 : System.nanoTime();
+		}
+
+		/**
+		 * Record the time and the cuts of the routine that ran since the
+		 * last lap.
+		 */
+		void lap(String routine) {
+			if (metrics != null) {
+				long now = System.nanoTime();
+				metrics.addSeparation(routine, integral, now - lapStart, cuts.size() - lapCuts);
+				lapStart = now;
+				lapCuts = cuts.size();
+			}
+		}
+
+		/**
+		 * Get an empty buffer for the terms of a new inequality.
+		 */
+		ArcBuffer arcs() {
+			arcs.size = 0;
+			return arcs;
+		}
+
+		/**
+		 * Get the shared flag array with all flags set to false.
+		 */
+		boolean[] clearedMarks() {
+			Arrays.fill(marks, false);
+			return marks;
+		}
+
+		/**
+		 * Compute x(S) for a set S.
+		 */
+		double inside(int[] members, int count) {
+			double value = 0;
+			for (int a = 0; a < count; a++) {
+				for (int b = 0; b < count; b++) {
+					value += x[members[a]][members[b]];
+				}
+			}
+			return value;
+		}
+
+		/**
+		 * Order independent key of a set.
+		 */
+		String setKey(int[] members, int count) {
+			BitSet set = new BitSet(nodes.length);
+			for (int h = 0; h < count; h++) {
+				set.set(members[h]);
+			}
+			return set.toString();
+		}
+
+		/**
+		 * Add the inequality x(S) <= rhs.
+		 */
+		void addSetCut(CutType type, int[] members, int count, double rhs, double value) {
+			String key = type.name() + setKey(members, count);
+			if (keys.contains(key)) {
+				return;
+			}
+			arcs().addSet(members, count);
+			add(type, key, rhs, value);
+		}
+
+		/**
+		 * Turn the terms in the arc buffer into a cut unless an
+		 * inequality with the same key was already found.
+		 */
+		void add(CutType type, String key, double rhs, double value) {
+			if (!keys.add(key)) {
+				return;
+			}
+			cutKeys.add(key);
+			cuts.add(new Cut(type, Arrays.copyOf(arcs.tails, arcs.size),
+					Arrays.copyOf(arcs.heads, arcs.size),
+					Arrays.copyOf(arcs.coefficients, arcs.size), rhs, value - rhs));
+		}
+
+		/**
+		 * Append the cuts of another round that are not in this one.
+		 */
+		Round merge(Round other) {
+			for (int c = 0; c < other.cuts.size(); c++) {
+				if (keys.add(other.cutKeys.get(c))) {
+					cutKeys.add(other.cutKeys.get(c));
+					cuts.add(other.cuts.get(c));
+				}
+			}
+			nanos += other.nanos;
+			return this;
+		}
+
+		/**
+		 * Get the most violated cuts of this round.
+		 */
+		List<Cut> finish() {
+			Collections.sort(cuts, new Comparator<Cut>() {
+				@Override
+				public int compare(Cut a, Cut b) {
+					return Double.compare(b.getViolation(), a.getViolation());
+				}
+			});
+			if (cuts.size() > maxCuts) {
+				return new ArrayList<Cut>(cuts.subList(0, maxCuts));
+			}
+			return cuts;
+		}
+	}
+
+	/**
+	 * The separation routines, the routines with a range of seeds or users
+	 * are split into tasks of at most {@link #grain} of them.
+	 */
+	private enum Routine {
+		DISCONNECTED("disconnected", 0, 1),
+		ROUTE_ORDER("route order", 0, 1),
+		SETS("sets", 1, 8),
+		PRECEDENCE("precedence", 1, 8),
+		ORDER_PAIRS("generalized order", 1, 8),
+		ORDER_TRIPLES("generalized order", 1, 4);
+
+		private final String name;
+		private final int first;
+		private final int grain;
+
+		Routine(String name, int first, int grain) {
+			this.name = name;
+			this.first = first;
+			this.grain = grain;
+		}
+
+		/**
+		 * Name of the routine in the metrics.
+		 */
+		String getName() {
+			return name;
+		}
+
+		/**
+		 * First seed or user of the routine.
+		 */
+		int getFirst() {
+			return first;
+		}
+
+		/**
+		 * Last seed or user of the routine for n users.
+		 */
+		int getLast(int n) {
+			switch (this) {
+			case SETS:
+				return 2 * n;
+			case PRECEDENCE:
+			case ORDER_PAIRS:
+			case ORDER_TRIPLES:
+				return n;
+			default:
+				return 0;
+			}
+		}
+	}
+
+	/**
+	 * A routine on a range of seeds or users. Ranges larger than the grain
+	 * of the routine are halved, the cuts of the lower half come first.
+	 */
+	private class Task extends RecursiveTask<Round> {
+		private static final long serialVersionUID = 1L;
+		private final Routine routine;
+		private final double[][] x;
+		private final boolean integral;
+		private final int first;
+		private final int last;
+
+		Task(Routine routine, double[][] x, boolean integral, int first, int last) {
+			this.routine = routine;
+			this.x = x;
+			this.integral = integral;
+			this.first = first;
+			this.last = last;
+		}
+
+		@Override
+		protected Round compute() {
+			if (last - first + 1 > routine.grain) {
+				int middle = (first + last) >>> 1;
+				Task lower = new Task(routine, x, integral, first, middle);
+				Task upper = new Task(routine, x, integral, middle + 1, last);
+				lower.fork();
+				Round round = upper.compute();
+				return lower.join().merge(round);
+			}
+			long start = System.nanoTime();
+			Round round = new Round(x, integral);
+			run(routine, round, first, last);
+			round.nanos = System.nanoTime() - start;
+			return round;
+		}
+	}
+
+}
@@ -0,0 +1,28 @@
+package logic;
+
+/**
+ * The families of valid inequalities from Cordeau's paper that
+ * are separated during the branch-and-cut.
+ *
+ */
+public enum CutType {
+
+	/**
+	 * Subtour elimination constraints x(S) <= |S| - 1 and their
+	 * lifted predecessor/successor forms.
+	 */
+	SUBTOUR,
+	/**
+	 * Capacity inequalities x(S) <= |S| - max(1, ceil(|q(S)| / Q)).
+	 */
+	CAPACITY,
+	/**
+	 * Precedence inequalities x(S) <= |S| - 2 for sets that contain
+	 * a drop-off node but not its pick-up node (or vice versa).
+	 */
+	PRECEDENCE,
+	/**
+	 * Generalized order constraints over disjoint node sets U_1..U_m.
+	 */
+	GENERALIZED_ORDER
+}
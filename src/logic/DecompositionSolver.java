@@ -0,0 +1,719 @@
+package logic;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Geographic and temporal decomposition for instances with hundreds of
+ * users.</br>
+ * The users are partitioned into clusters of at most
+ * {@link #setClusterSize(int) clusterSize} users by k-means over their
+ * pick-up location, drop-off location and request time (the middle of the
+ * tighter time window, moved to the pick-up). Travel times are distances,
+ * so all coordinates have the same unit. Every cluster gets the vehicles
+ * nearest to it (from their origin depots) that the insertion heuristic
+ * needs to cover its users, the remaining vehicles are shared in
+ * proportion to the users.</br>
+ * Every cluster is a DARP of its own with the same depots, maximum ride
+ * time and vehicles. The clusters are solved by the {@link model} in
+ * parallel, one solver thread each, so the wall time grows with the
+ * number of clusters divided by the number of threads instead of with the
+ * size of one model. The routes of the clusters are merged, the users of a
+ * cluster without solution are inserted by the {@link InsertionHeuristic},
+ * and the {@link LocalSearch} relocates and exchanges users across the
+ * cluster borders. The result has the status Feasible.
+ *
+ */
+public class DecompositionSolver {
+
+	/**
+	 * Maximal number of k-means iterations.
+	 */
+	private static final int MAX_ITERATIONS = 50;
+
+	/**
+	 * The instance that is solved.
+	 */
+	private final Instance instance;
+	/**
+	 * The settings of the cluster solves.
+	 */
+	private final SolverOptions options;
+	/**
+	 * Maximal number of users of a cluster.
+	 */
+	private int clusterSize = 40;
+	/**
+	 * Time limit of a cluster solve in seconds if the options have none.
+	 */
+	private double clusterTimeLimit = 60;
+	/**
+	 * Weight of the request time against the locations in the clustering.
+	 */
+	private double timeWeight = 1;
+	/**
+	 * Random start centers of the clustering.
+	 */
+	private Random random = new Random(0);
+
+	/**
+	 * Array containing all nodes.
+	 */
+	private Node[] N;
+	/**
+	 * Array containing all vehicles.
+	 */
+	private Truck[] K;
+	/**
+	 * Number of users (number of pick-up locations).
+	 */
+	private int n;
+	/**
+	 * Distance and travel time between node i and node j.
+	 */
+	private TravelMatrix c;
+	/**
+	 * Insertion and feasibility checks of routes of the whole instance.
+	 */
+	private InsertionHeuristic heuristic;
+
+	/**
+	 * Constructor for a new decomposition.
+	 * @param instance The instance that is solved.
+	 * @param options The settings of the cluster solves.
+	 */
+	public DecompositionSolver(Instance instance, SolverOptions options) {
+		super();
+		this.instance = instance;
+		this.options = options;
+	}
+
+	/**
+	 * Partition the users, solve the clusters in parallel and improve the
+	 * merged routes.
+	 * @return The result with the merged routes, status Feasible, or
+	 *         Unknown if no routes for all users were found.
+	 */
+	public SolverResult solve() {
+		long begin = System.nanoTime();
+		SolverMetrics metrics = new SolverMetrics(instance.getName());
+		metrics.startPhase("distances");
+		N = instance.createNodes();
+		K = instance.createTrucks();
+		n = instance.getUsers();
+		long[] cuts = new long[CutType.values().length];
+		try {
+			if (options.getTravelMatrixFile() != null) {
+				c = TravelMatrix.read(options.getTravelMatrixFile());
+			} else {
+				c = TravelMatrix.compute(options.getTravelMetric(), N, options.getMatrixStorage());
+			}
+			// Vehicles with own depots travel from and to these depots.
+			Truck.computeDepotTravelTimes(K, N, c, options);
+		} catch (IOException | IllegalArgumentException e) {
+			e.printStackTrace();
+			return new SolverResult(instance.getName(), "Error", Double.NaN, Double.NaN, Double.NaN, 0, cuts,
+					seconds(begin), null, null);
+		}
+		heuristic = new InsertionHeuristic(N, K, n, instance.getMaxRideTime(), c, c);
+
+		metrics.startPhase("clustering");
+		int count = Math.max(1, Math.min(K.length, (n + clusterSize - 1) / clusterSize));
+		double[][] points = createPoints();
+		int[] cluster = cluster(points, count);
+		List<List<Integer>> users = new ArrayList<List<Integer>>();
+		for (int k = 0; k < count; k++) {
+			users.add(new ArrayList<Integer>());
+		}
+		for (int user = 1; user <= n; user++) {
+			users.get(cluster[user]).add(user);
+		}
+		int[][][] starts = new int[count][][];
+		List<List<Integer>> vehicles = shareFleet(users, points, cluster, starts);
+
+		metrics.startPhase("clusters");
+		int threads = options.getThreads() > 0 ? options.getThreads() : Runtime.getRuntime().availableProcessors();
+		int waves = (count + threads - 1) / threads;
+		double timeLimit = options.getTimeLimit() > 0 ? options.getTimeLimit() / waves : clusterTimeLimit;
+		ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, count));
+		List<Future<SolverResult>> futures = new ArrayList<Future<SolverResult>>();
+		try {
+			for (int k = 0; k < count; k++) {
+				if (vehicles.get(k).isEmpty()) {
+					// The users are inserted into the routes of the other clusters.
+					futures.add(null);
+					continue;
+				}
+				final Instance sub = createSubInstance(k, users.get(k), vehicles.get(k));
+				// The cluster is solved with the travel times of the
+				// instance, e.g. the ones of a road network.
+				final TravelMatrix distances = c.subMatrix(originalNodes(users.get(k)));
+				final int[][] start = starts[k] != null ? Arrays.copyOf(starts[k], vehicles.get(k).size()) : null;
+				final SolverOptions subOptions = new SolverOptions(options);
+				subOptions.setVerbose(false);
+				subOptions.setExportModel(false);
+				subOptions.setMetricsFile(null);
+				subOptions.setCheckpointFile(null);
+				subOptions.setThreads(1);
+				subOptions.setTimeLimit(timeLimit);
+				futures.add(pool.submit(new Callable<SolverResult>() {
+					@Override
+					public SolverResult call() {
+						model subModel = new model(sub, subOptions);
+						subModel.setDistances(distances);
+						if (start != null) {
+							for (int v = 0; v < start.length; v++) {
+								if (start[v] == null) {
+									start[v] = new int[0];
+								}
+							}
+							subModel.setStartRoutes(start);
+						}
+						return subModel.solve();
+					}
+				}));
+			}
+
+			metrics.startPhase("merge");
+			int[][] routes = new int[K.length][];
+			long nodes = 0;
+			List<Integer> unassigned = new ArrayList<Integer>();
+			for (int k = 0; k < count; k++) {
+				SolverResult result = null;
+				try {
+					result = futures.get(k) != null ? futures.get(k).get() : null;
+				} catch (ExecutionException e) {
+					e.getCause().printStackTrace();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+				if (result != null) {
+					nodes += result.getNodes();
+					for (CutType type : CutType.values()) {
+						cuts[type.ordinal()] += result.getCuts(type);
+					}
+				}
+				if (options.isVerbose()) {
+					System.out.println(String.format(Locale.ROOT,
+							"Decomposition: Cluster %d (%d users, %d vehicles): %s, objective %s, %.1f seconds", k,
+							users.get(k).size(), vehicles.get(k).size(), result != null ? result.getStatus() : vehicles.get(k).isEmpty() ? "No vehicles" : "Error",
+							result == null ? Double.NaN : result.getObjectiveValue(),
+							result == null ? 0 : result.getWallTime()));
+				}
+				// Without a solution of the model the routes of the heuristic
+				// are used.
+				boolean assigned = result != null && result.getSolution() != null
+						&& assignRoutes(routes, routesOf(result.getSolution()), users.get(k), vehicles.get(k));
+				if (!assigned && (starts[k] == null || !assignRoutes(routes, starts[k], users.get(k), vehicles.get(k)))) {
+					unassigned.addAll(users.get(k));
+				}
+			}
+			for (int k = 0; k < K.length; k++) {
+				if (routes[k] == null) {
+					routes[k] = new int[0];
+				}
+			}
+			routes = reinsert(routes, unassigned);
+			if (routes == null) {
+				// The clusters do not fit together, start from the routes of
+				// the whole instance.
+				routes = heuristic.construct();
+			}
+			if (routes == null) {
+				if (options.isVerbose()) {
+					System.out.println("Decomposition: No routes for all users found.");
+				}
+				metrics.finish();
+				writeMetrics(metrics);
+				return new SolverResult(instance.getName(), "Unknown", Double.NaN, Double.NaN, Double.NaN, nodes,
+						cuts, seconds(begin), null, metrics);
+			}
+			LocalSearch search = new LocalSearch(heuristic);
+			double merged = search.cost(routes);
+			metrics.recordProgress(merged, Double.NEGATIVE_INFINITY, nodes);
+
+			metrics.startPhase("improve");
+			search.improve(routes);
+			double cost = search.cost(routes);
+			metrics.recordProgress(cost, Double.NEGATIVE_INFINITY, nodes);
+
+			metrics.startPhase("extract");
+			Solution solution = toSolution(routes, cost);
+			if (options.getCheckpointFile() != null) {
+				try {
+					BinaryFormat.writeSolution(solution, options.getCheckpointFile());
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+			if (options.isVerbose()) {
+				System.out.println(String.format(Locale.ROOT,
+						"Decomposition: %d clusters, %d users reinserted, merged cost %.4f, improved cost %.4f", count,
+						unassigned.size(), merged, cost));
+			}
+			metrics.finish();
+			writeMetrics(metrics);
+			return new SolverResult(instance.getName(), "Feasible", cost, Double.NaN, Double.NaN, nodes, cuts,
+					seconds(begin), solution, metrics);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Get the point of every user in the clustering: x and y of the pick-up
+	 * and the drop-off and the weighted request time. The request time is
+	 * the middle of the tighter time window, for the drop-off window minus
+	 * the direct ride.
+	 * @return The point of user i in row i, row 0 is unused.
+	 */
+	private double[][] createPoints() {
+		double[][] points = new double[n + 1][];
+		for (int user = 1; user <= n; user++) {
+			Node pickup = N[user];
+			Node dropoff = N[n + user];
+			double pickupWidth = pickup.getLatestServiceTime() - pickup.getEarliestServiceTime();
+			double dropoffWidth = dropoff.getLatestServiceTime() - dropoff.getEarliestServiceTime();
+			double time = (pickup.getEarliestServiceTime() + pickup.getLatestServiceTime()) / 2;
+			if (dropoffWidth < pickupWidth) {
+				time = (dropoff.getEarliestServiceTime() + dropoff.getLatestServiceTime()) / 2 - c.get(user, n + user)
+						- pickup.getServiceDuration();
+			}
+			points[user] = new double[] { pickup.getxPosition(), pickup.getyPosition(), dropoff.getxPosition(),
+					dropoff.getyPosition(), timeWeight * time };
+		}
+		return points;
+	}
+
+	/**
+	 * Partition the users by k-means with clusters of at most
+	 * {@link #clusterSize} users (more if there are too few vehicles). The
+	 * start centers are chosen like in k-means++, in every iteration the
+	 * users closest to a center are assigned first.
+	 * @return The cluster of user i at index i.
+	 */
+	private int[] cluster(final double[][] points, int count) {
+		int[] cluster = new int[n + 1];
+		if (n == 0) {
+			return cluster;
+		}
+		int limit = Math.max(clusterSize, (n + count - 1) / count);
+		double[][] centers = new double[count][];
+		double[] nearest = new double[n + 1];
+		Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+		centers[0] = points[1 + random.nextInt(n)].clone();
+		for (int k = 1; k < count; k++) {
+			double total = 0;
+			for (int user = 1; user <= n; user++) {
+				nearest[user] = Math.min(nearest[user], distance(points[user], centers[k - 1]));
+				total += nearest[user];
+			}
+			double threshold = random.nextDouble() * total;
+			int chosen = n;
+			for (int user = 1; user <= n; user++) {
+				threshold -= nearest[user];
+				if (threshold < 0) {
+					chosen = user;
+					break;
+				}
+			}
+			centers[k] = points[chosen].clone();
+		}
+
+		Arrays.fill(cluster, -1);
+		Integer[] order = new Integer[n];
+		for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+			final double[] closest = new double[n + 1];
+			for (int user = 1; user <= n; user++) {
+				order[user - 1] = user;
+				closest[user] = Double.POSITIVE_INFINITY;
+				for (int k = 0; k < count; k++) {
+					closest[user] = Math.min(closest[user], distance(points[user], centers[k]));
+				}
+			}
+			Arrays.sort(order, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer a, Integer b) {
+					return Double.compare(closest[a], closest[b]);
+				}
+			});
+			int[] sizes = new int[count];
+			boolean changed = false;
+			for (int user : order) {
+				int best = -1;
+				for (int k = 0; k < count; k++) {
+					if (sizes[k] < limit
+							&& (best < 0 || distance(points[user], centers[k]) < distance(points[user], centers[best]))) {
+						best = k;
+					}
+				}
+				sizes[best]++;
+				changed |= cluster[user] != best;
+				cluster[user] = best;
+			}
+			if (!changed) {
+				break;
+			}
+			for (int k = 0; k < count; k++) {
+				if (sizes[k] == 0) {
+					continue;
+				}
+				Arrays.fill(centers[k], 0);
+				for (int user = 1; user <= n; user++) {
+					if (cluster[user] == k) {
+						for (int d = 0; d < centers[k].length; d++) {
+							centers[k][d] += points[user][d] / sizes[k];
+						}
+					}
+				}
+			}
+		}
+		return cluster;
+	}
+
+	/**
+	 * Get the squared Euclidean distance of two points.
+	 */
+	private static double distance(double[] a, double[] b) {
+		double distance = 0;
+		for (int d = 0; d < a.length; d++) {
+			distance += (a[d] - b[d]) * (a[d] - b[d]);
+		}
+		return distance;
+	}
+
+	/**
+	 * Share the vehicles among the clusters. The largest cluster first,
+	 * every cluster gets the free vehicles nearest (from the origin depot)
+	 * to its pick-up center until the insertion heuristic finds routes for
+	 * its users. The remaining vehicles are shared in proportion to the
+	 * users (largest remainder), every vehicle goes to the nearest cluster
+	 * below its share.
+	 * @param starts Filled with the heuristic routes of every covered cluster (null if not covered).
+	 * @return The vehicles k of every cluster.
+	 */
+	private List<List<Integer>> shareFleet(final List<List<Integer>> users, double[][] points, int[] cluster,
+			int[][][] starts) {
+		int count = users.size();
+		final double[][] centers = new double[count][2];
+		for (int user = 1; user <= n; user++) {
+			centers[cluster[user]][0] += points[user][0] / users.get(cluster[user]).size();
+			centers[cluster[user]][1] += points[user][1] / users.get(cluster[user]).size();
+		}
+		List<List<Integer>> vehicles = new ArrayList<List<Integer>>();
+		for (int k = 0; k < count; k++) {
+			vehicles.add(new ArrayList<Integer>());
+		}
+		List<Integer> free = new ArrayList<Integer>();
+		for (int v = 0; v < K.length; v++) {
+			free.add(v);
+		}
+		Integer[] order = new Integer[count];
+		for (int k = 0; k < count; k++) {
+			order[k] = k;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				return Integer.compare(users.get(b).size(), users.get(a).size());
+			}
+		});
+		for (final int k : order) {
+			Collections.sort(free, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer a, Integer b) {
+					return Double.compare(distance(K[a].getOrigin(N), centers[k]), distance(K[b].getOrigin(N), centers[k]));
+				}
+			});
+			while (!users.get(k).isEmpty() && (starts[k] = cover(k, users.get(k), vehicles.get(k))) == null
+					&& !free.isEmpty()) {
+				vehicles.get(k).add(free.remove(0));
+			}
+		}
+
+		int[] quota = new int[count];
+		double[] remainder = new double[count];
+		int assigned = 0;
+		for (int k = 0; k < count; k++) {
+			double share = (double) K.length * users.get(k).size() / Math.max(1, n);
+			quota[k] = (int) share;
+			remainder[k] = share - quota[k];
+			assigned += quota[k];
+		}
+		for (; assigned < K.length; assigned++) {
+			int best = 0;
+			for (int k = 1; k < count; k++) {
+				if (remainder[k] > remainder[best]) {
+					best = k;
+				}
+			}
+			quota[best]++;
+			remainder[best] = -1;
+		}
+		for (int v : free) {
+			int best = -1;
+			for (int k = 0; k < count; k++) {
+				boolean below = vehicles.get(k).size() < quota[k];
+				if (best < 0 || (below && vehicles.get(best).size() >= quota[best])
+						|| (below == vehicles.get(best).size() < quota[best]
+								&& distance(K[v].getOrigin(N), centers[k]) < distance(K[v].getOrigin(N), centers[best]))) {
+					best = k;
+				}
+			}
+			vehicles.get(best).add(v);
+		}
+		return vehicles;
+	}
+
+	/**
+	 * Get the squared distance of the origin depot of a vehicle to the
+	 * pick-up center of a cluster.
+	 */
+	private static double distance(Node origin, double[] center) {
+		double dx = origin.getxPosition() - center[0];
+		double dy = origin.getyPosition() - center[1];
+		return dx * dx + dy * dy;
+	}
+
+	/**
+	 * Find routes for the users of a cluster with some vehicles by the
+	 * insertion heuristic.
+	 * @return The route of every vehicle in the nodes of the cluster
+	 *         instance, null if the heuristic found none.
+	 */
+	private int[][] cover(int index, List<Integer> users, List<Integer> vehicles) {
+		if (vehicles.isEmpty()) {
+			return null;
+		}
+		Instance sub = createSubInstance(index, users, vehicles);
+		Node[] nodes = sub.createNodes();
+		Truck[] trucks = sub.createTrucks();
+		TravelMatrix t = c.subMatrix(originalNodes(users));
+		Truck.computeDepotTravelTimes(trucks, nodes, t, options);
+		return new InsertionHeuristic(nodes, trucks, users.size(), instance.getMaxRideTime(), t, t).construct();
+	}
+
+	/**
+	 * Create the instance of a cluster: Its users with the depots, the
+	 * maximum ride time and the vehicles of the cluster.
+	 */
+	private Instance createSubInstance(int index, List<Integer> users, List<Integer> vehicles) {
+		int size = users.size();
+		int[] original = originalNodes(users);
+		double[] xPositions = new double[original.length];
+		double[] yPositions = new double[original.length];
+		int[] serviceDurations = new int[original.length];
+		int[] loads = new int[original.length];
+		double[] earliestServiceTimes = new double[original.length];
+		double[] latestServiceTimes = new double[original.length];
+		for (int i = 0; i < original.length; i++) {
+			Node node = N[original[i]];
+			xPositions[i] = node.getxPosition();
+			yPositions[i] = node.getyPosition();
+			serviceDurations[i] = node.getServiceDuration();
+			loads[i] = node.getLoad();
+			earliestServiceTimes[i] = node.getEarliestServiceTime();
+			latestServiceTimes[i] = node.getLatestServiceTime();
+		}
+		Truck[] fleet = new Truck[vehicles.size()];
+		for (int v = 0; v < fleet.length; v++) {
+			fleet[v] = K[vehicles.get(v)];
+		}
+		return new Instance(instance.getName() + "-" + index, size, fleet, instance.getMaxRideTime(), xPositions,
+				yPositions, serviceDurations, loads, earliestServiceTimes, latestServiceTimes);
+	}
+
+	/**
+	 * Get the nodes of the instance a cluster instance consists of: The
+	 * depots and the pick-ups and drop-offs of its users.
+	 * @return Node i of the cluster instance is the node at index i.
+	 */
+	private int[] originalNodes(List<Integer> users) {
+		int size = users.size();
+		int[] original = new int[2 * size + 2];
+		for (int u = 0; u < size; u++) {
+			original[1 + u] = users.get(u);
+			original[1 + size + u] = n + users.get(u);
+		}
+		original[2 * size + 1] = 2 * n + 1;
+		return original;
+	}
+
+	/**
+	 * Translate the routes of a cluster to the nodes of the instance and
+	 * assign them to the vehicles of the cluster: Route r goes to the r-th
+	 * vehicle if it is feasible for it, otherwise to the first free one.
+	 * @param routes The route of every vehicle, filled for the vehicles of the cluster.
+	 * @param clusterRoutes The routes of the cluster in the nodes of the cluster instance.
+	 * @param users The users of the cluster in the order of the cluster instance.
+	 * @param vehicles The vehicles of the cluster.
+	 * @return False if a route has no vehicle or does not cover the users.
+	 */
+	private boolean assignRoutes(int[][] routes, int[][] clusterRoutes, List<Integer> users, List<Integer> vehicles) {
+		int size = users.size();
+		int[][] assigned = new int[vehicles.size()][];
+		int visits = 0;
+		for (int r = 0; r < clusterRoutes.length; r++) {
+			if (clusterRoutes[r] == null || clusterRoutes[r].length == 0) {
+				continue;
+			}
+			int[] route = clusterRoutes[r].clone();
+			for (int p = 0; p < route.length; p++) {
+				int node = route[p];
+				route[p] = node <= size ? users.get(node - 1) : n + users.get(node - size - 1);
+			}
+			visits += route.length;
+			int vehicle = -1;
+			if (r < assigned.length && heuristic.isFeasible(route, K[vehicles.get(r)])) {
+				vehicle = r;
+			}
+			for (int v = 0; vehicle < 0 && v < assigned.length; v++) {
+				if (assigned[v] == null && heuristic.isFeasible(route, K[vehicles.get(v)])) {
+					vehicle = v;
+				}
+			}
+			if (vehicle < 0 || assigned[vehicle] != null) {
+				return false;
+			}
+			assigned[vehicle] = route;
+		}
+		if (visits != 2 * size) {
+			return false;
+		}
+		for (int v = 0; v < assigned.length; v++) {
+			routes[vehicles.get(v)] = assigned[v] != null ? assigned[v] : new int[0];
+		}
+		return true;
+	}
+
+	/**
+	 * Get the routes of a solution.
+	 */
+	private static int[][] routesOf(Solution solution) {
+		int[][] routes = new int[solution.getRouteCount()][];
+		for (int r = 0; r < routes.length; r++) {
+			routes[r] = solution.getRoute(r);
+		}
+		return routes;
+	}
+
+	/**
+	 * Insert users one after another at their cheapest feasible position.
+	 * @return The routes, null if a user has no feasible position.
+	 */
+	private int[][] reinsert(int[][] routes, List<Integer> users) {
+		for (int user : users) {
+			InsertionHeuristic.Insertion best = heuristic.bestInsertion(routes, user);
+			if (best == null) {
+				return null;
+			}
+			routes[best.vehicle] = heuristic.insert(routes[best.vehicle], user, best.pickupPosition,
+					best.dropoffPosition);
+		}
+		return routes;
+	}
+
+	/**
+	 * Build a solution of routes with their schedules.
+	 */
+	private Solution toSolution(int[][] routes, double cost) {
+		double[][] serviceStarts = new double[routes.length][];
+		int[][] loads = new int[routes.length][];
+		double[] rideTimes = new double[n + 1];
+		for (int k = 0; k < routes.length; k++) {
+			int[] route = routes[k];
+			serviceStarts[k] = heuristic.schedule(route, K[k]);
+			loads[k] = new int[route.length];
+			int load = 0;
+			int[] position = new int[2 * n + 2];
+			for (int p = 0; p < route.length; p++) {
+				load += N[route[p]].getLoad();
+				loads[k][p] = load;
+				position[route[p]] = p;
+			}
+			for (int p = 0; p < route.length; p++) {
+				int user = route[p];
+				if (user <= n) {
+					rideTimes[user] = serviceStarts[k][position[n + user] + 1] - serviceStarts[k][p + 1]
+							- N[user].getServiceDuration();
+				}
+			}
+		}
+		return new Solution(cost, routes, serviceStarts, loads, rideTimes);
+	}
+
+	/**
+	 * Write the metrics to the metrics file of the options.
+	 */
+	private void writeMetrics(SolverMetrics metrics) {
+		if (options.getMetricsFile() == null) {
+			return;
+		}
+		try (Writer writer = new FileWriter(options.getMetricsFile())) {
+			writer.write(metrics.toJson());
+			writer.write('\n');
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Get the seconds since a point in time.
+	 */
+	private static double seconds(long begin) {
+		return (System.nanoTime() - begin) / 1e9;
+	}
+
+	/**
+	 * Set the maximal number of users of a cluster.
+	 * @param clusterSize Maximal number of users, exceeded only if there are fewer vehicles than clusters.
+	 */
+	public void setClusterSize(int clusterSize) {
+		if (clusterSize < 1) {
+			throw new IllegalArgumentException("A cluster needs room for at least one user");
+		}
+		this.clusterSize = clusterSize;
+	}
+
+	/**
+	 * Set the time limit of a cluster solve, used if the options have no
+	 * time limit. Otherwise the time limit of the options is divided among
+	 * the rounds of parallel cluster solves.
+	 * @param clusterTimeLimit Time limit in seconds.
+	 */
+	public void setClusterTimeLimit(double clusterTimeLimit) {
+		this.clusterTimeLimit = clusterTimeLimit;
+	}
+
+	/**
+	 * Set the weight of the request time against the locations in the
+	 * clustering, 0 clusters by location only.
+	 * @param timeWeight Weight of one time unit relative to one distance unit.
+	 */
+	public void setTimeWeight(double timeWeight) {
+		this.timeWeight = timeWeight;
+	}
+
+	/**
+	 * Set the seed of the start centers of the clustering.
+	 * @param seed The seed.
+	 */
+	public void setSeed(long seed) {
+		random = new Random(seed);
+	}
+
+}
@@ -0,0 +1,30 @@
+package logic;
+
+/**
+ * The destroy operators of the {@link AlnsSolver}: How the users are
+ * selected that are removed from the current routes and reinserted by
+ * the repair.
+ *
+ */
+public enum DestroyOperator {
+
+	/**
+	 * Remove users chosen uniformly at random.
+	 */
+	RANDOM,
+	/**
+	 * Shaw removal: Remove users that are related to an already removed
+	 * one (close pick-up and drop-off locations and time windows).
+	 */
+	RELATED,
+	/**
+	 * Remove the users that save the most routing cost when they are
+	 * removed from their route.
+	 */
+	WORST,
+	/**
+	 * Remove the users whose pick-up time windows are closest to the one
+	 * of a random user.
+	 */
+	TIME_WINDOW
+}
@@ -0,0 +1,766 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Bounded dual simplex on a dense tableau, the LP solver of the
+ * {@link BranchAndBoundBackend}.</br>
+ * Every row i is stated as a_i * x - s_i = 0 with a slack s_i that
+ * carries the bounds of the row. The start basis consists of the slacks
+ * and is dual feasible, changing bounds (branching) or adding rows (cuts)
+ * keeps the basis dual feasible. So every node of the branch-and-bound is
+ * reoptimized from the basis of the previous one.</br>
+ * The tableau is dense, which limits the solver to small models.
+ *
+ */
+class DualSimplex {
+
+	/**
+	 * Result of {@link #solve()}: The basis is optimal.
+	 */
+	static final int OPTIMAL = 0;
+	/**
+	 * Result of {@link #solve()}: The rows can not be satisfied.
+	 */
+	static final int INFEASIBLE = 1;
+	/**
+	 * Result of {@link #solve()}: The iteration limit was reached.
+	 */
+	static final int ITERATION_LIMIT = 2;
+	/**
+	 * Result of {@link #solve()}: The deadline passed.
+	 */
+	static final int TIME_LIMIT = 3;
+
+	/**
+	 * Allowed violation of a bound.
+	 */
+	private static final double PRIMAL_TOLERANCE = 1e-6;
+	/**
+	 * Allowed reduced cost with the wrong sign.
+	 */
+	private static final double DUAL_TOLERANCE = 1e-9;
+	/**
+	 * Smallest absolute value of a pivot element.
+	 */
+	private static final double PIVOT_TOLERANCE = 1e-7;
+	/**
+	 * Infinite bounds of structural columns are replaced by +-BOX, so
+	 * every nonbasic column has a finite value.
+	 */
+	private static final double BOX = 1e9;
+	/**
+	 * Number of pivots after which the tableau is computed again from
+	 * the original rows to remove numerical errors.
+	 */
+	private static final int REINVERSION_INTERVAL = 500;
+	/**
+	 * Relative size of the random perturbation of the costs.
+	 */
+	private static final double PERTURBATION = 1e-7;
+
+	/**
+	 * Number of structural columns, the slack of row i is the column structurals + i.
+	 */
+	private final int structurals;
+	/**
+	 * Number of rows.
+	 */
+	private int rows;
+	/**
+	 * Number of columns (structurals + rows).
+	 */
+	private int columns;
+	/**
+	 * The objective function of the structural columns.
+	 */
+	private final double[] objective;
+	/**
+	 * Perturbed cost of every column, 0 for the slacks. Without the
+	 * perturbation many reduced costs are zero and the ratio test cycles.
+	 */
+	private double[] cost;
+	/**
+	 * Lower bound of every column.
+	 */
+	private double[] lower;
+	/**
+	 * Upper bound of every column.
+	 */
+	private double[] upper;
+	/**
+	 * Value of every column in the current basic solution.
+	 */
+	private double[] value;
+	/**
+	 * Reduced cost of every column, 0 for basic columns.
+	 */
+	private double[] reduced;
+	/**
+	 * Row of every basic column, -1 for nonbasic columns.
+	 */
+	private int[] position;
+	/**
+	 * Basic column of every row.
+	 */
+	private int[] basis;
+	/**
+	 * Squared norm of every row of the basis inverse (the slack columns of
+	 * the tableau), the weights of the steepest edge pricing.
+	 */
+	private double[] weight;
+	/**
+	 * The tableau: Row i states sum(tableau[i][j] * x_j) = 0 with
+	 * tableau[i][basis[i]] = 1.
+	 */
+	private double[][] tableau;
+	/**
+	 * The original coefficients of every row (columns).
+	 */
+	private final List<int[]> rowColumns = new ArrayList<int[]>();
+	/**
+	 * The original coefficients of every row (values).
+	 */
+	private final List<double[]> rowValues = new ArrayList<double[]>();
+	/**
+	 * Number of pivots since the last reinversion.
+	 */
+	private int pivots;
+	/**
+	 * Number of pivots of all calls of {@link #solve()}.
+	 */
+	private long iterations;
+	/**
+	 * Maximal number of pivots of one call of {@link #solve()}.
+	 */
+	private int iterationLimit = Integer.MAX_VALUE;
+	/**
+	 * Value of {@link System#nanoTime()} after which {@link #solve()} stops,
+	 * Long.MAX_VALUE if there is no deadline.
+	 */
+	private long deadline = Long.MAX_VALUE;
+
+	/**
+	 * Constructor for a new LP without rows.
+	 * @param cost Cost of every structural column (minimized).
+	 * @param lower Lower bound of every structural column.
+	 * @param upper Upper bound of every structural column.
+	 */
+	DualSimplex(double[] cost, double[] lower, double[] upper) {
+		super();
+		structurals = cost.length;
+		columns = structurals;
+		int capacity = Math.max(16, 2 * structurals);
+		objective = cost.clone();
+		this.cost = new double[capacity];
+		this.lower = new double[capacity];
+		this.upper = new double[capacity];
+		value = new double[capacity];
+		reduced = new double[capacity];
+		position = new int[capacity];
+		basis = new int[16];
+		weight = new double[16];
+		tableau = new double[16][];
+		// The same perturbation in every run, so the search is reproducible.
+		Random random = new Random(structurals);
+		for (int j = 0; j < structurals; j++) {
+			this.cost[j] = cost[j] + PERTURBATION * (1 + Math.abs(cost[j])) * (1 + random.nextDouble());
+			reduced[j] = this.cost[j];
+			this.lower[j] = Math.max(lower[j], -BOX);
+			this.upper[j] = Math.min(upper[j], BOX);
+			position[j] = -1;
+			value[j] = nonbasicValue(j);
+		}
+	}
+
+	/**
+	 * Set the maximal number of pivots of one call of {@link #solve()}.
+	 * @param iterationLimit The iteration limit.
+	 */
+	void setIterationLimit(int iterationLimit) {
+		this.iterationLimit = iterationLimit;
+	}
+
+	/**
+	 * Set the time after which {@link #solve()} stops between two pivots.
+	 * @param deadline Value of {@link System#nanoTime()}, Long.MAX_VALUE for none.
+	 */
+	void setDeadline(long deadline) {
+		this.deadline = deadline;
+	}
+
+	/**
+	 * Add the row lower <= sum(values[t] * x_columns[t]) <= upper. The
+	 * slack of the row becomes basic, so the basis stays dual feasible.
+	 * @param rowColumns Structural columns of the terms (no duplicates).
+	 * @param rowValues Coefficients of the terms.
+	 * @param rowLower Lower bound, negative infinity if none.
+	 * @param rowUpper Upper bound, positive infinity if none.
+	 */
+	void addRow(int[] rowColumns, double[] rowValues, double rowLower, double rowUpper) {
+		this.rowColumns.add(rowColumns);
+		this.rowValues.add(rowValues);
+		int slack = columns;
+		ensureCapacity(columns + 1, rows + 1);
+		columns++;
+
+		// Express the row in the nonbasic columns: s = a * x.
+		double[] row = new double[cost.length];
+		for (int t = 0; t < rowColumns.length; t++) {
+			row[rowColumns[t]] -= rowValues[t];
+		}
+		for (int i = 0; i < rows; i++) {
+			double factor = row[basis[i]];
+			if (factor != 0) {
+				double[] other = tableau[i];
+				for (int j = 0; j < slack; j++) {
+					if (other[j] != 0) {
+						row[j] -= factor * other[j];
+					}
+				}
+				row[basis[i]] = 0;
+			}
+		}
+		row[slack] = 1;
+
+		double activity = 0;
+		for (int j = 0; j < slack; j++) {
+			if (row[j] != 0 && position[j] < 0) {
+				activity -= row[j] * value[j];
+			}
+		}
+		cost[slack] = 0;
+		reduced[slack] = 0;
+		lower[slack] = rowLower;
+		upper[slack] = rowUpper;
+		value[slack] = activity;
+		position[slack] = rows;
+		basis[rows] = slack;
+		tableau[rows] = row;
+		weight[rows] = rowWeight(rows);
+		rows++;
+	}
+
+	/**
+	 * Grow the arrays for the given number of columns and rows.
+	 */
+	private void ensureCapacity(int columnCount, int rowCount) {
+		if (columnCount > cost.length) {
+			int capacity = 2 * cost.length;
+			cost = Arrays.copyOf(cost, capacity);
+			lower = Arrays.copyOf(lower, capacity);
+			upper = Arrays.copyOf(upper, capacity);
+			value = Arrays.copyOf(value, capacity);
+			reduced = Arrays.copyOf(reduced, capacity);
+			position = Arrays.copyOf(position, capacity);
+			for (int i = 0; i < rows; i++) {
+				tableau[i] = Arrays.copyOf(tableau[i], capacity);
+			}
+		}
+		if (rowCount > basis.length) {
+			basis = Arrays.copyOf(basis, 2 * basis.length);
+			weight = Arrays.copyOf(weight, 2 * weight.length);
+			tableau = Arrays.copyOf(tableau, 2 * tableau.length);
+		}
+	}
+
+	/**
+	 * Change the bounds of a structural column. A nonbasic column is moved
+	 * to the bound given by the sign of its reduced cost.
+	 * @param column The column.
+	 * @param columnLower The new lower bound.
+	 * @param columnUpper The new upper bound.
+	 */
+	void setBounds(int column, double columnLower, double columnUpper) {
+		lower[column] = Math.max(columnLower, -BOX);
+		upper[column] = Math.min(columnUpper, BOX);
+		if (position[column] < 0) {
+			moveNonbasic(column, nonbasicValue(column));
+		}
+	}
+
+	/**
+	 * Get the lower bound of a structural column.
+	 * @param column The column.
+	 * @return The lower bound.
+	 */
+	double getLower(int column) {
+		return lower[column];
+	}
+
+	/**
+	 * Get the upper bound of a structural column.
+	 * @param column The column.
+	 * @return The upper bound.
+	 */
+	double getUpper(int column) {
+		return upper[column];
+	}
+
+	/**
+	 * Get the bound a nonbasic column is placed at: The lower bound for a
+	 * nonnegative reduced cost, otherwise the upper bound.
+	 */
+	private double nonbasicValue(int column) {
+		if (reduced[column] >= 0 ? lower[column] > Double.NEGATIVE_INFINITY
+				: upper[column] == Double.POSITIVE_INFINITY) {
+			return lower[column];
+		}
+		return upper[column];
+	}
+
+	/**
+	 * Change the value of a nonbasic column and update the basic columns.
+	 */
+	private void moveNonbasic(int column, double newValue) {
+		double delta = newValue - value[column];
+		if (delta == 0) {
+			return;
+		}
+		value[column] = newValue;
+		for (int i = 0; i < rows; i++) {
+			double entry = tableau[i][column];
+			if (entry != 0) {
+				value[basis[i]] -= entry * delta;
+			}
+		}
+	}
+
+	/**
+	 * Optimize with the dual simplex starting from the current basis.
+	 * @return {@link #OPTIMAL}, {@link #INFEASIBLE}, {@link #ITERATION_LIMIT}
+	 *         or {@link #TIME_LIMIT}.
+	 */
+	int solve() {
+		for (int iteration = 0; iteration < iterationLimit; iteration++) {
+			if (deadline != Long.MAX_VALUE && System.nanoTime() - deadline >= 0) {
+				return TIME_LIMIT;
+			}
+			if (pivots >= REINVERSION_INTERVAL) {
+				reinvert();
+			}
+			int row = leavingRow();
+			if (row < 0) {
+				return OPTIMAL;
+			}
+			int column = enteringColumn(row);
+			if (column < 0) {
+				// Entries below the pivot tolerance may be rounding errors
+				// of a nonzero entry: Compute the tableau again in this case.
+				if (pivots == 0 || !hasSmallCandidate(row)) {
+					return INFEASIBLE;
+				}
+				reinvert();
+				continue;
+			}
+			pivot(row, column);
+		}
+		return ITERATION_LIMIT;
+	}
+
+	/**
+	 * Select the leaving row by dual steepest edge pricing: The squared bound
+	 * violation of the basic column divided by the squared norm of the row
+	 * of the basis inverse. The inverse is part of the dense tableau (the
+	 * columns of the slacks), its row norms are updated in every pivot.
+	 * @return The row, -1 if the basic solution is primal feasible.
+	 */
+	private int leavingRow() {
+		int best = -1;
+		double bestScore = 0;
+		for (int i = 0; i < rows; i++) {
+			int b = basis[i];
+			double violation = Math.max(lower[b] - value[b], value[b] - upper[b]);
+			if (violation > PRIMAL_TOLERANCE) {
+				double score = violation * violation / Math.max(weight[i], 1e-12);
+				if (score > bestScore) {
+					bestScore = score;
+					best = i;
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Compute the squared norm of the slack columns of a row of the tableau.
+	 */
+	private double rowWeight(int row) {
+		double[] entries = tableau[row];
+		double sum = 0;
+		for (int j = structurals; j < columns; j++) {
+			sum += entries[j] * entries[j];
+		}
+		return sum;
+	}
+
+	/**
+	 * Ratio test: Select the nonbasic column that enters the basis when the
+	 * basic column of the row leaves it, i.e. the column with the smallest
+	 * ratio of reduced cost and pivot element. Ties are broken by the larger
+	 * pivot element.
+	 * @param row The leaving row.
+	 * @return The entering column, -1 if the LP is infeasible.
+	 */
+	private int enteringColumn(int row) {
+		double[] entries = tableau[row];
+		int leaving = basis[row];
+		boolean increase = value[leaving] < lower[leaving];
+
+		int best = -1;
+		double bestRatio = Double.POSITIVE_INFINITY;
+		double bestAlpha = 0;
+		for (int j = 0; j < columns; j++) {
+			double alpha = direction(j, entries[j], increase);
+			if (alpha > PIVOT_TOLERANCE) {
+				double ratio = Math.abs(reduced[j]) / alpha;
+				if (ratio < bestRatio || (ratio == bestRatio && alpha > bestAlpha)) {
+					bestRatio = ratio;
+					bestAlpha = alpha;
+					best = j;
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Check whether a nonbasic column could enter the basis if the pivot
+	 * tolerance was ignored.
+	 * @param row The leaving row.
+	 * @return True if an entry below the pivot tolerance has the right sign.
+	 */
+	private boolean hasSmallCandidate(int row) {
+		int leaving = basis[row];
+		boolean increase = value[leaving] < lower[leaving];
+		for (int j = 0; j < columns; j++) {
+			if (direction(j, tableau[row][j], increase) > 1e-12) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Get how much the basic column of a row moves in the required direction
+	 * when a nonbasic column moves away from its bound.
+	 * @return |entry| if the column moves the basic column in the required
+	 *         direction, otherwise 0.
+	 */
+	private double direction(int column, double entry, boolean increase) {
+		if (entry == 0 || position[column] >= 0 || lower[column] == upper[column]) {
+			return 0;
+		}
+		// The basic column changes by -entry times the change of the column.
+		boolean atLower = value[column] <= lower[column];
+		boolean raises = atLower ? entry < 0 : entry > 0;
+		return raises == increase ? Math.abs(entry) : 0;
+	}
+
+	/**
+	 * Exchange the basic column of the row with the entering column.
+	 * The leaving column is set to its violated bound.
+	 */
+	private void pivot(int row, int column) {
+		int leaving = basis[row];
+		double target = value[leaving] < lower[leaving] ? lower[leaving] : upper[leaving];
+		double[] pivotRow = tableau[row];
+		double element = pivotRow[column];
+
+		// Primal step: The entering column moves until the leaving one reaches its bound.
+		double step = (value[leaving] - target) / element;
+		value[column] += step;
+		for (int i = 0; i < rows; i++) {
+			double entry = tableau[i][column];
+			if (entry != 0) {
+				value[basis[i]] -= entry * step;
+			}
+		}
+		value[leaving] = target;
+
+		// Gauss-Jordan step on the nonzeros of the pivot row.
+		int[] nonzeros = new int[columns];
+		int count = 0;
+		int firstSlack = -1;
+		for (int j = 0; j < columns; j++) {
+			if (pivotRow[j] != 0) {
+				pivotRow[j] /= element;
+				if (firstSlack < 0 && j >= structurals) {
+					firstSlack = count;
+				}
+				nonzeros[count++] = j;
+			}
+		}
+		if (firstSlack < 0) {
+			firstSlack = count;
+		}
+		pivotRow[column] = 1;
+		for (int i = 0; i < rows; i++) {
+			double[] other = tableau[i];
+			double factor = other[column];
+			if (i == row || factor == 0) {
+				continue;
+			}
+			for (int t = 0; t < firstSlack; t++) {
+				other[nonzeros[t]] -= factor * pivotRow[nonzeros[t]];
+			}
+			double norm = weight[i];
+			for (int t = firstSlack; t < count; t++) {
+				int j = nonzeros[t];
+				double updated = other[j] - factor * pivotRow[j];
+				norm += updated * updated - other[j] * other[j];
+				other[j] = updated;
+			}
+			weight[i] = norm;
+			other[column] = 0;
+		}
+		weight[row] = rowWeight(row);
+		double factor = reduced[column];
+		for (int t = 0; t < count; t++) {
+			reduced[nonzeros[t]] -= factor * pivotRow[nonzeros[t]];
+		}
+		reduced[column] = 0;
+
+		position[leaving] = -1;
+		position[column] = row;
+		basis[row] = column;
+		pivots++;
+		iterations++;
+
+		// Rounding errors may leave small reduced costs with the wrong sign.
+		for (int t = 0; t < count; t++) {
+			restoreDualFeasibility(nonzeros[t]);
+		}
+	}
+
+	/**
+	 * Repair the reduced cost of a nonbasic column with the wrong sign:
+	 * Small errors are set to zero, otherwise the column moves to its
+	 * other bound.
+	 */
+	private void restoreDualFeasibility(int column) {
+		if (position[column] >= 0) {
+			return;
+		}
+		boolean atLower = value[column] <= lower[column];
+		double wrong = atLower ? -reduced[column] : reduced[column];
+		if (wrong <= 0 || lower[column] == upper[column]) {
+			return;
+		}
+		double other = atLower ? upper[column] : lower[column];
+		if (wrong > DUAL_TOLERANCE && !Double.isInfinite(other)) {
+			moveNonbasic(column, other);
+		} else {
+			reduced[column] = 0;
+		}
+	}
+
+	/**
+	 * Compute the tableau of the current basis again from the original
+	 * rows. If the basis is singular, the slack basis is used.
+	 */
+	private void reinvert() {
+		pivots = 0;
+		double[][] matrix = originalRows();
+		boolean[] assigned = new boolean[rows];
+		int[] newBasis = new int[rows];
+		int[] nonzeros = new int[columns];
+		for (int r = 0; r < rows; r++) {
+			int column = basis[r];
+			int best = -1;
+			double bestEntry = 1e-9;
+			for (int i = 0; i < rows; i++) {
+				if (!assigned[i] && Math.abs(matrix[i][column]) > bestEntry) {
+					bestEntry = Math.abs(matrix[i][column]);
+					best = i;
+				}
+			}
+			if (best < 0) {
+				resetToSlackBasis();
+				return;
+			}
+			assigned[best] = true;
+			newBasis[best] = column;
+			double[] pivotRow = matrix[best];
+			double element = pivotRow[column];
+			int count = 0;
+			for (int j = 0; j < columns; j++) {
+				if (pivotRow[j] != 0) {
+					pivotRow[j] /= element;
+					nonzeros[count++] = j;
+				}
+			}
+			pivotRow[column] = 1;
+			for (int i = 0; i < rows; i++) {
+				double factor = matrix[i][column];
+				if (i == best || factor == 0) {
+					continue;
+				}
+				for (int t = 0; t < count; t++) {
+					matrix[i][nonzeros[t]] -= factor * pivotRow[nonzeros[t]];
+				}
+				matrix[i][column] = 0;
+			}
+		}
+		for (int i = 0; i < rows; i++) {
+			tableau[i] = matrix[i];
+			basis[i] = newBasis[i];
+			position[newBasis[i]] = i;
+		}
+		for (int i = 0; i < rows; i++) {
+			weight[i] = rowWeight(i);
+		}
+		computeReducedCosts();
+		computeBasicValues();
+	}
+
+	/**
+	 * Get the rows -a_i * x + s_i = 0 as dense arrays.
+	 */
+	private double[][] originalRows() {
+		double[][] matrix = new double[rows][];
+		for (int i = 0; i < rows; i++) {
+			double[] row = new double[cost.length];
+			int[] rowColumns = this.rowColumns.get(i);
+			double[] rowValues = this.rowValues.get(i);
+			for (int t = 0; t < rowColumns.length; t++) {
+				row[rowColumns[t]] -= rowValues[t];
+			}
+			row[structurals + i] = 1;
+			matrix[i] = row;
+		}
+		return matrix;
+	}
+
+	/**
+	 * Make all slacks basic. This basis is dual feasible for every bound.
+	 */
+	private void resetToSlackBasis() {
+		double[][] matrix = originalRows();
+		for (int j = 0; j < columns; j++) {
+			position[j] = -1;
+		}
+		for (int i = 0; i < rows; i++) {
+			tableau[i] = matrix[i];
+			basis[i] = structurals + i;
+			position[structurals + i] = i;
+			weight[i] = 1;
+		}
+		computeReducedCosts();
+		computeBasicValues();
+	}
+
+	/**
+	 * Compute the reduced costs from the tableau and place every nonbasic
+	 * column at the bound its reduced cost requires.
+	 */
+	private void computeReducedCosts() {
+		for (int j = 0; j < columns; j++) {
+			reduced[j] = cost[j];
+		}
+		for (int i = 0; i < rows; i++) {
+			double basicCost = cost[basis[i]];
+			if (basicCost != 0) {
+				double[] row = tableau[i];
+				for (int j = 0; j < columns; j++) {
+					reduced[j] -= basicCost * row[j];
+				}
+			}
+		}
+		for (int j = 0; j < columns; j++) {
+			if (position[j] >= 0) {
+				reduced[j] = 0;
+			} else {
+				if (Math.abs(reduced[j]) <= DUAL_TOLERANCE) {
+					reduced[j] = 0;
+				}
+				boolean atLower = value[j] <= lower[j];
+				boolean keep = lower[j] == upper[j] || (atLower ? reduced[j] >= 0 : reduced[j] <= 0);
+				value[j] = keep && (value[j] == lower[j] || value[j] == upper[j]) ? value[j] : nonbasicValue(j);
+			}
+		}
+	}
+
+	/**
+	 * Compute the basic values from the nonbasic ones.
+	 */
+	private void computeBasicValues() {
+		for (int i = 0; i < rows; i++) {
+			double[] row = tableau[i];
+			double sum = 0;
+			for (int j = 0; j < columns; j++) {
+				if (position[j] < 0 && row[j] != 0) {
+					sum += row[j] * value[j];
+				}
+			}
+			value[basis[i]] = -sum;
+		}
+	}
+
+	/**
+	 * Get the objective value of the current basic solution.
+	 * @return sum(c_j * x_j) over the structural columns (without perturbation).
+	 */
+	double getObjective() {
+		double sum = 0;
+		for (int j = 0; j < structurals; j++) {
+			sum += objective[j] * value[j];
+		}
+		return sum;
+	}
+
+	/**
+	 * Get the values of the structural columns.
+	 * @return A new array with the value of every structural column.
+	 */
+	double[] getValues() {
+		return Arrays.copyOf(value, structurals);
+	}
+
+	/**
+	 * Get the dual values of the rows for the costs without perturbation:
+	 * The change of the objective value per unit of the bound of the row
+	 * the slack is placed at, 0 if the slack is basic. Column generation
+	 * prices its columns with these values.
+	 * @return A new array with the dual value of every row.
+	 */
+	double[] getRowDuals() {
+		double[] duals = new double[rows];
+		for (int i = 0; i < rows; i++) {
+			int slack = structurals + i;
+			if (position[slack] >= 0) {
+				continue;
+			}
+			// Reduced cost of the slack: 0 - sum(c_B * tableau[r][slack]).
+			double sum = 0;
+			for (int r = 0; r < rows; r++) {
+				int b = basis[r];
+				if (b < structurals && objective[b] != 0) {
+					sum += objective[b] * tableau[r][slack];
+				}
+			}
+			duals[i] = -sum;
+		}
+		return duals;
+	}
+
+	/**
+	 * Get the number of rows.
+	 * @return Number of rows including the added cuts.
+	 */
+	int getRowCount() {
+		return rows;
+	}
+
+	/**
+	 * Get the number of pivots.
+	 * @return Number of pivots of all calls of {@link #solve()}.
+	 */
+	long getIterations() {
+		return iterations;
+	}
+
+}
@@ -0,0 +1,532 @@
+package logic;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Re-optimization of the routes of a day while ride requests arrive.</br>
+ * Requests are added and cancelled one at a time, {@link #advanceTo(double)}
+ * freezes every stop whose service has started. {@link #reoptimize()}
+ * solves the current state with the {@link model}:</br>
+ * - The distances of a new request are computed once with the metric of
+ * the options or read from the travel matrix file of the options, whose
+ * nodes are the locations of the dispatcher: 0 the origin depot, 1 the
+ * destination depot and 2 + s the stop s. The model gets them from the
+ * cached matrix.</br>
+ * - The model is built by the first re-optimization and kept for the day
+ * (see {@link model#setRequests(int[])}): A new request adds its columns
+ * and rows, the variables of a cancelled request are fixed to 0. The visited
+ * stops keep their service start (time window [B, B + 1e-6]) and the arcs
+ * of the visited route prefixes are fixed, stops that are not visited can
+ * not start before the current time; both only change bounds. Visited
+ * requests stay in the model for the rest of the day.</br>
+ * - The solver starts from the previous routes with the new requests inserted
+ * at their cheapest feasible position behind the visited prefixes.</br>
+ * Stops are identified by 2 * r for the pick-up and 2 * r + 1 for the
+ * drop-off of the request r (numbered in the order they were added).
+ *
+ */
+public class DynamicDispatcher {
+
+	/**
+	 * A visited stop may start this much later than planned in the next
+	 * solve, so rounding errors of the solver do not make the visited
+	 * prefix infeasible.
+	 */
+	private static final double TOLERANCE = 1e-6;
+
+	/**
+	 * The settings of every re-optimization.
+	 */
+	private final SolverOptions options;
+	/**
+	 * The origin depot.
+	 */
+	private final Node origin;
+	/**
+	 * The destination depot.
+	 */
+	private final Node destination;
+	/**
+	 * Number of vehicles.
+	 */
+	private final int vehicles;
+	/**
+	 * The vehicles with their capacities, tour durations and own depots.
+	 */
+	private final Truck[] fleet;
+	/**
+	 * Maximum ride time L of a user.
+	 */
+	private final double maxRideTime;
+	/**
+	 * The pick-up of every request.
+	 */
+	private final List<Node> pickups = new ArrayList<Node>();
+	/**
+	 * The drop-off of every request.
+	 */
+	private final List<Node> dropOffs = new ArrayList<Node>();
+	/**
+	 * The cancelled requests.
+	 */
+	private final BitSet cancelled = new BitSet();
+	/**
+	 * Distances between the locations: 0 origin depot, 1 destination depot,
+	 * 2 + s for the stop s. Rows and columns are added with every request.
+	 */
+	private double[][] distances = new double[16][16];
+	/**
+	 * Number of locations in {@link #distances}.
+	 */
+	private int locations;
+	/**
+	 * Number of locations whose distances are known.
+	 */
+	private int computed;
+	/**
+	 * The travel matrix file of the options, null until it is read.
+	 */
+	private TravelMatrix file;
+	/**
+	 * The model of the re-optimizations, null until the first one.
+	 */
+	private model solver;
+	/**
+	 * The planned stops of every vehicle.
+	 */
+	private final List<List<Integer>> stops = new ArrayList<List<Integer>>();
+	/**
+	 * The planned service start of every stop of every vehicle.
+	 */
+	private final List<List<Double>> times = new ArrayList<List<Double>>();
+	/**
+	 * Number of visited stops (at the beginning of the plan) of every vehicle.
+	 */
+	private final int[] visited;
+	/**
+	 * The current time.
+	 */
+	private double now;
+
+	/**
+	 * Constructor for a new dispatcher. Depots and fleet are taken from the
+	 * instance, its users are the first requests.
+	 * @param instance The instance at the beginning of the day.
+	 * @param options The settings of every re-optimization.
+	 */
+	public DynamicDispatcher(Instance instance, SolverOptions options) {
+		super();
+		this.options = options;
+		Node[] nodes = instance.createNodes();
+		int n = instance.getUsers();
+		origin = nodes[0];
+		destination = nodes[2 * n + 1];
+		fleet = instance.createTrucks();
+		vehicles = fleet.length;
+		maxRideTime = instance.getMaxRideTime();
+		visited = new int[vehicles];
+		for (int k = 0; k < vehicles; k++) {
+			stops.add(new ArrayList<Integer>());
+			times.add(new ArrayList<Double>());
+		}
+		now = origin.getEarliestServiceTime();
+		addLocation();
+		addLocation();
+		for (int i = 1; i <= n; i++) {
+			addRequest(nodes[i], nodes[n + i]);
+		}
+	}
+
+	/**
+	 * Add a ride request. It is planned by the next {@link #reoptimize()}.
+	 * @param pickup The pick-up location (load q > 0).
+	 * @param dropOff The drop-off location (load -q).
+	 * @return The number r of the request.
+	 */
+	public int addRequest(Node pickup, Node dropOff) {
+		pickups.add(copy(pickup));
+		dropOffs.add(copy(dropOff));
+		addLocation();
+		addLocation();
+		return pickups.size() - 1;
+	}
+
+	/**
+	 * Cancel a request whose pick-up was not visited yet. Its stops are
+	 * removed from the plan.
+	 * @param request The number r of the request.
+	 * @return True if the request was cancelled.
+	 */
+	public boolean cancelRequest(int request) {
+		if (request < 0 || request >= pickups.size() || cancelled.get(request)) {
+			return false;
+		}
+		for (int k = 0; k < vehicles; k++) {
+			if (stops.get(k).subList(0, visited[k]).contains(2 * request)) {
+				return false;
+			}
+		}
+		cancelled.set(request);
+		for (int k = 0; k < vehicles; k++) {
+			for (int position = stops.get(k).size() - 1; position >= 0; position--) {
+				if (stops.get(k).get(position) / 2 == request) {
+					stops.get(k).remove(position);
+					times.get(k).remove(position);
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Advance the clock: Every planned stop whose service starts until the
+	 * given time is visited and stays in the plan unchanged.</br>
+	 * The service start of a visited stop is raised to the arrival from its
+	 * predecessor where the solver undercut it within its tolerance, so the
+	 * preprocessing of the next solve keeps the arcs of the visited prefix.
+	 * @param time The current time.
+	 */
+	public void advanceTo(double time) {
+		now = Math.max(now, time);
+		for (int k = 0; k < vehicles; k++) {
+			List<Integer> plan = stops.get(k);
+			List<Double> starts = times.get(k);
+			while (visited[k] < starts.size() && starts.get(visited[k]) <= now) {
+				int position = visited[k]++;
+				if (position > 0) {
+					int previous = 2 + plan.get(position - 1);
+					double arrival = starts.get(position - 1) + locationNode(previous).getServiceDuration()
+							+ distances[previous][2 + plan.get(position)];
+					starts.set(position, Math.max(starts.get(position), arrival));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Solve the current state and replace the plan by the best solution.
+	 * @return The result of the solve.
+	 */
+	public SolverResult reoptimize() {
+		if (!computeDistances()) {
+			return new SolverResult("dynamic@" + now, "Error", Double.NaN, Double.NaN, Double.NaN, 0,
+					new long[CutType.values().length], 0, null, null);
+		}
+
+		// The requests that are not cancelled are the users 1..n.
+		List<Integer> requests = new ArrayList<Integer>();
+		int[] userOf = new int[pickups.size()];
+		for (int r = 0; r < pickups.size(); r++) {
+			if (!cancelled.get(r)) {
+				requests.add(r);
+				userOf[r] = requests.size();
+			}
+		}
+		int n = requests.size();
+		double[] visitTime = new double[2 * pickups.size()];
+		BitSet visitedStops = new BitSet();
+		for (int k = 0; k < vehicles; k++) {
+			for (int position = 0; position < visited[k]; position++) {
+				visitedStops.set(stops.get(k).get(position));
+				visitTime[stops.get(k).get(position)] = times.get(k).get(position);
+			}
+		}
+
+		// Location and node of every node index.
+		int[] location = new int[2 * n + 2];
+		Node[] nodes = new Node[2 * n + 2];
+		location[0] = 0;
+		nodes[0] = origin;
+		location[2 * n + 1] = 1;
+		nodes[2 * n + 1] = destination;
+		for (int u = 1; u <= n; u++) {
+			int r = requests.get(u - 1);
+			location[u] = 2 + 2 * r;
+			nodes[u] = pickups.get(r);
+			location[n + u] = 3 + 2 * r;
+			nodes[n + u] = dropOffs.get(r);
+		}
+		double[] xPositions = new double[nodes.length];
+		double[] yPositions = new double[nodes.length];
+		int[] serviceDurations = new int[nodes.length];
+		int[] loads = new int[nodes.length];
+		double[] earliest = new double[nodes.length];
+		double[] latest = new double[nodes.length];
+		TravelMatrix c = TravelMatrix.create(nodes.length,
+				options.getMatrixStorage() == MatrixStorage.LAZY ? MatrixStorage.DOUBLE : options.getMatrixStorage());
+		for (int i = 0; i < nodes.length; i++) {
+			xPositions[i] = nodes[i].getxPosition();
+			yPositions[i] = nodes[i].getyPosition();
+			serviceDurations[i] = nodes[i].getServiceDuration();
+			loads[i] = nodes[i].getLoad();
+			earliest[i] = nodes[i].getEarliestServiceTime();
+			latest[i] = nodes[i].getLatestServiceTime();
+			int stop = location[i] - 2;
+			if (stop >= 0 && visitedStops.get(stop)) {
+				earliest[i] = visitTime[stop];
+				latest[i] = visitTime[stop] + TOLERANCE;
+			} else if (i >= 1 && i <= 2 * n) {
+				// Only the stops wait for the clock: The destination depot
+				// keeps its window, a vehicle that left the origin at 0 may
+				// be back before now and is bounded by its tour duration.
+				earliest[i] = Math.max(earliest[i], now);
+			}
+			for (int j = 0; j < nodes.length; j++) {
+				c.set(i, j, distances[location[i]][location[j]]);
+			}
+		}
+		Instance instance = new Instance("dynamic@" + now, n, fleet, maxRideTime, xPositions, yPositions,
+				serviceDurations, loads, earliest, latest);
+
+		// The visited prefixes and the previous plan in node indices.
+		int[][] prefixes = new int[vehicles][];
+		int[][] routes = new int[vehicles][];
+		BitSet planned = new BitSet();
+		for (int k = 0; k < vehicles; k++) {
+			List<Integer> plan = stops.get(k);
+			routes[k] = new int[plan.size()];
+			for (int position = 0; position < plan.size(); position++) {
+				int stop = plan.get(position);
+				routes[k][position] = stop % 2 == 0 ? userOf[stop / 2] : n + userOf[stop / 2];
+				planned.set(stop / 2);
+			}
+			prefixes[k] = Arrays.copyOf(routes[k], visited[k]);
+		}
+		routes = insertNewRequests(instance, c, routes, requests, planned);
+
+		int[] users = new int[n];
+		for (int u = 1; u <= n; u++) {
+			users[u - 1] = requests.get(u - 1);
+		}
+		if (solver == null) {
+			solver = new model(instance, options);
+		} else {
+			solver.setInstance(instance);
+		}
+		solver.setRequests(users);
+		solver.setDistances(c);
+		solver.setFixedPrefixes(prefixes);
+		solver.setStartRoutes(routes);
+		SolverResult result = solver.solve();
+		if (result.getSolution() != null) {
+			updatePlan(result.getSolution(), prefixes, requests);
+		}
+		return result;
+	}
+
+	/**
+	 * Insert the requests that are not planned yet into the previous routes
+	 * at their cheapest feasible position behind the visited prefixes.
+	 * @return The routes for the MIP start, null if a request does not fit.
+	 */
+	private int[][] insertNewRequests(Instance instance, TravelMatrix c, int[][] routes, List<Integer> requests,
+			BitSet planned) {
+		Node[] nodes = instance.createNodes();
+		Truck[] trucks = instance.createTrucks();
+		Truck.computeDepotTravelTimes(trucks, nodes, c, options);
+		InsertionHeuristic heuristic = new InsertionHeuristic(nodes, trucks, instance.getUsers(), maxRideTime, c, c);
+		for (int u = 1; u <= requests.size(); u++) {
+			if (planned.get(requests.get(u - 1))) {
+				continue;
+			}
+			InsertionHeuristic.Insertion best = null;
+			for (int k = 0; k < vehicles; k++) {
+				InsertionHeuristic.Insertion insertion = heuristic.bestInsertion(routes[k], k, u, visited[k]);
+				if (insertion != null && (best == null || insertion.cost < best.cost)) {
+					best = insertion;
+				}
+			}
+			if (best == null) {
+				return null;
+			}
+			routes[best.vehicle] = heuristic.insert(routes[best.vehicle], u, best.pickupPosition,
+					best.dropoffPosition);
+		}
+		return routes;
+	}
+
+	/**
+	 * Replace the plan by the routes of a solution. A route that starts with
+	 * the visited prefix of a vehicle belongs to this vehicle, the other
+	 * routes are assigned to the remaining vehicles in their order.
+	 */
+	private void updatePlan(Solution solution, int[][] prefixes, List<Integer> requests) {
+		int n = requests.size();
+		int[] vehicleOf = new int[solution.getRouteCount()];
+		boolean[] assigned = new boolean[vehicles];
+		for (int route = 0; route < solution.getRouteCount(); route++) {
+			vehicleOf[route] = -1;
+			for (int k = 0; k < vehicles; k++) {
+				if (prefixes[k].length > 0 && solution.getLength(route) > 0
+						&& solution.getNode(route, 0) == prefixes[k][0]) {
+					vehicleOf[route] = k;
+					assigned[k] = true;
+				}
+			}
+		}
+		int next = 0;
+		for (int route = 0; route < solution.getRouteCount(); route++) {
+			if (vehicleOf[route] < 0) {
+				while (assigned[next]) {
+					next++;
+				}
+				vehicleOf[route] = next;
+				assigned[next] = true;
+			}
+		}
+
+		// The visited stops keep their service start, the solver may move it
+		// within the tolerance of the window.
+		for (int k = 0; k < vehicles; k++) {
+			List<Double> starts = times.get(k);
+			stops.get(k).clear();
+			starts.subList(visited[k], starts.size()).clear();
+		}
+		for (int route = 0; route < solution.getRouteCount(); route++) {
+			int k = vehicleOf[route];
+			for (int position = 0; position < solution.getLength(route); position++) {
+				int node = solution.getNode(route, position);
+				int request = requests.get((node <= n ? node : node - n) - 1);
+				stops.get(k).add(node <= n ? 2 * request : 2 * request + 1);
+				if (position >= visited[k]) {
+					times.get(k).add(solution.getServiceStart(route, position + 1));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Add a location, its distances are computed by the next re-optimization.
+	 */
+	private void addLocation() {
+		if (locations == distances.length) {
+			double[][] larger = new double[2 * locations][2 * locations];
+			for (int l = 0; l < locations; l++) {
+				System.arraycopy(distances[l], 0, larger[l], 0, locations);
+			}
+			distances = larger;
+		}
+		locations++;
+	}
+
+	/**
+	 * Compute the distances of the locations added since the last call with
+	 * the metric of the options or read them from the travel matrix file of
+	 * the options. The file is read again if it does not contain all
+	 * locations, e.g. because it was extended by the new requests.
+	 * @return False if the file can not be read or lacks locations.
+	 */
+	private boolean computeDistances() {
+		if (options.getTravelMatrixFile() != null && (file == null || file.getSize() < locations)) {
+			try {
+				file = TravelMatrix.read(options.getTravelMatrixFile());
+			} catch (IOException e) {
+				e.printStackTrace();
+				return false;
+			}
+			if (file.getSize() < locations) {
+				System.err.println("The travel matrix has " + file.getSize() + " nodes, the dispatcher " + locations
+						+ " locations.");
+				return false;
+			}
+		}
+		for (int added = computed; added < locations; added++) {
+			Node node = locationNode(added);
+			for (int l = 0; l < added; l++) {
+				if (file != null) {
+					distances[added][l] = file.get(added, l);
+					distances[l][added] = file.get(l, added);
+				} else {
+					Node other = locationNode(l);
+					double distance = TravelMatrix.distance(options.getTravelMetric(), node.getxPosition(),
+							node.getyPosition(), other.getxPosition(), other.getyPosition());
+					distances[added][l] = distance;
+					distances[l][added] = distance;
+				}
+			}
+		}
+		computed = locations;
+		return true;
+	}
+
+	/**
+	 * Get the node of a location.
+	 */
+	private Node locationNode(int location) {
+		if (location < 2) {
+			return location == 0 ? origin : destination;
+		}
+		int stop = location - 2;
+		return stop % 2 == 0 ? pickups.get(stop / 2) : dropOffs.get(stop / 2);
+	}
+
+	/**
+	 * Copy a node, the dispatcher does not see later changes of the caller.
+	 */
+	private static Node copy(Node node) {
+		return new Node(node.getxPosition(), node.getyPosition(), node.getEarliestServiceTime(),
+				node.getLatestServiceTime(), node.getLoad(), node.getServiceDuration());
+	}
+
+	/**
+	 * Release the solver of the kept model.
+	 */
+	public void end() {
+		if (solver != null) {
+			solver.end();
+		}
+	}
+
+	/**
+	 * Get the current time.
+	 * @return The time of the last {@link #advanceTo(double)}.
+	 */
+	public double getTime() {
+		return now;
+	}
+
+	/**
+	 * Get the number of requests added so far (including cancelled ones).
+	 * @return Number of requests.
+	 */
+	public int getRequestCount() {
+		return pickups.size();
+	}
+
+	/**
+	 * Get the planned stops of a vehicle.
+	 * @param vehicle The vehicle k.
+	 * @return 2 * r for the pick-up and 2 * r + 1 for the drop-off of request r.
+	 */
+	public int[] getStops(int vehicle) {
+		int[] result = new int[stops.get(vehicle).size()];
+		for (int position = 0; position < result.length; position++) {
+			result[position] = stops.get(vehicle).get(position);
+		}
+		return result;
+	}
+
+	/**
+	 * Get the planned service start of a stop.
+	 * @param vehicle The vehicle k.
+	 * @param position Position of the stop in {@link #getStops(int)}.
+	 * @return The service start B.
+	 */
+	public double getServiceStart(int vehicle, int position) {
+		return times.get(vehicle).get(position);
+	}
+
+	/**
+	 * Get the number of visited stops of a vehicle.
+	 * @param vehicle The vehicle k.
+	 * @return The first stops of {@link #getStops(int)} that are visited.
+	 */
+	public int getVisitedStops(int vehicle) {
+		return visited[vehicle];
+	}
+
+}
@@ -0,0 +1,25 @@
+package logic;
+
+/**
+ * The formulations of the DARP that can be built by the model.
+ *
+ */
+public enum Formulation {
+
+	/**
+	 * Use the two-index formulation if all vehicles are identical and
+	 * the fleet is large enough, otherwise the three-index formulation.
+	 */
+	AUTO,
+	/**
+	 * The three-index formulation of the paper with variables x_ijk,
+	 * B_ik, Q_ik and L_ik for every vehicle k.
+	 */
+	THREE_INDEX,
+	/**
+	 * The aggregated two-index formulation with variables x_ij, B_i,
+	 * Q_i and L_i. Only valid for a homogeneous fleet, pairing and
+	 * precedence are enforced by cuts.
+	 */
+	TWO_INDEX
+}
@@ -0,0 +1,17 @@
+package logic;
+
+/**
+ * Receives the improving solutions of a {@link SharedIncumbent}.
+ *
+ */
+public interface IncumbentListener {
+
+	/**
+	 * Called after a better solution was offered. Runs in the thread of the
+	 * worker that found it, so it should return quickly.
+	 * @param objective Objective value of the solution.
+	 * @param values Values of all columns, must not be changed.
+	 */
+	void incumbentFound(double objective, double[] values);
+
+}
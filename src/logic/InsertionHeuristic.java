@@ -0,0 +1,297 @@
+package logic;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Construction heuristic for the DARP that works directly on the
+ * Node[] and Truck[] arrays and the travel times.</br>
+ * The users are inserted one after another (sorted by their earliest
+ * pick-up time) at the cheapest feasible position of any vehicle.
+ * A route is stored as int array of the visited nodes without the
+ * depots 0 and 2n+1. The feasibility checks are done by a
+ * {@link RouteEvaluator}.
+ *
+ */
+public class InsertionHeuristic {
+
+	/**
+	 * Array containing all nodes.
+	 */
+	private final Node[] nodes;
+	/**
+	 * Array containing all vehicles.
+	 */
+	private final Truck[] trucks;
+	/**
+	 * Number of users (number of pick-up locations).
+	 */
+	private final int n;
+	/**
+	 * Distance between node i and node j.
+	 */
+	private final TravelMatrix c;
+	/**
+	 * Feasibility checks and schedules of the routes.
+	 */
+	private final RouteEvaluator evaluator;
+
+	/**
+	 * Constructor for a new heuristic.
+	 * @param nodes Array containing all nodes.
+	 * @param trucks Array containing all vehicles.
+	 * @param n Number of users.
+	 * @param maxRideTime Maximum ride time L of a user.
+	 * @param c Distance between node i and node j.
+	 * @param t The travel time between node i and node j.
+	 */
+	public InsertionHeuristic(Node[] nodes, Truck[] trucks, int n, double maxRideTime, TravelMatrix c,
+			TravelMatrix t) {
+		super();
+		this.nodes = nodes;
+		this.trucks = trucks;
+		this.n = n;
+		this.c = c;
+		this.evaluator = new RouteEvaluator(nodes, n, maxRideTime, t);
+	}
+
+	/**
+	 * Build routes for all vehicles by cheapest feasible insertion.
+	 * @return The routes of all vehicles or null if a user could not be inserted.
+	 */
+	public int[][] construct() {
+		int[][] routes = new int[trucks.length][0];
+
+		Integer[] users = new Integer[n];
+		for (int i = 1; i <= n; i++) {
+			users[i - 1] = i;
+		}
+		Arrays.sort(users, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				return Double.compare(nodes[a].getEarliestServiceTime(), nodes[b].getEarliestServiceTime());
+			}
+		});
+
+		for (int user : users) {
+			Insertion best = bestInsertion(routes, user);
+			if (best == null) {
+				return null;
+			}
+			routes[best.vehicle] = insert(routes[best.vehicle], user, best.pickupPosition, best.dropoffPosition);
+		}
+		return routes;
+	}
+
+	/**
+	 * Find the cheapest feasible position of a user in any route.
+	 * @param routes The current routes.
+	 * @param user The user i to insert (i and n+i are inserted).
+	 * @return The cheapest insertion or null if there is no feasible position.
+	 */
+	Insertion bestInsertion(int[][] routes, int user) {
+		Insertion best = null;
+		for (int k = 0; k < routes.length; k++) {
+			Insertion insertion = bestInsertion(routes[k], k, user);
+			if (insertion != null && (best == null || insertion.cost < best.cost)) {
+				best = insertion;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Find the cheapest feasible position of a user in one route.</br>
+	 * Only positions that are cheaper than the best one found so far and
+	 * that pass the constant time check of the time windows and the capacity
+	 * are evaluated completely.
+	 * @param route The route of the vehicle.
+	 * @param vehicle The vehicle k that drives the route.
+	 * @param user The user i to insert (i and n+i are inserted).
+	 * @return The cheapest insertion or null if there is no feasible position.
+	 */
+	Insertion bestInsertion(int[] route, int vehicle, int user) {
+		return bestInsertion(route, vehicle, user, 0);
+	}
+
+	/**
+	 * Find the cheapest feasible position of a user in one route behind
+	 * a fixed beginning of the route.
+	 * @param route The route of the vehicle.
+	 * @param vehicle The vehicle k that drives the route.
+	 * @param user The user i to insert (i and n+i are inserted).
+	 * @param first Smallest position of i, the nodes before stay at the beginning.
+	 * @return The cheapest insertion or null if there is no feasible position.
+	 */
+	Insertion bestInsertion(int[] route, int vehicle, int user, int first) {
+		if (!evaluator.load(route, trucks[vehicle])) {
+			return null;
+		}
+		Insertion best = null;
+		for (int p = first; p <= route.length; p++) {
+			for (int q = p + 1; q <= route.length + 1; q++) {
+				double delta = insertionCost(route, trucks[vehicle], user, p, q);
+				if ((best == null || delta < best.cost) && evaluator.canInsert(user, p, q)
+						&& evaluator.evaluateInsertion(user, p, q)) {
+					best = new Insertion(vehicle, p, q, delta);
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Get the additional routing cost of an insertion.
+	 * @param route The route without the user.
+	 * @param truck The vehicle that drives the route.
+	 * @param user The user i.
+	 * @param pickupPosition Position of i in the new route.
+	 * @param dropoffPosition Position of n+i in the new route.
+	 * @return The routing cost of the new route minus the cost of the old one.
+	 */
+	private double insertionCost(int[] route, Truck truck, int user, int pickupPosition, int dropoffPosition) {
+		int before = pickupPosition == 0 ? 0 : route[pickupPosition - 1];
+		int after = pickupPosition == route.length ? 2 * n + 1 : route[pickupPosition];
+		if (dropoffPosition == pickupPosition + 1) {
+			return truck.travel(c, before, user) + c.get(user, n + user) + truck.travel(c, n + user, after)
+					- truck.travel(c, before, after);
+		}
+		double delta = truck.travel(c, before, user) + c.get(user, after) - truck.travel(c, before, after);
+		before = route[dropoffPosition - 2];
+		after = dropoffPosition - 1 == route.length ? 2 * n + 1 : route[dropoffPosition - 1];
+		return delta + c.get(before, n + user) + truck.travel(c, n + user, after) - truck.travel(c, before, after);
+	}
+
+	/**
+	 * Insert a user into a route.
+	 * @param route The route without the user.
+	 * @param user The user i.
+	 * @param pickupPosition Position of i in the new route.
+	 * @param dropoffPosition Position of n+i in the new route (larger than pickupPosition).
+	 * @return A new route that contains i and n+i.
+	 */
+	int[] insert(int[] route, int user, int pickupPosition, int dropoffPosition) {
+		int[] result = new int[route.length + 2];
+		int from = 0;
+		for (int position = 0; position < result.length; position++) {
+			if (position == pickupPosition) {
+				result[position] = user;
+			} else if (position == dropoffPosition) {
+				result[position] = n + user;
+			} else {
+				result[position] = route[from++];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Remove a user from a route.
+	 * @param route The route that contains the user.
+	 * @param user The user i.
+	 * @return A new route without i and n+i.
+	 */
+	int[] remove(int[] route, int user) {
+		int[] result = new int[route.length - 2];
+		int to = 0;
+		for (int position = 0; position < route.length; position++) {
+			if (route[position] != user && route[position] != n + user) {
+				result[to++] = route[position];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Get the routing cost of a route from the origin to the destination depot.
+	 * @param route The nodes of the route without depots.
+	 * @param truck The vehicle that drives the route.
+	 * @return The sum of c_ij over all arcs of the route.
+	 */
+	public double cost(int[] route, Truck truck) {
+		if (route.length == 0) {
+			return truck.travel(c, 0, 2 * n + 1);
+		}
+		double cost = truck.travel(c, 0, route[0]);
+		for (int position = 1; position < route.length; position++) {
+			cost += c.get(route[position - 1], route[position]);
+		}
+		return cost + truck.travel(c, route[route.length - 1], 2 * n + 1);
+	}
+
+	/**
+	 * Check whether a route is feasible for a vehicle.
+	 * @param route The nodes of the route without depots.
+	 * @param truck The vehicle that drives the route.
+	 * @return True if the route is feasible.
+	 */
+	public boolean isFeasible(int[] route, Truck truck) {
+		return evaluator.evaluate(route, truck);
+	}
+
+	/**
+	 * Check whether a route stays feasible if a user is removed.
+	 * @param route The route that contains the user.
+	 * @param user The user i.
+	 * @param truck The vehicle that drives the route.
+	 * @return True if the route without i and n+i is feasible.
+	 */
+	boolean canRemove(int[] route, int user, Truck truck) {
+		if (evaluator.load(route, truck) && evaluator.canRemove(user)) {
+			return true;
+		}
+		return isFeasible(remove(route, user), truck);
+	}
+
+	/**
+	 * Compute the service start times of a route.
+	 * @param route The nodes of the route without depots.
+	 * @param truck The vehicle that drives the route.
+	 * @return B for the origin depot, all nodes of the route and the destination
+	 *         depot, or null if the route is infeasible.
+	 */
+	public double[] schedule(int[] route, Truck truck) {
+		if (!evaluator.evaluate(route, truck)) {
+			return null;
+		}
+		double[] start = new double[route.length + 2];
+		for (int position = 0; position < start.length; position++) {
+			start[position] = evaluator.getServiceStart(position);
+		}
+		return start;
+	}
+
+	/**
+	 * Get the number of users.
+	 * @return The number of users n.
+	 */
+	int getUsers() {
+		return n;
+	}
+
+	/**
+	 * Get the vehicles.
+	 * @return Array containing all vehicles.
+	 */
+	Truck[] getTrucks() {
+		return trucks;
+	}
+
+	/**
+	 * A feasible position of a user in a route.
+	 */
+	static class Insertion {
+		final int vehicle;
+		final int pickupPosition;
+		final int dropoffPosition;
+		final double cost;
+
+		Insertion(int vehicle, int pickupPosition, int dropoffPosition, double cost) {
+			this.vehicle = vehicle;
+			this.pickupPosition = pickupPosition;
+			this.dropoffPosition = dropoffPosition;
+			this.cost = cost;
+		}
+	}
+
+}
@@ -0,0 +1,222 @@
+package logic;
+
+/**
+ * A benchmark instance of the DARP in the format of Cordeau (2006).</br>
+ * The instance is immutable and can be shared by several solves: Every
+ * call of {@link #createNodes()} and {@link #createTrucks()} returns new
+ * objects that can be changed (e.g. by the preprocessing).</br>
+ * The benchmark instances have a fleet of identical vehicles, other
+ * instances may give every vehicle its own capacity, tour duration,
+ * depots and shift (see {@link Truck}).
+ *
+ */
+public class Instance {
+
+	/**
+	 * Name of the instance (file name).
+	 */
+	private final String name;
+	/**
+	 * Number of users (number of pick-up locations).
+	 */
+	private final int n;
+	/**
+	 * All vehicles.
+	 */
+	private final Truck[] fleet;
+	/**
+	 * Maximum ride time L of a user.
+	 */
+	private final double maxRideTime;
+	/**
+	 * x-Position of every node.
+	 */
+	private final double[] xPositions;
+	/**
+	 * y-Position of every node.
+	 */
+	private final double[] yPositions;
+	/**
+	 * Service duration of every node.
+	 */
+	private final int[] serviceDurations;
+	/**
+	 * Load of every node.
+	 */
+	private final int[] loads;
+	/**
+	 * Earliest service time of every node.
+	 */
+	private final double[] earliestServiceTimes;
+	/**
+	 * Latest service time of every node.
+	 */
+	private final double[] latestServiceTimes;
+
+	/**
+	 * Constructor for a new instance. The arrays are indexed by node
+	 * (0..2n+1) and copied.
+	 * @param name Name of the instance.
+	 * @param n Number of users.
+	 * @param vehicles Number of vehicles.
+	 * @param maxRouteDuration Maximum duration of a route.
+	 * @param capacity Capacity of every vehicle.
+	 * @param maxRideTime Maximum ride time L of a user.
+	 * @param xPositions x-Position of every node.
+	 * @param yPositions y-Position of every node.
+	 * @param serviceDurations Service duration of every node.
+	 * @param loads Load of every node.
+	 * @param earliestServiceTimes Earliest service time of every node.
+	 * @param latestServiceTimes Latest service time of every node.
+	 */
+	public Instance(String name, int n, int vehicles, int maxRouteDuration, int capacity, double maxRideTime,
+			double[] xPositions, double[] yPositions, int[] serviceDurations, int[] loads,
+			double[] earliestServiceTimes, double[] latestServiceTimes) {
+		this(name, n, identicalTrucks(vehicles, capacity, maxRouteDuration), maxRideTime, xPositions, yPositions,
+				serviceDurations, loads, earliestServiceTimes, latestServiceTimes);
+	}
+
+	/**
+	 * Constructor for a new instance with a fleet of different vehicles.
+	 * The arrays are indexed by node (0..2n+1), arrays and vehicles are
+	 * copied.
+	 * @param name Name of the instance.
+	 * @param n Number of users.
+	 * @param fleet All vehicles.
+	 * @param maxRideTime Maximum ride time L of a user.
+	 * @param xPositions x-Position of every node.
+	 * @param yPositions y-Position of every node.
+	 * @param serviceDurations Service duration of every node.
+	 * @param loads Load of every node.
+	 * @param earliestServiceTimes Earliest service time of every node.
+	 * @param latestServiceTimes Latest service time of every node.
+	 */
+	public Instance(String name, int n, Truck[] fleet, double maxRideTime, double[] xPositions,
+			double[] yPositions, int[] serviceDurations, int[] loads, double[] earliestServiceTimes,
+			double[] latestServiceTimes) {
+		super();
+		this.name = name;
+		this.n = n;
+		this.fleet = copy(fleet);
+		this.maxRideTime = maxRideTime;
+		this.xPositions = xPositions.clone();
+		this.yPositions = yPositions.clone();
+		this.serviceDurations = serviceDurations.clone();
+		this.loads = loads.clone();
+		this.earliestServiceTimes = earliestServiceTimes.clone();
+		this.latestServiceTimes = latestServiceTimes.clone();
+	}
+
+	/**
+	 * Create vehicles with the same capacity and maximum route duration.
+	 */
+	private static Truck[] identicalTrucks(int vehicles, int capacity, int maxRouteDuration) {
+		Truck[] trucks = new Truck[vehicles];
+		for (int k = 0; k < vehicles; k++) {
+			trucks[k] = new Truck(capacity, maxRouteDuration);
+		}
+		return trucks;
+	}
+
+	/**
+	 * Copy vehicles and their depots.
+	 */
+	private static Truck[] copy(Truck[] trucks) {
+		Truck[] copies = new Truck[trucks.length];
+		for (int k = 0; k < trucks.length; k++) {
+			copies[k] = new Truck(trucks[k]);
+		}
+		return copies;
+	}
+
+	/**
+	 * Create the nodes of the instance.
+	 * @return New array containing all nodes 0..2n+1.
+	 */
+	public Node[] createNodes() {
+		Node[] nodes = new Node[2 * n + 2];
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = new Node(xPositions[i], yPositions[i], earliestServiceTimes[i], latestServiceTimes[i],
+					loads[i], serviceDurations[i]);
+		}
+		return nodes;
+	}
+
+	/**
+	 * Create the vehicles of the instance.
+	 * @return New array containing all vehicles.
+	 */
+	public Truck[] createTrucks() {
+		return copy(fleet);
+	}
+
+	/**
+	 * Get the name of the instance.
+	 * @return The name (file name).
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Get the number of users.
+	 * @return Number of users n.
+	 */
+	public int getUsers() {
+		return n;
+	}
+
+	/**
+	 * Get the number of vehicles.
+	 * @return Number of vehicles.
+	 */
+	public int getVehicles() {
+		return fleet.length;
+	}
+
+	/**
+	 * Get the maximum duration of a route.
+	 * @return Largest maximum route duration of all vehicles.
+	 */
+	public int getMaxRouteDuration() {
+		int maxRouteDuration = 0;
+		for (Truck truck : fleet) {
+			maxRouteDuration = Math.max(maxRouteDuration, truck.getMaxTourTime());
+		}
+		return maxRouteDuration;
+	}
+
+	/**
+	 * Get the capacity of the vehicles.
+	 * @return Largest capacity of all vehicles.
+	 */
+	public int getCapacity() {
+		int capacity = 0;
+		for (Truck truck : fleet) {
+			capacity = Math.max(capacity, truck.getCapacity());
+		}
+		return capacity;
+	}
+
+	/**
+	 * Check whether all vehicles are identical (see {@link Truck#isIdentical(Truck)}).
+	 * @return True for a fleet of identical vehicles like in the benchmark instances.
+	 */
+	public boolean isHomogeneousFleet() {
+		for (int k = 1; k < fleet.length; k++) {
+			if (!fleet[k].isIdentical(fleet[0])) {
+				return false;
+			}
+		}
+		return fleet.length == 0 || !fleet[0].hasOwnDepots();
+	}
+
+	/**
+	 * Get the maximum ride time of a user.
+	 * @return Maximum ride time L.
+	 */
+	public double getMaxRideTime() {
+		return maxRideTime;
+	}
+
+}
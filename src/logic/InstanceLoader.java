@@ -0,0 +1,374 @@
+package logic;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads benchmark instances in the format of Cordeau (2006).</br>
+ * The first line contains the number of vehicles, the number of users n,
+ * the maximum route duration, the vehicle capacity and the maximum ride
+ * time. Every following line describes one node:
+ * index, x, y, service duration, load, earliest and latest service time.
+ * The destination depot 2n+1 may be missing, it is then a copy of the
+ * origin depot 0.</br>
+ * The files are read with a buffered tokenizer that parses the numbers
+ * directly from the characters. The indices and the pairing of the
+ * loads (q_i = -q_{n+i}) are validated.</br>
+ * Batch runs may keep the parsed instances in a cache directory (see
+ * {@link #loadAll(File, String...)}), a cached instance is read with
+ * {@link BinaryFormat} instead of being parsed again.
+ *
+ */
+public class InstanceLoader {
+
+	/**
+	 * Load all instances of the given files and directories. Directories
+	 * are searched (not recursively) for files, sorted by name.
+	 * @param paths Paths of instance files or directories.
+	 * @return The instances in the order of the paths.
+	 * @throws IOException If a file cannot be read or is not a valid instance.
+	 */
+	public static List<Instance> loadAll(String... paths) throws IOException {
+		return loadAll((File) null, paths);
+	}
+
+	/**
+	 * Load all instances of the given files and directories through a
+	 * cache. Directories are searched (not recursively) for files, sorted by
+	 * name.
+	 * @param cacheDirectory Directory of the cached instances, null for no cache.
+	 * @param paths Paths of instance files or directories.
+	 * @return The instances in the order of the paths.
+	 * @throws IOException If a file cannot be read or is not a valid instance.
+	 */
+	public static List<Instance> loadAll(File cacheDirectory, String... paths) throws IOException {
+		List<Instance> instances = new ArrayList<Instance>();
+		for (String path : paths) {
+			File file = new File(path);
+			if (file.isDirectory()) {
+				File[] files = file.listFiles();
+				if (files == null) {
+					throw new IOException("Cannot list the directory " + path);
+				}
+				Arrays.sort(files);
+				for (File child : files) {
+					if (child.isFile() && !child.isHidden()) {
+						instances.add(load(child, cacheDirectory));
+					}
+				}
+			} else {
+				instances.add(load(file, cacheDirectory));
+			}
+		}
+		return instances;
+	}
+
+	/**
+	 * Load one instance.
+	 * @param file The instance file.
+	 * @return The instance.
+	 * @throws IOException If the file cannot be read or is not a valid instance.
+	 */
+	public static Instance load(File file) throws IOException {
+		BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.US_ASCII);
+		try {
+			return read(file.getName(), reader);
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Load one instance through a cache. The cached file name.dins is used
+	 * if it is not older than the instance file, otherwise the instance is
+	 * parsed and the cached file is written.
+	 * @param file The instance file.
+	 * @param cacheDirectory Directory of the cached instances, null for no cache.
+	 * @return The instance.
+	 * @throws IOException If the file cannot be read or is not a valid instance.
+	 */
+	public static Instance load(File file, File cacheDirectory) throws IOException {
+		if (cacheDirectory == null) {
+			return load(file);
+		}
+		File cached = getCacheFile(file, cacheDirectory);
+		if (cached.isFile() && cached.lastModified() >= file.lastModified()) {
+			try {
+				return BinaryFormat.readInstance(cached.getPath());
+			} catch (IOException e) {
+				// A damaged cache is replaced.
+				System.err.println(e.getMessage() + ", the instance is parsed again.");
+			}
+		}
+		Instance instance = load(file);
+		if (!cacheDirectory.isDirectory() && !cacheDirectory.mkdirs()) {
+			throw new IOException("Cannot create the directory " + cacheDirectory);
+		}
+		BinaryFormat.writeInstance(instance, cached.getPath());
+		return instance;
+	}
+
+	/**
+	 * Get the cached file of an instance.
+	 * @param file The instance file.
+	 * @param cacheDirectory Directory of the cached instances.
+	 * @return The file name.dins in the cache directory.
+	 */
+	private static File getCacheFile(File file, File cacheDirectory) {
+		return new File(cacheDirectory, file.getName() + ".dins");
+	}
+
+	/**
+	 * Read one instance.
+	 * @param name Name of the instance.
+	 * @param reader The content of the instance file.
+	 * @return The instance.
+	 * @throws IOException If the content cannot be read or is not a valid instance.
+	 */
+	public static Instance read(String name, Reader reader) throws IOException {
+		Tokenizer tokenizer = new Tokenizer(name, reader);
+
+		int vehicles = tokenizer.nextInt();
+		int n = tokenizer.nextInt();
+		int maxRouteDuration = tokenizer.nextInt();
+		int capacity = tokenizer.nextInt();
+		double maxRideTime = tokenizer.nextDouble();
+		if (vehicles <= 0 || n <= 0 || capacity <= 0) {
+			throw tokenizer.error("Number of vehicles, users and capacity must be positive");
+		}
+
+		int size = 2 * n + 2;
+		double[] xPositions = new double[size];
+		double[] yPositions = new double[size];
+		int[] serviceDurations = new int[size];
+		int[] loads = new int[size];
+		double[] earliest = new double[size];
+		double[] latest = new double[size];
+		int nodes = 0;
+		while (tokenizer.hasNext()) {
+			int index = tokenizer.nextInt();
+			if (nodes == size) {
+				throw tokenizer.error("More than " + size + " nodes");
+			}
+			if (index != nodes) {
+				throw tokenizer.error("Expected node " + nodes + " but found node " + index);
+			}
+			xPositions[index] = tokenizer.nextDouble();
+			yPositions[index] = tokenizer.nextDouble();
+			serviceDurations[index] = tokenizer.nextInt();
+			loads[index] = tokenizer.nextInt();
+			earliest[index] = tokenizer.nextDouble();
+			latest[index] = tokenizer.nextDouble();
+			if (earliest[index] > latest[index]) {
+				throw tokenizer.error("Empty time window at node " + index);
+			}
+			nodes++;
+		}
+
+		// The destination depot is a copy of the origin depot.
+		if (nodes == size - 1) {
+			xPositions[size - 1] = xPositions[0];
+			yPositions[size - 1] = yPositions[0];
+			serviceDurations[size - 1] = serviceDurations[0];
+			loads[size - 1] = loads[0];
+			earliest[size - 1] = earliest[0];
+			latest[size - 1] = latest[0];
+			nodes++;
+		}
+		if (nodes != size) {
+			throw tokenizer.error("Expected " + size + " nodes but found " + nodes);
+		}
+
+		if (loads[0] != 0 || loads[size - 1] != 0) {
+			throw tokenizer.error("The depots must have load 0");
+		}
+		for (int i = 1; i <= n; i++) {
+			if (loads[n + i] != -loads[i]) {
+				throw tokenizer.error("Node " + i + " has load " + loads[i] + " but node " + (n + i) + " has load "
+						+ loads[n + i]);
+			}
+		}
+
+		return new Instance(name, n, vehicles, maxRouteDuration, capacity, maxRideTime, xPositions, yPositions,
+				serviceDurations, loads, earliest, latest);
+	}
+
+	/**
+	 * Splits the content of a file into numbers separated by whitespace.
+	 * Numbers are parsed from the characters without creating strings.
+	 */
+	private static class Tokenizer {
+
+		/**
+		 * Numbers with more significant digits are parsed by Double.parseDouble
+		 * to keep them exact.
+		 */
+		private static final int MAX_DIGITS = 15;
+
+		/**
+		 * Name of the instance for error messages.
+		 */
+		private final String name;
+		/**
+		 * The content of the file.
+		 */
+		private final Reader reader;
+		/**
+		 * Characters read from the file, valid up to {@link #length}.
+		 */
+		private final char[] buffer = new char[8192];
+		/**
+		 * Number of valid characters in {@link #buffer}.
+		 */
+		private int length;
+		/**
+		 * Position of the next character in {@link #buffer}.
+		 */
+		private int position;
+		/**
+		 * Current line of the file for error messages.
+		 */
+		private int line = 1;
+		/**
+		 * Characters of the current token.
+		 */
+		private final char[] token = new char[64];
+		/**
+		 * Number of characters of the current token.
+		 */
+		private int tokenLength;
+
+		Tokenizer(String name, Reader reader) {
+			this.name = name;
+			this.reader = reader;
+		}
+
+		/**
+		 * Get the next character without consuming it.
+		 * @return The character or -1 at the end of the file.
+		 */
+		private int peek() throws IOException {
+			if (position == length) {
+				length = reader.read(buffer, 0, buffer.length);
+				position = 0;
+				if (length <= 0) {
+					length = 0;
+					return -1;
+				}
+			}
+			return buffer[position];
+		}
+
+		/**
+		 * Check whether another token follows.
+		 */
+		boolean hasNext() throws IOException {
+			int next = peek();
+			while (next != -1 && Character.isWhitespace(next)) {
+				if (next == '\n') {
+					line++;
+				}
+				position++;
+				next = peek();
+			}
+			return next != -1;
+		}
+
+		/**
+		 * Read the next token into {@link #token}.
+		 */
+		private void next() throws IOException {
+			if (!hasNext()) {
+				throw error("Unexpected end of file");
+			}
+			tokenLength = 0;
+			int next = peek();
+			while (next != -1 && !Character.isWhitespace(next)) {
+				if (tokenLength == token.length) {
+					throw error("Token too long");
+				}
+				token[tokenLength++] = (char) next;
+				position++;
+				next = peek();
+			}
+		}
+
+		/**
+		 * Read the next token as integer.
+		 */
+		int nextInt() throws IOException {
+			next();
+			int start = token[0] == '-' || token[0] == '+' ? 1 : 0;
+			if (start == tokenLength) {
+				throw error("Expected an integer");
+			}
+			long value = 0;
+			for (int i = start; i < tokenLength; i++) {
+				char digit = token[i];
+				if (digit < '0' || digit > '9') {
+					throw error("Expected an integer but found " + new String(token, 0, tokenLength));
+				}
+				value = value * 10 + digit - '0';
+				if (value > Integer.MAX_VALUE) {
+					throw error("Integer too large");
+				}
+			}
+			return (int) (token[0] == '-' ? -value : value);
+		}
+
+		/**
+		 * Read the next token as decimal number.
+		 */
+		double nextDouble() throws IOException {
+			next();
+			int i = token[0] == '-' || token[0] == '+' ? 1 : 0;
+			long mantissa = 0;
+			int digits = 0;
+			int decimals = 0;
+			boolean point = false;
+			boolean number = false;
+			for (; i < tokenLength; i++) {
+				char digit = token[i];
+				if (digit == '.' && !point) {
+					point = true;
+				} else if (digit >= '0' && digit <= '9') {
+					number = true;
+					mantissa = mantissa * 10 + digit - '0';
+					if (mantissa != 0) {
+						digits++;
+					}
+					if (point) {
+						decimals++;
+					}
+				} else {
+					break;
+				}
+			}
+			if (i < tokenLength || !number || digits > MAX_DIGITS || decimals > 22) {
+				// Exponents and long numbers.
+				try {
+					return Double.parseDouble(new String(token, 0, tokenLength));
+				} catch (NumberFormatException e) {
+					throw error("Expected a number but found " + new String(token, 0, tokenLength));
+				}
+			}
+			double value = decimals == 0 ? mantissa : mantissa / Math.pow(10, decimals);
+			return token[0] == '-' ? -value : value;
+		}
+
+		/**
+		 * Create an exception with the name of the instance and the current line.
+		 */
+		IOException error(String message) {
+			return new IOException(name + ":" + line + ": " + message);
+		}
+	}
+
+}
@@ -0,0 +1,1095 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Pricing problem of the {@link BranchAndPriceSolver} for one vehicle: An
+ * elementary shortest path problem with resource constraints (ESPPRC) from
+ * the origin to the destination depot, solved by labeling.</br>
+ * The cost of arc (i,j) is c_ij minus the dual value of user j if j is a
+ * pick-up, the dual value of the vehicle is subtracted at the start. A label
+ * is a path from a depot with the users on board (open), the users picked
+ * up and dropped off (completed) and its schedule. Extensions respect time
+ * windows, capacity, pairing and precedence (a drop-off only after its
+ * pick-up, the destination only with an empty vehicle) and elementarity.
+ * </br>
+ * The ride times and the tour duration depend on the waiting of the whole
+ * route, so the schedule of a label is not a single time: Time windows,
+ * travel times, ride times and tour duration are difference constraints
+ * t_y - t_x <= b of the service starts. A label keeps the closed system
+ * (all shortest paths) of its path restricted to the variables that later
+ * nodes depend on: the depot, the current node and the pick-ups of the
+ * open users. Its time is the earliest (backward: latest) service start at
+ * the node. A label dominates another one at the same node with the same
+ * open users if it is not more expensive, its completed users are a subset
+ * and every schedule of the other label can be replaced by one that is not
+ * later at the node, leaves the depot not earlier and picks up the open
+ * users not earlier (backward: mirrored). With bidirectional labeling
+ * forward labels are extended up to the middle of the planning horizon and
+ * backward labels from the destination depot down to it, then forward and
+ * backward labels are joined over every arc if their systems fit
+ * together.</br>
+ * Every path with negative reduced cost is checked by the
+ * {@link RouteEvaluator} like in the heuristics. {@link #getMinReducedCost()}
+ * includes the paths it rejects, so it is a lower bound of the reduced cost
+ * of every feasible route.</br>
+ * With a heuristic setting only the cheapest arcs into the pick-ups are
+ * used and at most a limited number of labels is kept per node.
+ *
+ */
+class LabelingPricer {
+
+	/**
+	 * Tolerance for the comparison of times and costs.
+	 */
+	private static final double EPSILON = 1e-6;
+	/**
+	 * Number of processed labels between two checks of the deadline.
+	 */
+	private static final int CHECK_INTERVAL = 1024;
+	/**
+	 * Bound of a difference without constraint.
+	 */
+	private static final double INFINITY = Double.POSITIVE_INFINITY;
+	/**
+	 * Variable of the schedule of a label that is always 0.
+	 */
+	private static final int ZERO = 0;
+	/**
+	 * Variable of the service start at the depot of a label.
+	 */
+	private static final int DEPOT = 1;
+	/**
+	 * Variable of the service start at the node of a label.
+	 */
+	private static final int CURRENT = 2;
+
+	/**
+	 * Array containing all nodes.
+	 */
+	private final Node[] nodes;
+	/**
+	 * Number of users (number of pick-up locations).
+	 */
+	private final int n;
+	/**
+	 * Maximum ride time L of a user.
+	 */
+	private final double maxRideTime;
+	/**
+	 * Distance and travel time between node i and node j.
+	 */
+	private final TravelMatrix c;
+	/**
+	 * The vehicle of the routes.
+	 */
+	private final Truck truck;
+	/**
+	 * Earliest service start of every node, the depots of the vehicle at 0 and 2n+1.
+	 */
+	private final double[] earliest;
+	/**
+	 * Latest service start of every node, the depots of the vehicle at 0 and 2n+1.
+	 */
+	private final double[] latest;
+	/**
+	 * Service duration of every node.
+	 */
+	private final double[] service;
+	/**
+	 * Feasibility check of the ride times and the tour duration of a path.
+	 */
+	private final RouteEvaluator evaluator;
+	/**
+	 * The arcs the paths may use.
+	 */
+	private boolean[][] allowed;
+	/**
+	 * Dual value of every user (index 1..n).
+	 */
+	private double[] userDuals;
+	/**
+	 * Dual value of the vehicle.
+	 */
+	private double vehicleDual;
+	/**
+	 * Number of arcs into pick-ups kept per node, 0 for all.
+	 */
+	private int arcsPerNode = 0;
+	/**
+	 * Maximal number of labels per node, 0 for no limit.
+	 */
+	private int labelLimit = 0;
+	/**
+	 * True if forward and backward labels are joined in the middle.
+	 */
+	private boolean bidirectional = true;
+	/**
+	 * Maximal number of returned routes.
+	 */
+	private int maxColumns = 50;
+	/**
+	 * Time the labeling stops, see {@link System#nanoTime()}.
+	 */
+	private long deadline = Long.MAX_VALUE;
+
+	/**
+	 * Reduced cost of every arc for the current duals.
+	 */
+	private double[][] reduced;
+	/**
+	 * Number of labels of the last call of {@link #price()}.
+	 */
+	private long labels;
+	/**
+	 * True if the last call of {@link #price()} stopped at the deadline.
+	 */
+	private boolean aborted;
+	/**
+	 * Smallest reduced cost of the paths of the last call of {@link #price()}, at most 0.
+	 */
+	private double minReducedCost;
+	/**
+	 * The feasible routes with their reduced cost.
+	 */
+	private Map<String, Candidate> candidates;
+	/**
+	 * The paths that failed the evaluator.
+	 */
+	private Set<String> rejected;
+
+	/**
+	 * Constructor for a new pricing problem.
+	 * @param nodes Array containing all nodes (with tightened time windows).
+	 * @param n Number of users.
+	 * @param maxRideTime Maximum ride time L of a user.
+	 * @param c Distance and travel time between node i and node j.
+	 * @param truck The vehicle of the routes.
+	 */
+	LabelingPricer(Node[] nodes, int n, double maxRideTime, TravelMatrix c, Truck truck) {
+		super();
+		this.nodes = nodes;
+		this.n = n;
+		this.maxRideTime = maxRideTime;
+		this.c = c;
+		this.truck = truck;
+		earliest = new double[nodes.length];
+		latest = new double[nodes.length];
+		service = new double[nodes.length];
+		for (int i = 0; i < nodes.length; i++) {
+			Node node = i == 0 ? truck.getOrigin(nodes) : i == nodes.length - 1 ? truck.getDestination(nodes) : nodes[i];
+			earliest[i] = node.getEarliestServiceTime();
+			latest[i] = node.getLatestServiceTime();
+			service[i] = node.getServiceDuration();
+		}
+		evaluator = new RouteEvaluator(nodes, n, maxRideTime, c);
+	}
+
+	/**
+	 * Set the arcs the paths may use.
+	 * @param allowed allowed[i][j] is true if the arc (i,j) may be used.
+	 */
+	void setAllowedArcs(boolean[][] allowed) {
+		this.allowed = allowed;
+	}
+
+	/**
+	 * Set the dual values of the master.
+	 * @param userDuals Dual value of every user (index 1..n).
+	 * @param vehicleDual Dual value of the vehicle.
+	 */
+	void setDuals(double[] userDuals, double vehicleDual) {
+		this.userDuals = userDuals;
+		this.vehicleDual = vehicleDual;
+	}
+
+	/**
+	 * Restrict the labeling to a heuristic.
+	 * @param arcsPerNode Number of cheapest arcs into pick-ups kept per node, 0 for all.
+	 * @param labelLimit Maximal number of labels per node, 0 for no limit.
+	 */
+	void setHeuristic(int arcsPerNode, int labelLimit) {
+		this.arcsPerNode = arcsPerNode;
+		this.labelLimit = labelLimit;
+	}
+
+	/**
+	 * Set whether forward and backward labels are joined in the middle of
+	 * the planning horizon.
+	 * @param bidirectional True for bidirectional, false for forward labeling.
+	 */
+	void setBidirectional(boolean bidirectional) {
+		this.bidirectional = bidirectional;
+	}
+
+	/**
+	 * Set the maximal number of returned routes.
+	 * @param maxColumns Maximal number of routes per call.
+	 */
+	void setMaxColumns(int maxColumns) {
+		this.maxColumns = maxColumns;
+	}
+
+	/**
+	 * Set the time the labeling stops.
+	 * @param deadline Time of {@link System#nanoTime()}.
+	 */
+	void setDeadline(long deadline) {
+		this.deadline = deadline;
+	}
+
+	/**
+	 * Find routes with negative reduced cost.
+	 * @return The routes (without depots), most negative reduced cost first.
+	 */
+	List<int[]> price() {
+		int size = nodes.length;
+		int destination = size - 1;
+		reduced = new double[size][size];
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				reduced[i][j] = truck.travel(c, i, j) - (j >= 1 && j <= n ? userDuals[j] : 0);
+			}
+		}
+		boolean[][] arcs = allowed;
+		if (arcsPerNode > 0) {
+			arcs = restrictArcs();
+		}
+		labels = 0;
+		aborted = false;
+		minReducedCost = 0;
+		candidates = new HashMap<String, Candidate>();
+		rejected = new HashSet<String>();
+
+		if (bidirectional) {
+			double middle = (earliest[0] + latest[destination]) / 2;
+			List<Map<Key, List<Label>>> forward = forward(arcs, middle);
+			List<Map<Key, List<Label>>> backward = aborted ? null : backward(arcs, middle);
+			if (!aborted) {
+				join(arcs, forward, backward, middle);
+			}
+		} else {
+			forward(arcs, Double.POSITIVE_INFINITY);
+		}
+
+		List<Candidate> found = new ArrayList<Candidate>(candidates.values());
+		Collections.sort(found, new Comparator<Candidate>() {
+			@Override
+			public int compare(Candidate a, Candidate b) {
+				return Double.compare(a.reducedCost, b.reducedCost);
+			}
+		});
+		List<int[]> routes = new ArrayList<int[]>();
+		for (int k = 0; k < found.size() && k < maxColumns; k++) {
+			routes.add(found.get(k).route);
+		}
+		return routes;
+	}
+
+	/**
+	 * Keep all arcs except the arcs into pick-ups that are not among the
+	 * cheapest of their start node.
+	 */
+	private boolean[][] restrictArcs() {
+		int size = nodes.length;
+		boolean[][] arcs = new boolean[size][];
+		Integer[] order = new Integer[n];
+		for (int i = 0; i < size; i++) {
+			arcs[i] = allowed[i].clone();
+			final double[] cost = reduced[i];
+			for (int u = 0; u < n; u++) {
+				order[u] = u + 1;
+			}
+			Arrays.sort(order, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer a, Integer b) {
+					return Double.compare(cost[a], cost[b]);
+				}
+			});
+			int kept = 0;
+			for (int u = 0; u < n; u++) {
+				int j = order[u];
+				if (arcs[i][j]) {
+					if (kept < arcsPerNode) {
+						kept++;
+					} else {
+						arcs[i][j] = false;
+					}
+				}
+			}
+		}
+		return arcs;
+	}
+
+	/**
+	 * Forward labeling from the origin depot. Labels later than the middle
+	 * are kept but not extended, complete paths become candidates.
+	 * @return The non-dominated labels of every node by their open users.
+	 */
+	private List<Map<Key, List<Label>>> forward(boolean[][] arcs, double middle) {
+		int size = nodes.length;
+		int destination = size - 1;
+		List<Map<Key, List<Label>>> buckets = createBuckets();
+		int[] counts = new int[size];
+		PriorityQueue<Label> queue = new PriorityQueue<Label>(64, new Comparator<Label>() {
+			@Override
+			public int compare(Label a, Label b) {
+				return Double.compare(a.time, b.time);
+			}
+		});
+		queue.add(startLabel(0, -vehicleDual));
+		while (!queue.isEmpty()) {
+			Label label = queue.poll();
+			if (label.dominated) {
+				continue;
+			}
+			if (++labels % CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+				aborted = true;
+				break;
+			}
+			if (label.time > middle) {
+				continue;
+			}
+			int i = label.node;
+			for (int j = 1; j < size; j++) {
+				if (!arcs[i][j]) {
+					continue;
+				}
+				Label extended = extendForward(label, j);
+				if (extended == null) {
+					continue;
+				}
+				if (j == destination) {
+					addCandidate(extended, null);
+					continue;
+				}
+				if (labelLimit > 0 && counts[j] >= labelLimit) {
+					continue;
+				}
+				if (insert(buckets.get(j), extended, true)) {
+					counts[j]++;
+					queue.add(extended);
+				}
+			}
+		}
+		return buckets;
+	}
+
+	/**
+	 * Create the label of a depot: Only its time window is known.
+	 * @param depot The origin depot 0 or the destination depot 2n+1.
+	 * @param cost Cost of the label.
+	 */
+	private Label startLabel(int depot, double cost) {
+		int words = (n + 64) / 64;
+		double[] bounds = new double[9];
+		Arrays.fill(bounds, INFINITY);
+		for (int x = 0; x < 3; x++) {
+			bounds[x * 3 + x] = 0;
+		}
+		bounds[DEPOT * 3 + CURRENT] = 0;
+		bounds[CURRENT * 3 + DEPOT] = 0;
+		bounds[ZERO * 3 + DEPOT] = latest[depot];
+		bounds[ZERO * 3 + CURRENT] = latest[depot];
+		bounds[DEPOT * 3 + ZERO] = -earliest[depot];
+		bounds[CURRENT * 3 + ZERO] = -earliest[depot];
+		double time = depot == 0 ? earliest[depot] : latest[depot];
+		return new Label(depot, time, cost, 0, new long[words], new long[words], new int[0], bounds, null);
+	}
+
+	/**
+	 * Extend a forward label along the arc to node j.
+	 * @return The new label, null if the extension is infeasible.
+	 */
+	private Label extendForward(Label label, int j) {
+		int i = label.node;
+		int destination = nodes.length - 1;
+		double travel = truck.travel(c, i, j);
+		if (Math.max(earliest[j], label.time + service[i] + travel) > latest[j] + EPSILON) {
+			return null;
+		}
+		long[] open = label.open;
+		long[] completed = label.completed;
+		int load = label.load;
+		int dropped = -1;
+		if (j == destination) {
+			if (label.onBoard.length > 0) {
+				return null;
+			}
+		} else if (j <= n) {
+			if (contains(open, j) || contains(completed, j)) {
+				return null;
+			}
+			load += nodes[j].getLoad();
+			if (load > truck.getCapacity()) {
+				return null;
+			}
+			open = with(open, j);
+		} else {
+			int user = j - n;
+			if (!contains(open, user)) {
+				return null;
+			}
+			load += nodes[j].getLoad();
+			open = without(open, user);
+			completed = with(completed, user);
+			dropped = Arrays.binarySearch(label.onBoard, user);
+		}
+
+		// Schedule of the path with the new node as variable s.
+		int s = 3 + label.onBoard.length;
+		int size = s + 1;
+		double[] bounds = addVariable(label.bounds, s);
+		bounds[s * size + CURRENT] = -(service[i] + travel);
+		bounds[ZERO * size + s] = latest[j];
+		bounds[s * size + ZERO] = -earliest[j];
+		if (dropped >= 0) {
+			bounds[(3 + dropped) * size + s] = maxRideTime + service[j - n];
+		}
+		if (j == destination) {
+			bounds[DEPOT * size + s] = truck.getMaxTourTime();
+		}
+		if (!close(bounds, size, s)) {
+			return null;
+		}
+		double time = -bounds[s * size + ZERO];
+
+		int[] onBoard = label.onBoard;
+		int[] keep;
+		if (j <= n) {
+			// Insert the pick-up in the order of the users.
+			int position = -1 - Arrays.binarySearch(onBoard, j);
+			onBoard = new int[label.onBoard.length + 1];
+			keep = new int[3 + onBoard.length];
+			for (int h = 0, k = 0; h < onBoard.length; h++) {
+				onBoard[h] = h == position ? j : label.onBoard[k];
+				keep[3 + h] = h == position ? s : 3 + k++;
+			}
+		} else {
+			onBoard = new int[label.onBoard.length - (dropped >= 0 ? 1 : 0)];
+			keep = new int[3 + onBoard.length];
+			for (int h = 0, k = 0; h < label.onBoard.length; h++) {
+				if (h != dropped) {
+					onBoard[k] = label.onBoard[h];
+					keep[3 + k++] = 3 + h;
+				}
+			}
+		}
+		if (j != destination) {
+			// The tour must reach the destination depot in time.
+			if (-bounds[s * size + DEPOT] + service[j] + truck.travel(c, j, destination) > truck.getMaxTourTime()
+					+ EPSILON) {
+				return null;
+			}
+			// Every user on board must reach its drop-off in time.
+			for (int h = 0; h < onBoard.length; h++) {
+				int user = onBoard[h];
+				double ride = -bounds[s * size + keep[3 + h]] + service[j] + c.get(j, n + user) - service[user];
+				if (time + service[j] + c.get(j, n + user) > latest[n + user] + EPSILON
+						|| ride > maxRideTime + EPSILON) {
+					return null;
+				}
+			}
+		}
+		keep[ZERO] = ZERO;
+		keep[DEPOT] = DEPOT;
+		keep[CURRENT] = s;
+		return new Label(j, time, label.cost + reduced[i][j], load, open, completed, onBoard,
+				project(bounds, size, keep), label);
+	}
+
+	/**
+	 * Backward labeling from the destination depot. The time of a label is
+	 * its latest service start, labels earlier than the middle are kept but
+	 * not extended.
+	 * @return The non-dominated labels of every node by their open users.
+	 */
+	private List<Map<Key, List<Label>>> backward(boolean[][] arcs, double middle) {
+		int size = nodes.length;
+		int destination = size - 1;
+		List<Map<Key, List<Label>>> buckets = createBuckets();
+		int[] counts = new int[size];
+		PriorityQueue<Label> queue = new PriorityQueue<Label>(64, new Comparator<Label>() {
+			@Override
+			public int compare(Label a, Label b) {
+				return Double.compare(b.time, a.time);
+			}
+		});
+		queue.add(startLabel(destination, 0));
+		while (!queue.isEmpty()) {
+			Label label = queue.poll();
+			if (label.dominated) {
+				continue;
+			}
+			if (++labels % CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+				aborted = true;
+				break;
+			}
+			if (label.time < middle) {
+				continue;
+			}
+			int j = label.node;
+			for (int i = 1; i < destination; i++) {
+				if (!arcs[i][j]) {
+					continue;
+				}
+				Label extended = extendBackward(label, i);
+				if (extended == null || (labelLimit > 0 && counts[i] >= labelLimit)) {
+					continue;
+				}
+				if (insert(buckets.get(i), extended, false)) {
+					counts[i]++;
+					queue.add(extended);
+				}
+			}
+		}
+		return buckets;
+	}
+
+	/**
+	 * Extend a backward label along the arc from node i. The open users of
+	 * a backward label are dropped off but not yet picked up.
+	 * @return The new label, null if the extension is infeasible.
+	 */
+	private Label extendBackward(Label label, int i) {
+		int j = label.node;
+		double travel = truck.travel(c, i, j);
+		if (Math.min(latest[i], label.time - service[i] - travel) < earliest[i] - EPSILON) {
+			return null;
+		}
+		long[] open = label.open;
+		long[] completed = label.completed;
+		int load = label.load;
+		int picked = -1;
+		if (i > n) {
+			int user = i - n;
+			if (contains(open, user) || contains(completed, user)) {
+				return null;
+			}
+			load -= nodes[i].getLoad();
+			if (load > truck.getCapacity()) {
+				return null;
+			}
+			open = with(open, user);
+		} else {
+			if (!contains(open, i)) {
+				return null;
+			}
+			load -= nodes[i].getLoad();
+			open = without(open, i);
+			completed = with(completed, i);
+			picked = Arrays.binarySearch(label.onBoard, i);
+		}
+
+		// Schedule of the path with the new node as variable s.
+		int s = 3 + label.onBoard.length;
+		int size = s + 1;
+		double[] bounds = addVariable(label.bounds, s);
+		bounds[CURRENT * size + s] = -(service[i] + travel);
+		bounds[ZERO * size + s] = latest[i];
+		bounds[s * size + ZERO] = -earliest[i];
+		if (picked >= 0) {
+			bounds[s * size + 3 + picked] = maxRideTime + service[i];
+		}
+		if (!close(bounds, size, s)) {
+			return null;
+		}
+		double time = bounds[ZERO * size + s];
+
+		int[] onBoard;
+		int[] keep;
+		if (i > n) {
+			int position = -1 - Arrays.binarySearch(label.onBoard, i - n);
+			onBoard = new int[label.onBoard.length + 1];
+			keep = new int[3 + onBoard.length];
+			for (int h = 0, k = 0; h < onBoard.length; h++) {
+				onBoard[h] = h == position ? i - n : label.onBoard[k];
+				keep[3 + h] = h == position ? s : 3 + k++;
+			}
+		} else {
+			onBoard = new int[label.onBoard.length - 1];
+			keep = new int[3 + onBoard.length];
+			for (int h = 0, k = 0; h < label.onBoard.length; h++) {
+				if (h != picked) {
+					onBoard[k] = label.onBoard[h];
+					keep[3 + k++] = 3 + h;
+				}
+			}
+		}
+		// The tour must start at the origin depot in time.
+		double fromOrigin = service[0] + truck.travel(c, 0, i);
+		if (earliest[0] + fromOrigin > time + EPSILON
+				|| -bounds[DEPOT * size + s] + fromOrigin > truck.getMaxTourTime() + EPSILON) {
+			return null;
+		}
+		// Every user on board must have been picked up in time.
+		for (int h = 0; h < onBoard.length; h++) {
+			int user = onBoard[h];
+			double ride = -bounds[keep[3 + h] * size + s] + c.get(user, i);
+			if (earliest[user] + service[user] + c.get(user, i) > time + EPSILON || ride > maxRideTime + EPSILON) {
+				return null;
+			}
+		}
+		keep[ZERO] = ZERO;
+		keep[DEPOT] = DEPOT;
+		keep[CURRENT] = s;
+		return new Label(i, time, label.cost + reduced[i][j], load, open, completed, onBoard,
+				project(bounds, size, keep), label);
+	}
+
+	/**
+	 * Join every forward label not later than the middle with the backward
+	 * labels of the same open users at its successors.
+	 */
+	private void join(boolean[][] arcs, List<Map<Key, List<Label>>> forward, List<Map<Key, List<Label>>> backward,
+			double middle) {
+		int size = nodes.length;
+		int destination = size - 1;
+		for (int i = 0; i < destination; i++) {
+			for (Map.Entry<Key, List<Label>> bucket : forward.get(i).entrySet()) {
+				for (Label f : bucket.getValue()) {
+					if (f.dominated || f.time > middle) {
+						continue;
+					}
+					if (++labels % CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+						aborted = true;
+						return;
+					}
+					for (int j = 1; j < destination; j++) {
+						if (!arcs[i][j]) {
+							continue;
+						}
+						List<Label> matching = backward.get(j).get(bucket.getKey());
+						if (matching == null) {
+							continue;
+						}
+						double arrival = Math.max(earliest[j], f.time + service[i] + truck.travel(c, i, j));
+						for (Label b : matching) {
+							if (b.dominated || arrival > b.time + EPSILON || f.cost + reduced[i][j] + b.cost > -EPSILON
+									|| intersects(f.completed, b.completed) || !isJoinable(f, b)) {
+								continue;
+							}
+							addCandidate(f, b);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Check whether the schedules of a forward label at i and a backward
+	 * label at j fit together over the arc (i,j): The arc, the ride times of
+	 * the open users and the tour duration connect both systems.
+	 */
+	private boolean isJoinable(Label f, Label b) {
+		int open = f.onBoard.length;
+		int size = 5 + 2 * open;
+		// Variables: zero, origin, i, the pick-ups, destination, j, the drop-offs.
+		int offset = 2 + open;
+		double[] bounds = new double[size * size];
+		Arrays.fill(bounds, INFINITY);
+		int forwardSize = 3 + open;
+		for (int x = 0; x < forwardSize; x++) {
+			for (int y = 0; y < forwardSize; y++) {
+				bounds[x * size + y] = f.bounds[x * forwardSize + y];
+			}
+		}
+		for (int x = 0; x < forwardSize; x++) {
+			int bx = x == ZERO ? ZERO : offset + x;
+			for (int y = 0; y < forwardSize; y++) {
+				int by = y == ZERO ? ZERO : offset + y;
+				bounds[bx * size + by] = Math.min(bounds[bx * size + by], b.bounds[x * forwardSize + y]);
+			}
+		}
+		int i = f.node;
+		bounds[(offset + CURRENT) * size + CURRENT] = -(service[i] + truck.travel(c, i, b.node));
+		bounds[DEPOT * size + offset + DEPOT] = truck.getMaxTourTime();
+		for (int h = 0; h < open; h++) {
+			int user = f.onBoard[h];
+			bounds[(3 + h) * size + offset + 3 + h] = maxRideTime + service[user];
+		}
+		for (int k = 0; k < size; k++) {
+			for (int x = 0; x < size; x++) {
+				double via = bounds[x * size + k];
+				if (via == INFINITY) {
+					continue;
+				}
+				for (int y = 0; y < size; y++) {
+					double path = via + bounds[k * size + y];
+					if (path < bounds[x * size + y]) {
+						bounds[x * size + y] = path;
+					}
+				}
+			}
+			if (bounds[k * size + k] < -EPSILON) {
+				return false;
+			}
+		}
+		for (int x = 0; x < size; x++) {
+			if (bounds[x * size + x] < -EPSILON) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Check the route of a forward label (and a backward label) and keep it
+	 * if it is feasible and has a negative reduced cost.
+	 */
+	private void addCandidate(Label forwardLabel, Label backwardLabel) {
+		int[] route = toRoute(forwardLabel, backwardLabel);
+		if (route.length == 0) {
+			return;
+		}
+		String key = Arrays.toString(route);
+		if (candidates.containsKey(key) || rejected.contains(key)) {
+			return;
+		}
+		int destination = nodes.length - 1;
+		double cost = truck.travel(c, 0, route[0]) + truck.travel(c, route[route.length - 1], destination);
+		double reducedCost = -vehicleDual;
+		for (int p = 0; p < route.length; p++) {
+			if (p > 0) {
+				cost += c.get(route[p - 1], route[p]);
+			}
+			if (route[p] <= n) {
+				reducedCost -= userDuals[route[p]];
+			}
+		}
+		reducedCost += cost;
+		if (reducedCost > -EPSILON) {
+			return;
+		}
+		minReducedCost = Math.min(minReducedCost, reducedCost);
+		if (!evaluator.evaluate(route, truck)) {
+			rejected.add(key);
+			return;
+		}
+		candidates.put(key, new Candidate(route, reducedCost));
+	}
+
+	/**
+	 * Get the nodes of the path of a forward label (and a backward label)
+	 * without the depots.
+	 */
+	private int[] toRoute(Label forwardLabel, Label backwardLabel) {
+		int length = 0;
+		for (Label label = forwardLabel; label != null; label = label.parent) {
+			length++;
+		}
+		for (Label label = backwardLabel; label != null; label = label.parent) {
+			length++;
+		}
+		int[] stops = new int[length];
+		int position = 0;
+		for (Label label = forwardLabel; label != null; label = label.parent) {
+			stops[position++] = label.node;
+		}
+		for (int p = 0; p < position / 2; p++) {
+			int swap = stops[p];
+			stops[p] = stops[position - 1 - p];
+			stops[position - 1 - p] = swap;
+		}
+		for (Label label = backwardLabel; label != null; label = label.parent) {
+			stops[position++] = label.node;
+		}
+		// Without the origin and, if it is reached, the destination depot.
+		int end = stops[length - 1] == nodes.length - 1 ? length - 1 : length;
+		return Arrays.copyOfRange(stops, 1, end);
+	}
+
+	/**
+	 * Copy a closed system of difference constraints and add a variable s
+	 * without constraints.
+	 */
+	private static double[] addVariable(double[] bounds, int s) {
+		int size = s + 1;
+		double[] extended = new double[size * size];
+		Arrays.fill(extended, INFINITY);
+		for (int x = 0; x < s; x++) {
+			System.arraycopy(bounds, x * s, extended, x * size, s);
+		}
+		extended[s * size + s] = 0;
+		return extended;
+	}
+
+	/**
+	 * Close a system after the constraints of the new variable s were added
+	 * to a closed system: The shortest paths through s are added to all
+	 * other bounds.
+	 * @return False if the constraints are inconsistent (negative cycle).
+	 */
+	private static boolean close(double[] bounds, int size, int s) {
+		double[] into = new double[size];
+		double[] out = new double[size];
+		for (int x = 0; x < s; x++) {
+			double best = INFINITY;
+			double bestOut = INFINITY;
+			for (int y = 0; y < s; y++) {
+				best = Math.min(best, bounds[x * size + y] + bounds[y * size + s]);
+				bestOut = Math.min(bestOut, bounds[s * size + y] + bounds[y * size + x]);
+			}
+			into[x] = best;
+			out[x] = bestOut;
+		}
+		for (int x = 0; x < s; x++) {
+			if (into[x] + out[x] < -EPSILON) {
+				return false;
+			}
+		}
+		for (int x = 0; x < s; x++) {
+			bounds[x * size + s] = into[x];
+			bounds[s * size + x] = out[x];
+			if (into[x] == INFINITY) {
+				continue;
+			}
+			for (int y = 0; y < s; y++) {
+				double path = into[x] + out[y];
+				if (path < bounds[x * size + y]) {
+					bounds[x * size + y] = path;
+				}
+			}
+			if (bounds[x * size + x] < -EPSILON) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Restrict a closed system to some of its variables.
+	 * @param keep The old index of every new variable.
+	 */
+	private static double[] project(double[] bounds, int size, int[] keep) {
+		int kept = keep.length;
+		double[] projected = new double[kept * kept];
+		for (int x = 0; x < kept; x++) {
+			for (int y = 0; y < kept; y++) {
+				projected[x * kept + y] = bounds[keep[x] * size + keep[y]];
+			}
+		}
+		return projected;
+	}
+
+	/**
+	 * Insert a label into the bucket of its open users unless it is
+	 * dominated, labels it dominates are removed.
+	 * @return True if the label was inserted.
+	 */
+	private boolean insert(Map<Key, List<Label>> buckets, Label label, boolean forward) {
+		Key key = new Key(label.open);
+		List<Label> bucket = buckets.get(key);
+		if (bucket == null) {
+			bucket = new ArrayList<Label>();
+			buckets.put(key, bucket);
+		}
+		for (int l = 0; l < bucket.size(); l++) {
+			if (dominates(bucket.get(l), label, forward)) {
+				return false;
+			}
+		}
+		for (int l = bucket.size() - 1; l >= 0; l--) {
+			if (dominates(label, bucket.get(l), forward)) {
+				bucket.get(l).dominated = true;
+				bucket.remove(l);
+			}
+		}
+		bucket.add(label);
+		return true;
+	}
+
+	/**
+	 * Check whether label a dominates label b (same node and open users):
+	 * Every schedule of b can be replaced by a schedule of a that is not
+	 * later at the node (backward: not earlier), starts the tour not
+	 * earlier (backward: ends it not later) and picks up every open user
+	 * not earlier (backward: drops it off not later).
+	 */
+	private static boolean dominates(Label a, Label b, boolean forward) {
+		if (a.cost > b.cost + EPSILON) {
+			return false;
+		}
+		for (int w = 0; w < a.completed.length; w++) {
+			if ((a.completed[w] & ~b.completed[w]) != 0) {
+				return false;
+			}
+		}
+		int size = 3 + a.onBoard.length;
+		double[] x = a.bounds;
+		double[] y = b.bounds;
+		if (forward ? x[CURRENT * size + ZERO] < y[CURRENT * size + ZERO] - EPSILON
+				: x[ZERO * size + CURRENT] < y[ZERO * size + CURRENT] - EPSILON) {
+			return false;
+		}
+		for (int v = DEPOT; v < size; v++) {
+			if (v == CURRENT) {
+				continue;
+			}
+			if (forward) {
+				if (x[ZERO * size + v] < y[ZERO * size + v] - EPSILON
+						|| x[CURRENT * size + v] < y[CURRENT * size + v] - EPSILON) {
+					return false;
+				}
+			} else if (x[v * size + ZERO] < y[v * size + ZERO] - EPSILON
+					|| x[v * size + CURRENT] < y[v * size + CURRENT] - EPSILON) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Create an empty map of labels by open users for every node.
+	 */
+	private List<Map<Key, List<Label>>> createBuckets() {
+		List<Map<Key, List<Label>>> buckets = new ArrayList<Map<Key, List<Label>>>(nodes.length);
+		for (int i = 0; i < nodes.length; i++) {
+			buckets.add(new HashMap<Key, List<Label>>());
+		}
+		return buckets;
+	}
+
+	/**
+	 * Check whether a user is in a set.
+	 */
+	private static boolean contains(long[] set, int user) {
+		return (set[user >>> 6] & (1L << user)) != 0;
+	}
+
+	/**
+	 * Copy a set and add a user.
+	 */
+	private static long[] with(long[] set, int user) {
+		long[] copy = set.clone();
+		copy[user >>> 6] |= 1L << user;
+		return copy;
+	}
+
+	/**
+	 * Copy a set and remove a user.
+	 */
+	private static long[] without(long[] set, int user) {
+		long[] copy = set.clone();
+		copy[user >>> 6] &= ~(1L << user);
+		return copy;
+	}
+
+	/**
+	 * Check whether two sets have a common user.
+	 */
+	private static boolean intersects(long[] a, long[] b) {
+		for (int w = 0; w < a.length; w++) {
+			if ((a[w] & b[w]) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Get the number of labels of the last call of {@link #price()}.
+	 * @return Number of processed labels.
+	 */
+	long getLabels() {
+		return labels;
+	}
+
+	/**
+	 * Check whether the last call of {@link #price()} stopped at the deadline.
+	 * @return True if not all labels were processed.
+	 */
+	boolean isAborted() {
+		return aborted;
+	}
+
+	/**
+	 * Get the smallest reduced cost of the paths of the last call of
+	 * {@link #price()}, including the paths that failed the evaluator.
+	 * Without heuristic setting and abort no feasible route has a smaller one.
+	 * @return The smallest reduced cost, at most 0.
+	 */
+	double getMinReducedCost() {
+		return minReducedCost;
+	}
+
+	/**
+	 * A path from the origin depot (forward) or to the destination depot
+	 * (backward) with the closed system of difference constraints of its
+	 * schedule: bounds[x * size + y] is the largest t_y - t_x over the
+	 * variables zero (t = 0), the depot, the current node and the pick-ups
+	 * (backward: drop-offs) of the open users in the order of the users.
+	 */
+	private static class Label {
+		private final int node;
+		private final double time;
+		private final double cost;
+		private final int load;
+		private final long[] open;
+		private final long[] completed;
+		private final int[] onBoard;
+		private final double[] bounds;
+		private final Label parent;
+		private boolean dominated;
+
+		Label(int node, double time, double cost, int load, long[] open, long[] completed, int[] onBoard,
+				double[] bounds, Label parent) {
+			this.node = node;
+			this.time = time;
+			this.cost = cost;
+			this.load = load;
+			this.open = open;
+			this.completed = completed;
+			this.onBoard = onBoard;
+			this.bounds = bounds;
+			this.parent = parent;
+		}
+	}
+
+	/**
+	 * The open users of a label as key of a map.
+	 */
+	private static class Key {
+		private final long[] set;
+		private final int hash;
+
+		Key(long[] set) {
+			this.set = set;
+			this.hash = Arrays.hashCode(set);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			return object instanceof Key && Arrays.equals(set, ((Key) object).set);
+		}
+	}
+
+	/**
+	 * A feasible route with negative reduced cost.
+	 */
+	private static class Candidate {
+		private final int[] route;
+		private final double reducedCost;
+
+		Candidate(int[] route, double reducedCost) {
+			this.route = route;
+			this.reducedCost = reducedCost;
+		}
+	}
+
+}
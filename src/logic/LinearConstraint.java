@@ -0,0 +1,61 @@
+package logic;
+
+/**
+ * A linear constraint lower <= expression <= upper, used to pass cuts
+ * from a {@link SeparationCallback} to a {@link MipBackend}. The constant
+ * of the expression is ignored.
+ *
+ */
+public class LinearConstraint {
+
+	/**
+	 * The left hand side of the constraint.
+	 */
+	private final LinearExpression expression;
+	/**
+	 * Lower bound, negative infinity if none.
+	 */
+	private final double lower;
+	/**
+	 * Upper bound, positive infinity if none.
+	 */
+	private final double upper;
+
+	/**
+	 * Constructor for a new constraint.
+	 * @param lower Lower bound, Double.NEGATIVE_INFINITY if none.
+	 * @param expression The left hand side.
+	 * @param upper Upper bound, Double.POSITIVE_INFINITY if none.
+	 */
+	public LinearConstraint(double lower, LinearExpression expression, double upper) {
+		super();
+		this.lower = lower;
+		this.expression = expression;
+		this.upper = upper;
+	}
+
+	/**
+	 * Get the left hand side.
+	 * @return The expression.
+	 */
+	public LinearExpression getExpression() {
+		return expression;
+	}
+
+	/**
+	 * Get the lower bound.
+	 * @return Lower bound, negative infinity if none.
+	 */
+	public double getLower() {
+		return lower;
+	}
+
+	/**
+	 * Get the upper bound.
+	 * @return Upper bound, positive infinity if none.
+	 */
+	public double getUpper() {
+		return upper;
+	}
+
+}
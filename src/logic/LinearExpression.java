@@ -0,0 +1,87 @@
+package logic;
+
+import java.util.Arrays;
+
+/**
+ * A linear expression sum(a_j * x_j) + constant over the columns of a
+ * {@link MipBackend}. Columns are identified by the int returned when
+ * the variable was created.
+ *
+ */
+public class LinearExpression {
+
+	/**
+	 * Column of every term.
+	 */
+	private int[] columns = new int[8];
+	/**
+	 * Coefficient of every term.
+	 */
+	private double[] coefficients = new double[8];
+	/**
+	 * Number of terms.
+	 */
+	private int size;
+	/**
+	 * Constant part of the expression.
+	 */
+	private double constant;
+
+	/**
+	 * Add the term coefficient * x_column. A column may occur in several terms.
+	 * @param coefficient The coefficient.
+	 * @param column The column of the variable.
+	 */
+	public void addTerm(double coefficient, int column) {
+		if (size == columns.length) {
+			columns = Arrays.copyOf(columns, 2 * size);
+			coefficients = Arrays.copyOf(coefficients, 2 * size);
+		}
+		columns[size] = column;
+		coefficients[size] = coefficient;
+		size++;
+	}
+
+	/**
+	 * Set the constant part of the expression.
+	 * @param constant The constant.
+	 */
+	public void setConstant(double constant) {
+		this.constant = constant;
+	}
+
+	/**
+	 * Get the constant part of the expression.
+	 * @return The constant.
+	 */
+	public double getConstant() {
+		return constant;
+	}
+
+	/**
+	 * Get the number of terms.
+	 * @return Number of terms.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Get the column of a term.
+	 * @param term Number of the term.
+	 * @return The column.
+	 */
+	public int getColumn(int term) {
+		return columns[term];
+	}
+
+	/**
+	 * Get the coefficient of a term.
+	 * @param term Number of the term.
+	 * @return The coefficient.
+	 */
+	public double getCoefficient(int term) {
+		return coefficients[term];
+	}
+
+}
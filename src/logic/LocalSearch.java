@@ -0,0 +1,164 @@
+package logic;
+
+/**
+ * Local search that improves the routes of the {@link InsertionHeuristic}.</br>
+ * Two neighborhoods are searched until no move improves the routing cost:
+ * <ul>
+ * <li>Relocate: Remove a user (i and n+i) from its route and insert it at
+ * the cheapest feasible position of any route.</li>
+ * <li>Exchange: Swap two users of different routes, both are inserted at
+ * the cheapest feasible position of their new route.</li>
+ * </ul>
+ * Every route stays feasible for time windows, capacity, ride times and
+ * tour duration.
+ *
+ */
+public class LocalSearch {
+
+	/**
+	 * Minimal improvement of the routing cost for a move to be applied.
+	 */
+	private static final double EPSILON = 1e-6;
+
+	/**
+	 * The heuristic that provides insertion and feasibility checks.
+	 */
+	private final InsertionHeuristic heuristic;
+	/**
+	 * Maximal number of passes over both neighborhoods.
+	 */
+	private int maxPasses = 50;
+
+	/**
+	 * Constructor for a new local search.
+	 * @param heuristic The heuristic that provides insertion and feasibility checks.
+	 */
+	public LocalSearch(InsertionHeuristic heuristic) {
+		super();
+		this.heuristic = heuristic;
+	}
+
+	/**
+	 * Set the maximal number of passes over both neighborhoods.
+	 * @param maxPasses Maximal number of passes.
+	 */
+	public void setMaxPasses(int maxPasses) {
+		this.maxPasses = maxPasses;
+	}
+
+	/**
+	 * Improve the routes until no relocate or exchange move improves them.
+	 * @param routes The routes of all vehicles, changed in place.
+	 * @return The routes.
+	 */
+	public int[][] improve(int[][] routes) {
+		boolean improved = true;
+		for (int pass = 0; improved && pass < maxPasses; pass++) {
+			improved = relocate(routes);
+			improved |= exchange(routes);
+		}
+		return routes;
+	}
+
+	/**
+	 * Get the total routing cost of all routes.
+	 * @param routes The routes of all vehicles.
+	 * @return The sum of the routing costs.
+	 */
+	public double cost(int[][] routes) {
+		double cost = 0;
+		for (int k = 0; k < routes.length; k++) {
+			cost += heuristic.cost(routes[k], heuristic.getTrucks()[k]);
+		}
+		return cost;
+	}
+
+	/**
+	 * Apply every improving relocate move.
+	 * @return True if a move was applied.
+	 */
+	private boolean relocate(int[][] routes) {
+		boolean improved = false;
+		for (int user = 1; user <= heuristic.getUsers(); user++) {
+			int k = findRoute(routes, user);
+			int[] route = routes[k];
+			Truck truck = heuristic.getTrucks()[k];
+			if (!heuristic.canRemove(route, user, truck)) {
+				continue;
+			}
+			int[] removed = heuristic.remove(route, user);
+			double saving = heuristic.cost(route, truck) - heuristic.cost(removed, truck);
+
+			routes[k] = removed;
+			InsertionHeuristic.Insertion best = heuristic.bestInsertion(routes, user);
+			if (best != null && best.cost < saving - EPSILON) {
+				routes[best.vehicle] = heuristic.insert(routes[best.vehicle], user, best.pickupPosition,
+						best.dropoffPosition);
+				improved = true;
+			} else {
+				routes[k] = route;
+			}
+		}
+		return improved;
+	}
+
+	/**
+	 * Apply every improving exchange move.
+	 * @return True if a move was applied.
+	 */
+	private boolean exchange(int[][] routes) {
+		boolean improved = false;
+		int users = heuristic.getUsers();
+		Truck[] trucks = heuristic.getTrucks();
+		for (int first = 1; first <= users; first++) {
+			for (int second = first + 1; second <= users; second++) {
+				int k1 = findRoute(routes, first);
+				int k2 = findRoute(routes, second);
+				if (k1 == k2) {
+					continue;
+				}
+				if (!heuristic.canRemove(routes[k1], first, trucks[k1])
+						|| !heuristic.canRemove(routes[k2], second, trucks[k2])) {
+					continue;
+				}
+				int[] route1 = heuristic.remove(routes[k1], first);
+				int[] route2 = heuristic.remove(routes[k2], second);
+				double oldCost = heuristic.cost(routes[k1], trucks[k1]) + heuristic.cost(routes[k2], trucks[k2]);
+
+				InsertionHeuristic.Insertion insertion1 = heuristic.bestInsertion(route1, k1, second);
+				if (insertion1 == null) {
+					continue;
+				}
+				InsertionHeuristic.Insertion insertion2 = heuristic.bestInsertion(route2, k2, first);
+				if (insertion2 == null) {
+					continue;
+				}
+				double newCost = heuristic.cost(route1, trucks[k1]) + insertion1.cost + heuristic.cost(route2, trucks[k2])
+						+ insertion2.cost;
+				if (newCost < oldCost - EPSILON) {
+					routes[k1] = heuristic.insert(route1, second, insertion1.pickupPosition,
+							insertion1.dropoffPosition);
+					routes[k2] = heuristic.insert(route2, first, insertion2.pickupPosition,
+							insertion2.dropoffPosition);
+					improved = true;
+				}
+			}
+		}
+		return improved;
+	}
+
+	/**
+	 * Find the vehicle that serves a user.
+	 */
+	private static int findRoute(int[][] routes, int user) {
+		for (int k = 0; k < routes.length; k++) {
+			for (int position = 0; position < routes[k].length; position++) {
+				if (routes[k][position] == user) {
+					return k;
+				}
+			}
+		}
+		return -1;
+	}
+
+}
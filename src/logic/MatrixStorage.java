@@ -0,0 +1,27 @@
+package logic;
+
+/**
+ * How the values of a {@link TravelMatrix} are stored.
+ *
+ */
+public enum MatrixStorage {
+
+	/**
+	 * One flat double array, 8 bytes per value.
+	 */
+	DOUBLE,
+	/**
+	 * One flat float array, 4 bytes per value (about 7 significant digits).
+	 */
+	FLOAT,
+	/**
+	 * One flat int array of the values multiplied by
+	 * {@link TravelMatrix#SCALE}, 4 bytes per value (three decimals).
+	 */
+	SCALED_INT,
+	/**
+	 * Nothing is stored, every value is computed from the positions of the
+	 * nodes when it is read.
+	 */
+	LAZY
+}
@@ -0,0 +1,522 @@
+package logic;
+
+/**
+ * A MILP solver the DARP formulation is built with.</br>
+ * Variables are identified by their column (0, 1, 2, ... in the order of
+ * creation), constraints are stated with {@link LinearExpression}s. Without
+ * {@link #setNamed(boolean) names} the names of variables and constraints
+ * only select their family in the {@link SolverMetrics}. The
+ * objective is always minimized. Cuts are separated by a
+ * {@link SeparationCallback} on fractional (user cuts) and integer
+ * solutions (lazy constraints). A {@link SearchStrategy} diversifies the
+ * search and a {@link SharedIncumbent} exchanges solutions with backends
+ * that solve the same model in other threads.</br>
+ * A model can be changed after a solve and solved again: Rows of
+ * {@link #addRow(double, LinearExpression, double, String)} get the terms of
+ * new variables and {@link #setBounds(int, double, double)} fixes or releases
+ * variables.</br>
+ * Implementations: {@link CplexBackend} and {@link BranchAndBoundBackend}.
+ *
+ */
+public abstract class MipBackend {
+
+	/**
+	 * The metrics rows, columns and progress are recorded in, null if none.
+	 */
+	protected SolverMetrics metrics;
+	/**
+	 * True if the variables and constraints are named in the solver.
+	 */
+	protected boolean named = true;
+	/**
+	 * Parameters of the search, null for the defaults of the solver.
+	 */
+	protected SearchStrategy strategy;
+	/**
+	 * Best solution of all backends that solve the same model, null if the
+	 * backend solves alone.
+	 */
+	protected SharedIncumbent shared;
+
+	/**
+	 * Create the backend of the given type.
+	 * @param type The type of the backend.
+	 * @return A new backend.
+	 * @throws MipException If the backend can not be created (e.g. cplex.jar is missing).
+	 */
+	public static MipBackend create(Backend type) throws MipException {
+		if (type == Backend.JAVA || (type == Backend.AUTO && !isCplexAvailable())) {
+			return new BranchAndBoundBackend();
+		}
+		// Loaded by name, so the other classes also compile without cplex.jar.
+		try {
+			return (MipBackend) Class.forName("logic.CplexBackend").getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError e) {
+			throw new MipException("Cplex is not available", e);
+		}
+	}
+
+	/**
+	 * Check whether the Cplex classes can be loaded.
+	 * @return True if cplex.jar is on the class path.
+	 */
+	private static boolean isCplexAvailable() {
+		try {
+			Class.forName("ilog.cplex.IloCplex");
+			return true;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Record the size of the model and the progress of the solve.
+	 * @param metrics The metrics, null to record nothing.
+	 * @throws MipException
+	 */
+	public void setMetrics(SolverMetrics metrics) throws MipException {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Set whether the variables and constraints are named in the solver.
+	 * Unnamed models are built faster and with less memory, exported
+	 * models then get generated names.
+	 * @param named True if the names should be passed to the solver.
+	 * @throws MipException
+	 */
+	public void setNamed(boolean named) throws MipException {
+		this.named = named;
+	}
+
+	/**
+	 * Set the parameters of the search. Must be called before the solve.
+	 * @param strategy The parameters, null for the defaults of the solver.
+	 * @throws MipException
+	 */
+	public void setSearchStrategy(SearchStrategy strategy) throws MipException {
+		this.strategy = strategy;
+	}
+
+	/**
+	 * Exchange solutions with backends that solve the same model (same
+	 * columns in the same order) in other threads. New incumbents are
+	 * offered, better ones of the other backends are adopted and the solve
+	 * ends when the shared incumbent is stopped.
+	 * @param shared The shared incumbent, null to solve alone.
+	 * @throws MipException
+	 */
+	public void setSharedIncumbent(SharedIncumbent shared) throws MipException {
+		this.shared = shared;
+	}
+
+	/**
+	 * Create a continuous variable.
+	 * @param lower Lower bound.
+	 * @param upper Upper bound.
+	 * @param name Name of the variable in exported models.
+	 * @return The column of the variable.
+	 * @throws MipException
+	 */
+	public final int numVar(double lower, double upper, String name) throws MipException {
+		if (metrics == null) {
+			return createNumVar(lower, upper, name);
+		}
+		long start = System.nanoTime();
+		int column = createNumVar(lower, upper, name);
+		metrics.addColumn(name, System.nanoTime() - start);
+		return column;
+	}
+
+	/**
+	 * Create a binary variable.
+	 * @param name Name of the variable in exported models.
+	 * @return The column of the variable.
+	 * @throws MipException
+	 */
+	public final int boolVar(String name) throws MipException {
+		if (metrics == null) {
+			return createBoolVar(name);
+		}
+		long start = System.nanoTime();
+		int column = createBoolVar(name);
+		metrics.addColumn(name, System.nanoTime() - start);
+		return column;
+	}
+
+	/**
+	 * Create unnamed continuous variables with one call of the solver.
+	 * @param lower Lower bound of every variable.
+	 * @param upper Upper bound of every variable.
+	 * @param family Name of the variables in the metrics.
+	 * @return The column of the first variable, the others follow in order.
+	 * @throws MipException
+	 */
+	public final int numVarArray(double[] lower, double[] upper, String family) throws MipException {
+		if (metrics == null) {
+			return createNumVars(lower, upper);
+		}
+		long start = System.nanoTime();
+		int first = createNumVars(lower, upper);
+		metrics.addColumns(family, lower.length, System.nanoTime() - start);
+		return first;
+	}
+
+	/**
+	 * Create unnamed binary variables with one call of the solver.
+	 * @param count Number of variables.
+	 * @param family Name of the variables in the metrics.
+	 * @return The column of the first variable, the others follow in order.
+	 * @throws MipException
+	 */
+	public final int boolVarArray(int count, String family) throws MipException {
+		if (metrics == null) {
+			return createBoolVars(count);
+		}
+		long start = System.nanoTime();
+		int first = createBoolVars(count);
+		metrics.addColumns(family, count, System.nanoTime() - start);
+		return first;
+	}
+
+	/**
+	 * Set the name of a variable in exported models.
+	 * @param column The column of the variable.
+	 * @param name The name.
+	 * @throws MipException
+	 */
+	public abstract void setName(int column, String name) throws MipException;
+
+	/**
+	 * Create a continuous variable, see {@link #numVar(double, double, String)}.
+	 * @throws MipException
+	 */
+	protected abstract int createNumVar(double lower, double upper, String name) throws MipException;
+
+	/**
+	 * Create a binary variable, see {@link #boolVar(String)}.
+	 * @throws MipException
+	 */
+	protected abstract int createBoolVar(String name) throws MipException;
+
+	/**
+	 * Create continuous variables, see {@link #numVarArray(double[], double[], String)}.
+	 * @throws MipException
+	 */
+	protected abstract int createNumVars(double[] lower, double[] upper) throws MipException;
+
+	/**
+	 * Create binary variables, see {@link #boolVarArray(int, String)}.
+	 * @throws MipException
+	 */
+	protected abstract int createBoolVars(int count) throws MipException;
+
+	/**
+	 * Set the objective function that is minimized.
+	 * @param objective The objective function.
+	 * @throws MipException
+	 */
+	public abstract void addMinimize(LinearExpression objective) throws MipException;
+
+	/**
+	 * Add the constraint lower <= expression <= upper. The constant of the
+	 * expression is moved to the bounds.
+	 * @param lower Lower bound, Double.NEGATIVE_INFINITY if none.
+	 * @param expression The expression.
+	 * @param upper Upper bound, Double.POSITIVE_INFINITY if none.
+	 * @param name Name of the constraint in exported models.
+	 * @throws MipException
+	 */
+	public final void addRange(double lower, LinearExpression expression, double upper, String name)
+			throws MipException {
+		if (metrics == null) {
+			createRange(lower, expression, upper, name);
+			return;
+		}
+		long start = System.nanoTime();
+		createRange(lower, expression, upper, name);
+		metrics.addRow(name, false, expression.size(), System.nanoTime() - start);
+	}
+
+	/**
+	 * Add a constraint, see {@link #addRange(double, LinearExpression, double, String)}.
+	 * @throws MipException
+	 */
+	protected abstract void createRange(double lower, LinearExpression expression, double upper, String name)
+			throws MipException;
+
+	/**
+	 * Add the constraint lower <= expression <= upper as a row that can get
+	 * more terms later (see {@link #addTerms(int, LinearExpression)}). Unlike
+	 * {@link #addRange(double, LinearExpression, double, String)} a row of a
+	 * single variable stays a row.
+	 * @param lower Lower bound, Double.NEGATIVE_INFINITY if none.
+	 * @param expression The expression.
+	 * @param upper Upper bound, Double.POSITIVE_INFINITY if none.
+	 * @param name Name of the constraint in exported models.
+	 * @return The id of the row.
+	 * @throws MipException
+	 */
+	public final int addRow(double lower, LinearExpression expression, double upper, String name)
+			throws MipException {
+		if (metrics == null) {
+			return createRow(lower, expression, upper, name);
+		}
+		long start = System.nanoTime();
+		int row = createRow(lower, expression, upper, name);
+		metrics.addRow(name, false, expression.size(), System.nanoTime() - start);
+		return row;
+	}
+
+	/**
+	 * Add a row, see {@link #addRow(double, LinearExpression, double, String)}.
+	 * @throws MipException
+	 */
+	protected abstract int createRow(double lower, LinearExpression expression, double upper, String name)
+			throws MipException;
+
+	/**
+	 * Add terms to a row, e.g. of variables created after the row. The
+	 * constant of the terms is ignored.
+	 * @param row The id of the row (see {@link #addRow(double, LinearExpression, double, String)}).
+	 * @param terms The terms.
+	 * @throws MipException
+	 */
+	public abstract void addTerms(int row, LinearExpression terms) throws MipException;
+
+	/**
+	 * Add terms to the minimized objective function, e.g. of variables
+	 * created after it was set.
+	 * @param terms The terms.
+	 * @throws MipException
+	 */
+	public abstract void addObjectiveTerms(LinearExpression terms) throws MipException;
+
+	/**
+	 * Replace the bounds of a variable. Unlike a constraint on the variable
+	 * the new bounds may also be looser than the current ones.
+	 * @param column The column of the variable.
+	 * @param lower Lower bound.
+	 * @param upper Upper bound.
+	 * @throws MipException
+	 */
+	public abstract void setBounds(int column, double lower, double upper) throws MipException;
+
+	/**
+	 * Add the constraint lower <= expression <= upper to the lazy constraint
+	 * pool. The constraint is not part of the LP relaxation, it is only added
+	 * when an integer solution violates it.
+	 * @param lower Lower bound, Double.NEGATIVE_INFINITY if none.
+	 * @param expression The expression.
+	 * @param upper Upper bound, Double.POSITIVE_INFINITY if none.
+	 * @param name Name of the constraint in exported models.
+	 * @throws MipException
+	 */
+	public final void addLazyRange(double lower, LinearExpression expression, double upper, String name)
+			throws MipException {
+		if (metrics == null) {
+			createLazyRange(lower, expression, upper, name);
+			return;
+		}
+		long start = System.nanoTime();
+		createLazyRange(lower, expression, upper, name);
+		metrics.addRow(name, true, expression.size(), System.nanoTime() - start);
+	}
+
+	/**
+	 * Add a lazy constraint, see {@link #addLazyRange(double, LinearExpression, double, String)}.
+	 * @throws MipException
+	 */
+	protected abstract void createLazyRange(double lower, LinearExpression expression, double upper, String name)
+			throws MipException;
+
+	/**
+	 * Add the lazy constraint x_column >= expression.
+	 * @throws MipException
+	 */
+	public void addLazyGe(int column, LinearExpression expression, String name) throws MipException {
+		addLazyRange(Double.NEGATIVE_INFINITY, difference(expression, column), 0, name);
+	}
+
+	/**
+	 * Add the constraint expression = value.
+	 * @throws MipException
+	 */
+	public void addEq(LinearExpression expression, double value, String name) throws MipException {
+		addRange(value, expression, value, name);
+	}
+
+	/**
+	 * Add the constraint expression <= value.
+	 * @throws MipException
+	 */
+	public void addLe(LinearExpression expression, double value, String name) throws MipException {
+		addRange(Double.NEGATIVE_INFINITY, expression, value, name);
+	}
+
+	/**
+	 * Add the constraint expression >= value.
+	 * @throws MipException
+	 */
+	public void addGe(LinearExpression expression, double value, String name) throws MipException {
+		addRange(value, expression, Double.POSITIVE_INFINITY, name);
+	}
+
+	/**
+	 * Add the constraint x_column >= value.
+	 * @throws MipException
+	 */
+	public void addLowerBound(int column, double value, String name) throws MipException {
+		addGe(single(column), value, name);
+	}
+
+	/**
+	 * Add the constraint x_column <= value.
+	 * @throws MipException
+	 */
+	public void addUpperBound(int column, double value, String name) throws MipException {
+		addLe(single(column), value, name);
+	}
+
+	/**
+	 * Add the constraint x_column >= expression.
+	 * @throws MipException
+	 */
+	public void addGe(int column, LinearExpression expression, String name) throws MipException {
+		addLe(difference(expression, column), 0, name);
+	}
+
+	/**
+	 * Add the constraint x_column = expression.
+	 * @throws MipException
+	 */
+	public void addEq(int column, LinearExpression expression, String name) throws MipException {
+		addEq(difference(expression, column), 0, name);
+	}
+
+	/**
+	 * Get the expression 1 * x_column.
+	 */
+	private static LinearExpression single(int column) {
+		LinearExpression expression = new LinearExpression();
+		expression.addTerm(1.0, column);
+		return expression;
+	}
+
+	/**
+	 * Get the expression expression - x_column.
+	 */
+	private static LinearExpression difference(LinearExpression expression, int column) {
+		LinearExpression result = new LinearExpression();
+		for (int term = 0; term < expression.size(); term++) {
+			result.addTerm(expression.getCoefficient(term), expression.getColumn(term));
+		}
+		result.addTerm(-1.0, column);
+		result.setConstant(expression.getConstant());
+		return result;
+	}
+
+	/**
+	 * Add a start solution. Only the integer columns are used, the other
+	 * values are computed by the solver.
+	 * @param columns The columns with a value.
+	 * @param values The value of every column.
+	 * @param name Name of the start solution.
+	 * @throws MipException
+	 */
+	public abstract void addMIPStart(int[] columns, double[] values, String name) throws MipException;
+
+	/**
+	 * Remove all start solutions, e.g. before a changed model is solved again.
+	 * @throws MipException
+	 */
+	public abstract void clearMIPStarts() throws MipException;
+
+	/**
+	 * Separate cuts with a callback during the solve.
+	 * @param columns The columns whose values the callback gets.
+	 * @param callback The separation.
+	 * @param userCuts True if the callback is also called on fractional solutions,
+	 *            otherwise only on integer solutions.
+	 * @throws MipException
+	 */
+	public abstract void setSeparation(int[] columns, SeparationCallback callback, boolean userCuts)
+			throws MipException;
+
+	/**
+	 * Set the number of threads, 0 lets the solver decide.
+	 * @throws MipException
+	 */
+	public abstract void setThreads(int threads) throws MipException;
+
+	/**
+	 * Set the time limit in seconds.
+	 * @throws MipException
+	 */
+	public abstract void setTimeLimit(double seconds) throws MipException;
+
+	/**
+	 * Set whether the solver prints its log to the console.
+	 * @throws MipException
+	 */
+	public abstract void setVerbose(boolean verbose) throws MipException;
+
+	/**
+	 * Write the model in the LP format.
+	 * @param file Name of the file.
+	 * @throws MipException
+	 */
+	public abstract void exportModel(String file) throws MipException;
+
+	/**
+	 * Solve the model.
+	 * @return True if a solution was found.
+	 * @throws MipException
+	 */
+	public abstract boolean solve() throws MipException;
+
+	/**
+	 * Get the solution status, e.g. Optimal, Feasible or Infeasible.
+	 * @return The status.
+	 * @throws MipException
+	 */
+	public abstract String getStatus() throws MipException;
+
+	/**
+	 * Get the objective value of the best solution.
+	 * @throws MipException
+	 */
+	public abstract double getObjValue() throws MipException;
+
+	/**
+	 * Get the best lower bound.
+	 * @throws MipException
+	 */
+	public abstract double getBestObjValue() throws MipException;
+
+	/**
+	 * Get the relative gap between the best solution and the bound.
+	 * @throws MipException
+	 */
+	public abstract double getMIPRelativeGap() throws MipException;
+
+	/**
+	 * Get the number of processed branch-and-bound nodes.
+	 * @throws MipException
+	 */
+	public abstract long getNodeCount() throws MipException;
+
+	/**
+	 * Get the values of columns in the best solution.
+	 * @param columns The columns.
+	 * @return The value of every column.
+	 * @throws MipException
+	 */
+	public abstract double[] getValues(int[] columns) throws MipException;
+
+	/**
+	 * Release the resources of the solver.
+	 */
+	public abstract void end();
+
+}
@@ -0,0 +1,22 @@
+package logic;
+
+/**
+ * What the branch-and-bound of a {@link SearchStrategy} concentrates on.
+ * In the order of the values of the Cplex parameter MIP emphasis.
+ *
+ */
+public enum MipEmphasis {
+
+	/**
+	 * The default of the solver.
+	 */
+	BALANCED,
+	/**
+	 * Find good solutions early: Depth-first dives.
+	 */
+	FEASIBILITY,
+	/**
+	 * Prove optimality: Raise the bound, best-bound node selection.
+	 */
+	OPTIMALITY
+}
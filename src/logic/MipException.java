@@ -0,0 +1,28 @@
+package logic;
+
+/**
+ * An error of a {@link MipBackend}, e.g. a failure of the underlying solver.
+ *
+ */
+public class MipException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructor for a new exception.
+	 * @param message Description of the error.
+	 */
+	public MipException(String message) {
+		super(message);
+	}
+
+	/**
+	 * Constructor for a new exception caused by another one.
+	 * @param message Description of the error.
+	 * @param cause The exception of the underlying solver.
+	 */
+	public MipException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+}
@@ -56,6 +56,15 @@ public class Node {
 		this.serviceDuration = serviceDuration;
 	}
 
+	/**
+	 * Constructor for a copy of a node.
+	 * @param other The node that is copied.
+	 */
+	public Node(Node other) {
+		this(other.xPosition, other.yPosition, other.earliestServiceTime, other.latestServiceTime, other.load,
+				other.serviceDuration);
+	}
+
 	/**
 	 * Get the x-position of the node in a graph.</b>
 	 * Used for calculating the distance between two nodes.
@@ -0,0 +1,198 @@
+package logic;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Solves one instance with several {@link SearchStrategy}s in parallel
+ * (portfolio).</br>
+ * Every worker builds its own {@link model} with the same options, only the
+ * strategy differs, so all models have the same columns. The workers
+ * exchange solutions through a {@link SharedIncumbent}: A new incumbent of
+ * one worker tightens the cutoff of the others. The first worker that
+ * proves optimality (or infeasibility) stops the rest. The threads of the
+ * options are divided among the workers.
+ *
+ */
+public class PortfolioSolver {
+
+	/**
+	 * The instance that is solved.
+	 */
+	private final Instance instance;
+	/**
+	 * The settings of the solve, the search strategy is replaced per worker.
+	 */
+	private final SolverOptions options;
+	/**
+	 * The strategy of every worker.
+	 */
+	private final List<SearchStrategy> strategies;
+	/**
+	 * The strategy of the returned result, null before the solve.
+	 */
+	private SearchStrategy winner;
+
+	/**
+	 * Constructor for a new portfolio.
+	 * @param instance The instance that is solved.
+	 * @param options The settings of the solve.
+	 * @param strategies The strategy of every worker, e.g. {@link SearchStrategy#diversified(int)}.
+	 */
+	public PortfolioSolver(Instance instance, SolverOptions options, List<SearchStrategy> strategies) {
+		super();
+		if (strategies.isEmpty()) {
+			throw new IllegalArgumentException("A portfolio needs at least one strategy");
+		}
+		this.instance = instance;
+		this.options = options;
+		this.strategies = strategies;
+	}
+
+	/**
+	 * Solve the instance with all strategies until one proves optimality or
+	 * all stop.
+	 * @return The result of the worker that proved optimality, otherwise the
+	 *         one with the best solution.
+	 */
+	public SolverResult solve() {
+		final SharedIncumbent shared = new SharedIncumbent();
+		int threads = options.getThreads() > 0 ? options.getThreads() : Runtime.getRuntime().availableProcessors();
+		ExecutorService pool = Executors.newFixedThreadPool(strategies.size());
+		CompletionService<SolverResult> completion = new ExecutorCompletionService<SolverResult>(pool);
+		Map<Future<SolverResult>, SearchStrategy> workers = new HashMap<Future<SolverResult>, SearchStrategy>();
+		try {
+			for (int w = 0; w < strategies.size(); w++) {
+				final SolverOptions workerOptions = new SolverOptions(options);
+				workerOptions.setSearchStrategy(strategies.get(w));
+				workerOptions.setVerbose(false);
+				workerOptions.setThreads(Math.max(1, threads / strategies.size()));
+				workerOptions.setMetricsFile(null);
+				// Only one worker writes Cordeau.lp.
+				workerOptions.setExportModel(w == 0 && options.isExportModel());
+				// Worker 0 restarts from the checkpoint and hands it to the
+				// others, its writer sees the incumbents of all workers.
+				if (w > 0) {
+					workerOptions.setCheckpointFile(null);
+				}
+				Future<SolverResult> future = completion.submit(new Callable<SolverResult>() {
+					@Override
+					public SolverResult call() {
+						model worker = new model(instance, workerOptions);
+						worker.setSharedIncumbent(shared);
+						return worker.solve();
+					}
+				});
+				workers.put(future, strategies.get(w));
+			}
+
+			SolverResult best = null;
+			SolverResult proof = null;
+			for (int w = 0; w < strategies.size(); w++) {
+				Future<SolverResult> future;
+				SolverResult result;
+				try {
+					future = completion.take();
+					result = future.get();
+				} catch (ExecutionException e) {
+					e.getCause().printStackTrace();
+					continue;
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					shared.stop();
+					break;
+				}
+				SearchStrategy strategy = workers.get(future);
+				if (options.isVerbose()) {
+					System.out.println(String.format(Locale.ROOT, "Portfolio: %s: %s, objective %s, %.1f seconds",
+							strategy, result.getStatus(), result.getObjectiveValue(), result.getWallTime()));
+				}
+				if (proof == null && isProof(result)) {
+					proof = result;
+					winner = strategy;
+					shared.stop();
+				}
+				if (best == null || result.getObjectiveValue() < best.getObjectiveValue()
+						|| (Double.isNaN(best.getObjectiveValue()) && !Double.isNaN(result.getObjectiveValue()))) {
+					best = result;
+					if (proof == null) {
+						winner = strategy;
+					}
+				}
+			}
+			SolverResult result = proof != null ? proof : best;
+			if (result == null) {
+				return new SolverResult(instance.getName(), "Error", Double.NaN, Double.NaN, Double.NaN, 0,
+						new long[CutType.values().length], 0, null, null);
+			}
+			if (options.isVerbose()) {
+				System.out.println("Portfolio: " + result.getStatus() + " by " + winner + ", objective "
+						+ result.getObjectiveValue());
+			}
+			writeMetrics(result);
+			writeCheckpoint(result);
+			return result;
+		} finally {
+			shared.stop();
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Check whether a result ends the search of all workers.
+	 */
+	private static boolean isProof(SolverResult result) {
+		return result.getStatus().equals("Optimal") || result.getStatus().equals("Infeasible");
+	}
+
+	/**
+	 * Write the metrics of the returned result to the metrics file of the options.
+	 */
+	private void writeMetrics(SolverResult result) {
+		if (options.getMetricsFile() == null || result.getMetrics() == null) {
+			return;
+		}
+		try (Writer writer = new FileWriter(options.getMetricsFile())) {
+			writer.write(result.getMetrics().toJson());
+			writer.write('\n');
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Write the solution of the returned result to the checkpoint file of
+	 * the options, it may be better than the last one worker 0 has written.
+	 */
+	private void writeCheckpoint(SolverResult result) {
+		if (options.getCheckpointFile() == null || result.getSolution() == null) {
+			return;
+		}
+		try {
+			BinaryFormat.writeSolution(result.getSolution(), options.getCheckpointFile());
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Get the strategy of the returned result.
+	 * @return The strategy, null before the solve or if all workers failed.
+	 */
+	public SearchStrategy getWinner() {
+		return winner;
+	}
+
+}
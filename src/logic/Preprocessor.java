@@ -0,0 +1,551 @@
+package logic;
+
+/**
+ * Preprocessing of a DARP instance as described in section 3 of
+ * Cordeau's paper.</br>
+ * The time windows [e_i, l_i] of the nodes are tightened with the
+ * maximum ride time L and the maximum tour duration, and afterwards
+ * all arcs that can not be part of a feasible solution are removed.
+ * The model only creates variables and constraints for the
+ * remaining arcs.</br>
+ * Vehicles with own depots (see {@link Truck}) are taken into account: A
+ * node only has to be reachable from one of the depots, and the own depot
+ * windows of a vehicle are its shift. For a heterogeneous fleet
+ * {@link #eliminateVehicleArcs(ArcGraph)} also removes the arcs a single
+ * vehicle can not use.</br>
+ * {@link #buildConflictGraph()} finds the pairs of users that can not
+ * share a vehicle.
+ *
+ */
+public class Preprocessor {
+
+	/**
+	 * Maximal number of passes over all time windows.
+	 */
+	private static final int MAX_PASSES = 100;
+
+	/**
+	 * Array containing all nodes. The time windows are tightened in place.
+	 */
+	private final Node[] nodes;
+	/**
+	 * Array containing all vehicles. The windows of their own depots are
+	 * tightened in place.
+	 */
+	private final Truck[] trucks;
+	/**
+	 * Number of users (number of pick-up locations).
+	 */
+	private final int n;
+	/**
+	 * Maximum ride time L of a user.
+	 */
+	private final double maxRideTime;
+	/**
+	 * The travel time between node i and node j.
+	 */
+	private final TravelMatrix t;
+	/**
+	 * The largest capacity Q of all vehicles.
+	 */
+	private final int capacity;
+	/**
+	 * Number of time windows that were changed by the tightening.
+	 */
+	private int tightenedWindows;
+	/**
+	 * Number of arcs that were removed.
+	 */
+	private int removedArcs;
+	/**
+	 * Number of arc variables x_ijk that were removed for single vehicles.
+	 */
+	private int removedVehicleArcs;
+
+	/**
+	 * Constructor for a new preprocessor.
+	 * @param nodes Array containing all nodes.
+	 * @param trucks Array containing all vehicles.
+	 * @param n Number of users.
+	 * @param maxRideTime Maximum ride time L of a user.
+	 * @param t The travel time between node i and node j.
+	 */
+	public Preprocessor(Node[] nodes, Truck[] trucks, int n, double maxRideTime, TravelMatrix t) {
+		super();
+		this.nodes = nodes;
+		this.trucks = trucks;
+		this.n = n;
+		this.maxRideTime = maxRideTime;
+		this.t = t;
+
+		int maxCapacity = 0;
+		for (int k = 0; k < trucks.length; k++) {
+			maxCapacity = Math.max(maxCapacity, trucks[k].getCapacity());
+		}
+		this.capacity = maxCapacity;
+	}
+
+	/**
+	 * Tighten the time windows of all nodes until no more window changes.</br>
+	 * For every user i:</br>
+	 * e_i = max(e_i, e_n+i - L - d_i), l_i = min(l_i, l_n+i - t_i,n+i - d_i),</br>
+	 * e_n+i = max(e_n+i, e_i + d_i + t_i,n+i), l_n+i = min(l_n+i, l_i + d_i + L).</br>
+	 * The depot windows are tightened with the earliest and latest
+	 * times of the pick-up and drop-off nodes and the maximal tour duration.
+	 * @return False if a time window became empty (instance infeasible).
+	 */
+	public boolean tightenTimeWindows() {
+		boolean changed = true;
+		for (int pass = 0; changed && pass < MAX_PASSES; pass++) {
+			changed = false;
+			for (int i = 1; i <= n; i++) {
+				Node pickup = nodes[i];
+				Node dropoff = nodes[n + i];
+				double d = pickup.getServiceDuration();
+				changed |= raiseEarliest(pickup, dropoff.getEarliestServiceTime() - maxRideTime - d);
+				changed |= lowerLatest(pickup, dropoff.getLatestServiceTime() - t.get(i, n + i) - d);
+				changed |= raiseEarliest(dropoff, pickup.getEarliestServiceTime() + d + t.get(i, n + i));
+				changed |= lowerLatest(dropoff, pickup.getLatestServiceTime() + d + maxRideTime);
+			}
+
+			// Every node has to be reachable from an origin depot and a
+			// destination depot has to be reachable from every node.
+			for (int i = 1; i <= 2 * n; i++) {
+				double earliest = Double.MAX_VALUE;
+				double latest = -Double.MAX_VALUE;
+				for (Truck truck : trucks) {
+					earliest = Math.min(earliest,
+							truck.getOrigin(nodes).getEarliestServiceTime() + truck.travel(t, 0, i));
+					latest = Math.max(latest, truck.getDestination(nodes).getLatestServiceTime()
+							- nodes[i].getServiceDuration() - truck.travel(t, i, 2 * n + 1));
+				}
+				if (trucks.length > 0) {
+					changed |= raiseEarliest(nodes[i], earliest);
+					changed |= lowerLatest(nodes[i], latest);
+				}
+			}
+
+			// The depots are tightened together with all vehicles that use
+			// them: The depots of the instance are shared by every vehicle
+			// without own depots.
+			for (int k = 0; k < trucks.length; k++) {
+				if (isFirstUser(k, true)) {
+					changed |= tightenOrigin(trucks[k].getOrigin(nodes));
+				}
+				if (isFirstUser(k, false)) {
+					changed |= tightenDestination(trucks[k].getDestination(nodes));
+				}
+			}
+
+			for (int i = 0; i < nodes.length; i++) {
+				if (nodes[i].getEarliestServiceTime() > nodes[i].getLatestServiceTime()) {
+					return false;
+				}
+			}
+			for (Truck truck : trucks) {
+				if (truck.getOrigin(nodes).getEarliestServiceTime() > truck.getOrigin(nodes).getLatestServiceTime()
+						|| truck.getDestination(nodes).getEarliestServiceTime() > truck.getDestination(nodes)
+								.getLatestServiceTime()) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Check whether vehicle k is the first vehicle that starts (or ends) at
+	 * its origin (or destination) depot.
+	 */
+	private boolean isFirstUser(int k, boolean origin) {
+		Node depot = origin ? trucks[k].getOrigin(nodes) : trucks[k].getDestination(nodes);
+		for (int h = 0; h < k; h++) {
+			if ((origin ? trucks[h].getOrigin(nodes) : trucks[h].getDestination(nodes)) == depot) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Tighten the window of an origin depot with all vehicles that start
+	 * there: They do not need to leave before the first pick-up is possible
+	 * and, because of the maximal tour duration B_2n+1 - B_0 <= T, not
+	 * before their destination depot opens minus T.
+	 * @return True if the window changed.
+	 */
+	private boolean tightenOrigin(Node origin) {
+		double earliestStart = Double.MAX_VALUE;
+		double latestStart = -Double.MAX_VALUE;
+		double earliestTour = Double.MAX_VALUE;
+		for (Truck truck : trucks) {
+			if (truck.getOrigin(nodes) != origin) {
+				continue;
+			}
+			for (int i = 1; i <= n; i++) {
+				earliestStart = Math.min(earliestStart, nodes[i].getEarliestServiceTime() - truck.travel(t, 0, i));
+				latestStart = Math.max(latestStart, nodes[i].getLatestServiceTime() - truck.travel(t, 0, i));
+			}
+			earliestTour = Math.min(earliestTour,
+					truck.getDestination(nodes).getEarliestServiceTime() - truck.getMaxTourTime());
+		}
+		boolean changed = false;
+		if (n > 0) {
+			changed |= raiseEarliest(origin, earliestStart);
+			changed |= lowerLatest(origin, latestStart);
+		}
+		changed |= raiseEarliest(origin, earliestTour);
+		return changed;
+	}
+
+	/**
+	 * Tighten the window of a destination depot with all vehicles that end
+	 * there: They do not arrive after the last drop-off and not later than
+	 * their origin depot closes plus T.
+	 * @return True if the window changed.
+	 */
+	private boolean tightenDestination(Node destination) {
+		double earliestEnd = Double.MAX_VALUE;
+		double latestEnd = -Double.MAX_VALUE;
+		double latestTour = -Double.MAX_VALUE;
+		for (Truck truck : trucks) {
+			if (truck.getDestination(nodes) != destination) {
+				continue;
+			}
+			for (int i = n + 1; i <= 2 * n; i++) {
+				double end = nodes[i].getServiceDuration() + truck.travel(t, i, 2 * n + 1);
+				earliestEnd = Math.min(earliestEnd, nodes[i].getEarliestServiceTime() + end);
+				latestEnd = Math.max(latestEnd, nodes[i].getLatestServiceTime() + end);
+			}
+			latestTour = Math.max(latestTour,
+					truck.getOrigin(nodes).getLatestServiceTime() + truck.getMaxTourTime());
+		}
+		boolean changed = false;
+		if (n > 0) {
+			changed |= raiseEarliest(destination, earliestEnd);
+			changed |= lowerLatest(destination, latestEnd);
+		}
+		changed |= lowerLatest(destination, latestTour);
+		return changed;
+	}
+
+	/**
+	 * Determine all arcs that can be part of a feasible solution.</br>
+	 * An arc (i,j) is removed if
+	 * <ul>
+	 * <li>it enters the origin depot or leaves the destination depot,</li>
+	 * <li>it is one of (0,n+i), (i,2n+1) or (n+i,i),</li>
+	 * <li>e_i + d_i + t_ij > l_j (time windows),</li>
+	 * <li>q_i + q_j > Q for two pick-up nodes (capacity),</li>
+	 * <li>a user on board would exceed the ride time L (ride time),</li>
+	 * <li>all paths through i, j, their partners that contain the arc
+	 * are infeasible (pairing).</li>
+	 * </ul>
+	 * @return feasible[i][j] is true if the arc (i,j) is kept.
+	 */
+	public boolean[][] eliminateArcs() {
+		int size = nodes.length;
+		int destination = 2 * n + 1;
+		boolean[][] feasible = new boolean[size][size];
+		removedArcs = 0;
+
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				if (i == j) {
+					continue;
+				}
+				feasible[i][j] = isFeasible(i, j, destination);
+				if (!feasible[i][j]) {
+					removedArcs++;
+				}
+			}
+		}
+		return feasible;
+	}
+
+	/**
+	 * Check a single arc against all elimination rules.
+	 */
+	private boolean isFeasible(int i, int j, int destination) {
+		// Depots: Routes start at 0 and end at 2n+1.
+		if (j == 0 || i == destination) {
+			return false;
+		}
+		if (i == 0 && j == destination) {
+			return true;
+		}
+		// Priority: (0,n+i), (i,2n+1) and (n+i,i).
+		if (i == 0 && isDropoff(j)) {
+			return false;
+		}
+		if (j == destination && isPickup(i)) {
+			return false;
+		}
+		if (isDropoff(i) && j == i - n) {
+			return false;
+		}
+		// Time windows, arcs of the depots for at least one vehicle.
+		if (i == 0 || j == destination) {
+			boolean reachable = false;
+			for (Truck truck : trucks) {
+				reachable |= isTimeFeasible(i, j, truck);
+			}
+			if (!reachable) {
+				return false;
+			}
+		} else if (nodes[i].getEarliestServiceTime() + nodes[i].getServiceDuration() + t.get(i, j) > nodes[j]
+				.getLatestServiceTime()) {
+			return false;
+		}
+		// Capacity.
+		if (isPickup(i) && isPickup(j) && nodes[i].getLoad() + nodes[j].getLoad() > capacity) {
+			return false;
+		}
+		if (i == 0 || j == destination) {
+			return true;
+		}
+		// Ride time: user i rides over j to n+i, user j-n rides from j-n over i.
+		if (isPickup(i) && j != n + i
+				&& t.get(i, j) + nodes[j].getServiceDuration() + t.get(j, n + i) > maxRideTime) {
+			return false;
+		}
+		if (isDropoff(j) && i != j - n
+				&& t.get(j - n, i) + nodes[i].getServiceDuration() + t.get(i, j) > maxRideTime) {
+			return false;
+		}
+		// Pairing.
+		if (isPickup(i) && isDropoff(j) && j != n + i) {
+			// (i,n+j): path (j,i,n+j,n+i) must be feasible.
+			int other = j - n;
+			return isFeasiblePath(other, i, j, n + i);
+		}
+		if (isDropoff(i) && isPickup(j)) {
+			// (n+i,j): path (i,n+i,j,n+j) must be feasible.
+			return isFeasiblePath(i - n, i, j, n + j);
+		}
+		if (isPickup(i) && isPickup(j)) {
+			// (i,j): path (i,j,n+i,n+j) or (i,j,n+j,n+i) must be feasible.
+			return isFeasiblePath(i, j, n + i, n + j) || isFeasiblePath(i, j, n + j, n + i);
+		}
+		if (isDropoff(i) && isDropoff(j)) {
+			// (n+i,n+j): path (i,j,n+i,n+j) or (j,i,n+i,n+j) must be feasible.
+			return isFeasiblePath(i - n, j - n, i, j) || isFeasiblePath(j - n, i - n, i, j);
+		}
+		return true;
+	}
+
+	/**
+	 * Determine for every vehicle the arcs of the graph it can use. Only
+	 * needed for a heterogeneous fleet, identical vehicles can use the same
+	 * arcs.</br>
+	 * Vehicle k can not use an arc (i,j) of the graph if
+	 * <ul>
+	 * <li>it can not serve the user of i or j: q_i > Q_k, or its shift
+	 * (the windows of its depots) or its maximal tour duration T_k is too
+	 * short for the route 0, i, n+i, 2n+1 alone,</li>
+	 * <li>it can not reach j from its origin depot or its destination
+	 * depot from i in time,</li>
+	 * <li>q_i + q_j > Q_k for two pick-up nodes.</li>
+	 * </ul>
+	 * The arc (0,2n+1) of an unused vehicle is always kept.
+	 * @param graph The arcs left by {@link #eliminateArcs()}.
+	 * @return usable[a][k] is true if vehicle k can use the arc a.
+	 */
+	public boolean[][] eliminateVehicleArcs(ArcGraph graph) {
+		int destination = 2 * n + 1;
+		boolean[][] servable = new boolean[trucks.length][nodes.length];
+		for (int k = 0; k < trucks.length; k++) {
+			servable[k][0] = true;
+			servable[k][destination] = true;
+			for (int i = 1; i <= n; i++) {
+				servable[k][i] = canServe(i, trucks[k]);
+				servable[k][n + i] = servable[k][i];
+			}
+		}
+
+		boolean[][] usable = new boolean[graph.getArcCount()][trucks.length];
+		removedVehicleArcs = 0;
+		for (int a = 0; a < graph.getArcCount(); a++) {
+			int i = graph.getTail(a);
+			int j = graph.getHead(a);
+			for (int k = 0; k < trucks.length; k++) {
+				Truck truck = trucks[k];
+				if (i == 0 && j == destination) {
+					usable[a][k] = true;
+				} else {
+					usable[a][k] = servable[k][i] && servable[k][j] && isTimeFeasible(i, j, truck)
+							&& !(isPickup(i) && isPickup(j)
+									&& nodes[i].getLoad() + nodes[j].getLoad() > truck.getCapacity());
+				}
+				if (!usable[a][k]) {
+					removedVehicleArcs++;
+				}
+			}
+		}
+		return usable;
+	}
+
+	/**
+	 * Build the conflict graph of the users: Two users i and j are in
+	 * conflict if none of the six orders of i, n+i, j and n+j with every
+	 * pick-up before its drop-off is a feasible path (see
+	 * {@link #isFeasiblePath(int, int, int, int)}), so no vehicle can serve
+	 * both. Should be called after {@link #tightenTimeWindows()}.
+	 * @return The conflict graph.
+	 */
+	public ConflictGraph buildConflictGraph() {
+		boolean[][] conflicts = new boolean[n + 1][n + 1];
+		for (int i = 1; i <= n; i++) {
+			for (int j = i + 1; j <= n; j++) {
+				boolean compatible = isFeasiblePath(i, n + i, j, n + j) || isFeasiblePath(j, n + j, i, n + i)
+						|| isFeasiblePath(i, j, n + i, n + j) || isFeasiblePath(i, j, n + j, n + i)
+						|| isFeasiblePath(j, i, n + i, n + j) || isFeasiblePath(j, i, n + j, n + i);
+				conflicts[i][j] = !compatible;
+				conflicts[j][i] = !compatible;
+			}
+		}
+		return new ConflictGraph(n, conflicts);
+	}
+
+	/**
+	 * Check whether a vehicle can serve a user on a route without other
+	 * users. The services start as early as possible, the tour duration is
+	 * at least the sum of the travel and service times.
+	 */
+	private boolean canServe(int user, Truck truck) {
+		Node origin = truck.getOrigin(nodes);
+		Node destination = truck.getDestination(nodes);
+		Node pickup = nodes[user];
+		Node dropoff = nodes[n + user];
+		if (pickup.getLoad() > truck.getCapacity()) {
+			return false;
+		}
+		double pickupStart = Math.max(pickup.getEarliestServiceTime(),
+				origin.getEarliestServiceTime() + origin.getServiceDuration() + truck.travel(t, 0, user));
+		double dropoffStart = Math.max(dropoff.getEarliestServiceTime(),
+				pickupStart + pickup.getServiceDuration() + t.get(user, n + user));
+		double end = dropoffStart + dropoff.getServiceDuration() + truck.travel(t, n + user, 2 * n + 1);
+		double duration = origin.getServiceDuration() + truck.travel(t, 0, user) + pickup.getServiceDuration()
+				+ t.get(user, n + user) + dropoff.getServiceDuration() + truck.travel(t, n + user, 2 * n + 1);
+		return pickupStart <= pickup.getLatestServiceTime() && dropoffStart <= dropoff.getLatestServiceTime()
+				&& end <= destination.getLatestServiceTime() && duration <= truck.getMaxTourTime();
+	}
+
+	/**
+	 * Check e_i + d_i + t_ij <= l_j for the depots and travel times of a
+	 * vehicle.
+	 */
+	private boolean isTimeFeasible(int i, int j, Truck truck) {
+		Node from = i == 0 ? truck.getOrigin(nodes) : nodes[i];
+		Node to = j == 2 * n + 1 ? truck.getDestination(nodes) : nodes[j];
+		return from.getEarliestServiceTime() + from.getServiceDuration() + truck.travel(t, i, j) <= to
+				.getLatestServiceTime();
+	}
+
+	/**
+	 * Check whether the path a -> b -> c -> d can be part of a route.</br>
+	 * The service starts as early as possible at every node. Ride times
+	 * are checked with the travel and service times only, so waiting
+	 * times can never make a feasible path infeasible.
+	 */
+	private boolean isFeasiblePath(int a, int b, int c, int d) {
+		int[] path = { a, b, c, d };
+		double[] start = new double[path.length];
+		int load = 0;
+		for (int h = 0; h < path.length; h++) {
+			int node = path[h];
+			if (h == 0) {
+				start[h] = nodes[node].getEarliestServiceTime();
+			} else {
+				int previous = path[h - 1];
+				start[h] = Math.max(nodes[node].getEarliestServiceTime(),
+						start[h - 1] + nodes[previous].getServiceDuration() + t.get(previous, node));
+			}
+			if (start[h] > nodes[node].getLatestServiceTime()) {
+				return false;
+			}
+			load += nodes[node].getLoad();
+			if (load > capacity) {
+				return false;
+			}
+		}
+		// Minimal ride time of every user whose pick-up and drop-off are on the path.
+		for (int h = 0; h < path.length; h++) {
+			if (!isPickup(path[h])) {
+				continue;
+			}
+			double ride = 0;
+			for (int g = h; g + 1 < path.length; g++) {
+				ride += t.get(path[g], path[g + 1]);
+				if (path[g + 1] == path[h] + n) {
+					if (ride > maxRideTime) {
+						return false;
+					}
+					break;
+				}
+				ride += nodes[path[g + 1]].getServiceDuration();
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Raise the earliest service time of a node.
+	 * @return True if the time window changed.
+	 */
+	private boolean raiseEarliest(Node node, double earliest) {
+		if (earliest > node.getEarliestServiceTime() + 1e-9) {
+			node.setEarliestServiceTime(earliest);
+			tightenedWindows++;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Lower the latest service time of a node.
+	 * @return True if the time window changed.
+	 */
+	private boolean lowerLatest(Node node, double latest) {
+		if (latest < node.getLatestServiceTime() - 1e-9) {
+			node.setLatestServiceTime(latest);
+			tightenedWindows++;
+			return true;
+		}
+		return false;
+	}
+
+	private boolean isPickup(int i) {
+		return i >= 1 && i <= n;
+	}
+
+	private boolean isDropoff(int i) {
+		return i > n && i <= 2 * n;
+	}
+
+	/**
+	 * Get the number of time window changes made by {@link #tightenTimeWindows()}.
+	 * @return Number of tightened time windows.
+	 */
+	public int getTightenedWindows() {
+		return tightenedWindows;
+	}
+
+	/**
+	 * Get the number of arcs removed by {@link #eliminateArcs()}.
+	 * @return Number of removed arcs.
+	 */
+	public int getRemovedArcs() {
+		return removedArcs;
+	}
+
+	/**
+	 * Get the number of arc variables x_ijk removed by
+	 * {@link #eliminateVehicleArcs(ArcGraph)}.
+	 * @return Number of removed arc variables.
+	 */
+	public int getRemovedVehicleArcs() {
+		return removedVehicleArcs;
+	}
+
+}
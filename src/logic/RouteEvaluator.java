@@ -0,0 +1,483 @@
+package logic;
+
+/**
+ * Feasibility checks and schedules of single routes for the heuristics.</br>
+ * A route is given as int array of the visited nodes without the depots,
+ * internally position 0 is the origin depot and the last position the
+ * destination depot.
+ * <ul>
+ * <li>{@link #evaluate(int[], Truck)} computes the schedule of a route with
+ * the eight-step evaluation of Cordeau and Laporte (2003): Every service
+ * starts as early as possible, then the departure from the depot and every
+ * pick-up is delayed by its forward time slack to reduce the tour duration
+ * and the ride times. Time windows, capacity, ride times and tour duration
+ * are checked for this schedule.</li>
+ * <li>{@link #load(int[], Truck)} precomputes the earliest and latest service
+ * start, the waiting times and the loads of a route. Afterwards
+ * {@link #canInsert(int, int, int)} decides in constant time whether a user
+ * can be inserted without violating time windows and capacity, and
+ * {@link #canRemove(int)} whether the schedule stays valid without a user.
+ * Ride times and tour duration of an insertion are checked by
+ * {@link #evaluateInsertion(int, int, int)}.</li>
+ * </ul>
+ * Node 0 and 2n+1 stand for the depots of the vehicle that drives the
+ * route, which may have own depots and shifts (see {@link Truck}).</br>
+ * All arrays are allocated in the constructor, the checks create no objects.
+ *
+ */
+public class RouteEvaluator {
+
+	/**
+	 * Tolerance for the comparison of times.
+	 */
+	private static final double EPSILON = 1e-6;
+
+	/**
+	 * Array containing all nodes.
+	 */
+	private final Node[] nodes;
+	/**
+	 * Number of users (number of pick-up locations).
+	 */
+	private final int n;
+	/**
+	 * Maximum ride time L of a user.
+	 */
+	private final double maxRideTime;
+	/**
+	 * The travel time between node i and node j.
+	 */
+	private final TravelMatrix t;
+
+	/**
+	 * Nodes of the loaded route including both depots.
+	 */
+	private final int[] route;
+	/**
+	 * Position of the destination depot in the loaded route.
+	 */
+	private int last;
+	/**
+	 * The vehicle of the loaded route.
+	 */
+	private Truck truck;
+	/**
+	 * The vehicle of the route that is scheduled by
+	 * {@link #schedule(int[], int, int[], double[], Truck)}.
+	 */
+	private Truck scheduled;
+	/**
+	 * True if the loaded route is feasible.
+	 */
+	private boolean loaded;
+	/**
+	 * Position of every node in the loaded route.
+	 */
+	private final int[] routePosition;
+	/**
+	 * Earliest service start at every position of the loaded route.
+	 */
+	private final double[] earliest;
+	/**
+	 * Latest service start at every position, so that all following
+	 * time windows can still be met.
+	 */
+	private final double[] latest;
+	/**
+	 * Waiting time summed up to every position of the earliest schedule.
+	 */
+	private final double[] waiting;
+	/**
+	 * Load of the vehicle after leaving every position.
+	 */
+	private final int[] load;
+	/**
+	 * Schedule of the loaded route from the eight-step evaluation.
+	 */
+	private final double[] routeStart;
+	/**
+	 * maxLoad[k][p] is the highest load between position p and p+2^k-1.
+	 */
+	private final int[][] maxLoad;
+	/**
+	 * minSlack[k][p] is the lowest value of l_j - earliest_j + waiting_j
+	 * between position p and p+2^k-1.
+	 */
+	private final double[][] minSlack;
+
+	/**
+	 * Nodes of the last evaluated route including both depots.
+	 */
+	private final int[] stops;
+	/**
+	 * Position of every node in the last evaluated route.
+	 */
+	private final int[] stopPosition;
+	/**
+	 * Schedule of the last evaluated route.
+	 */
+	private final double[] start;
+
+	/**
+	 * Constructor for a new evaluator.
+	 * @param nodes Array containing all nodes.
+	 * @param n Number of users.
+	 * @param maxRideTime Maximum ride time L of a user.
+	 * @param t The travel time between node i and node j.
+	 */
+	public RouteEvaluator(Node[] nodes, int n, double maxRideTime, TravelMatrix t) {
+		super();
+		this.nodes = nodes;
+		this.n = n;
+		this.maxRideTime = maxRideTime;
+		this.t = t;
+
+		int size = 2 * n + 2;
+		int levels = 32 - Integer.numberOfLeadingZeros(size);
+		route = new int[size];
+		routePosition = new int[size];
+		earliest = new double[size];
+		latest = new double[size];
+		waiting = new double[size];
+		load = new int[size];
+		routeStart = new double[size];
+		maxLoad = new int[levels][size];
+		minSlack = new double[levels][size];
+		stops = new int[size];
+		stopPosition = new int[size];
+		start = new double[size];
+	}
+
+	/**
+	 * Check a route with the eight-step evaluation. The schedule is
+	 * available via {@link #getServiceStart(int)} afterwards.
+	 * @param nodesOfRoute The nodes of the route without depots.
+	 * @param truck The vehicle that drives the route.
+	 * @return True if the route is feasible.
+	 */
+	public boolean evaluate(int[] nodesOfRoute, Truck truck) {
+		stops[0] = 0;
+		for (int position = 0; position < nodesOfRoute.length; position++) {
+			stops[position + 1] = nodesOfRoute[position];
+		}
+		stops[nodesOfRoute.length + 1] = 2 * n + 1;
+		return schedule(stops, nodesOfRoute.length + 1, stopPosition, start, truck);
+	}
+
+	/**
+	 * Get the service start of the route checked last by
+	 * {@link #evaluate(int[], Truck)} or {@link #evaluateInsertion(int, int, int)}.
+	 * @param position 0 for the origin depot, 1..length for the nodes of the
+	 *            route, length+1 for the destination depot.
+	 * @return The service start B at this position.
+	 */
+	public double getServiceStart(int position) {
+		return start[position];
+	}
+
+	/**
+	 * Load a route for the insertion and removal checks.
+	 * @param nodesOfRoute The nodes of the route without depots.
+	 * @param truck The vehicle that drives the route.
+	 * @return True if the route is feasible.
+	 */
+	public boolean load(int[] nodesOfRoute, Truck truck) {
+		this.truck = truck;
+		last = nodesOfRoute.length + 1;
+		route[0] = 0;
+		for (int position = 0; position < nodesOfRoute.length; position++) {
+			route[position + 1] = nodesOfRoute[position];
+		}
+		route[last] = 2 * n + 1;
+
+		// Earliest schedule forward, latest schedule backward.
+		earliest[0] = node(truck, 0).getEarliestServiceTime();
+		waiting[0] = 0;
+		load[0] = node(truck, 0).getLoad();
+		for (int j = 1; j <= last; j++) {
+			int previous = route[j - 1];
+			double arrival = earliest[j - 1] + node(truck, previous).getServiceDuration()
+					+ travel(truck, previous, route[j]);
+			earliest[j] = Math.max(node(truck, route[j]).getEarliestServiceTime(), arrival);
+			waiting[j] = waiting[j - 1] + earliest[j] - arrival;
+			load[j] = load[j - 1] + node(truck, route[j]).getLoad();
+		}
+		latest[last] = node(truck, route[last]).getLatestServiceTime();
+		for (int j = last - 1; j >= 0; j--) {
+			latest[j] = Math.min(node(truck, route[j]).getLatestServiceTime(),
+					latest[j + 1] - travel(truck, route[j], route[j + 1])
+							- node(truck, route[j]).getServiceDuration());
+		}
+
+		// Tables for range minimum and maximum queries.
+		for (int j = 0; j <= last; j++) {
+			maxLoad[0][j] = load[j];
+			minSlack[0][j] = node(truck, route[j]).getLatestServiceTime() - earliest[j] + waiting[j];
+		}
+		for (int k = 1; (1 << k) <= last + 1; k++) {
+			int half = 1 << (k - 1);
+			for (int j = 0; j + (1 << k) <= last + 1; j++) {
+				maxLoad[k][j] = Math.max(maxLoad[k - 1][j], maxLoad[k - 1][j + half]);
+				minSlack[k][j] = Math.min(minSlack[k - 1][j], minSlack[k - 1][j + half]);
+			}
+		}
+
+		loaded = schedule(route, last, routePosition, routeStart, truck);
+		return loaded;
+	}
+
+	/**
+	 * Check in constant time whether a user can be inserted into the loaded
+	 * route without violating time windows or the capacity. The positions
+	 * are the positions of i and n+i in the new route without depots.
+	 * @param user The user i.
+	 * @param pickupPosition Position of i in the new route.
+	 * @param dropoffPosition Position of n+i in the new route (larger than pickupPosition).
+	 * @return True if a schedule exists that meets all time windows and the capacity.
+	 */
+	public boolean canInsert(int user, int pickupPosition, int dropoffPosition) {
+		if (!loaded) {
+			return false;
+		}
+		Node pickup = nodes[user];
+		Node dropoff = nodes[n + user];
+		// i follows position p, n+i follows position q of the loaded route.
+		int p = pickupPosition;
+		int q = dropoffPosition - 1;
+
+		if (rangeMaxLoad(p, q) + pickup.getLoad() > truck.getCapacity()) {
+			return false;
+		}
+		double pickupStart = Math.max(pickup.getEarliestServiceTime(),
+				earliest[p] + node(truck, route[p]).getServiceDuration() + travel(truck, route[p], user));
+		if (pickupStart > pickup.getLatestServiceTime() + EPSILON) {
+			return false;
+		}
+
+		int previous = user;
+		double previousStart = pickupStart;
+		if (q > p) {
+			// Push the nodes between i and n+i forward, the waiting times absorb the push.
+			int b = p + 1;
+			double push = pickupStart + pickup.getServiceDuration() + travel(truck, user, route[b]) - earliest[b];
+			if (push > rangeMinSlack(b, q) - waiting[b] + EPSILON) {
+				return false;
+			}
+			previous = route[q];
+			previousStart = earliest[q] + Math.max(0, push - (waiting[q] - waiting[b]));
+		}
+		double dropoffStart = Math.max(dropoff.getEarliestServiceTime(),
+				previousStart + node(truck, previous).getServiceDuration() + travel(truck, previous, n + user));
+		return dropoffStart <= dropoff.getLatestServiceTime() + EPSILON && dropoffStart
+				+ dropoff.getServiceDuration() + travel(truck, n + user, route[q + 1]) <= latest[q + 1] + EPSILON;
+	}
+
+	/**
+	 * Check the loaded route with a user inserted with the eight-step
+	 * evaluation. The schedule is available via {@link #getServiceStart(int)}.
+	 * @param user The user i.
+	 * @param pickupPosition Position of i in the new route.
+	 * @param dropoffPosition Position of n+i in the new route (larger than pickupPosition).
+	 * @return True if the new route is feasible.
+	 */
+	public boolean evaluateInsertion(int user, int pickupPosition, int dropoffPosition) {
+		if (!loaded) {
+			return false;
+		}
+		int to = 0;
+		for (int j = 0; j <= last; j++) {
+			stops[to++] = route[j];
+			if (j == pickupPosition) {
+				stops[to++] = user;
+			}
+			if (j == dropoffPosition - 1) {
+				stops[to++] = n + user;
+			}
+		}
+		return schedule(stops, last + 2, stopPosition, start, truck);
+	}
+
+	/**
+	 * Check in constant time whether the schedule of the loaded route stays
+	 * feasible if a user is removed. A false result does not prove that the
+	 * route without the user is infeasible.
+	 * @param user The user i of the loaded route.
+	 * @return True if the route without i and n+i is feasible.
+	 */
+	public boolean canRemove(int user) {
+		if (!loaded) {
+			return false;
+		}
+		int pickup = routePosition[user];
+		int dropoff = routePosition[n + user];
+		if (dropoff == pickup + 1) {
+			return canSkip(pickup - 1, dropoff + 1);
+		}
+		return canSkip(pickup - 1, pickup + 1) && canSkip(dropoff - 1, dropoff + 1);
+	}
+
+	/**
+	 * Check whether the vehicle can drive directly between two positions
+	 * of the loaded route without changing the schedule.
+	 */
+	private boolean canSkip(int from, int to) {
+		return routeStart[from] + node(truck, route[from]).getServiceDuration()
+				+ travel(truck, route[from], route[to]) <= routeStart[to] + EPSILON;
+	}
+
+	/**
+	 * The eight-step evaluation of a route.
+	 * @param stops Nodes of the route including both depots.
+	 * @param last Position of the destination depot.
+	 * @param position Filled with the position of every node of the route.
+	 * @param start Filled with the service start at every position.
+	 * @param truck The vehicle that drives the route.
+	 * @return True if the route is feasible.
+	 */
+	private boolean schedule(int[] stops, int last, int[] position, double[] start, Truck truck) {
+		scheduled = truck;
+		int vehicleLoad = 0;
+		for (int j = 0; j <= last; j++) {
+			position[stops[j]] = j;
+			vehicleLoad += node(scheduled, stops[j]).getLoad();
+			if (vehicleLoad > truck.getCapacity()) {
+				return false;
+			}
+		}
+
+		// Step 1 and 2: Start every service as early as possible.
+		start[0] = node(scheduled, stops[0]).getEarliestServiceTime();
+		if (!propagate(stops, last, start, 0)) {
+			return false;
+		}
+		// Step 3 to 5: Leave the depot as late as possible.
+		start[0] += Math.min(forwardTimeSlack(stops, last, position, start, 0), waitingAfter(stops, last, start, 0));
+		propagate(stops, last, start, 0);
+		// Step 6 and 7: Delay every pick-up to shorten the ride times.
+		for (int j = 1; j < last; j++) {
+			if (stops[j] <= n) {
+				start[j] += Math.min(forwardTimeSlack(stops, last, position, start, j),
+						waitingAfter(stops, last, start, j));
+				propagate(stops, last, start, j);
+			}
+		}
+
+		// Step 8: Check time windows, ride times and tour duration.
+		for (int j = 0; j <= last; j++) {
+			int node = stops[j];
+			if (start[j] > node(scheduled, node).getLatestServiceTime() + EPSILON) {
+				return false;
+			}
+			if (node > n && node <= 2 * n && rideTime(stops, position, start, j) > maxRideTime + EPSILON) {
+				return false;
+			}
+		}
+		return start[last] - start[0] <= truck.getMaxTourTime() + EPSILON;
+	}
+
+	/**
+	 * Start the services after a position as early as possible.
+	 * @return False if a time window is violated.
+	 */
+	private boolean propagate(int[] stops, int last, double[] start, int from) {
+		boolean feasible = true;
+		for (int j = from + 1; j <= last; j++) {
+			int previous = stops[j - 1];
+			int node = stops[j];
+			start[j] = Math.max(node(scheduled, node).getEarliestServiceTime(),
+					start[j - 1] + node(scheduled, previous).getServiceDuration()
+							+ travel(scheduled, previous, node));
+			feasible &= start[j] <= node(scheduled, node).getLatestServiceTime() + EPSILON;
+		}
+		return feasible;
+	}
+
+	/**
+	 * Get the waiting time before the service at a position.
+	 */
+	private double waitingAt(int[] stops, double[] start, int j) {
+		int previous = stops[j - 1];
+		return start[j] - start[j - 1] - node(scheduled, previous).getServiceDuration()
+				- travel(scheduled, previous, stops[j]);
+	}
+
+	/**
+	 * Get the sum of the waiting times after a position.
+	 */
+	private double waitingAfter(int[] stops, int last, double[] start, int i) {
+		double sum = 0;
+		for (int j = i + 1; j <= last; j++) {
+			sum += waitingAt(stops, start, j);
+		}
+		return sum;
+	}
+
+	/**
+	 * Get the ride time of the user whose drop-off is at a position.
+	 */
+	private double rideTime(int[] stops, int[] position, double[] start, int j) {
+		int origin = position[stops[j] - n];
+		return start[j] - start[origin] - node(scheduled, stops[origin]).getServiceDuration();
+	}
+
+	/**
+	 * Get the forward time slack of a position: How long the service can be
+	 * delayed without violating a time window or the ride time of a user
+	 * that is already in the vehicle.
+	 */
+	private double forwardTimeSlack(int[] stops, int last, int[] position, double[] start, int i) {
+		double waited = 0;
+		double slack = Double.MAX_VALUE;
+		for (int j = i; j <= last; j++) {
+			if (j > i) {
+				waited += waitingAt(stops, start, j);
+			}
+			int node = stops[j];
+			double own = node(scheduled, node).getLatestServiceTime() - start[j];
+			if (node > n && node <= 2 * n && position[node - n] < i) {
+				own = Math.min(own, maxRideTime - rideTime(stops, position, start, j));
+			}
+			slack = Math.min(slack, waited + Math.max(0, own));
+		}
+		return slack;
+	}
+
+	/**
+	 * Get a node as seen by a vehicle: Its own depots replace node 0 and
+	 * node 2n+1.
+	 */
+	private Node node(Truck vehicle, int i) {
+		if (i == 0) {
+			return vehicle.getOrigin(nodes);
+		}
+		if (i == 2 * n + 1) {
+			return vehicle.getDestination(nodes);
+		}
+		return nodes[i];
+	}
+
+	/**
+	 * Get the travel time of a vehicle from node i to node j.
+	 */
+	private double travel(Truck vehicle, int i, int j) {
+		return vehicle.travel(t, i, j);
+	}
+
+	/**
+	 * Get the highest load of the loaded route between two positions.
+	 */
+	private int rangeMaxLoad(int from, int to) {
+		int k = 31 - Integer.numberOfLeadingZeros(to - from + 1);
+		return Math.max(maxLoad[k][from], maxLoad[k][to - (1 << k) + 1]);
+	}
+
+	/**
+	 * Get the lowest value of l_j - earliest_j + waiting_j of the loaded
+	 * route between two positions.
+	 */
+	private double rangeMinSlack(int from, int to) {
+		int k = 31 - Integer.numberOfLeadingZeros(to - from + 1);
+		return Math.min(minSlack[k][from], minSlack[k][to - (1 << k) + 1]);
+	}
+
+}
@@ -0,0 +1,125 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parameters of the search of a MILP solver that change its path through
+ * the branch-and-bound tree, but not the model. Workers of a
+ * {@link PortfolioSolver} are diversified with different strategies.
+ *
+ */
+public class SearchStrategy {
+
+	/**
+	 * Name of the strategy in the output.
+	 */
+	private final String name;
+	/**
+	 * Seed of the random decisions of the solver.
+	 */
+	private final int randomSeed;
+	/**
+	 * What the search concentrates on.
+	 */
+	private final MipEmphasis emphasis;
+	/**
+	 * Aggressiveness of the cuts of the solver: -1 off, 0 default, 1
+	 * moderate, 2 aggressive.
+	 */
+	private final int cutLevel;
+	/**
+	 * True if the valid inequalities of the paper are also separated on
+	 * fractional solutions (user cuts).
+	 */
+	private final boolean userCuts;
+
+	/**
+	 * Constructor for a new strategy.
+	 * @param name Name of the strategy in the output.
+	 * @param randomSeed Seed of the random decisions of the solver.
+	 * @param emphasis What the search concentrates on.
+	 * @param cutLevel Cuts of the solver: -1 off, 0 default, 1 moderate, 2 aggressive.
+	 * @param userCuts True if user cuts are separated on fractional solutions.
+	 */
+	public SearchStrategy(String name, int randomSeed, MipEmphasis emphasis, int cutLevel, boolean userCuts) {
+		super();
+		this.name = name;
+		this.randomSeed = randomSeed;
+		this.emphasis = emphasis;
+		this.cutLevel = cutLevel;
+		this.userCuts = userCuts;
+	}
+
+	/**
+	 * Get diversified strategies for a portfolio. The first strategy is
+	 * the default of the solver, the following ones vary emphasis and cuts
+	 * and, once all combinations are used, the random seed.
+	 * @param count Number of strategies.
+	 * @return The strategies.
+	 */
+	public static List<SearchStrategy> diversified(int count) {
+		SearchStrategy[] presets = {
+				new SearchStrategy("default", 0, MipEmphasis.BALANCED, 0, true),
+				new SearchStrategy("feasibility", 0, MipEmphasis.FEASIBILITY, 0, true),
+				new SearchStrategy("optimality", 0, MipEmphasis.OPTIMALITY, 2, true),
+				new SearchStrategy("lazy only", 0, MipEmphasis.BALANCED, 1, false),
+				new SearchStrategy("aggressive cuts", 0, MipEmphasis.BALANCED, 2, true),
+				new SearchStrategy("dive", 0, MipEmphasis.FEASIBILITY, -1, false) };
+		List<SearchStrategy> strategies = new ArrayList<SearchStrategy>();
+		for (int s = 0; s < count; s++) {
+			SearchStrategy preset = presets[s % presets.length];
+			int round = s / presets.length;
+			strategies.add(round == 0 ? preset
+					: new SearchStrategy(preset.name + " #" + round, round, preset.emphasis, preset.cutLevel,
+							preset.userCuts));
+		}
+		return strategies;
+	}
+
+	/**
+	 * Get the name of the strategy.
+	 * @return The name.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Get the seed of the random decisions of the solver.
+	 * @return The seed, 0 for the default of the solver.
+	 */
+	public int getRandomSeed() {
+		return randomSeed;
+	}
+
+	/**
+	 * Get what the search concentrates on.
+	 * @return The emphasis.
+	 */
+	public MipEmphasis getEmphasis() {
+		return emphasis;
+	}
+
+	/**
+	 * Get the aggressiveness of the cuts of the solver.
+	 * @return -1 off, 0 default, 1 moderate, 2 aggressive.
+	 */
+	public int getCutLevel() {
+		return cutLevel;
+	}
+
+	/**
+	 * Check whether the valid inequalities are separated on fractional solutions.
+	 * @return True if user cuts are separated.
+	 */
+	public boolean isUserCuts() {
+		return userCuts;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+
+}
@@ -0,0 +1,153 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Connects the {@link CutSeparator} to the {@link MipBackend}.</br>
+ * The arc variables x_ijk are read in one call, aggregated over all
+ * vehicles and the separated cuts are returned to the backend, which
+ * adds them as user cuts (fractional points) or lazy constraints
+ * (integer points).
+ *
+ */
+public class Separation implements SeparationCallback {
+
+	/**
+	 * The arcs of the graph.
+	 */
+	private final ArcGraph graph;
+	/**
+	 * The column of the decision variable x[a][k].
+	 */
+	private final int[][] x;
+	/**
+	 * All existing arc variables in one array.
+	 */
+	private final int[] columns;
+	/**
+	 * Start node of the arc of every variable in {@link #columns}.
+	 */
+	private final int[] tails;
+	/**
+	 * End node of the arc of every variable in {@link #columns}.
+	 */
+	private final int[] heads;
+	/**
+	 * The separation heuristics.
+	 */
+	private final CutSeparator separator;
+	/**
+	 * Number of cuts added to the model per cut type.
+	 */
+	private final long[] addedCuts = new long[CutType.values().length];
+
+	/**
+	 * Constructor for a new connection between separator and backend.
+	 * @param graph The arcs of the graph.
+	 * @param x The column of the decision variable x[a][k], -1 if vehicle k can not use the arc a.
+	 * @param separator The separation heuristics.
+	 */
+	public Separation(ArcGraph graph, int[][] x, CutSeparator separator) {
+		super();
+		this.graph = graph;
+		this.x = x;
+		this.separator = separator;
+
+		int count = 0;
+		for (int a = 0; a < x.length; a++) {
+			for (int k = 0; k < x[a].length; k++) {
+				count += x[a][k] >= 0 ? 1 : 0;
+			}
+		}
+		columns = new int[count];
+		tails = new int[count];
+		heads = new int[count];
+		count = 0;
+		for (int a = 0; a < x.length; a++) {
+			for (int k = 0; k < x[a].length; k++) {
+				if (x[a][k] < 0) {
+					continue;
+				}
+				columns[count] = x[a][k];
+				tails[count] = graph.getTail(a);
+				heads[count] = graph.getHead(a);
+				count++;
+			}
+		}
+	}
+
+	/**
+	 * Get the columns whose values {@link #separate(double[], boolean)} needs.
+	 * @return All arc variables.
+	 */
+	public int[] getColumns() {
+		return columns;
+	}
+
+	/**
+	 * Get the number of cuts added to the model.
+	 * @param type The family of the cuts.
+	 * @return Number of added cuts of this family.
+	 */
+	public synchronized long getAddedCuts(CutType type) {
+		return addedCuts[type.ordinal()];
+	}
+
+	@Override
+	public List<LinearConstraint> separate(double[] values, boolean integral) {
+		double[][] xbar = aggregate(values);
+		List<Cut> cuts = integral ? separator.separateIntegral(xbar) : separator.separate(xbar);
+		List<LinearConstraint> constraints = new ArrayList<LinearConstraint>(cuts.size());
+		for (Cut cut : cuts) {
+			constraints.add(toConstraint(cut));
+			count(cut);
+		}
+		return constraints;
+	}
+
+	/**
+	 * Sum the values of the arc variables over all vehicles.
+	 * @param values Values of {@link #columns}.
+	 * @return xbar[i][j] = sum over k of x_ijk.
+	 */
+	private double[][] aggregate(double[] values) {
+		double[][] xbar = new double[graph.getNodeCount()][graph.getNodeCount()];
+		for (int v = 0; v < values.length; v++) {
+			xbar[tails[v]][heads[v]] += values[v];
+		}
+		return xbar;
+	}
+
+	/**
+	 * Translate a cut on the aggregated arc values into a constraint
+	 * by replacing x_ij with the sum over all vehicles.
+	 * @param cut The separated cut.
+	 * @return The constraint sum(a_ij * x_ijk) <= rhs.
+	 */
+	private LinearConstraint toConstraint(Cut cut) {
+		LinearExpression expr = new LinearExpression();
+		for (int term = 0; term < cut.size(); term++) {
+			// Arcs removed by the preprocessing are zero anyway.
+			int arc = graph.findArc(cut.getTail(term), cut.getHead(term));
+			if (arc < 0) {
+				continue;
+			}
+			for (int k = 0; k < x[arc].length; k++) {
+				if (x[arc][k] >= 0) {
+					expr.addTerm(cut.getCoefficient(term), x[arc][k]);
+				}
+			}
+		}
+		return new LinearConstraint(Double.NEGATIVE_INFINITY, expr, cut.getRhs());
+	}
+
+	/**
+	 * Count an added cut.
+	 * @param cut The cut added to the model.
+	 */
+	private synchronized void count(Cut cut) {
+		addedCuts[cut.getType().ordinal()]++;
+	}
+
+}
@@ -0,0 +1,22 @@
+package logic;
+
+import java.util.List;
+
+/**
+ * Separates cuts during the branch-and-cut of a {@link MipBackend}.
+ *
+ */
+public interface SeparationCallback {
+
+	/**
+	 * Separate cuts on a solution of a node relaxation. May be called by
+	 * several threads at the same time.
+	 * @param values Values of the columns given to
+	 *            {@link MipBackend#setSeparation(int[], SeparationCallback, boolean)}.
+	 * @param integral True if the solution is integer. The returned cuts are then
+	 *            lazy constraints: The solution is rejected if any cut is returned.
+	 * @return The violated cuts, empty if none was found.
+	 */
+	List<LinearConstraint> separate(double[] values, boolean integral);
+
+}
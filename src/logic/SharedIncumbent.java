@@ -0,0 +1,141 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The best solution of the workers of a {@link PortfolioSolver}.</br>
+ * All workers build the same model, so a solution is the value of every
+ * column. A backend offers every new incumbent and adopts better ones of
+ * the other workers, which tightens its cutoff. {@link #stop()} ends the
+ * search of all workers, e.g. when one of them proved optimality.</br>
+ * A single solve uses it as well to hand its incumbents to an
+ * {@link IncumbentListener} like the {@link CheckpointWriter}.
+ *
+ */
+public class SharedIncumbent {
+
+	/**
+	 * Objective value of the best solution.
+	 */
+	private double objective = Double.POSITIVE_INFINITY;
+	/**
+	 * Values of all columns of the best solution, null if none.
+	 */
+	private double[] values;
+	/**
+	 * Number of improvements so far.
+	 */
+	private int version;
+	/**
+	 * True if the workers should stop.
+	 */
+	private volatile boolean stopped;
+	/**
+	 * Called once when the workers should stop.
+	 */
+	private final List<Runnable> stopListeners = new ArrayList<Runnable>();
+	/**
+	 * Called with every improvement.
+	 */
+	private final List<IncumbentListener> incumbentListeners = new ArrayList<IncumbentListener>();
+
+	/**
+	 * Offer a solution of a worker.
+	 * @param objective Objective value of the solution.
+	 * @param values Values of all columns.
+	 * @return True if the solution is better than the best one.
+	 */
+	public boolean offer(double objective, double[] values) {
+		double[] copy;
+		List<IncumbentListener> listeners;
+		synchronized (this) {
+			if (objective >= this.objective) {
+				return false;
+			}
+			copy = values.clone();
+			this.objective = objective;
+			this.values = copy;
+			version++;
+			listeners = new ArrayList<IncumbentListener>(incumbentListeners);
+		}
+		for (IncumbentListener listener : listeners) {
+			listener.incumbentFound(objective, copy);
+		}
+		return true;
+	}
+
+	/**
+	 * Get the objective value of the best solution.
+	 * @return The value, positive infinity if there is no solution.
+	 */
+	public synchronized double getObjective() {
+		return objective;
+	}
+
+	/**
+	 * Get the best solution. The array must not be changed.
+	 * @return Values of all columns, null if there is no solution.
+	 */
+	public synchronized double[] getValues() {
+		return values;
+	}
+
+	/**
+	 * Get the number of improvements, a cheap check for a new solution.
+	 * @return The version of the best solution.
+	 */
+	public synchronized int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Stop the search of all workers.
+	 */
+	public void stop() {
+		List<Runnable> listeners;
+		synchronized (this) {
+			if (stopped) {
+				return;
+			}
+			stopped = true;
+			listeners = new ArrayList<Runnable>(stopListeners);
+		}
+		for (Runnable listener : listeners) {
+			listener.run();
+		}
+	}
+
+	/**
+	 * Check whether the workers should stop.
+	 * @return True after {@link #stop()}.
+	 */
+	public boolean isStopped() {
+		return stopped;
+	}
+
+	/**
+	 * Register an action that stops a worker. It runs immediately if the
+	 * workers are already stopped.
+	 * @param listener The action.
+	 */
+	public void addStopListener(Runnable listener) {
+		synchronized (this) {
+			if (!stopped) {
+				stopListeners.add(listener);
+				return;
+			}
+		}
+		listener.run();
+	}
+
+	/**
+	 * Register a listener that is called by the offering worker after every
+	 * improvement, outside of the lock.
+	 * @param listener The listener.
+	 */
+	public synchronized void addIncumbentListener(IncumbentListener listener) {
+		incumbentListeners.add(listener);
+	}
+
+}
@@ -0,0 +1,150 @@
+package logic;
+
+/**
+ * An integer solution of the DARP.</br>
+ * Every route is stored as int array of the visited nodes without the
+ * depots together with the service start B of every stop (origin depot,
+ * nodes of the route, destination depot), the load Q after every node
+ * and the ride time L of every user. Solutions are immutable.
+ *
+ */
+public class Solution {
+
+	/**
+	 * Value of the objective function.
+	 */
+	private final double objectiveValue;
+	/**
+	 * The nodes of every route without depots.
+	 */
+	private final int[][] routes;
+	/**
+	 * Service start at the origin depot, every node and the destination depot of every route.
+	 */
+	private final double[][] serviceStarts;
+	/**
+	 * Load of the vehicle after every node of every route.
+	 */
+	private final int[][] loads;
+	/**
+	 * Ride time of every user, index 0 is not used.
+	 */
+	private final double[] rideTimes;
+
+	/**
+	 * Constructor for a new solution. The arrays are copied.
+	 * @param objectiveValue Value of the objective function.
+	 * @param routes The nodes of every route without depots.
+	 * @param serviceStarts Service start at the origin depot, every node and the
+	 *            destination depot of every route.
+	 * @param loads Load of the vehicle after every node of every route.
+	 * @param rideTimes Ride time of every user i at index i.
+	 */
+	public Solution(double objectiveValue, int[][] routes, double[][] serviceStarts, int[][] loads,
+			double[] rideTimes) {
+		super();
+		this.objectiveValue = objectiveValue;
+		this.routes = new int[routes.length][];
+		this.serviceStarts = new double[routes.length][];
+		this.loads = new int[routes.length][];
+		for (int r = 0; r < routes.length; r++) {
+			this.routes[r] = routes[r].clone();
+			this.serviceStarts[r] = serviceStarts[r].clone();
+			this.loads[r] = loads[r].clone();
+		}
+		this.rideTimes = rideTimes.clone();
+	}
+
+	/**
+	 * Get the value of the objective function.
+	 * @return The objective value.
+	 */
+	public double getObjectiveValue() {
+		return objectiveValue;
+	}
+
+	/**
+	 * Get the number of routes.
+	 * @return Number of routes.
+	 */
+	public int getRouteCount() {
+		return routes.length;
+	}
+
+	/**
+	 * Get the nodes of a route.
+	 * @param route Number of the route.
+	 * @return A copy of the visited nodes without depots.
+	 */
+	public int[] getRoute(int route) {
+		return routes[route].clone();
+	}
+
+	/**
+	 * Get the number of nodes of a route (without depots).
+	 * @param route Number of the route.
+	 * @return Number of visited nodes.
+	 */
+	public int getLength(int route) {
+		return routes[route].length;
+	}
+
+	/**
+	 * Get the node at a position of a route.
+	 * @param route Number of the route.
+	 * @param position Position 0..getLength(route)-1.
+	 * @return The visited node.
+	 */
+	public int getNode(int route, int position) {
+		return routes[route][position];
+	}
+
+	/**
+	 * Get the service start at a stop of a route.
+	 * @param route Number of the route.
+	 * @param stop 0 for the origin depot, 1..length for the nodes of the
+	 *            route, length+1 for the destination depot.
+	 * @return The service start B.
+	 */
+	public double getServiceStart(int route, int stop) {
+		return serviceStarts[route][stop];
+	}
+
+	/**
+	 * Get the load of the vehicle after a node of a route.
+	 * @param route Number of the route.
+	 * @param position Position 0..getLength(route)-1.
+	 * @return The load Q after the node.
+	 */
+	public int getLoad(int route, int position) {
+		return loads[route][position];
+	}
+
+	/**
+	 * Get the duration of a route (destination depot minus origin depot).
+	 * @param route Number of the route.
+	 * @return The duration of the route.
+	 */
+	public double getDuration(int route) {
+		double[] start = serviceStarts[route];
+		return start[start.length - 1] - start[0];
+	}
+
+	/**
+	 * Get the number of users the ride times are stored for.
+	 * @return Number of users n.
+	 */
+	public int getUserCount() {
+		return rideTimes.length - 1;
+	}
+
+	/**
+	 * Get the ride time of a user.
+	 * @param user The user i (1..n).
+	 * @return The ride time L_i.
+	 */
+	public double getRideTime(int user) {
+		return rideTimes[user];
+	}
+
+}
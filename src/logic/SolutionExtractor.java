@@ -0,0 +1,278 @@
+package logic;
+
+/**
+ * Reads an integer solution of the model and builds a {@link Solution}.</br>
+ * The variables x[a][k], B[i][k], Q[i][k] and L[i][k] are flattened once,
+ * so a solution is read with one getValues() call per variable array.
+ * The routes are reconstructed from the successor of every node. Arcs a
+ * vehicle can not use (column -1) are left out of the arc variables.
+ * Inside a callback the values are read by the callback itself (see
+ * {@link #getArcVariables()} and the other getters) and passed to
+ * {@link #build(double, double[], double[], double[], double[])}.</br>
+ * In the two-index formulation all routes share B[0][0] and B[2n+1][0],
+ * the depot times of a route are derived from its first and last stop.
+ *
+ */
+public class SolutionExtractor {
+
+	/**
+	 * The arcs of the graph.
+	 */
+	private final ArcGraph graph;
+	/**
+	 * Number of users (number of pick-up locations).
+	 */
+	private final int n;
+	/**
+	 * Number of columns k of the variables.
+	 */
+	private final int columns;
+	/**
+	 * All arc variables, x[a][k] is at index a * columns + k if every
+	 * vehicle can use every arc.
+	 */
+	private final int[] arcVariables;
+	/**
+	 * Index a * columns + k of every arc variable, null if every vehicle
+	 * can use every arc.
+	 */
+	private final int[] arcSlots;
+	/**
+	 * All service start variables, B[i][k] is at index i * columns + k.
+	 */
+	private final int[] startVariables;
+	/**
+	 * All load variables, Q[i][k] is at index i * columns + k.
+	 */
+	private final int[] loadVariables;
+	/**
+	 * All ride time variables, L[i][k] is at index (i - 1) * columns + k.
+	 */
+	private final int[] rideTimeVariables;
+	/**
+	 * The nodes 0..2n+1, null if every column has own depot service starts.
+	 */
+	private final Node[] nodes;
+	/**
+	 * The travel times, null if every column has own depot service starts.
+	 */
+	private final TravelMatrix t;
+
+	/**
+	 * Constructor for a new extractor whose columns have own depot service
+	 * starts B[0][k] and B[2n+1][k].
+	 * @param graph The arcs of the graph.
+	 * @param n Number of users.
+	 * @param x The columns of the decision variable x[a][k].
+	 * @param B The columns of the service start B[i][k].
+	 * @param Q The columns of the load Q[i][k].
+	 * @param L The columns of the ride time L[i][k] (only the rows 1..n are read).
+	 */
+	public SolutionExtractor(ArcGraph graph, int n, int[][] x, int[][] B, int[][] Q, int[][] L) {
+		this(graph, n, x, B, Q, L, null, null);
+	}
+
+	/**
+	 * Constructor for a new extractor. If nodes and travel times are given,
+	 * the depot service starts are shared by all routes (two-index
+	 * formulation): A route leaves the origin depot t_0,first before its
+	 * first stop and reaches the destination depot after its last stop.
+	 * @param graph The arcs of the graph.
+	 * @param n Number of users.
+	 * @param x The columns of the decision variable x[a][k].
+	 * @param B The columns of the service start B[i][k].
+	 * @param Q The columns of the load Q[i][k].
+	 * @param L The columns of the ride time L[i][k] (only the rows 1..n are read).
+	 * @param nodes The nodes 0..2n+1, null for own depot service starts.
+	 * @param t The travel times, null for own depot service starts.
+	 */
+	public SolutionExtractor(ArcGraph graph, int n, int[][] x, int[][] B, int[][] Q, int[][] L, Node[] nodes,
+			TravelMatrix t) {
+		super();
+		this.nodes = nodes;
+		this.t = t;
+		this.graph = graph;
+		this.n = n;
+		this.columns = x[0].length;
+		int[] arcs = flatten(x, 0, x.length);
+		int usable = 0;
+		for (int column : arcs) {
+			usable += column >= 0 ? 1 : 0;
+		}
+		if (usable == arcs.length) {
+			arcVariables = arcs;
+			arcSlots = null;
+		} else {
+			arcVariables = new int[usable];
+			arcSlots = new int[usable];
+			usable = 0;
+			for (int slot = 0; slot < arcs.length; slot++) {
+				if (arcs[slot] >= 0) {
+					arcVariables[usable] = arcs[slot];
+					arcSlots[usable++] = slot;
+				}
+			}
+		}
+		startVariables = flatten(B, 0, B.length);
+		loadVariables = flatten(Q, 0, Q.length);
+		rideTimeVariables = flatten(L, 1, n + 1);
+	}
+
+	/**
+	 * Copy the rows from..to-1 of a variable array into one array.
+	 */
+	private int[] flatten(int[][] variables, int from, int to) {
+		int[] flat = new int[(to - from) * columns];
+		for (int row = from; row < to; row++) {
+			for (int k = 0; k < columns; k++) {
+				flat[(row - from) * columns + k] = variables[row][k];
+			}
+		}
+		return flat;
+	}
+
+	/**
+	 * Read the best solution of the backend.
+	 * @param backend The solved model.
+	 * @return The solution.
+	 * @throws MipException
+	 */
+	public Solution extract(MipBackend backend) throws MipException {
+		return build(backend.getObjValue(), backend.getValues(arcVariables), backend.getValues(startVariables),
+				backend.getValues(loadVariables), backend.getValues(rideTimeVariables));
+	}
+
+	/**
+	 * Build a solution from the values of the variables.
+	 * @param objectiveValue Value of the objective function.
+	 * @param xValues Values of {@link #getArcVariables()}.
+	 * @param bValues Values of {@link #getStartVariables()}.
+	 * @param qValues Values of {@link #getLoadVariables()}.
+	 * @param lValues Values of {@link #getRideTimeVariables()}.
+	 * @return The solution.
+	 */
+	public Solution build(double objectiveValue, double[] xValues, double[] bValues, double[] qValues,
+			double[] lValues) {
+		if (arcSlots != null) {
+			double[] dense = new double[graph.getArcCount() * columns];
+			for (int v = 0; v < arcSlots.length; v++) {
+				dense[arcSlots[v]] = xValues[v];
+			}
+			xValues = dense;
+		}
+		// successor[i * columns + k] is the node after i in column k.
+		int[] successor = new int[graph.getNodeCount() * columns];
+		int routeCount = 0;
+		for (int a = 0; a < graph.getArcCount(); a++) {
+			for (int k = 0; k < columns; k++) {
+				if (xValues[a * columns + k] > 0.5) {
+					successor[graph.getTail(a) * columns + k] = graph.getHead(a);
+					if (graph.getTail(a) == 0) {
+						routeCount++;
+					}
+				}
+			}
+		}
+
+		int[][] routes = new int[routeCount][];
+		double[][] serviceStarts = new double[routeCount][];
+		int[][] loads = new int[routeCount][];
+		double[] rideTimes = new double[n + 1];
+		int[] buffer = new int[2 * n];
+		int route = 0;
+		for (int k = 0; k < columns; k++) {
+			for (int a = graph.outBegin(0); a < graph.outEnd(0); a++) {
+				if (xValues[a * columns + k] <= 0.5) {
+					continue;
+				}
+				// Follow the successors until the destination depot is reached.
+				int length = 0;
+				int node = graph.getHead(a);
+				while (node != 2 * n + 1 && node != 0 && length < buffer.length) {
+					buffer[length++] = node;
+					node = successor[node * columns + k];
+				}
+
+				routes[route] = new int[length];
+				serviceStarts[route] = new double[length + 2];
+				loads[route] = new int[length];
+				serviceStarts[route][0] = originStart(bValues, k, length > 0 ? buffer[0] : 2 * n + 1);
+				for (int position = 0; position < length; position++) {
+					int i = buffer[position];
+					routes[route][position] = i;
+					serviceStarts[route][position + 1] = bValues[i * columns + k];
+					loads[route][position] = (int) Math.round(qValues[i * columns + k]);
+					if (i <= n) {
+						rideTimes[i] = lValues[(i - 1) * columns + k];
+					}
+				}
+				serviceStarts[route][length + 1] = destinationStart(bValues, k, length > 0 ? buffer[length - 1] : 0,
+						serviceStarts[route][0]);
+				route++;
+			}
+		}
+		return new Solution(objectiveValue, routes, serviceStarts, loads, rideTimes);
+	}
+
+	/**
+	 * Get the service start at the origin depot of a route: The latest
+	 * departure that reaches the first stop at its service start if the
+	 * depot times are shared.
+	 */
+	private double originStart(double[] bValues, int k, int first) {
+		if (nodes == null) {
+			return bValues[k];
+		}
+		if (first == 2 * n + 1) {
+			return bValues[0];
+		}
+		double departure = bValues[first] - nodes[0].getServiceDuration() - t.get(0, first);
+		return Math.min(Math.max(departure, nodes[0].getEarliestServiceTime()), nodes[0].getLatestServiceTime());
+	}
+
+	/**
+	 * Get the service start at the destination depot of a route: The
+	 * arrival from the last stop if the depot times are shared.
+	 */
+	private double destinationStart(double[] bValues, int k, int last, double originStart) {
+		if (nodes == null) {
+			return bValues[(2 * n + 1) * columns + k];
+		}
+		double arrival = (last == 0 ? originStart : bValues[last]) + nodes[last].getServiceDuration()
+				+ t.get(last, 2 * n + 1);
+		return Math.max(arrival, nodes[2 * n + 1].getEarliestServiceTime());
+	}
+
+	/**
+	 * Get the arc variables in the order expected by {@link #build}.
+	 * @return x[a][k] ordered by a * columns + k, without the arcs a vehicle can not use.
+	 */
+	public int[] getArcVariables() {
+		return arcVariables;
+	}
+
+	/**
+	 * Get the service start variables in the order expected by {@link #build}.
+	 * @return B[i][k] at index i * columns + k.
+	 */
+	public int[] getStartVariables() {
+		return startVariables;
+	}
+
+	/**
+	 * Get the load variables in the order expected by {@link #build}.
+	 * @return Q[i][k] at index i * columns + k.
+	 */
+	public int[] getLoadVariables() {
+		return loadVariables;
+	}
+
+	/**
+	 * Get the ride time variables in the order expected by {@link #build}.
+	 * @return L[i][k] at index (i - 1) * columns + k.
+	 */
+	public int[] getRideTimeVariables() {
+		return rideTimeVariables;
+	}
+
+}
@@ -0,0 +1,137 @@
+package logic;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * The Java Flight Recorder events of a solve (category DARP).</br>
+ * They are committed by the {@link SolverMetrics} and only cost a check
+ * of a flag while no recording is running. Record them e.g. with
+ * -XX:StartFlightRecording=filename=solve.jfr and open the file in JDK
+ * Mission Control or with "jfr print --categories DARP solve.jfr".
+ *
+ */
+final class SolverEvents {
+
+	private SolverEvents() {
+		super();
+	}
+
+	/**
+	 * One phase of a solve, e.g. the build of the model or the solve itself.
+	 */
+	@Name("logic.Phase")
+	@Label("Solver Phase")
+	@Category("DARP")
+	@Description("Wall time and allocation of one phase of the solve")
+	static class PhaseEvent extends Event {
+
+		@Label("Instance")
+		String instance;
+
+		@Label("Phase")
+		String phase;
+
+		@Label("Allocated")
+		@Description("Bytes allocated by the thread of the model, -1 if unknown")
+		@DataAmount
+		long allocated;
+
+		@Label("Rows")
+		@Description("Constraints added during the phase")
+		int rows;
+
+		@Label("Columns")
+		@Description("Variables added during the phase")
+		int columns;
+	}
+
+	/**
+	 * The rows or columns of one family of the model, committed at the end
+	 * of the solve.
+	 */
+	@Name("logic.ModelFamily")
+	@Label("Model Family")
+	@Category("DARP")
+	@Description("Size of one constraint or variable family of the model")
+	static class FamilyEvent extends Event {
+
+		@Label("Instance")
+		String instance;
+
+		@Label("Family")
+		String family;
+
+		@Label("Kind")
+		@Description("row, lazy row or column")
+		String kind;
+
+		@Label("Count")
+		int count;
+
+		@Label("Nonzeros")
+		long nonzeros;
+
+		@Label("Build Time")
+		@Description("Time spent in the solver to add the family")
+		@Timespan(Timespan.NANOSECONDS)
+		long buildTime;
+	}
+
+	/**
+	 * One call of a separation routine of the {@link CutSeparator}.
+	 */
+	@Name("logic.Separation")
+	@Label("Separation")
+	@Category("DARP")
+	@Description("One call of a separation routine")
+	static class SeparationEvent extends Event {
+
+		@Label("Instance")
+		String instance;
+
+		@Label("Routine")
+		String routine;
+
+		@Label("Integral")
+		@Description("True on integer solutions (lazy constraints)")
+		boolean integral;
+
+		@Label("Cuts")
+		@Description("Violated inequalities found by the routine")
+		int cuts;
+
+		@Label("Separation Time")
+		@Timespan(Timespan.NANOSECONDS)
+		long separationTime;
+	}
+
+	/**
+	 * A sample of the incumbent and the bound during the solve.
+	 */
+	@Name("logic.Progress")
+	@Label("Solver Progress")
+	@Category("DARP")
+	@Description("Incumbent and bound of the branch-and-bound")
+	static class ProgressEvent extends Event {
+
+		@Label("Instance")
+		String instance;
+
+		@Label("Incumbent")
+		@Description("Objective value of the best solution, infinity if none")
+		double incumbent;
+
+		@Label("Bound")
+		double bound;
+
+		@Label("Nodes")
+		long nodes;
+	}
+
+}
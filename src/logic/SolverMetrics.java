@@ -0,0 +1,426 @@
+package logic;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The measurements of one solve of the {@link model}:</br>
+ * - wall time, allocated bytes, rows and columns of every phase
+ * (distances, preprocessing, build, export, heuristic, solve, extraction),</br>
+ * - rows, nonzeros and build time of every constraint and variable family
+ * (the name of the constraint or the variable name up to the first
+ * bracket),</br>
+ * - calls, found cuts and time of every separation routine,</br>
+ * - samples of the incumbent and the bound during the solve.</br>
+ * Everything is also committed as {@link SolverEvents JFR event} and can
+ * be written as JSON with {@link #toJson()}. The phases are recorded by
+ * the thread of the model, the other methods may be called from the
+ * threads of the solver.
+ *
+ */
+public class SolverMetrics {
+
+	/**
+	 * Seconds between two progress samples with the same incumbent.
+	 */
+	private static final double PROGRESS_INTERVAL = 1.0;
+
+	/**
+	 * Name of the solved instance.
+	 */
+	private final String instance;
+	/**
+	 * Start of the measurement (System.nanoTime).
+	 */
+	private final long begin = System.nanoTime();
+	/**
+	 * The finished phases in the order they were started.
+	 */
+	private final Map<String, Phase> phases = new LinkedHashMap<String, Phase>();
+	/**
+	 * The constraint and variable families in the order of their first row or column.
+	 */
+	private final Map<String, Family> families = new LinkedHashMap<String, Family>();
+	/**
+	 * The separation routines in the order of their first call.
+	 */
+	private final Map<String, Routine> routines = new LinkedHashMap<String, Routine>();
+	/**
+	 * The progress samples: seconds, incumbent, bound, nodes.
+	 */
+	private final List<double[]> progress = new ArrayList<double[]>();
+	/**
+	 * Number of rows (including lazy rows) added so far.
+	 */
+	private int rows;
+	/**
+	 * Number of columns added so far.
+	 */
+	private int columns;
+
+	/**
+	 * Name of the running phase, null if none.
+	 */
+	private String phaseName;
+	/**
+	 * Start of the running phase (System.nanoTime).
+	 */
+	private long phaseBegin;
+	/**
+	 * Allocated bytes of the thread at the start of the running phase.
+	 */
+	private long phaseAllocation;
+	/**
+	 * Rows at the start of the running phase.
+	 */
+	private int phaseRows;
+	/**
+	 * Columns at the start of the running phase.
+	 */
+	private int phaseColumns;
+	/**
+	 * The JFR event of the running phase.
+	 */
+	private SolverEvents.PhaseEvent phaseEvent;
+
+	/**
+	 * Constructor for new empty metrics.
+	 * @param instance Name of the solved instance.
+	 */
+	public SolverMetrics(String instance) {
+		super();
+		this.instance = instance;
+	}
+
+	/**
+	 * End the running phase and start the next one.
+	 * @param name Name of the new phase.
+	 */
+	public void startPhase(String name) {
+		endPhase();
+		phaseName = name;
+		phaseBegin = System.nanoTime();
+		phaseAllocation = allocatedBytes();
+		synchronized (this) {
+			phaseRows = rows;
+			phaseColumns = columns;
+		}
+		phaseEvent = new SolverEvents.PhaseEvent();
+		phaseEvent.begin();
+	}
+
+	/**
+	 * End the running phase, nothing happens if no phase is running.
+	 */
+	public void endPhase() {
+		if (phaseName == null) {
+			return;
+		}
+		long nanos = System.nanoTime() - phaseBegin;
+		long allocation = allocatedBytes();
+		if (allocation >= 0 && phaseAllocation >= 0) {
+			allocation -= phaseAllocation;
+		} else {
+			allocation = -1;
+		}
+		int addedRows;
+		int addedColumns;
+		synchronized (this) {
+			addedRows = rows - phaseRows;
+			addedColumns = columns - phaseColumns;
+			Phase phase = phases.get(phaseName);
+			if (phase == null) {
+				phase = new Phase();
+				phases.put(phaseName, phase);
+			}
+			phase.nanos += nanos;
+			phase.allocated = phase.allocated < 0 || allocation < 0 ? -1 : phase.allocated + allocation;
+			phase.rows += addedRows;
+			phase.columns += addedColumns;
+		}
+		phaseEvent.end();
+		if (phaseEvent.shouldCommit()) {
+			phaseEvent.instance = instance;
+			phaseEvent.phase = phaseName;
+			phaseEvent.allocated = allocation;
+			phaseEvent.rows = addedRows;
+			phaseEvent.columns = addedColumns;
+			phaseEvent.commit();
+		}
+		phaseName = null;
+		phaseEvent = null;
+	}
+
+	/**
+	 * End the running phase and commit the families as JFR events. Called
+	 * once at the end of the solve.
+	 */
+	public synchronized void finish() {
+		endPhase();
+		for (Map.Entry<String, Family> entry : families.entrySet()) {
+			SolverEvents.FamilyEvent event = new SolverEvents.FamilyEvent();
+			if (!event.shouldCommit()) {
+				return;
+			}
+			Family family = entry.getValue();
+			event.instance = instance;
+			event.family = entry.getKey();
+			event.kind = family.kind;
+			event.count = family.count;
+			event.nonzeros = family.nonzeros;
+			event.buildTime = family.nanos;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Get the bytes the current thread has allocated so far.
+	 * @return Allocated bytes, -1 if the JVM does not measure them.
+	 */
+	private static long allocatedBytes() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+			if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+				return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Count a row of the model.
+	 * @param name Name of the constraint, the family.
+	 * @param lazy True if the row is in the lazy constraint pool.
+	 * @param nonzeros Number of terms of the row.
+	 * @param nanos Time the solver needed to add the row.
+	 */
+	public synchronized void addRow(String name, boolean lazy, int nonzeros, long nanos) {
+		rows++;
+		Family family = family(lazy ? name + " (lazy)" : name, lazy ? "lazy row" : "row");
+		family.count++;
+		family.nonzeros += nonzeros;
+		family.nanos += nanos;
+	}
+
+	/**
+	 * Count a column of the model.
+	 * @param name Name of the variable, the family is the part before the first bracket.
+	 * @param nanos Time the solver needed to add the column.
+	 */
+	public synchronized void addColumn(String name, long nanos) {
+		int bracket = name.indexOf('(');
+		addColumns(bracket < 0 ? name : name.substring(0, bracket), 1, nanos);
+	}
+
+	/**
+	 * Count columns of one family that were added together.
+	 * @param family Name of the family.
+	 * @param count Number of columns.
+	 * @param nanos Time the solver needed to add the columns.
+	 */
+	public synchronized void addColumns(String family, int count, long nanos) {
+		columns += count;
+		Family totals = family(family, "column");
+		totals.count += count;
+		totals.nanos += nanos;
+	}
+
+	/**
+	 * Get a family, a new family is created on first use.
+	 */
+	private Family family(String name, String kind) {
+		Family family = families.get(name);
+		if (family == null) {
+			family = new Family(kind);
+			families.put(name, family);
+		}
+		return family;
+	}
+
+	/**
+	 * Record one call of a separation routine.
+	 * @param routine Name of the routine.
+	 * @param integral True if the separated point is integral.
+	 * @param nanos Time of the call.
+	 * @param cuts Number of violated inequalities found.
+	 */
+	public void addSeparation(String routine, boolean integral, long nanos, int cuts) {
+		synchronized (this) {
+			Routine record = routines.get(routine);
+			if (record == null) {
+				record = new Routine();
+				routines.put(routine, record);
+			}
+			record.calls++;
+			record.cuts += cuts;
+			record.nanos += nanos;
+		}
+		SolverEvents.SeparationEvent event = new SolverEvents.SeparationEvent();
+		if (event.shouldCommit()) {
+			event.instance = instance;
+			event.routine = routine;
+			event.integral = integral;
+			event.cuts = cuts;
+			event.separationTime = nanos;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Record the progress of the solver. A sample is kept if the incumbent
+	 * changed or {@link #PROGRESS_INTERVAL} seconds passed since the last one.
+	 * @param incumbent Objective value of the best solution, positive infinity if none.
+	 * @param bound Best lower bound.
+	 * @param nodes Number of processed nodes.
+	 */
+	public void recordProgress(double incumbent, double bound, long nodes) {
+		double seconds = (System.nanoTime() - begin) / 1e9;
+		synchronized (this) {
+			if (!progress.isEmpty()) {
+				double[] last = progress.get(progress.size() - 1);
+				if (last[1] == incumbent && seconds - last[0] < PROGRESS_INTERVAL) {
+					return;
+				}
+			}
+			progress.add(new double[] { seconds, incumbent, bound, nodes });
+		}
+		SolverEvents.ProgressEvent event = new SolverEvents.ProgressEvent();
+		if (event.shouldCommit()) {
+			event.instance = instance;
+			event.incumbent = incumbent;
+			event.bound = bound;
+			event.nodes = nodes;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Get the wall time of a phase.
+	 * @param name Name of the phase.
+	 * @return Wall time in seconds, 0 if the phase did not run.
+	 */
+	public synchronized double getPhaseTime(String name) {
+		Phase phase = phases.get(name);
+		return phase == null ? 0 : phase.nanos / 1e9;
+	}
+
+	/**
+	 * Get the wall time of all phases as text, e.g. "build 0.120 s, solve 3.402 s".
+	 * @return The phases in the order they were started.
+	 */
+	public synchronized String getPhaseSummary() {
+		StringBuilder summary = new StringBuilder();
+		for (Map.Entry<String, Phase> entry : phases.entrySet()) {
+			if (summary.length() > 0) {
+				summary.append(", ");
+			}
+			summary.append(entry.getKey()).append(String.format(Locale.ROOT, " %.3f s", entry.getValue().nanos / 1e9));
+		}
+		return summary.toString();
+	}
+
+	/**
+	 * Get the number of rows (including lazy rows) of the model.
+	 * @return Number of rows.
+	 */
+	public synchronized int getRows() {
+		return rows;
+	}
+
+	/**
+	 * Get the number of columns of the model.
+	 * @return Number of columns.
+	 */
+	public synchronized int getColumns() {
+		return columns;
+	}
+
+	/**
+	 * Write the metrics as one JSON object with the arrays phases,
+	 * families, separation and progress.
+	 * @return The JSON object.
+	 */
+	public synchronized String toJson() {
+		StringBuilder json = new StringBuilder("{\"instance\": ").append(BenchmarkRunner.quote(instance));
+		json.append(", \"rows\": ").append(rows).append(", \"columns\": ").append(columns);
+		json.append(",\n    \"phases\": [");
+		String separator = "";
+		for (Map.Entry<String, Phase> entry : phases.entrySet()) {
+			Phase phase = entry.getValue();
+			json.append(separator).append("\n      {\"name\": ").append(BenchmarkRunner.quote(entry.getKey()));
+			json.append(", \"seconds\": ").append(BenchmarkRunner.jsonNumber(phase.nanos / 1e9));
+			json.append(", \"allocated_bytes\": ").append(phase.allocated < 0 ? "null" : phase.allocated);
+			json.append(", \"rows\": ").append(phase.rows).append(", \"columns\": ").append(phase.columns).append('}');
+			separator = ",";
+		}
+		json.append("],\n    \"families\": [");
+		separator = "";
+		for (Map.Entry<String, Family> entry : families.entrySet()) {
+			Family family = entry.getValue();
+			json.append(separator).append("\n      {\"name\": ").append(BenchmarkRunner.quote(entry.getKey()));
+			json.append(", \"kind\": ").append(BenchmarkRunner.quote(family.kind));
+			json.append(", \"count\": ").append(family.count).append(", \"nonzeros\": ").append(family.nonzeros);
+			json.append(", \"seconds\": ").append(BenchmarkRunner.jsonNumber(family.nanos / 1e9)).append('}');
+			separator = ",";
+		}
+		json.append("],\n    \"separation\": [");
+		separator = "";
+		for (Map.Entry<String, Routine> entry : routines.entrySet()) {
+			Routine routine = entry.getValue();
+			json.append(separator).append("\n      {\"routine\": ").append(BenchmarkRunner.quote(entry.getKey()));
+			json.append(", \"calls\": ").append(routine.calls).append(", \"cuts\": ").append(routine.cuts);
+			json.append(", \"seconds\": ").append(BenchmarkRunner.jsonNumber(routine.nanos / 1e9)).append('}');
+			separator = ",";
+		}
+		json.append("],\n    \"progress\": [");
+		separator = "";
+		for (double[] sample : progress) {
+			json.append(separator).append("\n      {\"seconds\": ").append(BenchmarkRunner.jsonNumber(sample[0]));
+			json.append(", \"incumbent\": ").append(BenchmarkRunner.jsonNumber(sample[1]));
+			json.append(", \"bound\": ").append(BenchmarkRunner.jsonNumber(sample[2]));
+			json.append(", \"nodes\": ").append((long) sample[3]).append('}');
+			separator = ",";
+		}
+		return json.append("]}").toString();
+	}
+
+	/**
+	 * Totals of one phase.
+	 */
+	private static class Phase {
+		private long nanos;
+		private long allocated;
+		private int rows;
+		private int columns;
+	}
+
+	/**
+	 * Totals of one constraint or variable family.
+	 */
+	private static class Family {
+		private final String kind;
+		private int count;
+		private long nonzeros;
+		private long nanos;
+
+		Family(String kind) {
+			this.kind = kind;
+		}
+	}
+
+	/**
+	 * Totals of one separation routine.
+	 */
+	private static class Routine {
+		private long calls;
+		private long cuts;
+		private long nanos;
+	}
+
+}
@@ -0,0 +1,510 @@
+package logic;
+
+/**
+ * The settings of one solve of the {@link model}.
+ *
+ */
+public class SolverOptions {
+
+	/**
+	 * Separate the valid inequalities of the paper (subtour elimination,
+	 * capacity, precedence and generalized order) in callbacks.
+	 */
+	private boolean separateCuts = true;
+	/**
+	 * Keep the big-M time and load constraints (15) and (16) in the lazy
+	 * constraint pool of the solver instead of the LP relaxation. They are
+	 * only added when an integer solution violates them.
+	 */
+	private boolean lazyBigM = false;
+	/**
+	 * Run the separation routines concurrently in the common
+	 * {@link java.util.concurrent.ForkJoinPool}.
+	 */
+	private boolean parallelSeparation = true;
+	/**
+	 * Maximal number of cuts in the {@link CutPool} of the separation, 0
+	 * for no pool.
+	 */
+	private int cutPoolSize = 2000;
+	/**
+	 * Tighten the time windows and remove infeasible arcs before the
+	 * model is built.
+	 */
+	private boolean preprocess = true;
+	/**
+	 * Build the conflict graph of the users in the preprocessing: Reject
+	 * instances whose largest clique needs more vehicles than the fleet,
+	 * add the lower bound of the number of vehicles and (three-index
+	 * formulation) the clique inequalities of every vehicle.
+	 */
+	private boolean conflictCliques = true;
+	/**
+	 * The formulation that should be built, the three-index formulation of
+	 * the paper by default.
+	 */
+	private Formulation formulation = Formulation.THREE_INDEX;
+	/**
+	 * Add symmetry breaking constraints to the three-index formulation
+	 * (only valid if all vehicles are identical).
+	 */
+	private boolean breakSymmetry = false;
+	/**
+	 * Start the solver with the routes of the insertion heuristic and the
+	 * local search (MIP start).
+	 */
+	private boolean heuristicStart = true;
+	/**
+	 * Export the model to the file Cordeau.lp before solving. Exported
+	 * models are always named.
+	 */
+	private boolean exportModel = false;
+	/**
+	 * Give every variable a name like x(i1;j2;k0) and every constraint the
+	 * name of its family in the solver. Unnamed models are built faster
+	 * and with less memory.
+	 */
+	private boolean namedModel = false;
+	/**
+	 * Print the progress and the solution to the console.
+	 */
+	private boolean verbose = true;
+	/**
+	 * Number of threads the solver may use, 0 lets the solver decide.
+	 */
+	private int threads = 0;
+	/**
+	 * Time limit of the solver in seconds, 0 for no limit.
+	 */
+	private double timeLimit = 0;
+	/**
+	 * The MILP solver the model is solved with.
+	 */
+	private Backend backend = Backend.AUTO;
+	/**
+	 * File the {@link SolverMetrics} are written to as JSON, null for none.
+	 */
+	private String metricsFile = null;
+	/**
+	 * The metric the distances are computed with from the positions.
+	 */
+	private TravelMetric travelMetric = TravelMetric.EUCLIDEAN;
+	/**
+	 * How the computed distances are stored.
+	 */
+	private MatrixStorage matrixStorage = MatrixStorage.DOUBLE;
+	/**
+	 * Binary file of a precomputed {@link TravelMatrix} (e.g. of a road
+	 * network) that is used instead of the metric, null for none.
+	 */
+	private String travelMatrixFile = null;
+	/**
+	 * Parameters of the search of the solver, null for its defaults.
+	 */
+	private SearchStrategy searchStrategy = null;
+	/**
+	 * Binary file the incumbent is written to during the solve and the
+	 * solve restarts from if it exists, null for none.
+	 */
+	private String checkpointFile = null;
+	/**
+	 * Minimum time between two writes of the checkpoint in seconds.
+	 */
+	private double checkpointInterval = 60;
+
+	/**
+	 * Constructor for the default settings.
+	 */
+	public SolverOptions() {
+		super();
+	}
+
+	/**
+	 * Constructor for a copy of other settings.
+	 * @param other The settings that are copied.
+	 */
+	public SolverOptions(SolverOptions other) {
+		super();
+		separateCuts = other.separateCuts;
+		lazyBigM = other.lazyBigM;
+		parallelSeparation = other.parallelSeparation;
+		cutPoolSize = other.cutPoolSize;
+		preprocess = other.preprocess;
+		conflictCliques = other.conflictCliques;
+		formulation = other.formulation;
+		breakSymmetry = other.breakSymmetry;
+		heuristicStart = other.heuristicStart;
+		exportModel = other.exportModel;
+		namedModel = other.namedModel;
+		verbose = other.verbose;
+		threads = other.threads;
+		timeLimit = other.timeLimit;
+		backend = other.backend;
+		metricsFile = other.metricsFile;
+		travelMetric = other.travelMetric;
+		matrixStorage = other.matrixStorage;
+		travelMatrixFile = other.travelMatrixFile;
+		searchStrategy = other.searchStrategy;
+		checkpointFile = other.checkpointFile;
+		checkpointInterval = other.checkpointInterval;
+	}
+
+	/**
+	 * Check whether the valid inequalities are separated.
+	 * @return True if cuts are separated in callbacks.
+	 */
+	public boolean isSeparateCuts() {
+		return separateCuts;
+	}
+
+	/**
+	 * Set whether the valid inequalities are separated.
+	 * @param separateCuts True if cuts should be separated in callbacks.
+	 */
+	public void setSeparateCuts(boolean separateCuts) {
+		this.separateCuts = separateCuts;
+	}
+
+	/**
+	 * Check whether the constraints (15) and (16) are lazy.
+	 * @return True if the big-M rows are kept in the lazy constraint pool.
+	 */
+	public boolean isLazyBigM() {
+		return lazyBigM;
+	}
+
+	/**
+	 * Set whether the constraints (15) and (16) are lazy.
+	 * @param lazyBigM True if the big-M rows should be kept in the lazy constraint pool.
+	 */
+	public void setLazyBigM(boolean lazyBigM) {
+		this.lazyBigM = lazyBigM;
+	}
+
+	/**
+	 * Check whether the separation routines run concurrently.
+	 * @return True if the routines run in the common fork-join pool.
+	 */
+	public boolean isParallelSeparation() {
+		return parallelSeparation;
+	}
+
+	/**
+	 * Set whether the separation routines run concurrently.
+	 * @param parallelSeparation True if the routines should run in the common fork-join pool.
+	 */
+	public void setParallelSeparation(boolean parallelSeparation) {
+		this.parallelSeparation = parallelSeparation;
+	}
+
+	/**
+	 * Get the maximal number of cuts in the cut pool.
+	 * @return Maximal number of pooled cuts, 0 for no pool.
+	 */
+	public int getCutPoolSize() {
+		return cutPoolSize;
+	}
+
+	/**
+	 * Set the maximal number of cuts in the cut pool.
+	 * @param cutPoolSize Maximal number of pooled cuts, 0 for no pool.
+	 */
+	public void setCutPoolSize(int cutPoolSize) {
+		this.cutPoolSize = cutPoolSize;
+	}
+
+	/**
+	 * Check whether the instance is preprocessed.
+	 * @return True if time windows are tightened and arcs are removed.
+	 */
+	public boolean isPreprocess() {
+		return preprocess;
+	}
+
+	/**
+	 * Set whether the instance is preprocessed.
+	 * @param preprocess True if time windows should be tightened and arcs removed.
+	 */
+	public void setPreprocess(boolean preprocess) {
+		this.preprocess = preprocess;
+	}
+
+	/**
+	 * Get the formulation that should be built.
+	 * @return The formulation.
+	 */
+	public Formulation getFormulation() {
+		return formulation;
+	}
+
+	/**
+	 * Set the formulation that should be built.
+	 * @param formulation The formulation.
+	 */
+	public void setFormulation(Formulation formulation) {
+		this.formulation = formulation;
+	}
+
+	/**
+	 * Check whether the conflict graph of the users is used (only with
+	 * preprocessing).
+	 * @return True if the clique inequalities and the fleet lower bound are added.
+	 */
+	public boolean isConflictCliques() {
+		return conflictCliques;
+	}
+
+	/**
+	 * Set whether the conflict graph of the users is used (only with
+	 * preprocessing).
+	 * @param conflictCliques True if the clique inequalities and the fleet lower bound should be added.
+	 */
+	public void setConflictCliques(boolean conflictCliques) {
+		this.conflictCliques = conflictCliques;
+	}
+
+	/**
+	 * Check whether symmetry breaking constraints are added.
+	 * @return True if identical vehicles are ordered.
+	 */
+	public boolean isBreakSymmetry() {
+		return breakSymmetry;
+	}
+
+	/**
+	 * Set whether symmetry breaking constraints are added.
+	 * @param breakSymmetry True if identical vehicles should be ordered.
+	 */
+	public void setBreakSymmetry(boolean breakSymmetry) {
+		this.breakSymmetry = breakSymmetry;
+	}
+
+	/**
+	 * Check whether the heuristic provides a MIP start.
+	 * @return True if the heuristic solution is passed to the solver.
+	 */
+	public boolean isHeuristicStart() {
+		return heuristicStart;
+	}
+
+	/**
+	 * Set whether the heuristic provides a MIP start.
+	 * @param heuristicStart True if the heuristic solution should be passed to the solver.
+	 */
+	public void setHeuristicStart(boolean heuristicStart) {
+		this.heuristicStart = heuristicStart;
+	}
+
+	/**
+	 * Check whether the model is exported before solving.
+	 * @return True if the model is written to Cordeau.lp.
+	 */
+	public boolean isExportModel() {
+		return exportModel;
+	}
+
+	/**
+	 * Set whether the model is exported before solving.
+	 * @param exportModel True if the model should be written to Cordeau.lp.
+	 */
+	public void setExportModel(boolean exportModel) {
+		this.exportModel = exportModel;
+	}
+
+	/**
+	 * Check whether the variables and constraints are named in the solver.
+	 * @return True if the model is named even if it is not exported.
+	 */
+	public boolean isNamedModel() {
+		return namedModel;
+	}
+
+	/**
+	 * Set whether the variables and constraints are named in the solver.
+	 * @param namedModel True if the model should be named even if it is not exported.
+	 */
+	public void setNamedModel(boolean namedModel) {
+		this.namedModel = namedModel;
+	}
+
+	/**
+	 * Check whether progress and solution are printed.
+	 * @return True if the output is printed to the console.
+	 */
+	public boolean isVerbose() {
+		return verbose;
+	}
+
+	/**
+	 * Set whether progress and solution are printed.
+	 * @param verbose True if the output should be printed to the console.
+	 */
+	public void setVerbose(boolean verbose) {
+		this.verbose = verbose;
+	}
+
+	/**
+	 * Get the number of threads of the solver.
+	 * @return Number of threads, 0 lets the solver decide.
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Set the number of threads of the solver.
+	 * @param threads Number of threads, 0 lets the solver decide.
+	 */
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	/**
+	 * Get the time limit of the solver.
+	 * @return Time limit in seconds, 0 for no limit.
+	 */
+	public double getTimeLimit() {
+		return timeLimit;
+	}
+
+	/**
+	 * Set the time limit of the solver.
+	 * @param timeLimit Time limit in seconds, 0 for no limit.
+	 */
+	public void setTimeLimit(double timeLimit) {
+		this.timeLimit = timeLimit;
+	}
+
+	/**
+	 * Get the MILP solver.
+	 * @return The backend.
+	 */
+	public Backend getBackend() {
+		return backend;
+	}
+
+	/**
+	 * Set the MILP solver.
+	 * @param backend The backend, {@link Backend#AUTO} uses Cplex if available.
+	 */
+	public void setBackend(Backend backend) {
+		this.backend = backend;
+	}
+
+	/**
+	 * Get the file the metrics are written to.
+	 * @return Name of the JSON file, null for none.
+	 */
+	public String getMetricsFile() {
+		return metricsFile;
+	}
+
+	/**
+	 * Set the file the metrics are written to after the solve.
+	 * @param metricsFile Name of the JSON file, null for none.
+	 */
+	public void setMetricsFile(String metricsFile) {
+		this.metricsFile = metricsFile;
+	}
+
+	/**
+	 * Get the metric the distances are computed with.
+	 * @return The metric.
+	 */
+	public TravelMetric getTravelMetric() {
+		return travelMetric;
+	}
+
+	/**
+	 * Set the metric the distances are computed with.
+	 * @param travelMetric The metric.
+	 */
+	public void setTravelMetric(TravelMetric travelMetric) {
+		this.travelMetric = travelMetric;
+	}
+
+	/**
+	 * Get how the computed distances are stored.
+	 * @return The storage.
+	 */
+	public MatrixStorage getMatrixStorage() {
+		return matrixStorage;
+	}
+
+	/**
+	 * Set how the computed distances are stored.
+	 * @param matrixStorage The storage, {@link MatrixStorage#LAZY} to compute them on every access.
+	 */
+	public void setMatrixStorage(MatrixStorage matrixStorage) {
+		this.matrixStorage = matrixStorage;
+	}
+
+	/**
+	 * Get the file of a precomputed travel matrix.
+	 * @return Name of the binary file, null if the distances are computed.
+	 */
+	public String getTravelMatrixFile() {
+		return travelMatrixFile;
+	}
+
+	/**
+	 * Set the file of a precomputed travel matrix, see {@link TravelMatrix#read(String)}.
+	 * @param travelMatrixFile Name of the binary file, null to compute the distances.
+	 */
+	public void setTravelMatrixFile(String travelMatrixFile) {
+		this.travelMatrixFile = travelMatrixFile;
+	}
+
+	/**
+	 * Get the parameters of the search of the solver.
+	 * @return The strategy, null for the defaults of the solver.
+	 */
+	public SearchStrategy getSearchStrategy() {
+		return searchStrategy;
+	}
+
+	/**
+	 * Set the parameters of the search of the solver.
+	 * @param searchStrategy The strategy, null for the defaults of the solver.
+	 */
+	public void setSearchStrategy(SearchStrategy searchStrategy) {
+		this.searchStrategy = searchStrategy;
+	}
+
+	/**
+	 * Get the checkpoint file of the solve.
+	 * @return Name of the binary file, null for none.
+	 */
+	public String getCheckpointFile() {
+		return checkpointFile;
+	}
+
+	/**
+	 * Set the checkpoint file of the solve. The incumbent is written to it
+	 * (see {@link CheckpointWriter}), and if it exists when the solve starts,
+	 * its routes are the MIP start, so an interrupted run continues from
+	 * its best solution.
+	 * @param checkpointFile Name of the binary file, null for none.
+	 */
+	public void setCheckpointFile(String checkpointFile) {
+		this.checkpointFile = checkpointFile;
+	}
+
+	/**
+	 * Get the minimum time between two writes of the checkpoint.
+	 * @return Interval in seconds.
+	 */
+	public double getCheckpointInterval() {
+		return checkpointInterval;
+	}
+
+	/**
+	 * Set the minimum time between two writes of the checkpoint. The last
+	 * incumbent is always written at the end of the solve.
+	 * @param checkpointInterval Interval in seconds, 0 writes every incumbent.
+	 */
+	public void setCheckpointInterval(double checkpointInterval) {
+		this.checkpointInterval = checkpointInterval;
+	}
+
+}
@@ -0,0 +1,174 @@
+package logic;
+
+/**
+ * The outcome of one solve of the {@link model}: Status, objective value,
+ * best bound, gap, number of branch-and-bound nodes, number of added cuts,
+ * the wall time and the {@link SolverMetrics}. Results are immutable.
+ *
+ */
+public class SolverResult {
+
+	/**
+	 * Name of the solved instance.
+	 */
+	private final String instance;
+	/**
+	 * Solution status of Cplex (or the reason why no model was solved).
+	 */
+	private final String status;
+	/**
+	 * Value of the best solution, NaN if no solution was found.
+	 */
+	private final double objectiveValue;
+	/**
+	 * Best lower bound, NaN if unknown.
+	 */
+	private final double bound;
+	/**
+	 * Relative gap between objective value and bound, NaN if unknown.
+	 */
+	private final double gap;
+	/**
+	 * Number of processed branch-and-bound nodes.
+	 */
+	private final long nodes;
+	/**
+	 * Number of cuts added by the separation per {@link CutType}.
+	 */
+	private final long[] cuts;
+	/**
+	 * Wall time of the solve in seconds (including preprocessing).
+	 */
+	private final double wallTime;
+	/**
+	 * The best solution, null if no solution was found.
+	 */
+	private final Solution solution;
+	/**
+	 * The measurements of the solve, null if none were recorded.
+	 */
+	private final SolverMetrics metrics;
+
+	/**
+	 * Constructor for a new result.
+	 * @param instance Name of the solved instance.
+	 * @param status Solution status.
+	 * @param objectiveValue Value of the best solution, NaN if no solution was found.
+	 * @param bound Best lower bound, NaN if unknown.
+	 * @param gap Relative gap, NaN if unknown.
+	 * @param nodes Number of processed branch-and-bound nodes.
+	 * @param cuts Number of cuts added per {@link CutType} (copied).
+	 * @param wallTime Wall time in seconds.
+	 * @param solution The best solution, null if no solution was found.
+	 * @param metrics The measurements of the solve, null if none were recorded.
+	 */
+	public SolverResult(String instance, String status, double objectiveValue, double bound, double gap, long nodes,
+			long[] cuts, double wallTime, Solution solution, SolverMetrics metrics) {
+		super();
+		this.instance = instance;
+		this.status = status;
+		this.objectiveValue = objectiveValue;
+		this.bound = bound;
+		this.gap = gap;
+		this.nodes = nodes;
+		this.cuts = cuts.clone();
+		this.wallTime = wallTime;
+		this.solution = solution;
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Get the name of the solved instance.
+	 * @return Name of the instance.
+	 */
+	public String getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Get the solution status.
+	 * @return The status.
+	 */
+	public String getStatus() {
+		return status;
+	}
+
+	/**
+	 * Get the value of the best solution.
+	 * @return The objective value, NaN if no solution was found.
+	 */
+	public double getObjectiveValue() {
+		return objectiveValue;
+	}
+
+	/**
+	 * Get the best lower bound.
+	 * @return The bound, NaN if unknown.
+	 */
+	public double getBound() {
+		return bound;
+	}
+
+	/**
+	 * Get the relative gap between objective value and bound.
+	 * @return The gap, NaN if unknown.
+	 */
+	public double getGap() {
+		return gap;
+	}
+
+	/**
+	 * Get the number of processed branch-and-bound nodes.
+	 * @return Number of nodes.
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Get the number of added cuts of one family.
+	 * @param type The family of the cuts.
+	 * @return Number of added cuts.
+	 */
+	public long getCuts(CutType type) {
+		return cuts[type.ordinal()];
+	}
+
+	/**
+	 * Get the number of added cuts of all families.
+	 * @return Number of added cuts.
+	 */
+	public long getTotalCuts() {
+		long total = 0;
+		for (long count : cuts) {
+			total += count;
+		}
+		return total;
+	}
+
+	/**
+	 * Get the wall time of the solve.
+	 * @return Wall time in seconds.
+	 */
+	public double getWallTime() {
+		return wallTime;
+	}
+
+	/**
+	 * Get the best solution.
+	 * @return The solution, null if no solution was found.
+	 */
+	public Solution getSolution() {
+		return solution;
+	}
+
+	/**
+	 * Get the measurements of the solve: phase times, model size,
+	 * separation and progress.
+	 * @return The metrics, null if none were recorded.
+	 */
+	public SolverMetrics getMetrics() {
+		return metrics;
+	}
+
+}
@@ -0,0 +1,433 @@
+package logic;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Distances or travel times between the nodes 0..size-1 of an instance.</br>
+ * The values are stored row by row in one flat primitive array (see
+ * {@link MatrixStorage}), computed from the positions of the nodes when
+ * they are read ({@link MatrixStorage#LAZY}) or read from a binary file,
+ * e.g. a precomputed road network. Files larger than
+ * {@link #MAP_THRESHOLD} bytes are memory-mapped instead of copied onto
+ * the heap. The model uses the same matrix for the costs c and the travel
+ * times t.</br>
+ * Binary format (big-endian): int 0x444D5458 ("DMTX"), int size, int storage
+ * (0 double, 1 float, 2 scaled int), then size * size values row by row.
+ *
+ */
+public abstract class TravelMatrix {
+
+	/**
+	 * Values of {@link MatrixStorage#SCALED_INT} are stored multiplied by
+	 * this factor and rounded.
+	 */
+	public static final double SCALE = 1000;
+	/**
+	 * Binary files larger than this (in bytes) are memory-mapped.
+	 */
+	public static final long MAP_THRESHOLD = 64L << 20;
+	/**
+	 * First int of a binary file ("DMTX").
+	 */
+	private static final int MAGIC = 0x444D5458;
+	/**
+	 * Bytes of the header of a binary file.
+	 */
+	private static final int HEADER = 12;
+
+	/**
+	 * Number of nodes.
+	 */
+	protected final int size;
+
+	/**
+	 * Constructor for a matrix of size x size values.
+	 * @param size Number of nodes.
+	 */
+	protected TravelMatrix(int size) {
+		super();
+		this.size = size;
+	}
+
+	/**
+	 * Get the number of nodes.
+	 * @return The number of rows and columns.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Get the distance or travel time from node i to node j.
+	 * @param i The tail node.
+	 * @param j The head node.
+	 * @return The value, 0 if i == j.
+	 */
+	public abstract double get(int i, int j);
+
+	/**
+	 * Change the value from node i to node j. Only the matrices of
+	 * {@link #create(int, MatrixStorage)} can be changed.
+	 * @param i The tail node.
+	 * @param j The head node.
+	 * @param value The distance or travel time.
+	 */
+	public void set(int i, int j, double value) {
+		throw new UnsupportedOperationException("The travel matrix is read-only");
+	}
+
+	/**
+	 * Get how the values are stored.
+	 * @return The storage.
+	 */
+	public abstract MatrixStorage getStorage();
+
+	/**
+	 * Create a matrix of zeros whose values are set with {@link #set(int, int, double)}.
+	 * @param size Number of nodes.
+	 * @param storage DOUBLE, FLOAT or SCALED_INT.
+	 * @return The matrix.
+	 */
+	public static TravelMatrix create(int size, MatrixStorage storage) {
+		if ((long) size * size > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException(size + " nodes do not fit into an array, use a memory-mapped file");
+		}
+		switch (storage) {
+		case DOUBLE:
+			return new DoubleMatrix(size);
+		case FLOAT:
+			return new FloatMatrix(size);
+		case SCALED_INT:
+			return new ScaledMatrix(size);
+		default:
+			throw new IllegalArgumentException("A " + storage + " matrix can not be filled");
+		}
+	}
+
+	/**
+	 * Compute the matrix of the positions of the nodes.
+	 * @param metric The distance function.
+	 * @param nodes The nodes 0..size-1.
+	 * @param storage How the values are stored.
+	 * @return The matrix.
+	 */
+	public static TravelMatrix compute(TravelMetric metric, Node[] nodes, MatrixStorage storage) {
+		double[] x = new double[nodes.length];
+		double[] y = new double[nodes.length];
+		for (int i = 0; i < nodes.length; i++) {
+			x[i] = nodes[i].getxPosition();
+			y[i] = nodes[i].getyPosition();
+		}
+		return compute(metric, x, y, storage);
+	}
+
+	/**
+	 * Compute the matrix of the given positions.
+	 * @param metric The distance function.
+	 * @param x The x coordinate of every node.
+	 * @param y The y coordinate of every node.
+	 * @param storage How the values are stored.
+	 * @return The matrix.
+	 */
+	public static TravelMatrix compute(TravelMetric metric, double[] x, double[] y, MatrixStorage storage) {
+		if (storage == MatrixStorage.LAZY) {
+			return new LazyMatrix(metric, x.clone(), y.clone());
+		}
+		TravelMatrix matrix = create(x.length, storage);
+		for (int i = 0; i < x.length; i++) {
+			for (int j = 0; j < x.length; j++) {
+				if (i != j) {
+					matrix.set(i, j, distance(metric, x[i], y[i], x[j], y[j]));
+				}
+			}
+		}
+		return matrix;
+	}
+
+	/**
+	 * Copy the travel times between some of the nodes into a new matrix,
+	 * e.g. for a sub-instance.
+	 * @param nodes The nodes of this matrix, node i of the new matrix is nodes[i].
+	 * @return The matrix, stored like this one (a lazy one as double).
+	 */
+	public TravelMatrix subMatrix(int[] nodes) {
+		TravelMatrix matrix = create(nodes.length,
+				getStorage() == MatrixStorage.LAZY ? MatrixStorage.DOUBLE : getStorage());
+		for (int i = 0; i < nodes.length; i++) {
+			for (int j = 0; j < nodes.length; j++) {
+				matrix.set(i, j, get(nodes[i], nodes[j]));
+			}
+		}
+		return matrix;
+	}
+
+	/**
+	 * Get the distance between two positions.
+	 */
+	static double distance(TravelMetric metric, double x1, double y1, double x2, double y2) {
+		double xDistance = x1 - x2;
+		double yDistance = y1 - y2;
+		if (metric == TravelMetric.MANHATTAN) {
+			return Math.abs(xDistance) + Math.abs(yDistance);
+		}
+		return Math.sqrt(xDistance * xDistance + yDistance * yDistance);
+	}
+
+	/**
+	 * Read a matrix in the binary format. Files larger than
+	 * {@link #MAP_THRESHOLD} are memory-mapped, smaller ones are read
+	 * into an array.
+	 * @param file Name of the file.
+	 * @return The read-only matrix.
+	 * @throws IOException If the file cannot be read or is not a travel matrix.
+	 */
+	public static TravelMatrix read(String file) throws IOException {
+		FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ);
+		try {
+			ByteBuffer header = ByteBuffer.allocate(HEADER);
+			readFully(channel, header, file);
+			header.flip();
+			int size = header.getInt(4);
+			int code = header.getInt(8);
+			if (header.getInt(0) != MAGIC || size < 0 || code < 0 || code > 2) {
+				throw new IOException(file + " is not a travel matrix");
+			}
+			MatrixStorage storage = MatrixStorage.values()[code];
+			int width = storage == MatrixStorage.DOUBLE ? 8 : 4;
+			long bytes = (long) size * size * width;
+			if (channel.size() != HEADER + bytes) {
+				throw new IOException(file + " has not the length of a travel matrix of " + size + " nodes");
+			}
+			if (bytes > MAP_THRESHOLD) {
+				return new MappedMatrix(channel, size, storage);
+			}
+
+			ByteBuffer values = ByteBuffer.allocate((int) bytes);
+			readFully(channel, values, file);
+			values.flip();
+			TravelMatrix matrix = create(size, storage);
+			switch (storage) {
+			case DOUBLE:
+				values.asDoubleBuffer().get(((DoubleMatrix) matrix).values);
+				break;
+			case FLOAT:
+				values.asFloatBuffer().get(((FloatMatrix) matrix).values);
+				break;
+			default:
+				values.asIntBuffer().get(((ScaledMatrix) matrix).values);
+			}
+			return matrix;
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Fill a buffer from the current position of a channel.
+	 */
+	private static void readFully(FileChannel channel, ByteBuffer buffer, String file) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer) < 0) {
+				throw new IOException(file + " ends too early");
+			}
+		}
+	}
+
+	/**
+	 * Write the matrix in the binary format. Computed matrices are written
+	 * with double values.
+	 * @param file Name of the file.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public void write(String file) throws IOException {
+		MatrixStorage storage = getStorage() == MatrixStorage.LAZY ? MatrixStorage.DOUBLE : getStorage();
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(size);
+			out.writeInt(storage.ordinal());
+			for (int i = 0; i < size; i++) {
+				for (int j = 0; j < size; j++) {
+					double value = get(i, j);
+					if (storage == MatrixStorage.DOUBLE) {
+						out.writeDouble(value);
+					} else if (storage == MatrixStorage.FLOAT) {
+						out.writeFloat((float) value);
+					} else {
+						out.writeInt((int) Math.round(value * SCALE));
+					}
+				}
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Values in a flat double array.
+	 */
+	private static class DoubleMatrix extends TravelMatrix {
+
+		private final double[] values;
+
+		DoubleMatrix(int size) {
+			super(size);
+			values = new double[size * size];
+		}
+
+		@Override
+		public double get(int i, int j) {
+			return values[i * size + j];
+		}
+
+		@Override
+		public void set(int i, int j, double value) {
+			values[i * size + j] = value;
+		}
+
+		@Override
+		public MatrixStorage getStorage() {
+			return MatrixStorage.DOUBLE;
+		}
+	}
+
+	/**
+	 * Values in a flat float array.
+	 */
+	private static class FloatMatrix extends TravelMatrix {
+
+		private final float[] values;
+
+		FloatMatrix(int size) {
+			super(size);
+			values = new float[size * size];
+		}
+
+		@Override
+		public double get(int i, int j) {
+			return values[i * size + j];
+		}
+
+		@Override
+		public void set(int i, int j, double value) {
+			values[i * size + j] = (float) value;
+		}
+
+		@Override
+		public MatrixStorage getStorage() {
+			return MatrixStorage.FLOAT;
+		}
+	}
+
+	/**
+	 * Values multiplied by {@link TravelMatrix#SCALE} in a flat int array.
+	 */
+	private static class ScaledMatrix extends TravelMatrix {
+
+		private final int[] values;
+
+		ScaledMatrix(int size) {
+			super(size);
+			values = new int[size * size];
+		}
+
+		@Override
+		public double get(int i, int j) {
+			return values[i * size + j] / SCALE;
+		}
+
+		@Override
+		public void set(int i, int j, double value) {
+			long scaled = Math.round(value * SCALE);
+			if (scaled > Integer.MAX_VALUE || scaled < Integer.MIN_VALUE) {
+				throw new IllegalArgumentException("The value " + value + " is too large for a scaled int");
+			}
+			values[i * size + j] = (int) scaled;
+		}
+
+		@Override
+		public MatrixStorage getStorage() {
+			return MatrixStorage.SCALED_INT;
+		}
+	}
+
+	/**
+	 * Values computed from the positions when they are read.
+	 */
+	private static class LazyMatrix extends TravelMatrix {
+
+		private final TravelMetric metric;
+		private final double[] x;
+		private final double[] y;
+
+		LazyMatrix(TravelMetric metric, double[] x, double[] y) {
+			super(x.length);
+			this.metric = metric;
+			this.x = x;
+			this.y = y;
+		}
+
+		@Override
+		public double get(int i, int j) {
+			return i == j ? 0 : distance(metric, x[i], y[i], x[j], y[j]);
+		}
+
+		@Override
+		public MatrixStorage getStorage() {
+			return MatrixStorage.LAZY;
+		}
+	}
+
+	/**
+	 * Values of a memory-mapped file. Files larger than 2 GB are mapped in
+	 * segments of whole rows.
+	 */
+	private static class MappedMatrix extends TravelMatrix {
+
+		private final MatrixStorage storage;
+		private final int width;
+		private final int rowsPerSegment;
+		private final ByteBuffer[] segments;
+
+		MappedMatrix(FileChannel channel, int size, MatrixStorage storage) throws IOException {
+			super(size);
+			this.storage = storage;
+			width = storage == MatrixStorage.DOUBLE ? 8 : 4;
+			long rowBytes = (long) size * width;
+			rowsPerSegment = (int) Math.max(1, Math.min(size, Integer.MAX_VALUE / rowBytes));
+			segments = new ByteBuffer[(size + rowsPerSegment - 1) / rowsPerSegment];
+			for (int s = 0; s < segments.length; s++) {
+				int rows = Math.min(rowsPerSegment, size - s * rowsPerSegment);
+				segments[s] = channel.map(FileChannel.MapMode.READ_ONLY,
+						HEADER + (long) s * rowsPerSegment * rowBytes, rows * rowBytes);
+			}
+		}
+
+		@Override
+		public double get(int i, int j) {
+			ByteBuffer segment = segments[i / rowsPerSegment];
+			int index = ((i % rowsPerSegment) * size + j) * width;
+			switch (storage) {
+			case DOUBLE:
+				return segment.getDouble(index);
+			case FLOAT:
+				return segment.getFloat(index);
+			default:
+				return segment.getInt(index) / SCALE;
+			}
+		}
+
+		@Override
+		public MatrixStorage getStorage() {
+			return storage;
+		}
+	}
+
+}
@@ -0,0 +1,19 @@
+package logic;
+
+/**
+ * The metrics the {@link TravelMatrix} of an instance can be computed
+ * with from the positions of the nodes.
+ *
+ */
+public enum TravelMetric {
+
+	/**
+	 * The Euclidean distance, as in the benchmark instances of Cordeau.
+	 */
+	EUCLIDEAN,
+	/**
+	 * The Manhattan distance |x_i - x_j| + |y_i - y_j|, e.g. for grid
+	 * street networks.
+	 */
+	MANHATTAN
+}
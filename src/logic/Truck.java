@@ -3,7 +3,12 @@ package logic;
 /**
  * An instance of this class represents a simple vehicle 
  * that can transport a certain amount of people (capacity)
- * and has maximal allowed driving time (maxTourTime)
+ * and has maximal allowed driving time (maxTourTime)</br>
+ * A vehicle may have its own depots: The garage it starts from and
+ * returns to, their time windows are the shift of the vehicle. Routes
+ * still begin at node 0 and end at node 2n+1, for this vehicle these
+ * nodes stand for its own depots (see {@link #getOrigin(Node[])} and
+ * {@link #travel(TravelMatrix, int, int)}).
  * 
  * @author Thorben Groos (thorben.groos@student.uni-siegen.de)
  *
@@ -18,6 +23,28 @@ public class Truck {
 	 * Maximum permitted travel time L.
 	 */
 	private int maxTourTime;
+	/**
+	 * Depot the vehicle starts from (position and begin of the shift),
+	 * null for the origin depot 0 of the instance.
+	 */
+	private Node originDepot;
+	/**
+	 * Depot the vehicle returns to (position and end of the shift), null
+	 * for the destination depot 2n+1 of the instance.
+	 */
+	private Node destinationDepot;
+	/**
+	 * Travel time from the own origin depot to every node (to the own
+	 * destination depot at index 2n+1), null if the depots are at the
+	 * positions of the depots of the instance.
+	 */
+	private double[] fromOrigin;
+	/**
+	 * Travel time from every node (from the own origin depot at index 0)
+	 * to the own destination depot, null if the depots are at the
+	 * positions of the depots of the instance.
+	 */
+	private double[] toDestination;
 	
 	/**
 	 * Constructor for a new vehicle.
@@ -29,6 +56,35 @@ public class Truck {
 		this.capacity = capacity;
 		this.maxTourTime = maxTourTime;
 	}
+
+	/**
+	 * Constructor for a new vehicle with own depots. The time windows of
+	 * the depots are the shift of the vehicle.
+	 * @param capacity The maximal amount of people Q the vehicle can carry.
+	 * @param maxTourTime The maximal time L the vehicle is allowed to drive in one day.
+	 * @param originDepot The depot the vehicle starts from, null for the origin depot of the instance.
+	 * @param destinationDepot The depot the vehicle returns to, null for the destination depot of the instance.
+	 */
+	public Truck(int capacity, int maxTourTime, Node originDepot, Node destinationDepot) {
+		super();
+		this.capacity = capacity;
+		this.maxTourTime = maxTourTime;
+		this.originDepot = originDepot;
+		this.destinationDepot = destinationDepot;
+	}
+
+	/**
+	 * Constructor for a copy of a vehicle. The depots and their travel
+	 * times are copied, so their time windows can be changed by the
+	 * preprocessing and the travel times computed again for other nodes.
+	 * @param other The vehicle that is copied.
+	 */
+	public Truck(Truck other) {
+		this(other.capacity, other.maxTourTime, other.originDepot == null ? null : new Node(other.originDepot),
+				other.destinationDepot == null ? null : new Node(other.destinationDepot));
+		this.fromOrigin = other.fromOrigin == null ? null : other.fromOrigin.clone();
+		this.toDestination = other.toDestination == null ? null : other.toDestination.clone();
+	}
 	
 	/**
 	 * Get the amount of people Q the vehicle can transport.</b>
@@ -61,6 +117,161 @@ public class Truck {
 	public void setMaxTourTime(int maxTourTime) {
 		this.maxTourTime = maxTourTime;
 	}
-	
+
+	/**
+	 * Get the own origin depot of the vehicle.
+	 * @return The depot, null if the vehicle starts at the origin depot of the instance.
+	 */
+	public Node getOriginDepot() {
+		return originDepot;
+	}
+
+	/**
+	 * Get the own destination depot of the vehicle.
+	 * @return The depot, null if the vehicle returns to the destination depot of the instance.
+	 */
+	public Node getDestinationDepot() {
+		return destinationDepot;
+	}
+
+	/**
+	 * Get the node the route of the vehicle starts at.
+	 * @param nodes Array containing all nodes.
+	 * @return The own origin depot or node 0.
+	 */
+	public Node getOrigin(Node[] nodes) {
+		return originDepot != null ? originDepot : nodes[0];
+	}
+
+	/**
+	 * Get the node the route of the vehicle ends at.
+	 * @param nodes Array containing all nodes.
+	 * @return The own destination depot or node 2n+1.
+	 */
+	public Node getDestination(Node[] nodes) {
+		return destinationDepot != null ? destinationDepot : nodes[nodes.length - 1];
+	}
+
+	/**
+	 * Check whether the vehicle has own depots.
+	 * @return True if the vehicle has an own origin or destination depot.
+	 */
+	public boolean hasOwnDepots() {
+		return originDepot != null || destinationDepot != null;
+	}
+
+	/**
+	 * Check whether another vehicle can take over every route of this one
+	 * and the other way round.
+	 * @param other The other vehicle.
+	 * @return True if capacity and maximal tour time are equal and neither has own depots.
+	 */
+	public boolean isIdentical(Truck other) {
+		return capacity == other.capacity && maxTourTime == other.maxTourTime && !hasOwnDepots()
+				&& !other.hasOwnDepots();
+	}
+
+	/**
+	 * Compute the travel times of the own depots of all vehicles, see
+	 * {@link #computeDepotTravelTimes(Node[], TravelMatrix, TravelMetric)}.
+	 * @param trucks All vehicles.
+	 * @param nodes Array containing all nodes.
+	 * @param t The travel times between the nodes.
+	 * @param options The settings of the solve: The metric of t, unless t
+	 *            is read from {@link SolverOptions#getTravelMatrixFile()}.
+	 * @throws IllegalArgumentException If a depot is moved and t is read from a file.
+	 */
+	public static void computeDepotTravelTimes(Truck[] trucks, Node[] nodes, TravelMatrix t, SolverOptions options) {
+		TravelMetric metric = options.getTravelMatrixFile() == null ? options.getTravelMetric() : null;
+		for (Truck truck : trucks) {
+			truck.computeDepotTravelTimes(nodes, t, metric);
+		}
+	}
+
+	/**
+	 * Compute the travel times between the own depots and all nodes. Has to
+	 * be called before {@link #travel(TravelMatrix, int, int)} if a depot of
+	 * the vehicle is not at the position of the depot of the instance.</br>
+	 * The travel times of a depot at the position of the depot of the
+	 * instance are read from t. A moved depot is not part of t, its travel
+	 * times are computed from the positions with the metric of t. So moved
+	 * depots need coordinates and can not be used with a precomputed matrix,
+	 * e.g. of a road network.
+	 * @param nodes Array containing all nodes.
+	 * @param t The travel times between the nodes.
+	 * @param metric The metric of t, null if t is not computed from the positions.
+	 * @throws IllegalArgumentException If a depot is moved and metric is null.
+	 */
+	public void computeDepotTravelTimes(Node[] nodes, TravelMatrix t, TravelMetric metric) {
+		Node origin = getOrigin(nodes);
+		Node destination = getDestination(nodes);
+		int last = nodes.length - 1;
+		boolean originMoved = isMoved(origin, nodes[0]);
+		boolean destinationMoved = isMoved(destination, nodes[last]);
+		if (!originMoved && !destinationMoved) {
+			fromOrigin = null;
+			toDestination = null;
+			return;
+		}
+		if (metric == null) {
+			throw new IllegalArgumentException("A vehicle has own depots, the precomputed travel matrix has no "
+					+ "travel times from or to them");
+		}
+		fromOrigin = new double[nodes.length];
+		toDestination = new double[nodes.length];
+		for (int i = 1; i < last; i++) {
+			fromOrigin[i] = originMoved ? distance(metric, origin, nodes[i]) : t.get(0, i);
+			toDestination[i] = destinationMoved ? distance(metric, nodes[i], destination) : t.get(i, last);
+		}
+		double direct = distance(metric, origin, destination);
+		fromOrigin[last] = direct;
+		toDestination[0] = direct;
+	}
+
+	/**
+	 * Compute the distance between two nodes with a metric.
+	 */
+	private static double distance(TravelMetric metric, Node from, Node to) {
+		return TravelMatrix.distance(metric, from.getxPosition(), from.getyPosition(), to.getxPosition(),
+				to.getyPosition());
+	}
+
+	/**
+	 * Check whether the vehicle needs travel times of its own depots.
+	 * @return True if a depot is not at the position of the depot of the instance.
+	 */
+	public boolean hasDepotTravelTimes() {
+		return fromOrigin != null;
+	}
+
+	/**
+	 * Check whether a depot of the vehicle is not at the position of the
+	 * depot of the instance.
+	 */
+	private static boolean isMoved(Node depot, Node instanceDepot) {
+		return depot.getxPosition() != instanceDepot.getxPosition()
+				|| depot.getyPosition() != instanceDepot.getyPosition();
+	}
+
+	/**
+	 * Get the travel time of this vehicle from node i to node j: Arcs that
+	 * leave node 0 start at the own origin depot, arcs that enter node 2n+1
+	 * end at the own destination depot.
+	 * @param t The travel times between the nodes of the instance.
+	 * @param i Start node of the arc.
+	 * @param j End node of the arc.
+	 * @return The travel time.
+	 */
+	public double travel(TravelMatrix t, int i, int j) {
+		if (fromOrigin != null) {
+			if (i == 0) {
+				return fromOrigin[j];
+			}
+			if (j == fromOrigin.length - 1) {
+				return toDestination[i];
+			}
+		}
+		return t.get(i, j);
+	}
 
 }
@@ -1,15 +1,25 @@
 package logic;
 
-import ilog.cplex.*;
-import ilog.cplex.IloCplex.UnknownObjectException;
-import ilog.concert.*;
+import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * This class can be started (has a main method) and solves
- * the B&C DARP model that is defined in the main() method.
+ * the B&C DARP model of the benchmark instances given as arguments.
+ * Every instance of this class solves one {@link Instance}, so several
+ * solves can run in parallel (see {@link BenchmarkRunner}).
  * 
  * @author Thorben Groos (thorben.groos@student.uni-siegen.de)
  * 
@@ -17,498 +27,1947 @@ import java.nio.file.Paths;
 public class model {
 
 	/**
-	 * The Cplex model.
+	 * The MILP solver the model is built with.
 	 */
-	private static IloCplex cplex;
+	private MipBackend backend;
 	/**
-	 * The decision variable.
+	 * The column of the decision variable x[a][k]: Vehicle k uses the arc a
+	 * of the graph, -1 if vehicle k can not use the arc.
 	 */
-	private static IloNumVar[][][] x;
+	private int[][] x;
+	/**
+	 * usable[a][k] is true if vehicle k can use the arc a (heterogeneous
+	 * fleets with preprocessing), null if every vehicle can use every arc.
+	 */
+	private boolean[][] vehicleArcs;
+	/**
+	 * The arcs that can be part of a solution, x is indexed by their id.
+	 */
+	private ArcGraph G;
 	/**
 	 * Number of users (number of pick-up locations)
 	 */
-	private static int n;
+	private int n;
 	
-	private static double lMaxRideTime;
+	private double lMaxRideTime;
 	/**
 	 * Array containing all nodes.
 	 */
-	private static Node[] N;
+	private Node[] N;
 	/**
 	 * Array containing all vehicles.
 	 */
-	private static Truck[] K;
+	private Truck[] K;
 	/**
-	 * Time which vehicle k starts its service at node i.
+	 * Column of the time which vehicle k starts its service at node i.
 	 */
-	private static IloNumVar[][] B;
+	private int[][] B;
 	/**
-	 * Load of vehicle k after visiting node i.
+	 * Column of the load of vehicle k after visiting node i.
 	 */
-	private static IloNumVar[][] Q;
+	private int[][] Q;
 	/**
-	 * Ride time of user i on vehicle k.
+	 * Column of the ride time of user i on vehicle k.
 	 */
-	private static IloNumVar[][] L;
+	private int[][] L;
 	/**
 	 * Distance between node i and node j.
 	 */
-	private static double[][] c;
+	private TravelMatrix c;
+	/**
+	 * The travel time between node i and node j (the same matrix as c).
+	 */
+	private TravelMatrix t;
+	/**
+	 * Smallest fleet for which {@link Formulation#AUTO} selects the
+	 * two-index formulation.
+	 */
+	private static final int MIN_TWO_INDEX_FLEET = 5;
+	/**
+	 * True if the two-index formulation was built. In this case
+	 * x, B, Q and L only have one column (k = 0) for all vehicles.
+	 */
+	private boolean twoIndex;
+	/**
+	 * True if the variables get names like x(i1;j2;k0), see
+	 * {@link SolverOptions#isNamedModel()}.
+	 */
+	private boolean named;
+	/**
+	 * The settings of the solve.
+	 */
+	private final SolverOptions options;
+	/**
+	 * The instance that is solved.
+	 */
+	private Instance instance;
+	/**
+	 * Progress and solution are printed here.
+	 */
+	private final PrintStream out;
+	/**
+	 * The measurements of the current solve.
+	 */
+	private SolverMetrics metrics;
+	/**
+	 * Distances between the nodes given by the caller, null if they are
+	 * computed from the positions.
+	 */
+	private TravelMatrix givenDistances;
+	/**
+	 * The nodes every vehicle has already visited (in this order), null if
+	 * no route is fixed.
+	 */
+	private int[][] fixedPrefixes;
+	/**
+	 * Routes of every vehicle used as MIP start instead of the heuristic,
+	 * null if the heuristic is used.
+	 */
+	private int[][] startRoutes;
+	/**
+	 * Best solution of the workers of a {@link PortfolioSolver}, null if
+	 * the model is solved alone.
+	 */
+	private SharedIncumbent sharedIncumbent;
+	/**
+	 * The arcs the solution may use (in addition to the preprocessing),
+	 * null if all arcs may be used.
+	 */
+	private boolean[][] candidateArcs;
+	/**
+	 * True if the start routes were read from the checkpoint file.
+	 */
+	private boolean resumed;
 	/**
-	 * The travel time between node i and node j.
+	 * Maximal cliques of the conflict graph of the users, null if the
+	 * conflict graph is not used.
 	 */
-	private static double[][] t;
+	private List<int[]> conflictCliques;
+	/**
+	 * Lower bound of the number of used vehicles from the conflict graph.
+	 */
+	private int fleetLowerBound;
+	/**
+	 * Identifier of every user (index u - 1) of a model that is kept for
+	 * the next instance, null if the model is built for every solve.
+	 */
+	private int[] requests;
+	/**
+	 * The columns and rows of the kept model, null until it is built.
+	 */
+	private KeptModel kept;
+	/**
+	 * Key of every node in the kept model (see {@link KeptModel}).
+	 */
+	private int[] nodeKeys;
+	/**
+	 * The nodes of a kept model before the preprocessing, the big-M values
+	 * are computed with their time windows.
+	 */
+	private Node[] untightenedNodes;
+	/**
+	 * The vehicles of a kept model before the preprocessing.
+	 */
+	private Truck[] untightenedTrucks;
+	/**
+	 * Maximal number of cliques of the conflict graph that are added.
+	 */
+	private static final int MAX_CLIQUES = 500;
+	/**
+	 * Maximal number of recursive calls of the clique enumeration.
+	 */
+	private static final long MAX_CLIQUE_CALLS = 100000;
 
+	/**
+	 * Constructor for a new solver of one instance.
+	 * 
+	 * @param instance The instance that is solved.
+	 * @param options The settings of the solve.
+	 */
+	public model(Instance instance, SolverOptions options) {
+		super();
+		this.instance = instance;
+		this.options = options;
+		if (options.isVerbose()) {
+			out = System.out;
+		} else {
+			out = new PrintStream(new OutputStream() {
+				@Override
+				public void write(int b) {
+				}
+			});
+		}
+	}
 
-	public static void main(String[] args) {
+	/**
+	 * Use precomputed distances instead of computing them from the
+	 * positions of the nodes. The travel time equals the distance.
+	 * 
+	 * @param distances Distance between the nodes i and j (0..2n+1), null to
+	 *            compute them.
+	 */
+	public void setDistances(TravelMatrix distances) {
+		this.givenDistances = distances;
+	}
+
+	/**
+	 * Fix the beginning of the routes: Vehicle k starts with the nodes
+	 * prefixes[k] in this order, e.g. because it already visited them.
+	 * Symmetry breaking and the heuristic are not used in this case.
+	 * 
+	 * @param prefixes The visited nodes of every vehicle, null if no route is fixed.
+	 */
+	public void setFixedPrefixes(int[][] prefixes) {
+		this.fixedPrefixes = prefixes;
+	}
 
-		// Use a predefined set of nodes (definitely solvable)
-		setDefaultNodes();
-		// Or generate a random set of nodes (maybe not solvable)
-		// If you use a large number of nodes you have to raise
-		// the number of vehicles.
-		// This would generate a set of 12 nodes (5 Pick up, 5 drop down, origin depot,
-		// destination depot)
-		// autoGenerateNodes(5);
+	/**
+	 * Start the solver with the given routes instead of the heuristic
+	 * solution (if {@link SolverOptions#isHeuristicStart()} is set).
+	 * 
+	 * @param routes The nodes of the route of every vehicle without the
+	 *            depots, null to start with the heuristic.
+	 */
+	public void setStartRoutes(int[][] routes) {
+		this.startRoutes = routes;
+	}
 
-		c = new double[N.length][N.length];
-		t = new double[N.length][N.length];
+	/**
+	 * Restrict the model to a subset of the arcs, e.g. the neighborhood of
+	 * a repair in the {@link AlnsSolver}. Arcs that the preprocessing
+	 * removes stay removed.
+	 * 
+	 * @param arcs True for the arcs (i, j) that may be used, null to allow all arcs.
+	 */
+	public void setCandidateArcs(boolean[][] arcs) {
+		this.candidateArcs = arcs;
+	}
 
-		// Calculate the distance (euclidean distance) and time (distance * 15) between
-		// all nodes.
-		double xDistance;
-		double yDistance;
+	/**
+	 * Keep the backend and the model after the solve, so the next solve
+	 * (of the instance of {@link #setInstance(Instance)}) only adds the
+	 * columns and rows of the new requests and fixes the variables of the
+	 * requests that are gone to 0. The kept model is always the three-index
+	 * formulation without symmetry breaking and conflict cliques; the time
+	 * windows, ride times and fixed prefixes are bounds of its variables,
+	 * which every solve sets again.
+	 * 
+	 * @param requests The request r >= 0 of every user u (index u - 1), the
+	 *            same r for a user in every instance and never again after
+	 *            the user is gone. Null to build a new model for every solve.
+	 */
+	public void setRequests(int[] requests) {
+		this.requests = requests == null ? null : requests.clone();
+	}
 
-		for (int i = 0; i < N.length; i++) {
-			for (int j = 0; j < N.length; j++) {
-				if (i != j) {
-					// Calculate the euclidean distance between all nodes.
-					xDistance = Math.pow(N[i].getxPosition() - N[j].getxPosition(), 2);
-					yDistance = Math.pow(N[i].getyPosition() - N[j].getyPosition(), 2);
-					c[i][j] = Math.sqrt(xDistance + yDistance);
+	/**
+	 * Replace the instance that is solved, e.g. by the next state of a
+	 * kept model (see {@link #setRequests(int[])}). The fleet must stay the same.
+	 * 
+	 * @param instance The instance.
+	 */
+	public void setInstance(Instance instance) {
+		this.instance = instance;
+	}
 
-					// The travel time is equal to the euclidean distance.
-					t[i][j] = c[i][j];
-				}
-			}
+	/**
+	 * Release the backend of a kept model. The next solve builds the model again.
+	 */
+	public void end() {
+		if (kept != null) {
+			backend.end();
+			kept = null;
 		}
+	}
 
-		try {
-			cplex = new IloCplex();
+	/**
+	 * Exchange solutions with other models of the same instance and options
+	 * that are solved in parallel (see {@link PortfolioSolver}).
+	 * 
+	 * @param shared The best solution of all models, null to solve alone.
+	 */
+	public void setSharedIncumbent(SharedIncumbent shared) {
+		this.sharedIncumbent = shared;
+	}
 
-			// Constraint 14: x has to be binary.
-			x = new IloNumVar[N.length][N.length][K.length];
-			for (int i = 0; i < N.length; i++) {
-				for (int j = 0; j < N.length; j++) {
-					if (i != j) {
-						for (int k = 0; k < K.length; k++) {
-							x[i][j][k] = cplex.boolVar("x(" + "i" + i + ";j" + j + ";k" + k + ")");
-						}
-					}
-				}
+	/**
+	 * Solve all benchmark instances given as arguments.
+	 * 
+	 * @param args Paths of instance files or directories containing instance
+	 *            files, --export to write every model to Cordeau.lp.
+	 */
+	public static void main(String[] args) {
+		SolverOptions options = new SolverOptions();
+		List<String> paths = new ArrayList<String>();
+		for (String arg : args) {
+			if (arg.equals("--export")) {
+				options.setExportModel(true);
+			} else {
+				paths.add(arg);
 			}
+		}
+		if (paths.isEmpty()) {
+			System.err.println("Usage: model [--export] path...");
+			System.exit(1);
+		}
 
-			// objective function
-			IloLinearNumExpr obj = cplex.linearNumExpr();
-			for (int i = 0; i < N.length; i++) {
-				for (int j = 0; j < N.length; j++) {
-					if (i != j) {
-						for (int k = 0; k < K.length; k++) {
-							obj.addTerm(c[i][j], x[i][j][k]);
-						}
-					}
-				}
-			}
+		List<Instance> instances;
+		try {
+			instances = InstanceLoader.loadAll(paths.toArray(new String[paths.size()]));
+		} catch (IOException e) {
+			e.printStackTrace();
+			return;
+		}
 
-			// Minimize the objective.
-			cplex.addMinimize(obj);
+		for (Instance instance : instances) {
+			System.out.println("Instance: " + instance.getName());
+			new model(instance, options).solve();
+		}
+	}
 
-			// Constraint 2: Visit every Pick up Location. (Serve every request exactly
-			// once)
-			for (int i = 1; i <= n; i++) {
-				IloLinearNumExpr expr = cplex.linearNumExpr();
-				for (int k = 0; k < K.length; k++) {
-					for (int j = 0; j < N.length; j++) {
-						if (i != j) {
-							expr.addTerm(1.0, x[i][j][k]);
-						}
-					}
-				}
-				cplex.addEq(expr, 1.0, "Constraint2");
-			}
+	/**
+	 * Build and solve the model of the instance.
+	 * 
+	 * @return The result of the solve.
+	 */
+	public SolverResult solve() {
+		long begin = System.nanoTime();
+		SolverResult failed = prepare(begin);
+		if (failed != null) {
+			return failed;
+		}
 
-			// Constraint 3: visit pickup and dropdown depot by the same vehicle.
-			for (int i = 1; i <= n; i++) {
-				for (int k = 0; k < K.length; k++) {
-					IloLinearNumExpr expr = cplex.linearNumExpr();
-					for (int j = 0; j < N.length; j++) {
-						if (i != j) {
-							expr.addTerm(1.0, x[i][j][k]);
-						}
-					}
-					for (int j = 0; j < N.length; j++) {
-						if (i != j) {
-							if (n + i != j) {
-								expr.addTerm(-1.0, x[n + i][j][k]);
-							}
-						}
-					}
-					cplex.addEq(expr, 0.0, "Constraint3");
-				}
+		CheckpointWriter checkpoint = null;
+		try {
+			// A checkpoint receives the incumbents of the backend through a
+			// shared incumbent, too.
+			SharedIncumbent shared = sharedIncumbent;
+			if (shared == null && options.getCheckpointFile() != null) {
+				shared = new SharedIncumbent();
+			}
+			if (requests != null) {
+				updateKeptModel(shared);
+			} else {
+				buildModel(shared);
 			}
 
-			// Constraint 4: Start route at the origin depot.
-			for (int k = 0; k < K.length; k++) {
-				IloLinearNumExpr expr = cplex.linearNumExpr();
-				for (int j = 0; j < N.length; j++) {
-					if (j != 0) {
-						expr.addTerm(1.0, x[0][j][k]);
-					}
-				}
-				cplex.addEq(expr, 1.0, "Constraint4");
+			// Export the model and saves it in the same location
+			// where this file is stored.
+			if (options.isExportModel()) {
+				metrics.startPhase("export");
+				backend.exportModel("Cordeau.lp");
 			}
 
-			// Constraint 5: Flow constraint: Every Node from P union D (1..2n)
-			// must have the same amount of edges going and edges going out.
-			// The Nodes 0 and 2n+1 are not covered by this constraint, because
-			// the route should start/end there.
-			// The nodes must be visited by the same vehicle k.
-			for (int i = 1; i <= 2 * n; i++) {
-				for (int k = 0; k < K.length; k++) {
-					IloLinearNumExpr expr = cplex.linearNumExpr();
-					for (int j = 0; j < N.length; j++) {
-						if (i != j) {
-							expr.addTerm(1.0, x[j][i][k]);
-						}
-					}
-					for (int j = 0; j < N.length; j++) {
-						if (i != j) {
-							expr.addTerm(-1.0, x[i][j][k]);
-						}
-					}
-					cplex.addEq(expr, 0.0, "Constraint5");
-				}
+			if (options.getCheckpointFile() != null) {
+				checkpoint = new CheckpointWriter(options.getCheckpointFile(), options.getCheckpointInterval(),
+						extractor());
+				shared.addIncumbentListener(checkpoint);
 			}
 
-			// Constraint 6: End Route at destination depot.
-			for (int k = 0; k < K.length; k++) {
-				IloLinearNumExpr expr = cplex.linearNumExpr();
-				for (int i = 0; i < N.length; i++) {
-					if (i != 2 * n + 1) {
-						expr.addTerm(1.0, x[i][2 * n + 1][k]);
-					}
-				}
-				cplex.addEq(expr, 1.0, "Constraint6");
+			if ((options.isHeuristicStart() || resumed) && (startRoutes != null || fixedPrefixes == null)) {
+				metrics.startPhase("heuristic");
+				addHeuristicStart();
 			}
+			metrics.startPhase("solve");
 
-			// Continuous variable B_ik for the time a vehicle k starts its
-			// service at node i.
-			B = new IloNumVar[N.length][K.length];
-			for (int i = 0; i < N.length; i++) {
+			// Branch-and-cut: Separate the valid inequalities on the fractional
+			// solution of every node (user cuts) and on every integer solution
+			// (lazy constraints). The two-index formulation needs the lazy
+			// constraints to enforce pairing and precedence.
+			Separation separation = null;
+			if (options.isSeparateCuts() || twoIndex) {
+				int maxCapacity = 0;
 				for (int k = 0; k < K.length; k++) {
-					B[i][k] = cplex.numVar(0, 1440, "ServiceTimeB(i" + i + ";k" + k + ")");
+					maxCapacity = Math.max(maxCapacity, K[k].getCapacity());
 				}
-			}
-
-			// Constraint 7: Constraint is not linear. The linearized form
-			// that is implemented here is listed in the paper as Constraint 15.
-			// Constraint 15: The service at node j has to start after the
-			// service at node i has been finished and the vehicle has driven
-			// from node i to node j.
-			double M;
-			for (int i = 0; i < N.length; i++) {
-				for (int j = 0; j < N.length; j++) {
-					if (i != j) {
-						for (int k = 0; k < K.length; k++) {
-							// Calculate M
-							M = Math.max(0, N[i].getLatestServiceTime() + N[i].getServiceDuration() + t[i][j]
-									- N[j].getEarliestServiceTime());
-							IloLinearNumExpr expr = cplex.linearNumExpr();
-							expr.addTerm(1.0, B[i][k]);
-							expr.setConstant(N[i].getServiceDuration() + t[i][j] - M);
-							expr.addTerm(M, x[i][j][k]);
-							cplex.addGe(B[j][k], expr, "Constraint15");
-						}
-					}
+				CutSeparator separator = new CutSeparator(N, n, maxCapacity);
+				separator.setMetrics(metrics);
+				if (options.isParallelSeparation()) {
+					separator.setExecutor(ForkJoinPool.commonPool());
 				}
+				if (options.getCutPoolSize() > 0) {
+					separator.setPool(new CutPool(options.getCutPoolSize()));
+				}
+				separation = new Separation(G, x, separator);
+				SearchStrategy strategy = options.getSearchStrategy();
+				backend.setSeparation(separation.getColumns(), separation,
+						options.isSeparateCuts() && (strategy == null || strategy.isUserCuts()));
 			}
 
-			// Definition Variable Q_ik: Load of vehicle k after visiting node i.
-			Q = new IloNumVar[N.length][K.length];
-			for (int i = 0; i < N.length; i++) {
-				for (int k = 0; k < K.length; k++) {
-					Q[i][k] = cplex.numVar(0, K[k].getCapacity(), "Q(i" + i + ";k" + k + ")");
-				}
+			SolverResult result = solveModel(separation, begin);
+
+			for (CutType type : CutType.values()) {
+				out.println("Cuts added (" + type + "): " + result.getCuts(type));
 			}
+			return result;
 
-			// Constraint 8: Constraint 8 is not linear. The linearized form of this
-			// constraint
-			// is listed as constraint 16 in the paper.
-			// Constraint 16: The amount of load on vehicle k on node i plus the
-			// load of node j does not exceed the capacity of vehicle k.
-			double W;
-			for (int i = 0; i < N.length; i++) {
-				for (int j = 0; j < N.length; j++) {
-					if (i != j) {
-						for (int k = 0; k < K.length; k++) {
-							// Calculate W
-							W = Math.min(K[k].getCapacity(), K[k].getCapacity() + N[i].getLoad());
-
-							IloLinearNumExpr expr = cplex.linearNumExpr();
-							expr.addTerm(1.0, Q[i][k]);
-							expr.setConstant(N[j].getLoad() - W);
-							expr.addTerm(W, x[i][j][k]);
-							cplex.addGe(Q[j][k], expr, "Constraint16");
-						}
-					}
-				}
+		} catch (MipException e) {
+			e.printStackTrace();
+			// A model that failed is not kept.
+			kept = null;
+			return error(begin);
+		} finally {
+			if (checkpoint != null) {
+				checkpoint.flush();
+			}
+			if (backend != null && kept == null) {
+				backend.end();
 			}
+		}
+	}
 
-			// Maximum ride time of a user: For example 480 minutes = 8 hours.
+	/**
+	 * Build the model of the instance without solving it, e.g. to measure
+	 * the preprocessing and the build.
+	 * 
+	 * @return The measurements of the build (rows and columns of every
+	 *         family), null if the model could not be built or the
+	 *         preprocessing proved the instance infeasible.
+	 */
+	public SolverMetrics build() {
+		if (prepare(System.nanoTime()) != null) {
+			return null;
+		}
+		try {
+			buildModel(sharedIncumbent);
+			metrics.finish();
+			return metrics;
+		} catch (MipException e) {
+			e.printStackTrace();
+			return null;
+		} finally {
+			if (backend != null) {
+				backend.end();
+			}
+		}
+	}
 
-			// Definition L_i^k: The ride time of user i on vehicle k.
-			L = new IloNumVar[N.length][K.length];
+	/**
+	 * Compute the distances, read the checkpoint and run the preprocessing
+	 * up to the graph of the remaining arcs.
+	 * 
+	 * @param begin Start of the solve (System.nanoTime()).
+	 * @return Null if the model can be built, otherwise the result of the
+	 *         solve (error or infeasible).
+	 */
+	private SolverResult prepare(long begin) {
+		metrics = new SolverMetrics(instance.getName());
+		metrics.startPhase("distances");
+		N = instance.createNodes();
+		K = instance.createTrucks();
+		n = instance.getUsers();
+		lMaxRideTime = instance.getMaxRideTime();
+		if (requests != null) {
+			if (requests.length != n || (kept != null && kept.startRows.length != K.length)) {
+				System.err.println("The requests or the fleet do not match the instance.");
+				return error(begin);
+			}
+			nodeKeys = new int[N.length];
+			nodeKeys[2 * n + 1] = 1;
 			for (int i = 1; i <= n; i++) {
-				for (int k = 0; k < K.length; k++) {
-					L[i][k] = cplex.numVar(0, lMaxRideTime, "L(i" + i + ";k" + k + ")");
-				}
+				nodeKeys[i] = 2 + 2 * requests[i - 1];
+				nodeKeys[n + i] = 3 + 2 * requests[i - 1];
 			}
+		}
 
-			// Constraint 9: Set the ride time of each user.
-			// Ride time of user i in vehicle k (L_i^k)
-			// is equal to the ride time of user i + n minus (Ride time in
-			// i plus service time in node i).
-			for (int i = 1; i <= n; i++) {
-				for (int k = 0; k < K.length; k++) {
-					IloLinearNumExpr expr = cplex.linearNumExpr();
-					expr.addTerm(1.0, B[n + i][k]);
-					expr.addTerm(-1.0, B[i][k]);
-					expr.setConstant(-N[i].getServiceDuration());
-					cplex.addEq(L[i][k], expr, "Constraint9");
-				}
+		// The distance is the metric of the options (Euclidean by default)
+		// unless a precomputed matrix is given. The travel time is equal
+		// to the distance, so both share one matrix.
+		if (givenDistances != null) {
+			c = givenDistances;
+		} else if (options.getTravelMatrixFile() != null) {
+			try {
+				c = TravelMatrix.read(options.getTravelMatrixFile());
+			} catch (IOException e) {
+				e.printStackTrace();
+				return error(begin);
 			}
+		} else {
+			c = TravelMatrix.compute(options.getTravelMetric(), N, options.getMatrixStorage());
+		}
+		if (c.getSize() != N.length) {
+			System.err.println("The travel matrix has " + c.getSize() + " nodes, the instance " + N.length + ".");
+			return error(begin);
+		}
+		t = c;
+		// Vehicles with own depots travel from and to these depots.
+		try {
+			Truck.computeDepotTravelTimes(K, N, t, options);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage() + ".");
+			return error(begin);
+		}
 
-			// Constraint 10: The duration of a tour may not exceed the
-			// maximum time allowed for one vehicle.
+		// Restart from the checkpoint of an interrupted run: Its routes are
+		// the MIP start.
+		resumed = false;
+		if (options.getCheckpointFile() != null && startRoutes == null && fixedPrefixes == null) {
+			startRoutes = readCheckpoint();
+			resumed = startRoutes != null;
+		}
+
+		// Preprocessing: Tighten the time windows and determine the arcs
+		// that can be part of a feasible solution.
+		metrics.startPhase("preprocess");
+		boolean[][] feasibleArcs = new boolean[N.length][N.length];
+		for (int i = 0; i < N.length; i++) {
+			for (int j = 0; j < N.length; j++) {
+				feasibleArcs[i][j] = i != j;
+			}
+		}
+		// A kept model keeps the big-M values for the next instances,
+		// whose users may loosen the tightened windows of the depots.
+		if (requests != null) {
+			untightenedNodes = instance.createNodes();
+			untightenedTrucks = new Truck[K.length];
 			for (int k = 0; k < K.length; k++) {
-				IloLinearNumExpr expr = cplex.linearNumExpr();
-				expr.addTerm(1.0, B[2 * n + 1][k]);
-				expr.addTerm(-1.0, B[0][k]);
-				cplex.addLe(expr, K[k].getMaxTourTime(), "Constraint10");
+				untightenedTrucks[k] = new Truck(K[k]);
 			}
-
-			// Constraint 11: Nodes must be visited within their service time.
-			// Impose time window constraints.
-			for (int i = 0; i < N.length; i++) {
-				for (int k = 0; k < K.length; k++) {
-					cplex.addLe(N[i].getEarliestServiceTime(), B[i][k], "Constraint11_1");
-					cplex.addLe(B[i][k], N[i].getLatestServiceTime(), "Constraint11_2");
-				}
+		}
+		Preprocessor preprocessor = null;
+		if (options.isPreprocess()) {
+			preprocessor = new Preprocessor(N, K, n, lMaxRideTime, t);
+			if (!preprocessor.tightenTimeWindows()) {
+				out.println("Preprocessing: A time window is empty, the instance is infeasible.");
+				finishMetrics();
+				return new SolverResult(instance.getName(), "Infeasible", Double.NaN, Double.NaN, Double.NaN, 0,
+						new long[CutType.values().length], seconds(begin), null, metrics);
 			}
+			feasibleArcs = preprocessor.eliminateArcs();
+			int arcs = N.length * (N.length - 1);
+			out.println("Preprocessing: " + preprocessor.getTightenedWindows() + " time window changes, "
+					+ preprocessor.getRemovedArcs() + " of " + arcs + " arcs removed.");
+		}
 
-			// Constraint 12: The current travel time must be longer than the travel
-			// time from node i to node j and must not be longer than the permitted
-			// travel time.
-			for (int i = 1; i <= n; i++) {
-				for (int k = 0; k < K.length; k++) {
-					cplex.addLe(t[i][n + i], L[i][k], "Constraint12_1");
-					cplex.addLe(L[i][k], lMaxRideTime, "Constraint12_2");
-				}
+		// Conflict graph: Users that can not share a vehicle. Its cliques
+		// need pairwise different vehicles.
+		conflictCliques = null;
+		fleetLowerBound = 0;
+		if (preprocessor != null && options.isConflictCliques() && requests == null) {
+			ConflictGraph conflicts = preprocessor.buildConflictGraph();
+			conflictCliques = conflicts.findMaximalCliques(MAX_CLIQUES, MAX_CLIQUE_CALLS);
+			fleetLowerBound = conflicts.getFleetLowerBound();
+			out.println("Preprocessing: " + conflicts.getEdges() + " pairs of users in conflict, "
+					+ conflictCliques.size() + " cliques" + (conflicts.isComplete() ? "" : " (enumeration stopped)")
+					+ ", at least " + fleetLowerBound + " vehicles.");
+			if (fleetLowerBound > K.length) {
+				out.println("Preprocessing: " + fleetLowerBound
+						+ " users need different vehicles, the instance is infeasible.");
+				finishMetrics();
+				return new SolverResult(instance.getName(), "Infeasible", Double.NaN, Double.NaN, Double.NaN, 0,
+						new long[CutType.values().length], seconds(begin), null, metrics);
 			}
+		}
 
-			// Constraint 13: impose capacity constraint
+		// Only arcs that survived the preprocessing (and are candidates) are
+		// part of the graph.
+		if (candidateArcs != null) {
 			for (int i = 0; i < N.length; i++) {
-				for (int k = 0; k < K.length; k++) {
-					cplex.addLe(Math.max(0, N[i].getLoad()), Q[i][k], "Constraint13_1");
-					cplex.addLe(Q[i][k], Math.min(K[k].getCapacity(), K[k].getCapacity() + N[i].getLoad()),
-							"Constraint13_2");
+				for (int j = 0; j < N.length; j++) {
+					feasibleArcs[i][j] &= candidateArcs[i][j];
 				}
 			}
+		}
+		G = new ArcGraph(feasibleArcs);
+		// Vehicles that differ can not use the same arcs.
+		vehicleArcs = null;
+		if (preprocessor != null && !isHomogeneousFleet()) {
+			vehicleArcs = preprocessor.eliminateVehicleArcs(G);
+			out.println("Preprocessing: " + preprocessor.getRemovedVehicleArcs() + " of "
+					+ G.getArcCount() * K.length + " arc variables of single vehicles removed.");
+		}
 
-			// Export the model and saves it in the same location
-			// where this file is stored.
-			cplex.exportModel("Cordeau.lp");
+		return null;
+	}
 
-			solveModel();
+	/**
+	 * Create the backend and build the selected formulation with the
+	 * symmetry breaking and the fixed route prefixes.
+	 * 
+	 * @param shared Incumbent shared with other solves or a checkpoint, may be null.
+	 * @throws MipException
+	 */
+	private void buildModel(SharedIncumbent shared) throws MipException {
+		metrics.startPhase("build");
+		createBackend();
+		backend.setSharedIncumbent(shared);
 
-			cplex.end();
+		// Build the model in the selected formulation.
+		twoIndex = useTwoIndexFormulation();
+		if (twoIndex) {
+			out.println("Formulation: two-index (homogeneous fleet of " + K.length + " vehicles)");
+			buildTwoIndexModel();
+		} else {
+			out.println("Formulation: three-index");
+			buildThreeIndexModel();
+			if (options.isBreakSymmetry()) {
+				if (fixedPrefixes != null) {
+					out.println("The routes are partly fixed, no symmetry breaking.");
+				} else if (isHomogeneousFleet()) {
+					addSymmetryBreaking();
+				} else {
+					out.println("The vehicles are not identical, no symmetry breaking.");
+				}
+			}
+		}
 
-		} catch (IloException e) {
-			e.printStackTrace();
+		if (conflictCliques != null) {
+			addConflictCliques();
+		}
+
+		if (fixedPrefixes != null) {
+			addFixedPrefixes();
 		}
 	}
 
 	/**
-	 * Method to look up the route of a vehicle.
+	 * Create the backend with the settings of the options.
 	 * 
-	 * @param row
-	 * @param truck
-	 * @return The next node on the route.
+	 * @throws MipException
 	 */
-	public static int getNextNode(int row, int truck) {
-		for (int i = 0; i <= 2 * n + 1; i++) {
-			try {
-				if (i != row) {
-					if (Math.round(cplex.getValue(x[row][i][truck])) == 1) {
-						return i;
-					}
-				}
-			} catch (UnknownObjectException e) {
-				e.printStackTrace();
-			} catch (IloException e) {
-				e.printStackTrace();
-			}
+	private void createBackend() throws MipException {
+		backend = MipBackend.create(options.getBackend());
+		backend.setMetrics(metrics);
+		named = options.isNamedModel() || options.isExportModel();
+		backend.setNamed(named);
+		backend.setVerbose(options.isVerbose());
+		if (options.getThreads() > 0) {
+			backend.setThreads(options.getThreads());
 		}
-		return 0;
-	}
-
-//	/**
-//	 * Automatically generates random nodes.
-//	 * 
-//	 * @param numberOfNodes Amount of pick-up nodes.
-//	 */
-//	public static void autoGenerateNodes(int numberOfNodes) {
-//		// Auto generate Nodes:
-//		n = numberOfNodes;
-//
-//		N = new Node[2 * n + 2];
-//		
-//		// Explanation of the arguments: new Node(1, 2, 0, 480, 0, 0);
-//		// 		x-Position of the node = 1
-//		// 		y-Position of the node = 2
-//		// 		earliest service time = 0 (start service directly)
-//		// 		latest service time = 480 (end service after 8 hours)
-//		// 		load (how many people should be transported) = 0 people
-//		// 		service duration (how long takes it to load the people in the vehicle) = 0 minutes
-//		
-//		// Start Node is the origin depot.
-//		N[0] = new Node(Math.random() * 4 + 1, Math.random() * 4 + 1, 0, 480, 0, 0);
-//
-//		// Pick up nodes 1..n
-//		for (int i = 1; i <= n; i++) {
-//			N[i] = new Node(Math.random() * 4 + 1, Math.random() * 4 + 1, 0, 480, 1, 5);
-//		}
-//
-//		// Drop down nodes n+1..2n
-//		for (int i = n + 1; i <= 2 * n; i++) {
-//			N[i] = new Node(Math.random() * 4 + 1, Math.random() * 4 + 1, 0, 480, -1, 5);
-//		}
-//
-//		// Destination Node 2n+1 is the last node.
-//		N[2 * n + 1] = new Node(Math.random() * 4 + 1, Math.random() * 4 + 1, 0, 480, 0, 0);
-//	}
-
-	/**
-	 * Generate a default set of Nodes.</br>
-	 * 5 pickup locations, 5 dropdown locations, the start node and a end node will
-	 * be created.
-	 */
-	public static void setDefaultNodes() {
-
-		
-
-		// Explanation of the arguments: new Node(1, 2, 0, 480, 0, 0);
-		// 		x-Position of the node = 1
-		// 		y-Position of the node = 2
-		// 		earliest service time = 0 (start service directly)
-		// 		latest service time = 480 (end service after 8 hours)
-		// 		load (how many people should be transported) = 0 people
-		// 		service duration (how long takes it to load the people in the vehicle) = 0 minutes
-		
-		// Benchmark instance file path
-		String filePath = "C:/Users/thorb/Documents/1-34.txt";
-		  
-		  String contents = null;
-		  try {
-		   contents = new String(Files.readAllBytes(Paths.get(filePath)));
-		  } catch (IOException e) {
-		   e.printStackTrace();
-		  }
-		  
-		  String[] lines = contents.split("\\r?\\n");
-		  int size = lines.length;
-		  
-		// A total of 12 nodes.
-		  N = new Node[size-1];
-			
-		  for (int i = 0; i < size; i++) {
-		  	String line = lines[i];
-		  	String[] elements = line.trim().split("\\s+");
-		    int element_size = elements.length;
-		  	if (i != 0) {
-		  		// Explanation of the arguments: new Node(1, 2, 0, 480, 0, 0);
-				// 		x-Position of the node = 1
-				// 		y-Position of the node = 2
-				// 		earliest service time = 0 (start service directly)
-				// 		latest service time = 480 (end service after 8 hours)
-				// 		load (how many people should be transported) = 0 people
-				// 		service duration (how long takes it to load the people in the vehicle) = 0 minutes
-		        int index = Integer.parseInt(elements[0]);
-		        float x = Float.parseFloat(elements[1]);
-		        float y = Float.parseFloat(elements[2]);
-		        int d = Integer.parseInt(elements[3]);
-		        int q = Integer.parseInt(elements[4]);
-		        int e = Integer.parseInt(elements[5]);
-		        int l = Integer.parseInt(elements[6]);
-		        
-		        N[index] = new Node(x, y, e, l, q, d);
-	        } else {
-		        int VehNum = Integer.parseInt(elements[0]);
-		        n = Integer.parseInt(elements[1]);
-		        int maxDriveTime = Integer.parseInt(elements[2]);
-		        int capacity = Integer.parseInt(elements[3]);
-		        lMaxRideTime = Integer.parseInt(elements[4]);
-		        System.out.println("Create vehs");
-		        K = new Truck[VehNum];
-	  			for(int j = 0; j < VehNum; j++) {
-	  				// This vehicle has a capacity of 1 and can drive for 480 minutes.
-	  				K[j] = new Truck(capacity, maxDriveTime);
-	  			}
-		    }
-
-		}
-		  System.out.println(N);
-		
+		if (options.getTimeLimit() > 0) {
+			backend.setTimeLimit(options.getTimeLimit());
+		}
+		backend.setSearchStrategy(options.getSearchStrategy());
 	}
 
 	/**
-	 * Solve the model and print the output to the console.
+	 * Build the three-index formulation of a kept model or change it for
+	 * the current instance (see {@link #setRequests(int[])}):</br>
+	 * - Arcs that are new get their columns x_ijk with Constraint 15 and 16
+	 * and their terms in the objective and in the rows (2) to (6) of their
+	 * nodes. New nodes and users get their B, Q and L and rows.</br>
+	 * - The requests that are gone are removed (see {@link #removeRequests(int[])}).</br>
+	 * - Time windows, loads, ride times, the fixed prefixes and the arcs that
+	 * are not in the graph are set as bounds, which are replaced by the next
+	 * solve. The big-M values of the arcs come from the windows before the
+	 * preprocessing, which only get tighter from one instance to the next.
+	 * 
+	 * @param shared Incumbent shared with other solves or a checkpoint, may be null.
+	 * @throws MipException
 	 */
-	private static void solveModel() {
-		try {
-			// Solve the model
-			if (cplex.solve()) {
-				// Print the result
-				System.out.println("Solution status: " + cplex.getStatus());
-				System.out.println("--------------------------------------------");
-				System.out.println();
-				System.out.println("Solution found:");
-				System.out.println(" Objective value = " + cplex.getObjValue());
-				System.out.println();
-
-				for (int k = 0; k < K.length; k++) {
-					System.out.println("Solution for Truck " + k + ":");
-
-					System.out.println("Route duration: " + Math.round(cplex.getValue(B[2 * n + 1][k])) + " minutes.");
+	private void updateKeptModel(SharedIncumbent shared) throws MipException {
+		metrics.startPhase("build");
+		twoIndex = false;
+		boolean created = kept == null;
+		if (created) {
+			out.println("Formulation: three-index (kept for the next instances)");
+			createBackend();
+			kept = new KeptModel(K.length);
+		} else {
+			out.println("Formulation: three-index (kept model)");
+			backend.setMetrics(metrics);
+			backend.clearMIPStarts();
+		}
+		backend.setSharedIncumbent(shared);
+		removeRequests(keptNodes());
 
-					int nextNode = getNextNode(0, k);
-					System.out.print("Route: 0 -> ");
-					while (nextNode != 0) {
-						if (nextNode != 2 * n + 1) {
-							System.out.print(nextNode + " -> ");
-						} else {
-							System.out.print(nextNode);
-						}
-						nextNode = getNextNode(nextNode, k);
+		// Constraint 14: The arcs keep their columns, the new ones are
+		// created with one call of the backend. Columns of arcs that are
+		// not in the graph any more are fixed to 0 until they are usable
+		// again.
+		x = new int[G.getArcCount()][];
+		int[][] columns = new int[G.getArcCount()][];
+		List<int[]> added = new ArrayList<int[]>();
+		for (int a = 0; a < G.getArcCount(); a++) {
+			long key = arcKey(nodeKeys[G.getTail(a)], nodeKeys[G.getHead(a)]);
+			columns[a] = kept.arcs.get(key);
+			if (columns[a] == null) {
+				columns[a] = unset();
+				kept.arcs.put(key, columns[a]);
+			}
+			x[a] = unset();
+			for (int k = 0; k < K.length; k++) {
+				if (isUsable(a, k)) {
+					x[a][k] = columns[a][k];
+					if (x[a][k] < 0) {
+						added.add(new int[] { a, k });
 					}
-					System.out.println();
-					System.out.println();
 				}
-			} else {
-				System.out.println("No solution exists");
 			}
-		} catch (IloException e) {
-			e.printStackTrace();
+		}
+		int next = added.isEmpty() ? 0 : backend.boolVarArray(added.size(), "x");
+		for (int[] arc : added) {
+			int a = arc[0];
+			int k = arc[1];
+			x[a][k] = next++;
+			columns[a][k] = x[a][k];
+			if (named) {
+				backend.setName(x[a][k], "x(" + "i" + G.getTail(a) + ";j" + G.getHead(a) + ";k" + k + ")");
+			}
+		}
+		BitSet usable = new BitSet();
+		for (int a = 0; a < G.getArcCount(); a++) {
+			for (int k = 0; k < K.length; k++) {
+				if (x[a][k] >= 0) {
+					usable.set(x[a][k]);
+				}
+			}
+		}
+		for (int[] arc : kept.arcs.values()) {
+			for (int column : arc) {
+				if (column >= 0) {
+					backend.setBounds(column, 0, usable.get(column) ? 1 : 0);
+				}
+			}
+		}
+
+		// B and Q of every node, L of every user.
+		B = new int[N.length][];
+		Q = new int[N.length][];
+		L = new int[n + 1][];
+		double[] capacities = new double[K.length];
+		for (int k = 0; k < K.length; k++) {
+			capacities[k] = K[k].getCapacity();
+		}
+		for (int i = 0; i < N.length; i++) {
+			B[i] = KeptModel.get(kept.B, nodeKeys[i]);
+			if (B[i] == null) {
+				B[i] = keptVars("ServiceTimeB", i, bounds(K.length, 0), bounds(K.length, 1440));
+				KeptModel.set(kept.B, nodeKeys[i], B[i]);
+				KeptModel.set(kept.Q, nodeKeys[i], keptVars("Q", i, bounds(K.length, 0), capacities));
+			}
+			Q[i] = KeptModel.get(kept.Q, nodeKeys[i]);
+		}
+		for (int i = 1; i <= n; i++) {
+			L[i] = KeptModel.get(kept.L, nodeKeys[i]);
+			if (L[i] == null) {
+				L[i] = keptVars("L", i, bounds(K.length, 0), bounds(K.length, lMaxRideTime));
+				KeptModel.set(kept.L, nodeKeys[i], L[i]);
+				// Constraint 9: Ride time of the user.
+				for (int k = 0; k < K.length; k++) {
+					LinearExpression expr = new LinearExpression();
+					expr.addTerm(1.0, B[n + i][k]);
+					expr.addTerm(-1.0, B[i][k]);
+					expr.setConstant(-N[i].getServiceDuration());
+					backend.addEq(L[i][k], expr, "Constraint9");
+				}
+			}
+		}
+		if (created) {
+			// Constraint 10: Tour duration.
+			for (int k = 0; k < K.length; k++) {
+				LinearExpression expr = new LinearExpression();
+				expr.addTerm(1.0, B[2 * n + 1][k]);
+				expr.addTerm(-1.0, B[0][k]);
+				backend.addLe(expr, K[k].getMaxTourTime(), "Constraint10");
+			}
+		}
+
+		// The objective, Constraint 15 and 16 of the new arcs and their
+		// terms in the rows of their nodes.
+		LinearExpression obj = new LinearExpression();
+		LinearExpression[] visits = new LinearExpression[n + 1];
+		LinearExpression[][] pairings = new LinearExpression[n + 1][K.length];
+		LinearExpression[][] flows = new LinearExpression[2 * n + 1][K.length];
+		LinearExpression[] starts = new LinearExpression[K.length];
+		LinearExpression[] ends = new LinearExpression[K.length];
+		for (int k = 0; k < K.length; k++) {
+			starts[k] = new LinearExpression();
+			ends[k] = new LinearExpression();
+			for (int i = 1; i <= 2 * n; i++) {
+				flows[i][k] = new LinearExpression();
+				if (i <= n) {
+					pairings[i][k] = new LinearExpression();
+				}
+			}
+		}
+		for (int i = 1; i <= n; i++) {
+			visits[i] = new LinearExpression();
+		}
+		for (int[] arc : added) {
+			int a = arc[0];
+			int k = arc[1];
+			int i = G.getTail(a);
+			int j = G.getHead(a);
+			obj.addTerm(K[k].travel(c, i, j), x[a][k]);
+			addTimeLinking(a, k);
+			addLoadLinking(a, k, K[k].getCapacity());
+			if (i == 0) {
+				starts[k].addTerm(1.0, x[a][k]);
+			} else if (i <= n) {
+				visits[i].addTerm(1.0, x[a][k]);
+				pairings[i][k].addTerm(1.0, x[a][k]);
+				flows[i][k].addTerm(-1.0, x[a][k]);
+			} else if (i <= 2 * n) {
+				pairings[i - n][k].addTerm(-1.0, x[a][k]);
+				flows[i][k].addTerm(-1.0, x[a][k]);
+			}
+			if (j == 2 * n + 1) {
+				ends[k].addTerm(1.0, x[a][k]);
+			} else if (j >= 1) {
+				flows[j][k].addTerm(1.0, x[a][k]);
+			}
+		}
+		if (created) {
+			backend.addMinimize(obj);
+		} else if (obj.size() > 0) {
+			backend.addObjectiveTerms(obj);
+		}
+
+		// Constraint 2: The visit of user i equals its demand D_i, which is
+		// one until the request is gone.
+		for (int i = 1; i <= n; i++) {
+			int[] visit = KeptModel.get(kept.visits, nodeKeys[i]);
+			if (visit == null) {
+				int demand = backend.numVar(1, 1, named ? "Demand(i" + i + ")" : "Demand");
+				visits[i].addTerm(-1.0, demand);
+				KeptModel.set(kept.visits, nodeKeys[i],
+						new int[] { backend.addRow(0.0, visits[i], 0.0, "Constraint2"), demand });
+			} else if (visits[i].size() > 0) {
+				backend.addTerms(visit[0], visits[i]);
+			}
+		}
+		// Constraint 3: Pick-up and drop-off by the same vehicle.
+		for (int i = 1; i <= n; i++) {
+			int[] rows = keptRows(kept.pairingRows, nodeKeys[i]);
+			for (int k = 0; k < K.length; k++) {
+				rows[k] = extendRow(rows[k], pairings[i][k], 0.0, "Constraint3");
+			}
+		}
+		// Constraint 4 and 6: Start and end at the depots.
+		for (int k = 0; k < K.length; k++) {
+			if (created) {
+				kept.startRows[k] = backend.addRow(1.0, starts[k], 1.0, "Constraint4");
+				kept.endRows[k] = backend.addRow(1.0, ends[k], 1.0, "Constraint6");
+			} else {
+				extendRow(kept.startRows[k], starts[k], 1.0, "Constraint4");
+				extendRow(kept.endRows[k], ends[k], 1.0, "Constraint6");
+			}
+		}
+		// Constraint 5: Flow conservation.
+		for (int i = 1; i <= 2 * n; i++) {
+			int[] rows = keptRows(kept.flowRows, nodeKeys[i]);
+			for (int k = 0; k < K.length; k++) {
+				rows[k] = extendRow(rows[k], flows[i][k], 0.0, "Constraint5");
+			}
+		}
+
+		// Constraint 11, 12 and 13 as bounds.
+		for (int i = 0; i < N.length; i++) {
+			for (int k = 0; k < K.length; k++) {
+				Node node = i == 0 ? K[k].getOrigin(N) : i == 2 * n + 1 ? K[k].getDestination(N) : N[i];
+				backend.setBounds(B[i][k], node.getEarliestServiceTime(), node.getLatestServiceTime());
+				backend.setBounds(Q[i][k], minLoad(i, K[k].getCapacity()), maxLoad(i, K[k].getCapacity()));
+				if (i >= 1 && i <= n) {
+					backend.setBounds(L[i][k], t.get(i, n + i), lMaxRideTime);
+				}
+			}
+		}
+
+		if (fixedPrefixes != null) {
+			addFixedPrefixes();
+		}
+	}
+
+	/**
+	 * Remove the requests of the kept model that are not in the instance:
+	 * Their demand (see Constraint 2) is 0, their arcs are not in the graph
+	 * and fixed to 0. Their B and L are released, so the rows of their arcs
+	 * can be met with B_i = l_i: The big-M values were computed with
+	 * windows that contained l_i.
+	 * 
+	 * @param nodes The node of every key, -1 if it is not in the instance.
+	 * @throws MipException
+	 */
+	private void removeRequests(int[] nodes) throws MipException {
+		for (int key = 2; key < kept.visits.size(); key += 2) {
+			int[] visit = kept.visits.get(key);
+			int request = key / 2 - 1;
+			if (visit == null || nodes[key] >= 0 || kept.removed.get(request)) {
+				continue;
+			}
+			kept.removed.set(request);
+			backend.setBounds(visit[1], 0, 0);
+			for (int k = 0; k < K.length; k++) {
+				backend.setBounds(kept.B.get(key)[k], 0, 1440);
+				backend.setBounds(kept.B.get(key + 1)[k], 0, 1440);
+				backend.setBounds(kept.L.get(key)[k], -1440, 1440);
+			}
+		}
+	}
+
+	/**
+	 * Get the node of every key of the kept model, -1 for the keys that
+	 * are not in the instance.
+	 */
+	private int[] keptNodes() {
+		int size = kept.B.size();
+		for (int key : nodeKeys) {
+			size = Math.max(size, key + 1);
+		}
+		int[] nodes = new int[size];
+		Arrays.fill(nodes, -1);
+		for (int i = 0; i < N.length; i++) {
+			nodes[nodeKeys[i]] = i;
+		}
+		return nodes;
+	}
+
+	/**
+	 * Get the key of the arc (i, j) of the kept model from the keys of i and j.
+	 */
+	private static long arcKey(int tail, int head) {
+		return ((long) tail << 32) | head;
+	}
+
+	/**
+	 * Create the variables of a node of the kept model, one per vehicle.
+	 * Named models call them family(i;k) with the node i of the instance
+	 * they are created for.
+	 * 
+	 * @return The column of every vehicle.
+	 * @throws MipException
+	 */
+	private int[] keptVars(String family, int i, double[] lower, double[] upper) throws MipException {
+		int[] variables = new int[K.length];
+		int first = backend.numVarArray(lower, upper, family);
+		for (int k = 0; k < K.length; k++) {
+			variables[k] = first + k;
+			if (named) {
+				backend.setName(variables[k], family + "(i" + i + ";k" + k + ")");
+			}
+		}
+		return variables;
+	}
+
+	/**
+	 * Get the rows of a node of the kept model, -1 for every vehicle if the
+	 * node is new.
+	 */
+	private int[] keptRows(List<int[]> rows, int key) {
+		int[] result = KeptModel.get(rows, key);
+		if (result == null) {
+			result = unset();
+			KeptModel.set(rows, key, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Get an array with -1 for every vehicle.
+	 */
+	private int[] unset() {
+		int[] result = new int[K.length];
+		Arrays.fill(result, -1);
+		return result;
+	}
+
+	/**
+	 * Add the terms of new arcs to a row of the kept model. A row that does
+	 * not exist yet is created as terms = value if it has terms.
+	 * 
+	 * @param row The row, -1 if it does not exist.
+	 * @return The row, -1 if it still does not exist.
+	 * @throws MipException
+	 */
+	private int extendRow(int row, LinearExpression terms, double value, String name) throws MipException {
+		if (terms.size() == 0) {
+			return row;
+		}
+		if (row < 0) {
+			return backend.addRow(value, terms, value, name);
+		}
+		backend.addTerms(row, terms);
+		return row;
+	}
+
+	/**
+	 * Add the inequalities of the conflict graph: At least
+	 * {@link #fleetLowerBound} vehicles leave the origin depot to a user,
+	 * and in the three-index formulation every vehicle k serves at most one
+	 * user of a clique C, sum over i in C and j of x_ijk <= 1. The two-index
+	 * formulation has no vehicle index, only the fleet bound is added.
+	 * 
+	 * @throws MipException
+	 */
+	private void addConflictCliques() throws MipException {
+		int destination = 2 * n + 1;
+		int columns = twoIndex ? 1 : K.length;
+		if (fleetLowerBound > 1) {
+			LinearExpression used = new LinearExpression();
+			for (int a = G.outBegin(0); a < G.outEnd(0); a++) {
+				if (G.getHead(a) != destination) {
+					for (int k = 0; k < columns; k++) {
+						addArc(used, 1.0, a, k);
+					}
+				}
+			}
+			backend.addGe(used, fleetLowerBound, "FleetLowerBound");
+		}
+		if (twoIndex) {
+			return;
+		}
+		for (int[] clique : conflictCliques) {
+			for (int k = 0; k < K.length; k++) {
+				LinearExpression served = new LinearExpression();
+				for (int i : clique) {
+					for (int a = G.outBegin(i); a < G.outEnd(i); a++) {
+						addArc(served, 1.0, a, k);
+					}
+				}
+				if (served.size() > 0) {
+					backend.addLe(served, 1.0, "Clique");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Read the routes of the checkpoint file as start routes of the
+	 * vehicles: Route k of the checkpoint is driven by vehicle k.
+	 * 
+	 * @return The route of every vehicle, null if there is no usable checkpoint.
+	 */
+	private int[][] readCheckpoint() {
+		File file = new File(options.getCheckpointFile());
+		if (!file.isFile()) {
+			return null;
+		}
+		Solution solution;
+		try {
+			solution = BinaryFormat.readSolution(file.getPath());
+		} catch (IOException e) {
+			out.println("Checkpoint: " + e.getMessage() + ", no restart.");
+			return null;
+		}
+		if (solution.getUserCount() != n || solution.getRouteCount() > K.length) {
+			out.println("Checkpoint: " + file + " belongs to another instance, no restart.");
+			return null;
+		}
+		int[][] routes = new int[K.length][];
+		boolean[] visited = new boolean[2 * n + 2];
+		for (int k = 0; k < K.length; k++) {
+			routes[k] = k < solution.getRouteCount() ? solution.getRoute(k) : new int[0];
+			for (int i : routes[k]) {
+				if (i < 1 || i > 2 * n || visited[i]) {
+					out.println("Checkpoint: " + file + " belongs to another instance, no restart.");
+					return null;
+				}
+				visited[i] = true;
+			}
+		}
+		out.println("Checkpoint: Restart from " + file + " (objective value " + solution.getObjectiveValue() + ").");
+		return routes;
+	}
+
+	/**
+	 * End the measurements and get the result of a solve that failed.
+	 */
+	private SolverResult error(long begin) {
+		finishMetrics();
+		return new SolverResult(instance.getName(), "Error", Double.NaN, Double.NaN, Double.NaN, 0,
+				new long[CutType.values().length], seconds(begin), null, metrics);
+	}
+
+	/**
+	 * End the measurements of the solve, print the time of the phases and
+	 * write the metrics to {@link SolverOptions#getMetricsFile()}.
+	 */
+	private void finishMetrics() {
+		metrics.finish();
+		out.println("Time: " + metrics.getPhaseSummary());
+		if (options.getMetricsFile() != null) {
+			try (Writer writer = new FileWriter(options.getMetricsFile())) {
+				writer.write(metrics.toJson());
+				writer.write('\n');
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Get the seconds since a point in time.
+	 * 
+	 * @param begin The point in time (System.nanoTime()).
+	 * @return Elapsed seconds.
+	 */
+	private static double seconds(long begin) {
+		return (System.nanoTime() - begin) / 1e9;
+	}
+
+	/**
+	 * Run the insertion heuristic followed by the local search and pass the
+	 * routes to the backend as MIP start. The start contains x for all arcs and B,
+	 * Q and L for every visited node, the backend completes the remaining values.
+	 * 
+	 * @throws MipException
+	 */
+	private void addHeuristicStart() throws MipException {
+		long begin = System.nanoTime();
+		InsertionHeuristic heuristic = new InsertionHeuristic(N, K, n, lMaxRideTime, c, t);
+		int[][] routes;
+		if (startRoutes != null) {
+			routes = startRoutes;
+		} else {
+			routes = heuristic.construct();
+			if (routes == null) {
+				out.println("Heuristic: No feasible solution found.");
+				return;
+			}
+			LocalSearch search = new LocalSearch(heuristic);
+			double constructed = search.cost(routes);
+			search.improve(routes);
+			out.println("Heuristic: Cost " + constructed + " after insertion, " + search.cost(routes)
+					+ " after local search (" + (System.nanoTime() - begin) / 1000000 + " ms).");
+		}
+
+		// Identical vehicles are interchangeable: Order the routes by their
+		// lowest user, so the start also satisfies the symmetry breaking.
+		if (!twoIndex && isHomogeneousFleet() && startRoutes == null) {
+			Arrays.sort(routes, new Comparator<int[]>() {
+				@Override
+				public int compare(int[] a, int[] b) {
+					return Integer.compare(lowestUser(a), lowestUser(b));
+				}
+			});
+		}
+
+		List<Integer> variables = new ArrayList<Integer>();
+		List<Double> values = new ArrayList<Double>();
+		double[][] arcValues = new double[G.getArcCount()][x[0].length];
+		double end = N[2 * n + 1].getEarliestServiceTime();
+		for (int k = 0; k < routes.length; k++) {
+			int[] route = routes[k];
+			int column = twoIndex ? 0 : k;
+			if (twoIndex && route.length == 0) {
+				continue;
+			}
+			int previous = 0;
+			for (int position = 0; position <= route.length; position++) {
+				int node = position < route.length ? route[position] : 2 * n + 1;
+				int a = G.findArc(previous, node);
+				if (a < 0 || x[a][column] < 0) {
+					out.println("Heuristic: The routes use a removed arc, no MIP start.");
+					return;
+				}
+				arcValues[a][column] = 1;
+				previous = node;
+			}
+
+			// The backend fixes the arcs and computes B, Q and L itself if the
+			// schedule of a route is not known.
+			double[] start = heuristic.schedule(route, K[k]);
+			if (start == null) {
+				continue;
+			}
+			int load = 0;
+			for (int position = 0; position < route.length; position++) {
+				int node = route[position];
+				load += N[node].getLoad();
+				variables.add(B[node][column]);
+				values.add(start[position + 1]);
+				variables.add(Q[node][column]);
+				values.add((double) load);
+				if (node <= n) {
+					for (int other = position + 1; other < route.length; other++) {
+						if (route[other] == n + node) {
+							variables.add(L[node][column]);
+							values.add(start[other + 1] - start[position + 1] - N[node].getServiceDuration());
+						}
+					}
+				}
+			}
+			if (twoIndex) {
+				end = Math.max(end, start[route.length + 1]);
+			} else {
+				variables.add(B[0][k]);
+				values.add(start[0]);
+				variables.add(B[2 * n + 1][k]);
+				values.add(start[route.length + 1]);
+			}
+		}
+		if (twoIndex) {
+			variables.add(B[0][0]);
+			values.add(N[0].getEarliestServiceTime());
+			variables.add(B[2 * n + 1][0]);
+			values.add(end);
+		}
+		for (int a = 0; a < G.getArcCount(); a++) {
+			for (int column = 0; column < x[a].length; column++) {
+				if (x[a][column] >= 0) {
+					variables.add(x[a][column]);
+					values.add(arcValues[a][column]);
+				}
+			}
+		}
+
+		int[] startColumns = new int[variables.size()];
+		double[] startValues = new double[values.size()];
+		for (int v = 0; v < startValues.length; v++) {
+			startColumns[v] = variables.get(v);
+			startValues[v] = values.get(v);
+		}
+		backend.addMIPStart(startColumns, startValues, "Heuristic");
+	}
+
+	/**
+	 * Get the lowest user of a route (routes without users come last).
+	 * 
+	 * @param route The nodes of the route without depots.
+	 * @return The lowest pick-up node of the route.
+	 */
+	private int lowestUser(int[] route) {
+		int lowest = Integer.MAX_VALUE;
+		for (int position = 0; position < route.length; position++) {
+			if (route[position] <= n) {
+				lowest = Math.min(lowest, route[position]);
+			}
+		}
+		return lowest;
+	}
+
+	/**
+	 * Check whether all vehicles have the same capacity and the same
+	 * maximal tour duration and start and end at the depots of the instance.
+	 * 
+	 * @return True if the fleet is homogeneous.
+	 */
+	private boolean isHomogeneousFleet() {
+		return instance.isHomogeneousFleet();
+	}
+
+	/**
+	 * Decide which formulation is built.</br>
+	 * The two-index formulation is only valid for a homogeneous fleet. With
+	 * {@link Formulation#AUTO} it is used for fleets of at least
+	 * {@link #MIN_TWO_INDEX_FLEET} vehicles, where the three-index model is
+	 * |K| times larger and full of symmetric solutions.
+	 * 
+	 * @return True if the two-index formulation should be built.
+	 */
+	private boolean useTwoIndexFormulation() {
+		switch (options.getFormulation()) {
+		case TWO_INDEX:
+			if (!isHomogeneousFleet()) {
+				out.println("The two-index formulation needs identical vehicles, using three-index.");
+				return false;
+			}
+			return true;
+		case THREE_INDEX:
+			return false;
+		default:
+			return isHomogeneousFleet() && K.length >= MIN_TWO_INDEX_FLEET;
+		}
+	}
+
+	/**
+	 * Build the aggregated two-index formulation for a homogeneous fleet.</br>
+	 * x[a][0] is one if any vehicle uses the arc a, B, Q and L exist once per
+	 * node (column k = 0). Every node is visited by exactly one vehicle, so the
+	 * linearized time and load constraints (15) and (16) stay valid. Pairing
+	 * and precedence can not be expressed per vehicle and are enforced by the
+	 * cuts of the lazy constraint callback. The tour duration (10) is imposed
+	 * with a route start time S_i that is passed along the arcs of a route.
+	 * 
+	 * @throws MipException
+	 */
+	private void buildTwoIndexModel() throws MipException {
+		int capacity = K[0].getCapacity();
+		int maxTourTime = K[0].getMaxTourTime();
+
+		// Constraint 14: x has to be binary.
+		x = arcVariables(1);
+
+		// objective function
+		LinearExpression obj = new LinearExpression();
+		for (int a = 0; a < G.getArcCount(); a++) {
+			obj.addTerm(c.get(G.getTail(a), G.getHead(a)), x[a][0]);
+		}
+		backend.addMinimize(obj);
+
+		// Every node of P union D is left and entered exactly once.
+		for (int i = 1; i <= 2 * n; i++) {
+			LinearExpression out = new LinearExpression();
+			for (int a = G.outBegin(i); a < G.outEnd(i); a++) {
+				out.addTerm(1.0, x[a][0]);
+			}
+			backend.addEq(out, 1.0, "OutDegree");
+
+			LinearExpression in = new LinearExpression();
+			for (int p = G.inBegin(i); p < G.inEnd(i); p++) {
+				in.addTerm(1.0, x[G.inArc(p)][0]);
+			}
+			backend.addEq(in, 1.0, "InDegree");
+		}
+
+		// At most |K| vehicles leave the origin depot.
+		LinearExpression fleet = new LinearExpression();
+		for (int a = G.outBegin(0); a < G.outEnd(0); a++) {
+			fleet.addTerm(1.0, x[a][0]);
+		}
+		backend.addLe(fleet, K.length, "Fleet");
+
+		// Service start time B_i.
+		B = numVars("ServiceTimeB", 0, N.length, bounds(N.length, 0), bounds(N.length, 1440));
+
+		// Constraint 15 for every arc. The depot times B_0 and B_2n+1 are
+		// shared by all vehicles, B_0 can always be e_0.
+		for (int a = 0; a < G.getArcCount(); a++) {
+			addTimeLinking(a, 0);
+		}
+
+		// Load Q_i after visiting node i and Constraint 16 for every arc.
+		double[] lower = new double[N.length];
+		double[] upper = new double[N.length];
+		for (int i = 0; i < N.length; i++) {
+			lower[i] = minLoad(i, capacity);
+			upper[i] = maxLoad(i, capacity);
+		}
+		Q = numVars("Q", 0, N.length, lower, upper);
+		for (int a = 0; a < G.getArcCount(); a++) {
+			addLoadLinking(a, 0, capacity);
+		}
+
+		// Constraint 9 and 12: Ride time L_i of user i.
+		lower = new double[n];
+		for (int i = 1; i <= n; i++) {
+			lower[i - 1] = t.get(i, n + i);
+		}
+		L = numVars("L", 1, n + 1, lower, bounds(n, lMaxRideTime));
+		for (int i = 1; i <= n; i++) {
+			LinearExpression expr = new LinearExpression();
+			expr.addTerm(1.0, B[n + i][0]);
+			expr.addTerm(-1.0, B[i][0]);
+			expr.setConstant(-N[i].getServiceDuration());
+			backend.addEq(L[i][0], expr, "Constraint9");
+		}
+
+		// Constraint 11: Time windows.
+		for (int i = 0; i < N.length; i++) {
+			backend.addLowerBound(B[i][0], N[i].getEarliestServiceTime(), "Constraint11_1");
+			backend.addUpperBound(B[i][0], N[i].getLatestServiceTime(), "Constraint11_2");
+		}
+
+		// Constraint 10: The tour duration only has to be modeled if the
+		// depot time windows allow longer tours.
+		double origin = N[0].getEarliestServiceTime();
+		double horizon = N[0].getLatestServiceTime() - origin;
+		if (N[2 * n + 1].getLatestServiceTime() - origin <= maxTourTime) {
+			return;
+		}
+		// S_i <= time the vehicle visiting node i left the origin depot.
+		int[][] S = numVars("RouteStartS", 1, 2 * n + 1, bounds(2 * n, origin),
+				bounds(2 * n, N[0].getLatestServiceTime()));
+		for (int a = 0; a < G.getArcCount(); a++) {
+			int i = G.getTail(a);
+			int j = G.getHead(a);
+			if (j == 2 * n + 1) {
+				if (i == 0) {
+					continue;
+				}
+				// B_i + d_i + t_i,2n+1 - S_i <= T if the route ends after i.
+				double M = Math.max(0, N[i].getLatestServiceTime() + N[i].getServiceDuration() + t.get(i, j)
+						- origin - maxTourTime);
+				LinearExpression expr = new LinearExpression();
+				expr.addTerm(1.0, B[i][0]);
+				expr.addTerm(-1.0, S[i][0]);
+				expr.addTerm(M, x[a][0]);
+				backend.addLe(expr, maxTourTime + M - N[i].getServiceDuration() - t.get(i, j), "Constraint10");
+			} else if (i == 0) {
+				// S_j <= B_j - d_0 - t_0j if the route starts with j.
+				double M = Math.max(0, N[0].getLatestServiceTime() + N[0].getServiceDuration() + t.get(0, j)
+						- N[j].getEarliestServiceTime());
+				LinearExpression expr = new LinearExpression();
+				expr.addTerm(1.0, S[j][0]);
+				expr.addTerm(-1.0, B[j][0]);
+				expr.addTerm(M, x[a][0]);
+				backend.addLe(expr, M - N[0].getServiceDuration() - t.get(0, j), "RouteStart");
+			} else {
+				// S_j <= S_i if j follows i.
+				LinearExpression expr = new LinearExpression();
+				expr.addTerm(1.0, S[j][0]);
+				expr.addTerm(-1.0, S[i][0]);
+				expr.addTerm(horizon, x[a][0]);
+				backend.addLe(expr, horizon, "RouteStart");
+			}
+		}
+	}
+
+	/**
+	 * Constraint 15 for the arc a = (i, j) and the column k:</br>
+	 * B_j >= B_i + d_i + t_ij - M_ij (1 - x_ijk) with the smallest valid
+	 * M_ij = max(0, l_i + d_i + t_ij - e_j) of the (tightened) time windows.
+	 * The depots and travel times are the ones of vehicle k. A kept model
+	 * takes the windows before the preprocessing, they stay valid for the
+	 * next instances. The row is added to the lazy constraint pool if
+	 * {@link SolverOptions#isLazyBigM()} is set.
+	 * 
+	 * @throws MipException
+	 */
+	private void addTimeLinking(int a, int k) throws MipException {
+		if (x[a][k] < 0) {
+			return;
+		}
+		int i = G.getTail(a);
+		int j = G.getHead(a);
+		Node[] nodes = kept != null ? untightenedNodes : N;
+		Truck truck = kept != null ? untightenedTrucks[k] : K[k];
+		Node from = i == 0 ? truck.getOrigin(nodes) : nodes[i];
+		Node to = j == 2 * n + 1 ? truck.getDestination(nodes) : nodes[j];
+		double travel = K[k].travel(t, i, j);
+		double M = Math.max(0, from.getLatestServiceTime() + from.getServiceDuration() + travel
+				- to.getEarliestServiceTime());
+		LinearExpression expr = new LinearExpression();
+		expr.addTerm(1.0, B[i][k]);
+		expr.setConstant(from.getServiceDuration() + travel - M);
+		expr.addTerm(M, x[a][k]);
+		if (options.isLazyBigM()) {
+			backend.addLazyGe(B[j][k], expr, "Constraint15");
+		} else {
+			backend.addGe(B[j][k], expr, "Constraint15");
+		}
+	}
+
+	/**
+	 * Constraint 16 for the arc a = (i, j) and the column k, lifted with the
+	 * reverse arc (j, i):</br>
+	 * Q_j >= Q_i + q_j - W_ij (1 - x_ijk) + (W_ij - q_i - q_j) x_jik.</br>
+	 * W_ij = max Q_i + q_j - min Q_j is the smallest value for which the row
+	 * is redundant if neither arc is used. If the vehicle drives from j to i,
+	 * the row states Q_j >= Q_i - q_i, which the loads of the route meet with
+	 * equality. The row is added to the lazy constraint pool if
+	 * {@link SolverOptions#isLazyBigM()} is set.
+	 * 
+	 * @param capacity Capacity of the vehicle(s) of the column k.
+	 * @throws MipException
+	 */
+	private void addLoadLinking(int a, int k, int capacity) throws MipException {
+		if (x[a][k] < 0) {
+			return;
+		}
+		int i = G.getTail(a);
+		int j = G.getHead(a);
+		int qi = N[i].getLoad();
+		int qj = N[j].getLoad();
+		double W = maxLoad(i, capacity) + qj - minLoad(j, capacity);
+		LinearExpression expr = new LinearExpression();
+		expr.addTerm(1.0, Q[i][k]);
+		expr.setConstant(qj - W);
+		expr.addTerm(W, x[a][k]);
+		int reverse = G.findArc(j, i);
+		if (reverse >= 0 && x[reverse][k] >= 0 && W - qi - qj > 0) {
+			expr.addTerm(W - qi - qj, x[reverse][k]);
+		}
+		if (options.isLazyBigM()) {
+			backend.addLazyGe(Q[j][k], expr, "Constraint16");
+		} else {
+			backend.addGe(Q[j][k], expr, "Constraint16");
+		}
+	}
+
+	/**
+	 * Get the lower bound max(0, q_i) of the load Q_i of a vehicle after
+	 * node i. A node whose load does not fit into the vehicle gets the
+	 * bounds [0, Q]: The vehicle can not visit it, Constraint 16 of an arc
+	 * into the node would exceed the capacity.
+	 */
+	private double minLoad(int i, int capacity) {
+		return Math.abs(N[i].getLoad()) > capacity ? 0 : Math.max(0, N[i].getLoad());
+	}
+
+	/**
+	 * Get the upper bound min(Q, Q + q_i) of the load Q_i of a vehicle
+	 * after node i (Q if the load of the node does not fit).
+	 */
+	private double maxLoad(int i, int capacity) {
+		return Math.abs(N[i].getLoad()) > capacity ? capacity : Math.min(capacity, capacity + N[i].getLoad());
+	}
+
+	/**
+	 * Fix the arcs of the visited route prefixes to one: Vehicle k (or any
+	 * vehicle in the two-index formulation) drives from the origin depot
+	 * through the nodes of {@link #fixedPrefixes}[k]. A kept model fixes
+	 * them with their bounds.
+	 * 
+	 * @throws MipException
+	 */
+	private void addFixedPrefixes() throws MipException {
+		for (int k = 0; k < fixedPrefixes.length; k++) {
+			int column = twoIndex ? 0 : k;
+			int previous = 0;
+			for (int node : fixedPrefixes[k]) {
+				int a = G.findArc(previous, node);
+				if (a < 0 || x[a][column] < 0) {
+					out.println("The fixed route of vehicle " + k + " uses a removed arc (" + previous + ", " + node
+							+ ").");
+					break;
+				}
+				if (kept != null) {
+					backend.setBounds(x[a][column], 1, 1);
+				} else {
+					backend.addLowerBound(x[a][column], 1, "FixedPrefix");
+				}
+				previous = node;
+			}
+		}
+	}
+
+	/**
+	 * Symmetry breaking for identical vehicles in the three-index formulation.</br>
+	 * The vehicles are ordered by the lowest-indexed user they serve: Vehicle k
+	 * may only serve user i if vehicle k-1 serves a user h < i. Vehicles without
+	 * users come last, in particular user i can only be served by the vehicles
+	 * 0..i-1. Every solution can be relabeled this way, so only one of the |K|!
+	 * equivalent solutions stays feasible.</br>
+	 * With y_ik = sum over j of x_ijk the cumulated number of users
+	 * U_ik = y_1k + ... + y_ik keeps the rows short:</br>
+	 * U_ik = U_i-1,k + y_ik and y_ik <= U_i-1,k-1.
+	 * 
+	 * @throws MipException
+	 */
+	private void addSymmetryBreaking() throws MipException {
+		int[][] U = new int[N.length][K.length];
+		for (int i = 1; i <= n; i++) {
+			for (int k = 0; k < K.length; k++) {
+				LinearExpression served = new LinearExpression();
+				for (int a = G.outBegin(i); a < G.outEnd(i); a++) {
+					served.addTerm(1.0, x[a][k]);
+				}
+
+				if (k >= i) {
+					// The lowest user of vehicle k has at least the index k + 1.
+					backend.addEq(served, 0.0, "Symmetry");
+					continue;
+				}
+
+				U[i][k] = backend.numVar(0, n, named ? "U(i" + i + ";k" + k + ")" : "U");
+				LinearExpression cumulated = new LinearExpression();
+				cumulated.addTerm(1.0, U[i][k]);
+				// U_i-1,k exists if k < i - 1.
+				if (k < i - 1) {
+					cumulated.addTerm(-1.0, U[i - 1][k]);
+				}
+				for (int a = G.outBegin(i); a < G.outEnd(i); a++) {
+					cumulated.addTerm(-1.0, x[a][k]);
+				}
+				backend.addEq(cumulated, 0.0, "SymmetryCount");
+
+				if (k > 0) {
+					// U_i-1,k-1 exists because k - 1 < i - 1.
+					served.addTerm(-1.0, U[i - 1][k - 1]);
+					backend.addLe(served, 0.0, "Symmetry");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Create the binary arc variables x[a][k] with one call of the backend.
+	 * Named models call them x(i;j;k), x(i;j) in the two-index formulation.
+	 * Only the arcs a vehicle can use get a variable (see {@link #vehicleArcs}).
+	 * 
+	 * @param columns Number of vehicles with own variables.
+	 * @return The column of x_ak, -1 if vehicle k can not use the arc a.
+	 * @throws MipException
+	 */
+	private int[][] arcVariables(int columns) throws MipException {
+		int[][] variables = new int[G.getArcCount()][columns];
+		int count = 0;
+		for (int a = 0; a < G.getArcCount(); a++) {
+			for (int k = 0; k < columns; k++) {
+				count += isUsable(a, k) ? 1 : 0;
+			}
+		}
+		int next = backend.boolVarArray(count, "x");
+		for (int a = 0; a < G.getArcCount(); a++) {
+			for (int k = 0; k < columns; k++) {
+				if (!isUsable(a, k)) {
+					variables[a][k] = -1;
+					continue;
+				}
+				variables[a][k] = next++;
+				if (named) {
+					backend.setName(variables[a][k], "x(" + "i" + G.getTail(a) + ";j" + G.getHead(a)
+							+ (twoIndex ? "" : ";k" + k) + ")");
+				}
+			}
+		}
+		return variables;
+	}
+
+	/**
+	 * Check whether vehicle k can use the arc a.
+	 */
+	private boolean isUsable(int a, int k) {
+		return twoIndex || vehicleArcs == null || vehicleArcs[a][k];
+	}
+
+	/**
+	 * Add x_ak to an expression if vehicle k can use the arc a.
+	 */
+	private void addArc(LinearExpression expr, double coefficient, int a, int k) {
+		if (x[a][k] >= 0) {
+			expr.addTerm(coefficient, x[a][k]);
+		}
+	}
+
+	/**
+	 * Create the continuous variables [i][k] of the nodes from..to-1 with
+	 * one call of the backend, one column per vehicle (one column in the
+	 * two-index formulation). Named models call them family(i;k), family(i)
+	 * in the two-index formulation.
+	 * 
+	 * @param family Name of the variables.
+	 * @param from First node.
+	 * @param to Last node + 1.
+	 * @param lower Lower bound of every variable, node by node.
+	 * @param upper Upper bound of every variable, node by node.
+	 * @return The column of every variable, 0 for the nodes without variable.
+	 * @throws MipException
+	 */
+	private int[][] numVars(String family, int from, int to, double[] lower, double[] upper) throws MipException {
+		int columns = twoIndex ? 1 : K.length;
+		int[][] variables = new int[N.length][columns];
+		int first = backend.numVarArray(lower, upper, family);
+		for (int i = from; i < to; i++) {
+			for (int k = 0; k < columns; k++) {
+				variables[i][k] = first + (i - from) * columns + k;
+				if (named) {
+					backend.setName(variables[i][k], family + "(i" + i + (twoIndex ? "" : ";k" + k) + ")");
+				}
+			}
+		}
+		return variables;
+	}
+
+	/**
+	 * Get an array with the same bound for every variable.
+	 */
+	private static double[] bounds(int count, double value) {
+		double[] bounds = new double[count];
+		Arrays.fill(bounds, value);
+		return bounds;
+	}
+
+	/**
+	 * Build the three-index formulation of the paper: Every vehicle k has
+	 * its own arc variables x[a][k] and its own B, Q and L variables.
+	 * 
+	 * @throws MipException
+	 */
+	private void buildThreeIndexModel() throws MipException {
+		// Constraint 14: x has to be binary.
+		x = arcVariables(K.length);
+
+		// objective function
+		LinearExpression obj = new LinearExpression();
+		for (int a = 0; a < G.getArcCount(); a++) {
+			for (int k = 0; k < K.length; k++) {
+				addArc(obj, K[k].travel(c, G.getTail(a), G.getHead(a)), a, k);
+			}
+		}
+
+		// Minimize the objective.
+		backend.addMinimize(obj);
+
+		// Constraint 2: Visit every Pick up Location. (Serve every request exactly
+		// once)
+		for (int i = 1; i <= n; i++) {
+			LinearExpression expr = new LinearExpression();
+			for (int k = 0; k < K.length; k++) {
+				for (int a = G.outBegin(i); a < G.outEnd(i); a++) {
+					addArc(expr, 1.0, a, k);
+				}
+			}
+			backend.addEq(expr, 1.0, "Constraint2");
+		}
+
+		// Constraint 3: visit pickup and dropdown depot by the same vehicle.
+		for (int i = 1; i <= n; i++) {
+			for (int k = 0; k < K.length; k++) {
+				LinearExpression expr = new LinearExpression();
+				for (int a = G.outBegin(i); a < G.outEnd(i); a++) {
+					addArc(expr, 1.0, a, k);
+				}
+				for (int a = G.outBegin(n + i); a < G.outEnd(n + i); a++) {
+					addArc(expr, -1.0, a, k);
+				}
+				if (expr.size() > 0) {
+					backend.addEq(expr, 0.0, "Constraint3");
+				}
+			}
+		}
+
+		// Constraint 4: Start route at the origin depot.
+		for (int k = 0; k < K.length; k++) {
+			LinearExpression expr = new LinearExpression();
+			for (int a = G.outBegin(0); a < G.outEnd(0); a++) {
+				addArc(expr, 1.0, a, k);
+			}
+			backend.addEq(expr, 1.0, "Constraint4");
+		}
+
+		// Constraint 5: Flow constraint: Every Node from P union D (1..2n)
+		// must have the same amount of edges going and edges going out.
+		// The Nodes 0 and 2n+1 are not covered by this constraint, because
+		// the route should start/end there.
+		// The nodes must be visited by the same vehicle k.
+		for (int i = 1; i <= 2 * n; i++) {
+			for (int k = 0; k < K.length; k++) {
+				LinearExpression expr = new LinearExpression();
+				for (int p = G.inBegin(i); p < G.inEnd(i); p++) {
+					addArc(expr, 1.0, G.inArc(p), k);
+				}
+				for (int a = G.outBegin(i); a < G.outEnd(i); a++) {
+					addArc(expr, -1.0, a, k);
+				}
+				if (expr.size() > 0) {
+					backend.addEq(expr, 0.0, "Constraint5");
+				}
+			}
+		}
+
+		// Constraint 6: End Route at destination depot.
+		for (int k = 0; k < K.length; k++) {
+			LinearExpression expr = new LinearExpression();
+			for (int p = G.inBegin(2 * n + 1); p < G.inEnd(2 * n + 1); p++) {
+				addArc(expr, 1.0, G.inArc(p), k);
+			}
+			backend.addEq(expr, 1.0, "Constraint6");
+		}
+
+		// Continuous variable B_ik for the time a vehicle k starts its
+		// service at node i.
+		B = numVars("ServiceTimeB", 0, N.length, bounds(N.length * K.length, 0), bounds(N.length * K.length, 1440));
+
+		// Constraint 7: Constraint is not linear. The linearized form
+		// that is implemented here is listed in the paper as Constraint 15.
+		// Constraint 15: The service at node j has to start after the
+		// service at node i has been finished and the vehicle has driven
+		// from node i to node j.
+		for (int a = 0; a < G.getArcCount(); a++) {
+			for (int k = 0; k < K.length; k++) {
+				addTimeLinking(a, k);
+			}
+		}
+
+		// Definition Variable Q_ik: Load of vehicle k after visiting node i.
+		double[] capacities = new double[N.length * K.length];
+		for (int v = 0; v < capacities.length; v++) {
+			capacities[v] = K[v % K.length].getCapacity();
+		}
+		Q = numVars("Q", 0, N.length, bounds(capacities.length, 0), capacities);
+
+		// Constraint 8: Constraint 8 is not linear. The linearized form of this
+		// constraint
+		// is listed as constraint 16 in the paper.
+		// Constraint 16: The amount of load on vehicle k on node i plus the
+		// load of node j does not exceed the capacity of vehicle k.
+		for (int a = 0; a < G.getArcCount(); a++) {
+			for (int k = 0; k < K.length; k++) {
+				addLoadLinking(a, k, K[k].getCapacity());
+			}
+		}
+
+		// Maximum ride time of a user: For example 480 minutes = 8 hours.
+
+		// Definition L_i^k: The ride time of user i on vehicle k.
+		L = numVars("L", 1, n + 1, bounds(n * K.length, 0), bounds(n * K.length, lMaxRideTime));
+
+		// Constraint 9: Set the ride time of each user.
+		// Ride time of user i in vehicle k (L_i^k)
+		// is equal to the ride time of user i + n minus (Ride time in
+		// i plus service time in node i).
+		for (int i = 1; i <= n; i++) {
+			for (int k = 0; k < K.length; k++) {
+				LinearExpression expr = new LinearExpression();
+				expr.addTerm(1.0, B[n + i][k]);
+				expr.addTerm(-1.0, B[i][k]);
+				expr.setConstant(-N[i].getServiceDuration());
+				backend.addEq(L[i][k], expr, "Constraint9");
+			}
+		}
+
+		// Constraint 10: The duration of a tour may not exceed the
+		// maximum time allowed for one vehicle.
+		for (int k = 0; k < K.length; k++) {
+			LinearExpression expr = new LinearExpression();
+			expr.addTerm(1.0, B[2 * n + 1][k]);
+			expr.addTerm(-1.0, B[0][k]);
+			backend.addLe(expr, K[k].getMaxTourTime(), "Constraint10");
+		}
+
+		// Constraint 11: Nodes must be visited within their service time.
+		// Impose time window constraints. The depot windows of a vehicle
+		// with own depots are its shift.
+		for (int i = 0; i < N.length; i++) {
+			for (int k = 0; k < K.length; k++) {
+				Node node = i == 0 ? K[k].getOrigin(N) : i == 2 * n + 1 ? K[k].getDestination(N) : N[i];
+				backend.addLowerBound(B[i][k], node.getEarliestServiceTime(), "Constraint11_1");
+				backend.addUpperBound(B[i][k], node.getLatestServiceTime(), "Constraint11_2");
+			}
+		}
+
+		// Constraint 12: The current travel time must be longer than the travel
+		// time from node i to node j and must not be longer than the permitted
+		// travel time.
+		for (int i = 1; i <= n; i++) {
+			for (int k = 0; k < K.length; k++) {
+				backend.addLowerBound(L[i][k], t.get(i, n + i), "Constraint12_1");
+				backend.addUpperBound(L[i][k], lMaxRideTime, "Constraint12_2");
+			}
+		}
+
+		// Constraint 13: impose capacity constraint
+		for (int i = 0; i < N.length; i++) {
+			for (int k = 0; k < K.length; k++) {
+				backend.addLowerBound(Q[i][k], minLoad(i, K[k].getCapacity()), "Constraint13_1");
+				backend.addUpperBound(Q[i][k], maxLoad(i, K[k].getCapacity()), "Constraint13_2");
+			}
+		}
+	}
+
+	/**
+	 * Solve the model and print the output to the console.
+	 * 
+	 * @param separation The separation of the cuts, null if no cuts are separated.
+	 * @param begin Start of the solve (System.nanoTime()).
+	 * @return The result of the solve.
+	 * @throws MipException
+	 */
+	private SolverResult solveModel(Separation separation, long begin) throws MipException {
+		double objectiveValue = Double.NaN;
+		double gap = Double.NaN;
+		Solution solution = null;
+		// Solve the model
+		boolean solved = backend.solve();
+		metrics.startPhase("extract");
+		if (solved) {
+			// Print the result
+			out.println("Solution status: " + backend.getStatus());
+			out.println("--------------------------------------------");
+			out.println();
+			out.println("Solution found:");
+			out.println(" Objective value = " + backend.getObjValue());
+			out.println();
+
+			objectiveValue = backend.getObjValue();
+			gap = backend.getMIPRelativeGap();
+			solution = extractor().extract(backend);
+			for (int r = 0; r < solution.getRouteCount(); r++) {
+				// Every vehicle has one route in the three-index formulation,
+				// the routes of the two-index formulation have no vehicle.
+				out.println((twoIndex ? "Solution for route " : "Solution for Truck ") + r + ":");
+				out.println("Route duration: " + Math.round(solution.getDuration(r)) + " minutes.");
+
+				out.print("Route: 0 -> ");
+				for (int position = 0; position < solution.getLength(r); position++) {
+					out.print(solution.getNode(r, position) + " -> ");
+				}
+				out.println(2 * n + 1);
+				out.println();
+			}
+		} else {
+			out.println("No solution exists");
+		}
+
+		long[] cuts = new long[CutType.values().length];
+		if (separation != null) {
+			for (CutType type : CutType.values()) {
+				cuts[type.ordinal()] = separation.getAddedCuts(type);
+			}
+		}
+		String status = backend.getStatus();
+		double bound = backend.getBestObjValue();
+		long nodes = backend.getNodeCount();
+		finishMetrics();
+		return new SolverResult(instance.getName(), status, objectiveValue, bound, gap, nodes, cuts, seconds(begin),
+				solution, metrics);
+	}
+
+	/**
+	 * Create the extractor of the solutions. The routes of the two-index
+	 * formulation share the depot service starts, their depot times are
+	 * derived from the first and last stop.
+	 */
+	private SolutionExtractor extractor() {
+		if (twoIndex) {
+			return new SolutionExtractor(G, n, x, B, Q, L, N, t);
+		}
+		return new SolutionExtractor(G, n, x, B, Q, L);
+	}
+
+	/**
+	 * The columns and rows of a kept model (see {@link #setRequests(int[])}).
+	 * Nodes are identified by keys that are the same in every instance: 0
+	 * for the origin depot, 1 for the destination depot, 2 + 2r and 3 + 2r
+	 * for the pick-up and the drop-off of the request r.
+	 */
+	private static class KeptModel {
+
+		/**
+		 * The columns x_ijk of every arc by the keys of i (high 32 bits) and
+		 * j, -1 if vehicle k can not use the arc.
+		 */
+		private final Map<Long, int[]> arcs = new HashMap<Long, int[]>();
+		/**
+		 * The columns B_ik of every node key.
+		 */
+		private final List<int[]> B = new ArrayList<int[]>();
+		/**
+		 * The columns Q_ik of every node key.
+		 */
+		private final List<int[]> Q = new ArrayList<int[]>();
+		/**
+		 * The columns L_ik of the key of every pick-up.
+		 */
+		private final List<int[]> L = new ArrayList<int[]>();
+		/**
+		 * Row of Constraint 2 and column of the demand of the key of every pick-up.
+		 */
+		private final List<int[]> visits = new ArrayList<int[]>();
+		/**
+		 * Row of Constraint 3 of the key of every pick-up and vehicle, -1 if none.
+		 */
+		private final List<int[]> pairingRows = new ArrayList<int[]>();
+		/**
+		 * Row of Constraint 5 of every node key and vehicle, -1 if none.
+		 */
+		private final List<int[]> flowRows = new ArrayList<int[]>();
+		/**
+		 * Row of Constraint 4 of every vehicle.
+		 */
+		private final int[] startRows;
+		/**
+		 * Row of Constraint 6 of every vehicle.
+		 */
+		private final int[] endRows;
+		/**
+		 * The requests that were removed.
+		 */
+		private final BitSet removed = new BitSet();
+
+		KeptModel(int vehicles) {
+			startRows = new int[vehicles];
+			endRows = new int[vehicles];
+		}
+
+		/**
+		 * Get the entry of a key, null if it has none.
+		 */
+		private static int[] get(List<int[]> list, int key) {
+			return key < list.size() ? list.get(key) : null;
+		}
+
+		/**
+		 * Set the entry of a key.
+		 */
+		private static void set(List<int[]> list, int key, int[] value) {
+			while (list.size() <= key) {
+				list.add(null);
+			}
+			list.set(key, value);
 		}
 	}
 
@@ -0,0 +1,148 @@
+package logic;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Round trips of instances and solutions through the binary files.
+ *
+ */
+class BinaryFormatTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void roundTripsInstance() throws IOException {
+		Instance instance = TestInstances.read("small", TestInstances.SMALL);
+		String file = file("small.dins");
+		BinaryFormat.writeInstance(instance, file);
+		assertSameInstance(instance, BinaryFormat.readInstance(file));
+	}
+
+	@Test
+	void roundTripsHeterogeneousFleet() throws IOException {
+		Instance small = TestInstances.read("small", TestInstances.SMALL);
+		Truck[] fleet = { new Truck(3, 480), new Truck(5, 300, new Node(1, 2, 60, 400, 0, 0), null),
+				new Truck(2, 240, new Node(-3, 4, 0, 480, 0, 0), new Node(5, -6, 100, 480, 0, 0)) };
+		Node[] nodes = small.createNodes();
+		double[] x = new double[nodes.length];
+		double[] y = new double[nodes.length];
+		int[] serviceDurations = new int[nodes.length];
+		int[] loads = new int[nodes.length];
+		double[] earliest = new double[nodes.length];
+		double[] latest = new double[nodes.length];
+		for (int i = 0; i < nodes.length; i++) {
+			x[i] = nodes[i].getxPosition();
+			y[i] = nodes[i].getyPosition();
+			serviceDurations[i] = nodes[i].getServiceDuration();
+			loads[i] = nodes[i].getLoad();
+			earliest[i] = nodes[i].getEarliestServiceTime();
+			latest[i] = nodes[i].getLatestServiceTime();
+		}
+		Instance instance = new Instance("fleet", small.getUsers(), fleet, small.getMaxRideTime(), x, y,
+				serviceDurations, loads, earliest, latest);
+		String file = file("fleet.dins");
+		BinaryFormat.writeInstance(instance, file);
+		assertSameInstance(instance, BinaryFormat.readInstance(file));
+	}
+
+	@Test
+	void roundTripsSolution() throws IOException {
+		Solution solution = new Solution(123.5, new int[][] { { 1, 2, 4, 3 }, {}, { 5, 6 } },
+				new double[][] { { 0, 10, 20.5, 30, 40, 50 }, { 0, 0 }, { 5, 15, 25, 35 } },
+				new int[][] { { 1, 2, 1, 0 }, {}, { 1, 0 } }, new double[] { 0, 20.5, 19.5, 10 });
+		String file = file("solution.dsol");
+		BinaryFormat.writeSolution(solution, file);
+		Solution read = BinaryFormat.readSolution(file);
+		assertEquals(solution.getObjectiveValue(), read.getObjectiveValue());
+		assertEquals(solution.getRouteCount(), read.getRouteCount());
+		for (int r = 0; r < solution.getRouteCount(); r++) {
+			assertArrayEquals(solution.getRoute(r), read.getRoute(r));
+			for (int stop = 0; stop < solution.getLength(r) + 2; stop++) {
+				assertEquals(solution.getServiceStart(r, stop), read.getServiceStart(r, stop));
+			}
+			for (int position = 0; position < solution.getLength(r); position++) {
+				assertEquals(solution.getLoad(r, position), read.getLoad(r, position));
+			}
+		}
+		assertEquals(solution.getUserCount(), read.getUserCount());
+		for (int i = 1; i <= solution.getUserCount(); i++) {
+			assertEquals(solution.getRideTime(i), read.getRideTime(i));
+		}
+	}
+
+	@Test
+	void rejectsOtherFiles() throws IOException {
+		final String file = file("other.dins");
+		try (FileOutputStream out = new FileOutputStream(file)) {
+			out.write(new byte[] { 'D', 'S', 'O', 'L', 0, 0, 0, 1 });
+		}
+		assertThrows(IOException.class, new Executable() {
+			@Override
+			public void execute() throws Throwable {
+				BinaryFormat.readInstance(file);
+			}
+		});
+	}
+
+	/**
+	 * Get the name of a file in the temporary directory.
+	 */
+	private String file(String name) {
+		return new File(directory.toFile(), name).getPath();
+	}
+
+	/**
+	 * Compare every value of two instances.
+	 */
+	private static void assertSameInstance(Instance expected, Instance actual) {
+		assertEquals(expected.getName(), actual.getName());
+		assertEquals(expected.getUsers(), actual.getUsers());
+		assertEquals(expected.getVehicles(), actual.getVehicles());
+		assertEquals(expected.getMaxRideTime(), actual.getMaxRideTime());
+		Node[] expectedNodes = expected.createNodes();
+		Node[] actualNodes = actual.createNodes();
+		assertEquals(expectedNodes.length, actualNodes.length);
+		for (int i = 0; i < expectedNodes.length; i++) {
+			assertSameNode(expectedNodes[i], actualNodes[i]);
+		}
+		Truck[] expectedTrucks = expected.createTrucks();
+		Truck[] actualTrucks = actual.createTrucks();
+		assertEquals(expectedTrucks.length, actualTrucks.length);
+		for (int k = 0; k < expectedTrucks.length; k++) {
+			assertEquals(expectedTrucks[k].getCapacity(), actualTrucks[k].getCapacity());
+			assertEquals(expectedTrucks[k].getMaxTourTime(), actualTrucks[k].getMaxTourTime());
+			assertSameNode(expectedTrucks[k].getOriginDepot(), actualTrucks[k].getOriginDepot());
+			assertSameNode(expectedTrucks[k].getDestinationDepot(), actualTrucks[k].getDestinationDepot());
+		}
+	}
+
+	/**
+	 * Compare every value of two nodes, both may be null.
+	 */
+	private static void assertSameNode(Node expected, Node actual) {
+		if (expected == null) {
+			assertNull(actual);
+			return;
+		}
+		assertEquals(expected.getxPosition(), actual.getxPosition());
+		assertEquals(expected.getyPosition(), actual.getyPosition());
+		assertEquals(expected.getServiceDuration(), actual.getServiceDuration());
+		assertEquals(expected.getLoad(), actual.getLoad());
+		assertEquals(expected.getEarliestServiceTime(), actual.getEarliestServiceTime());
+		assertEquals(expected.getLatestServiceTime(), actual.getLatestServiceTime());
+	}
+
+}
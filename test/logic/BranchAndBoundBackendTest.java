@@ -0,0 +1,92 @@
+package logic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Solves of small instances with known optima by the bundled solver, with
+ * both formulations and with and without the lazy big-M constraints.
+ *
+ */
+class BranchAndBoundBackendTest {
+
+	/**
+	 * Allowed difference to the known optimum (relative gap of the search
+	 * and rounding of the optima).
+	 */
+	private static final double TOLERANCE = 0.02;
+
+	@Test
+	void solvesSmallInstanceToOptimality() {
+		assertOptimum(TestInstances.read("small", TestInstances.SMALL), TestInstances.SMALL_OPTIMUM);
+	}
+
+	@Test
+	void solvesMediumInstanceToOptimality() {
+		assertOptimum(TestInstances.read("medium", TestInstances.MEDIUM), TestInstances.MEDIUM_OPTIMUM);
+	}
+
+	@Test
+	void solvesTightInstanceToOptimality() {
+		assertOptimum(TestInstances.tight(3), TestInstances.TIGHT_OPTIMUM);
+	}
+
+	@Test
+	void detectsInfeasibleInstance() {
+		for (Formulation formulation : new Formulation[] { Formulation.THREE_INDEX, Formulation.TWO_INDEX }) {
+			for (boolean lazyBigM : new boolean[] { false, true }) {
+				SolverResult result = solve(TestInstances.tight(2), formulation, lazyBigM);
+				assertEquals("Infeasible", result.getStatus(), formulation + ", lazy big-M " + lazyBigM);
+			}
+		}
+	}
+
+	@Test
+	void countsOriginServiceInTourDuration() {
+		assertOptimum(TestInstances.longRoute(0), 100);
+		for (Formulation formulation : new Formulation[] { Formulation.THREE_INDEX, Formulation.TWO_INDEX }) {
+			SolverResult result = solve(TestInstances.longRoute(10), formulation, false);
+			assertEquals("Infeasible", result.getStatus(), formulation.toString());
+		}
+	}
+
+	@Test
+	void stopsAtTimeLimit() {
+		SolverOptions options = TestInstances.javaOptions();
+		options.setTimeLimit(1);
+		long begin = System.nanoTime();
+		SolverResult result = new model(TestInstances.random(25, 3, 1), options).solve();
+		double seconds = (System.nanoTime() - begin) / 1e9;
+		assertTrue(seconds < 10, "The solve took " + seconds + " s");
+		assertTrue(result.getStatus().equals("Feasible") || result.getStatus().equals("Unknown"), result.getStatus());
+	}
+
+	/**
+	 * Solve an instance with every formulation and with and without lazy
+	 * big-M constraints and compare the objective value with the optimum.
+	 */
+	private static void assertOptimum(Instance instance, double optimum) {
+		for (Formulation formulation : new Formulation[] { Formulation.THREE_INDEX, Formulation.TWO_INDEX }) {
+			for (boolean lazyBigM : new boolean[] { false, true }) {
+				String setting = instance.getName() + ", " + formulation + ", lazy big-M " + lazyBigM;
+				SolverResult result = solve(instance, formulation, lazyBigM);
+				assertEquals("Optimal", result.getStatus(), setting);
+				assertEquals(optimum, result.getObjectiveValue(), TOLERANCE, setting);
+				assertEquals(result.getObjectiveValue(), result.getSolution().getObjectiveValue(), 1e-6, setting);
+			}
+		}
+	}
+
+	/**
+	 * Solve an instance with the bundled solver.
+	 */
+	private static SolverResult solve(Instance instance, Formulation formulation, boolean lazyBigM) {
+		SolverOptions options = TestInstances.javaOptions();
+		options.setFormulation(formulation);
+		options.setLazyBigM(lazyBigM);
+		return new model(instance, options).solve();
+	}
+
+}
@@ -0,0 +1,36 @@
+package logic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Solves of small instances with known optima by branch-and-price, whose
+ * master LP is solved by the dual simplex of the bundled solver.
+ *
+ */
+class BranchAndPriceSolverTest {
+
+	@Test
+	void solvesInstancesToOptimality() {
+		assertOptimum(TestInstances.read("small", TestInstances.SMALL), TestInstances.SMALL_OPTIMUM);
+		assertOptimum(TestInstances.read("medium", TestInstances.MEDIUM), TestInstances.MEDIUM_OPTIMUM);
+		assertOptimum(TestInstances.tight(3), TestInstances.TIGHT_OPTIMUM);
+	}
+
+	@Test
+	void detectsInfeasibleInstance() {
+		SolverResult result = new BranchAndPriceSolver(TestInstances.tight(2), TestInstances.javaOptions()).solve();
+		assertEquals("Infeasible", result.getStatus());
+	}
+
+	/**
+	 * Solve an instance and compare the objective value with the optimum.
+	 */
+	private static void assertOptimum(Instance instance, double optimum) {
+		SolverResult result = new BranchAndPriceSolver(instance, TestInstances.javaOptions()).solve();
+		assertEquals("Optimal", result.getStatus(), instance.getName());
+		assertEquals(optimum, result.getObjectiveValue(), 1e-3, instance.getName());
+	}
+
+}
@@ -0,0 +1,141 @@
+package logic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Re-optimizations of the dispatcher over a day.
+ *
+ */
+class DynamicDispatcherTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void servesLateRequestAfterTourDurationOfFinishedVehicles() {
+		// The depots are open all day, every vehicle may drive 480 minutes.
+		DynamicDispatcher dispatcher = new DynamicDispatcher(TestInstances.random(8, 5, 1, 1440),
+				TestInstances.javaOptions());
+		assertSolved(dispatcher.reoptimize());
+
+		dispatcher.advanceTo(480);
+		dispatcher.addRequest(new Node(1, 1, 600, 615, 1, 3), new Node(2, 2, 0, 1440, -1, 3));
+		assertSolved(dispatcher.reoptimize());
+
+		// The vehicles of the morning are back at the depot for hours.
+		dispatcher.advanceTo(960);
+		assertSolved(dispatcher.reoptimize());
+	}
+
+	@Test
+	void dropsCancelledRequestFromKeptModel() {
+		DynamicDispatcher dispatcher = new DynamicDispatcher(TestInstances.read("small", TestInstances.SMALL),
+				TestInstances.javaOptions());
+		SolverResult first = dispatcher.reoptimize();
+		assertSolved(first);
+
+		int request = dispatcher.addRequest(new Node(0, 0, 100, 115, 1, 3), new Node(5, 5, 0, 480, -1, 3));
+		assertSolved(dispatcher.reoptimize());
+		assertTrue(isPlanned(dispatcher, 2 * request));
+
+		// Without the new request the plan of the first solve is optimal again.
+		assertTrue(dispatcher.cancelRequest(request));
+		SolverResult result = dispatcher.reoptimize();
+		assertSolved(result);
+		assertFalse(isPlanned(dispatcher, 2 * request));
+		assertFalse(isPlanned(dispatcher, 2 * request + 1));
+		assertEquals(first.getObjectiveValue(), result.getObjectiveValue(), 0.02 * first.getObjectiveValue());
+		dispatcher.end();
+	}
+
+	@Test
+	void readsDistancesOfNewRequestFromTravelMatrixFile() throws IOException {
+		Instance instance = TestInstances.read("small", TestInstances.SMALL);
+		Node pickup = new Node(0, 0, 100, 115, 1, 3);
+		Node dropOff = new Node(5, 5, 0, 480, -1, 3);
+		DynamicDispatcher metric = new DynamicDispatcher(instance, TestInstances.javaOptions());
+		metric.addRequest(pickup, dropOff);
+		SolverResult expected = metric.reoptimize();
+		assertSolved(expected);
+		metric.end();
+
+		// The file has half the Euclidean distances, so every plan of the
+		// metric is feasible with half its length. The new request is only
+		// in the file that is written after the first re-optimization.
+		String file = directory.resolve("locations.bin").toString();
+		writeHalfDistances(instance, null, null, file);
+		SolverOptions options = TestInstances.javaOptions();
+		options.setTravelMatrixFile(file);
+		DynamicDispatcher dispatcher = new DynamicDispatcher(instance, options);
+		assertSolved(dispatcher.reoptimize());
+		dispatcher.addRequest(pickup, dropOff);
+		writeHalfDistances(instance, pickup, dropOff, file);
+		SolverResult result = dispatcher.reoptimize();
+		assertSolved(result);
+		assertTrue(result.getObjectiveValue() <= 0.5 * expected.getObjectiveValue() * 1.02,
+				result.getObjectiveValue() + " > " + 0.5 * expected.getObjectiveValue());
+		dispatcher.end();
+	}
+
+	/**
+	 * Write half the Euclidean distances of the locations of a dispatcher of
+	 * the instance (origin, destination, the pick-up and drop-off of every
+	 * user and of the new request, if any).
+	 */
+	private static void writeHalfDistances(Instance instance, Node pickup, Node dropOff, String file)
+			throws IOException {
+		Node[] nodes = instance.createNodes();
+		int n = instance.getUsers();
+		Node[] locations = new Node[2 * n + (pickup == null ? 2 : 4)];
+		locations[0] = nodes[0];
+		locations[1] = nodes[2 * n + 1];
+		for (int i = 1; i <= n; i++) {
+			locations[2 * i] = nodes[i];
+			locations[2 * i + 1] = nodes[n + i];
+		}
+		if (pickup != null) {
+			locations[2 * n + 2] = pickup;
+			locations[2 * n + 3] = dropOff;
+		}
+		TravelMatrix matrix = TravelMatrix.compute(TravelMetric.EUCLIDEAN, locations, MatrixStorage.DOUBLE);
+		for (int i = 0; i < locations.length; i++) {
+			for (int j = 0; j < locations.length; j++) {
+				matrix.set(i, j, 0.5 * matrix.get(i, j));
+			}
+		}
+		matrix.write(file);
+	}
+
+	/**
+	 * Check whether a stop is in the plan of a vehicle.
+	 */
+	private static boolean isPlanned(DynamicDispatcher dispatcher, int stop) {
+		for (int k = 0; k < 2; k++) {
+			for (int planned : dispatcher.getStops(k)) {
+				if (planned == stop) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Check that a re-optimization found a plan.
+	 */
+	private static void assertSolved(SolverResult result) {
+		assertNotEquals("Infeasible", result.getStatus());
+		assertNotNull(result.getSolution());
+	}
+
+}
@@ -0,0 +1,64 @@
+package logic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Depot times of the routes extracted from both formulations.
+ *
+ */
+class SolutionExtractorTest {
+
+	@Test
+	void derivesDepotTimesOfEveryRouteInTwoIndexFormulation() {
+		assertDepotTimes(Formulation.TWO_INDEX);
+	}
+
+	@Test
+	void readsDepotTimesOfEveryVehicleInThreeIndexFormulation() {
+		assertDepotTimes(Formulation.THREE_INDEX);
+	}
+
+	/**
+	 * Solve the medium instance and check that every route leaves the
+	 * origin depot in time for its first stop, reaches the destination
+	 * depot after its last stop and keeps the maximum route duration. In
+	 * the two-index formulation the route leaves as late as possible.
+	 */
+	private static void assertDepotTimes(Formulation formulation) {
+		Instance instance = TestInstances.read("medium", TestInstances.MEDIUM);
+		Node[] nodes = instance.createNodes();
+		int n = instance.getUsers();
+		TravelMatrix t = TravelMatrix.compute(TravelMetric.EUCLIDEAN, nodes, MatrixStorage.DOUBLE);
+		SolverOptions options = TestInstances.javaOptions();
+		options.setFormulation(formulation);
+		Solution solution = new model(instance, options).solve().getSolution();
+
+		int used = 0;
+		for (int r = 0; r < solution.getRouteCount(); r++) {
+			int length = solution.getLength(r);
+			if (length == 0) {
+				continue;
+			}
+			used++;
+			int first = solution.getNode(r, 0);
+			int last = solution.getNode(r, length - 1);
+			double start = solution.getServiceStart(r, 0);
+			double end = solution.getServiceStart(r, length + 1);
+			double departure = solution.getServiceStart(r, 1) - t.get(0, first);
+			double arrival = solution.getServiceStart(r, length) + nodes[last].getServiceDuration()
+					+ t.get(last, 2 * n + 1);
+			assertTrue(start <= departure + 1e-6, "Route " + r + " leaves at " + start + " after " + departure);
+			assertTrue(end >= arrival - 1e-6, "Route " + r + " arrives at " + end + " before " + arrival);
+			assertTrue(solution.getDuration(r) <= instance.getMaxRouteDuration() + 1e-6);
+			if (formulation == Formulation.TWO_INDEX) {
+				assertEquals(Math.max(departure, nodes[0].getEarliestServiceTime()), start, 1e-6);
+				assertEquals(arrival, end, 1e-6);
+			}
+		}
+		assertEquals(2, used);
+	}
+
+}
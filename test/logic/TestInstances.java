@@ -0,0 +1,184 @@
+package logic;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Instances of the tests: Small instances in the format of Cordeau whose
+ * optimum is known and random instances like the ones of the benchmarks.
+ *
+ */
+final class TestInstances {
+
+	/**
+	 * 5 users and 2 vehicles, the optimum is {@link #SMALL_OPTIMUM}.
+	 */
+	static final String SMALL = "2 5 480 3 30\n"
+			+ "0 4.621 -8.580 0 0 0 480\n"
+			+ "1 -8.658 5.363 3 1 0 480\n"
+			+ "2 7.047 -2.944 3 1 394 409\n"
+			+ "3 -9.404 6.223 3 1 0 480\n"
+			+ "4 7.297 4.238 3 1 215 230\n"
+			+ "5 9.983 0.800 3 1 0 480\n"
+			+ "6 -0.416 0.851 3 -1 79 94\n"
+			+ "7 -0.731 6.203 3 -1 0 480\n"
+			+ "8 -1.882 -8.517 3 -1 226 241\n"
+			+ "9 8.525 4.610 3 -1 0 480\n"
+			+ "10 -7.807 -7.667 3 -1 326 341\n"
+			+ "11 -3.588 0.988 0 0 0 480\n";
+	/**
+	 * Optimal objective value of {@link #SMALL}.
+	 */
+	static final double SMALL_OPTIMUM = 131.9364;
+	/**
+	 * 6 users and 2 vehicles, the optimum is {@link #MEDIUM_OPTIMUM}.
+	 */
+	static final String MEDIUM = "2 6 480 3 30\n"
+			+ "0 4.612 8.374 0 0 0 480\n"
+			+ "1 8.372 3.591 3 1 0 480\n"
+			+ "2 -0.033 7.052 3 1 140 155\n"
+			+ "3 6.099 -6.975 3 1 0 480\n"
+			+ "4 -1.592 4.341 3 1 223 238\n"
+			+ "5 4.728 9.124 3 1 0 480\n"
+			+ "6 -7.413 2.891 3 1 170 185\n"
+			+ "7 5.031 -4.392 3 -1 162 177\n"
+			+ "8 -5.398 6.152 3 -1 0 480\n"
+			+ "9 5.184 5.628 3 -1 322 337\n"
+			+ "10 7.862 0.481 3 -1 0 480\n"
+			+ "11 -8.972 -3.064 3 -1 149 164\n"
+			+ "12 -0.396 8.132 3 -1 0 480\n"
+			+ "13 1.409 1.155 0 0 0 480\n";
+	/**
+	 * Optimal objective value of {@link #MEDIUM}.
+	 */
+	static final double MEDIUM_OPTIMUM = 91.5166;
+	/**
+	 * Optimal objective value of {@link #tight(int)} with 3 vehicles: Every
+	 * user needs an own vehicle, every route is 110 long.
+	 */
+	static final double TIGHT_OPTIMUM = 330;
+
+	private TestInstances() {
+	}
+
+	/**
+	 * Read an instance in the format of Cordeau.
+	 * @param name Name of the instance.
+	 * @param text The content of the instance file.
+	 * @return The instance.
+	 */
+	static Instance read(String name, String text) {
+		try {
+			return InstanceLoader.read(name, new StringReader(text));
+		} catch (IOException e) {
+			throw new IllegalStateException(name + " can not be read", e);
+		}
+	}
+
+	/**
+	 * Create an instance of 3 users that are picked up at the same time
+	 * 50 away from the depot in three directions, so no two of them fit
+	 * into one vehicle. It is infeasible with less than 3 vehicles.
+	 * @param vehicles Number of vehicles.
+	 * @return The instance.
+	 */
+	static Instance tight(int vehicles) {
+		double[] x = { 0, 50, -50, 0, 55, -55, 0, 0 };
+		double[] y = { 0, 0, 0, 50, 0, 0, 55, 0 };
+		int[] serviceDurations = { 0, 3, 3, 3, 3, 3, 3, 0 };
+		int[] loads = { 0, 1, 1, 1, -1, -1, -1, 0 };
+		double[] earliest = { 0, 100, 100, 100, 0, 0, 0, 0 };
+		double[] latest = { 1440, 105, 105, 105, 1440, 1440, 1440, 1440 };
+		return new Instance("tight", 3, vehicles, 480, 3, 30, x, y, serviceDurations, loads, earliest, latest);
+	}
+
+	/**
+	 * Create an instance of 1 user and 1 vehicle whose only route drives
+	 * 100 (25 to the pick-up, 50 to the drop-off, 25 back) within a tour
+	 * duration of 105. The depots stay open all day, so the tour duration
+	 * is part of the model. With a service duration of more than 5 at the
+	 * origin the instance is infeasible.
+	 * @param originService Service duration at the origin depot.
+	 * @return The instance.
+	 */
+	static Instance longRoute(int originService) {
+		double[] x = { 0, 25, -25, 0 };
+		double[] y = { 0, 0, 0, 0 };
+		int[] serviceDurations = { originService, 0, 0, 0 };
+		int[] loads = { 0, 1, -1, 0 };
+		double[] earliest = { 0, 0, 0, 0 };
+		double[] latest = { 1440, 1440, 1440, 1440 };
+		return new Instance("long-route", 1, 1, 105, 3, 100, x, y, serviceDurations, loads, earliest, latest);
+	}
+
+	/**
+	 * Create a random instance like the a-instances of Cordeau: The
+	 * locations are uniformly distributed in [-10, 10]^2, every user has one
+	 * seat and a window of 15 minutes at the pick-up or at the drop-off
+	 * within a day of 480 minutes.
+	 * @param users Number of users n.
+	 * @param vehicles Number of vehicles.
+	 * @param seed Seed of the random locations and time windows.
+	 * @return The instance.
+	 */
+	static Instance random(int users, int vehicles, long seed) {
+		return random(users, vehicles, seed, 480);
+	}
+
+	/**
+	 * Create a random instance like {@link #random(int, int, long)} whose
+	 * depots stay open longer than the maximum route duration of 480.
+	 * @param users Number of users n.
+	 * @param vehicles Number of vehicles.
+	 * @param seed Seed of the random locations and time windows.
+	 * @param closing Latest service time of the depots.
+	 * @return The instance.
+	 */
+	static Instance random(int users, int vehicles, long seed, int closing) {
+		Random random = new Random(seed);
+		StringBuilder text = new StringBuilder();
+		text.append(vehicles).append(' ').append(users).append(" 480 3 30\n");
+		double[] windows = new double[users + 1];
+		for (int i = 0; i <= 2 * users + 1; i++) {
+			double x = random.nextDouble() * 20 - 10;
+			double y = random.nextDouble() * 20 - 10;
+			int serviceDuration = 3;
+			int load;
+			double earliest;
+			double latest;
+			if (i == 0 || i == 2 * users + 1) {
+				serviceDuration = 0;
+				load = 0;
+				earliest = 0;
+				latest = closing;
+			} else if (i <= users) {
+				load = 1;
+				windows[i] = 60 + random.nextInt(360);
+				earliest = i % 2 == 0 ? windows[i] : 0;
+				latest = i % 2 == 0 ? windows[i] + 15 : 480;
+			} else {
+				load = -1;
+				int user = i - users;
+				earliest = user % 2 == 1 ? windows[user] : 0;
+				latest = user % 2 == 1 ? windows[user] + 15 : 480;
+			}
+			text.append(String.format(Locale.ROOT, "%d %.3f %.3f %d %d %.0f %.0f%n", i, x, y, serviceDuration, load,
+					earliest, latest));
+		}
+		return read("random-" + users + "-" + vehicles, text.toString());
+	}
+
+	/**
+	 * Create the options of a quiet solve with the bundled solver.
+	 * @return The options.
+	 */
+	static SolverOptions javaOptions() {
+		SolverOptions options = new SolverOptions();
+		options.setBackend(Backend.JAVA);
+		options.setVerbose(false);
+		return options;
+	}
+
+}
@@ -0,0 +1,100 @@
+package logic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Round trips of the travel matrix through the binary file in every storage.
+ *
+ */
+class TravelMatrixTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void roundTripsDoubleMatrix() throws IOException {
+		assertRoundTrip(MatrixStorage.DOUBLE, MatrixStorage.DOUBLE, 0);
+	}
+
+	@Test
+	void roundTripsFloatMatrix() throws IOException {
+		assertRoundTrip(MatrixStorage.FLOAT, MatrixStorage.FLOAT, 0);
+	}
+
+	@Test
+	void roundTripsScaledMatrix() throws IOException {
+		assertRoundTrip(MatrixStorage.SCALED_INT, MatrixStorage.SCALED_INT, 0);
+	}
+
+	@Test
+	void writesLazyMatrixWithDoubleValues() throws IOException {
+		assertRoundTrip(MatrixStorage.LAZY, MatrixStorage.DOUBLE, 1e-12);
+	}
+
+	@Test
+	void copiesSubMatrix() {
+		TravelMatrix matrix = TravelMatrix.compute(TravelMetric.MANHATTAN, nodes(), MatrixStorage.FLOAT);
+		int[] nodes = { 0, 3, 5, 9, 11, 13 };
+		TravelMatrix sub = matrix.subMatrix(nodes);
+		assertEquals(MatrixStorage.FLOAT, sub.getStorage());
+		assertEquals(nodes.length, sub.getSize());
+		for (int i = 0; i < nodes.length; i++) {
+			for (int j = 0; j < nodes.length; j++) {
+				assertEquals(matrix.get(nodes[i], nodes[j]), sub.get(i, j), i + " -> " + j);
+			}
+		}
+	}
+
+	@Test
+	void rejectsTruncatedFile() throws IOException {
+		TravelMatrix matrix = TravelMatrix.compute(TravelMetric.EUCLIDEAN, nodes(), MatrixStorage.DOUBLE);
+		final String file = new File(directory.toFile(), "truncated.bin").getPath();
+		matrix.write(file);
+		try (FileOutputStream out = new FileOutputStream(file, true)) {
+			out.write(0);
+		}
+		assertThrows(IOException.class, new Executable() {
+			@Override
+			public void execute() throws Throwable {
+				TravelMatrix.read(file);
+			}
+		});
+	}
+
+	/**
+	 * Write a computed matrix and compare the read matrix with it. Float and
+	 * scaled values are written as stored, so they are read back exactly.
+	 */
+	private void assertRoundTrip(MatrixStorage storage, MatrixStorage readStorage, double tolerance)
+			throws IOException {
+		TravelMatrix matrix = TravelMatrix.compute(TravelMetric.EUCLIDEAN, nodes(), storage);
+		String file = new File(directory.toFile(), storage + ".bin").getPath();
+		matrix.write(file);
+		TravelMatrix read = TravelMatrix.read(file);
+		assertEquals(readStorage, read.getStorage());
+		assertEquals(matrix.getSize(), read.getSize());
+		for (int i = 0; i < matrix.getSize(); i++) {
+			for (int j = 0; j < matrix.getSize(); j++) {
+				assertEquals(matrix.get(i, j), read.get(i, j), tolerance, i + " -> " + j);
+			}
+		}
+	}
+
+	/**
+	 * Get the nodes of a small instance.
+	 */
+	private static Node[] nodes() {
+		return TestInstances.read("medium", TestInstances.MEDIUM).createNodes();
+	}
+
+}
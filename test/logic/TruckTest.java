@@ -0,0 +1,42 @@
+package logic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+/**
+ * Travel times of vehicles with own depots.
+ *
+ */
+class TruckTest {
+
+	@Test
+	void readsTravelTimesOfInstanceDepotFromMatrix() {
+		Node[] nodes = TestInstances.read("small", TestInstances.SMALL).createNodes();
+		TravelMatrix t = TravelMatrix.compute(TravelMetric.EUCLIDEAN, nodes, MatrixStorage.SCALED_INT);
+		Truck truck = new Truck(3, 480, new Node(1, 2, 0, 480, 0, 0), null);
+		truck.computeDepotTravelTimes(nodes, t, TravelMetric.EUCLIDEAN);
+		int last = nodes.length - 1;
+		for (int i = 1; i < last; i++) {
+			assertEquals(t.get(i, last), truck.travel(t, i, last));
+			assertEquals(Math.hypot(nodes[i].getxPosition() - 1, nodes[i].getyPosition() - 2), truck.travel(t, 0, i),
+					1e-12);
+		}
+	}
+
+	@Test
+	void rejectsMovedDepotWithoutMetric() {
+		final Node[] nodes = TestInstances.read("small", TestInstances.SMALL).createNodes();
+		final TravelMatrix t = TravelMatrix.compute(TravelMetric.EUCLIDEAN, nodes, MatrixStorage.DOUBLE);
+		final Truck truck = new Truck(3, 480, null, new Node(1, 2, 0, 480, 0, 0));
+		assertThrows(IllegalArgumentException.class, new Executable() {
+			@Override
+			public void execute() throws Throwable {
+				truck.computeDepotTravelTimes(nodes, t, null);
+			}
+		});
+	}
+
+}